@@ -3,6 +3,7 @@ package com.satyacheck.android.domain.cache
 import android.content.Context
 import com.satyacheck.android.domain.model.AnalysisResult
 import com.satyacheck.android.domain.model.Verdict
+import com.satyacheck.android.utils.ContentNormalizer
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.withContext
 import org.json.JSONObject
@@ -28,7 +29,7 @@ class AnalysisCache @Inject constructor(
      * Generate hash key for content
      */
     private fun generateCacheKey(content: String, analysisType: String): String {
-        val input = "$analysisType:$content"
+        val input = "$analysisType:${ContentNormalizer.normalize(content)}"
         val bytes = MessageDigest.getInstance("SHA-256").digest(input.toByteArray())
         return bytes.joinToString("") { "%02x".format(it) }.take(32)
     }
@@ -73,8 +73,9 @@ class AnalysisCache @Inject constructor(
     }
     
     private fun generateKey(text: String): String {
-        return MessageDigest.getInstance("MD5")
-            .digest(text.toLowerCase().trim().toByteArray())
+        return MessageDigest.getInstance("SHA-256")
+            .digest(ContentNormalizer.normalize(text).toByteArray())
+            .take(16)
             .joinToString("") { "%02x".format(it) }
     }
     
@@ -3,6 +3,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.4"
     kotlin("jvm") version "1.9.20"
     kotlin("plugin.spring") version "1.9.20"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.satyacheck"
@@ -20,12 +21,15 @@ dependencies {
     // Spring Boot
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-data-mongodb")
+    // Reactive driver behind the CoroutineCrudRepository variants used on request paths
+    implementation("org.springframework.boot:spring-boot-starter-data-mongodb-reactive")
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-webflux")
     implementation("org.springframework.boot:spring-boot-starter-cache")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("com.github.ben-manes.caffeine:caffeine:3.1.8")
+    implementation("org.jsoup:jsoup:1.17.1")
     implementation("io.jsonwebtoken:jjwt-api:0.11.5")
     runtimeOnly("io.jsonwebtoken:jjwt-impl:0.11.5")
     runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.11.5")
@@ -44,7 +48,7 @@ dependencies {
     implementation("org.jetbrains.kotlinx:kotlinx-coroutines-reactor")
     
     // Google Cloud
-    implementation("com.google.cloud:google-cloud-language:2.30.0")
+    implementation("com.google.cloud:google-cloud-language:2.31.0")
     implementation("com.google.cloud:google-cloud-translate:2.30.0")
     implementation("com.google.cloud:google-cloud-vision:3.20.0")
     implementation("com.google.auth:google-auth-library-oauth2-http:1.20.0")
@@ -72,6 +76,42 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Load tests in src/loadTest: the application against in-process stand-ins for Gemini,
+// Natural Language and web pages, checked against the baselines in src/loadTest/resources/baselines.
+// Not part of check, since a run takes minutes and needs Docker: CI runs ./gradlew loadTest itself
+sourceSets {
+    create("loadTest") {
+        compileClasspath += sourceSets.main.get().output + sourceSets.test.get().compileClasspath
+        runtimeClasspath += output + compileClasspath + sourceSets.test.get().runtimeClasspath
+    }
+}
+
+val loadTest by tasks.registering(Test::class) {
+    description = "Replays the recorded traffic mix against stubbed upstreams and compares latencies with the baselines"
+    group = "verification"
+    testClassesDirs = sourceSets["loadTest"].output.classesDirs
+    classpath = sourceSets["loadTest"].runtimeClasspath
+    shouldRunAfter(tasks.test)
+    // Load numbers are only comparable when the run is not cached
+    outputs.upToDateWhen { false }
+    systemProperty("loadtest.baselines-dir", file("src/loadTest/resources/baselines").absolutePath)
+    systemProperty("loadtest.reports-dir", layout.buildDirectory.dir("reports/loadtest").get().asFile.absolutePath)
+    listOf(
+        "loadtest.update-baselines", "loadtest.requests", "loadtest.concurrency", "loadtest.tolerance", "loadtest.mongodb-uri"
+    ).forEach { name ->
+        System.getProperty(name)?.let { systemProperty(name, it) }
+    }
+}
+
+// Microbenchmarks in src/jmh, run with ./gradlew jmh
+jmh {
+    jmhVersion.set("1.37")
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
 tasks.bootRun {
     environment("GOOGLE_APPLICATION_CREDENTIALS", System.getenv("GOOGLE_APPLICATION_CREDENTIALS") ?: "path/to/your/credentials.json")
     environment("NATURAL_LANGUAGE_API_KEY", System.getenv("NATURAL_LANGUAGE_API_KEY") ?: "your-natural-language-api-key")
@@ -0,0 +1,98 @@
+package com.satyacheck.backend.service.api
+
+import com.fasterxml.jackson.core.type.TypeReference
+import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Decoding a generateContent fact-check response: the former Map<String, Any> plus regex
+ * path against typed envelope DTOs and [GeminiJsonExtractor].
+ *
+ * Run with ./gradlew jmh; the gc profiler reports gc.alloc.rate.norm, the bytes
+ * allocated per decoded response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+open class GeminiResponseParsingBenchmark {
+
+    private val objectMapper = jacksonObjectMapper()
+    private val extractor = GeminiJsonExtractor(objectMapper)
+
+    /**
+     * Length of the generated explanation in characters
+     */
+    @Param("300", "3000")
+    @JvmField
+    var explanationLength: Int = 0
+
+    /**
+     * Whether the model wrapped its JSON in a markdown code fence
+     */
+    @Param("false", "true")
+    @JvmField
+    var fenced: Boolean = false
+
+    private lateinit var body: String
+
+    @Setup
+    fun setup() {
+        val explanation = "The message claims a government scheme gives away free laptops. ".repeat(explanationLength / 64 + 1)
+            .take(explanationLength)
+        val generated = objectMapper.writeValueAsString(mapOf("verdict" to "SCAM_ALERT", "explanation" to explanation))
+        val text = if (fenced) "```json\n$generated\n```" else generated
+        body = objectMapper.writeValueAsString(
+            mapOf(
+                "candidates" to listOf(
+                    mapOf(
+                        "content" to mapOf("parts" to listOf(mapOf("text" to text)), "role" to "model"),
+                        "finishReason" to "STOP",
+                        "safetyRatings" to listOf(mapOf("category" to "HARM_CATEGORY_HARASSMENT", "probability" to "NEGLIGIBLE"))
+                    )
+                ),
+                "usageMetadata" to mapOf("promptTokenCount" to 412, "candidatesTokenCount" to 180, "totalTokenCount" to 592)
+            )
+        )
+    }
+
+    /**
+     * The previous GeminiService path: whole body into nested maps, a regex compiled per call
+     * to find the object, then a second parse of the match
+     */
+    @Benchmark
+    @Suppress("UNCHECKED_CAST")
+    fun mapAndRegex(): Pair<String, String>? {
+        val response = objectMapper.readValue(body, object : TypeReference<Map<String, Any>>() {})
+        val candidates = response["candidates"] as? List<Map<String, Any>>
+        val content = candidates?.firstOrNull()?.get("content") as? Map<String, Any>
+        val parts = content?.get("parts") as? List<Map<String, Any>>
+        val text = parts?.firstOrNull()?.get("text") as? String ?: return null
+
+        val jsonPattern = "\\{\"verdict\":.+\"explanation\":.+\\}".toRegex()
+        val jsonContent = jsonPattern.find(text)?.value ?: text
+        val resultMap = objectMapper.readValue(jsonContent, Map::class.java) as Map<String, String>
+        return Pair(resultMap["verdict"] ?: return null, resultMap["explanation"] ?: return null)
+    }
+
+    /**
+     * The current path: typed envelope, then a single streaming pass over the generated text
+     */
+    @Benchmark
+    fun typedSinglePass(): Pair<String, String>? {
+        val text = objectMapper.readValue(body, GenerateContentResponse::class.java).text() ?: return null
+        val output = extractor.extractObject(text, FACT_CHECK_OUTPUT) ?: return null
+        return Pair(output.verdict ?: return null, output.explanation ?: return null)
+    }
+
+    companion object {
+        private val FACT_CHECK_OUTPUT = object : TypeReference<FactCheckOutput>() {}
+    }
+}
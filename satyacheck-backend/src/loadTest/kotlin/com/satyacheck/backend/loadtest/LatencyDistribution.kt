@@ -0,0 +1,62 @@
+package com.satyacheck.backend.loadtest
+
+import kotlin.math.cos
+import kotlin.math.exp
+import kotlin.math.ln
+import kotlin.math.sqrt
+import kotlin.random.Random
+
+/**
+ * How long a stubbed upstream takes to answer
+ */
+sealed interface LatencyDistribution {
+
+    fun sampleMs(random: Random): Long
+
+    data class Fixed(val ms: Long) : LatencyDistribution {
+        override fun sampleMs(random: Random): Long = ms
+    }
+
+    data class Uniform(val minMs: Long, val maxMs: Long) : LatencyDistribution {
+        override fun sampleMs(random: Random): Long = random.nextLong(minMs, maxMs + 1)
+    }
+
+    /**
+     * Log-normal latency given by its median and 99th percentile, which gives the long tail
+     * seen from Gemini: most calls near the median, a few many times slower
+     */
+    data class LogNormal(val medianMs: Long, val p99Ms: Long) : LatencyDistribution {
+        private val mu = ln(medianMs.toDouble())
+        private val sigma = (ln(p99Ms.toDouble()) - mu) / Z_99
+
+        override fun sampleMs(random: Random): Long = exp(mu + sigma * gaussian(random)).toLong()
+
+        private fun gaussian(random: Random): Double {
+            // Box-Muller
+            val u1 = random.nextDouble().coerceAtLeast(Double.MIN_VALUE)
+            val u2 = random.nextDouble()
+            return sqrt(-2.0 * ln(u1)) * cos(2.0 * Math.PI * u2)
+        }
+
+        companion object {
+            private const val Z_99 = 2.3263
+        }
+    }
+}
+
+/**
+ * Latency and failures injected by one route of the [StubServer]
+ *
+ * @param errorRate Share of requests answered with 500
+ * @param rateLimitRate Share of requests answered with 429 and a Retry-After header
+ */
+data class FaultProfile(
+    val latency: LatencyDistribution,
+    val errorRate: Double = 0.0,
+    val rateLimitRate: Double = 0.0,
+    val retryAfterSeconds: Int = 1
+) {
+    companion object {
+        val NONE = FaultProfile(LatencyDistribution.Fixed(0))
+    }
+}
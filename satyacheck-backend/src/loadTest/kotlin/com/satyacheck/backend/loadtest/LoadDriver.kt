@@ -0,0 +1,116 @@
+package com.satyacheck.backend.loadtest
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import java.net.URI
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+import java.time.Duration
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.logging.Logger
+
+/**
+ * Replays a [TrafficMix] against the running application with a fixed number of
+ * concurrent clients (closed model: each client sends its next request when the previous
+ * one has completed) and measures every request end to end.
+ */
+class LoadDriver(
+    private val applicationUrl: String,
+    private val mix: TrafficMix,
+    private val stub: StubServer,
+    private val objectMapper: ObjectMapper,
+    private val accessToken: String?,
+    private val seed: Long = 42
+) {
+    private val logger = Logger.getLogger(LoadDriver::class.java.name)
+
+    private val client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .version(HttpClient.Version.HTTP_1_1)
+        .build()
+
+    private data class Sample(val scenario: String, val latencyMs: Long, val success: Boolean)
+
+    /**
+     * Send [warmupRequests] unmeasured requests, then [requests] measured ones
+     */
+    fun run(requests: Int, concurrency: Int, warmupRequests: Int = 0): LoadReport {
+        if (warmupRequests > 0) {
+            execute(0, warmupRequests, concurrency)
+        }
+        val started = System.nanoTime()
+        val samples = execute(warmupRequests, requests, concurrency)
+        val durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)
+
+        val scenarios = samples.groupBy { it.scenario }.toSortedMap().mapValues { (_, list) ->
+            val sorted = list.map { it.latencyMs }.toLongArray().also { it.sort() }
+            LoadReport.ScenarioStats(
+                requests = list.size,
+                errors = list.count { !it.success },
+                p50Ms = LoadReport.percentile(sorted, 0.50),
+                p95Ms = LoadReport.percentile(sorted, 0.95),
+                p99Ms = LoadReport.percentile(sorted, 0.99)
+            )
+        }
+        return LoadReport(
+            requests = samples.size,
+            durationMs = durationMs,
+            throughputPerSecond = samples.size * 1000.0 / durationMs.coerceAtLeast(1),
+            scenarios = scenarios
+        )
+    }
+
+    private fun execute(firstIndex: Int, count: Int, concurrency: Int): List<Sample> {
+        val samples = ConcurrentLinkedQueue<Sample>()
+        val next = AtomicInteger(firstIndex)
+        val end = firstIndex + count
+        val executor = Executors.newFixedThreadPool(concurrency)
+        repeat(concurrency) {
+            executor.submit {
+                while (true) {
+                    val index = next.getAndIncrement()
+                    if (index >= end) {
+                        break
+                    }
+                    samples += send(mix.request(index, seed, stub, objectMapper))
+                }
+            }
+        }
+        executor.shutdown()
+        if (!executor.awaitTermination(REQUEST_TIMEOUT.multipliedBy(count / concurrency + 1L).toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow()
+            throw IllegalStateException("Load run did not finish")
+        }
+        return samples.toList()
+    }
+
+    private fun send(request: TrafficMix.Request): Sample {
+        val builder = HttpRequest.newBuilder(URI.create(applicationUrl + request.pathAndQuery))
+            .timeout(REQUEST_TIMEOUT)
+            .method(
+                request.method,
+                request.body?.let { HttpRequest.BodyPublishers.ofString(it) } ?: HttpRequest.BodyPublishers.noBody()
+            )
+        if (request.body != null) {
+            builder.header("Content-Type", "application/json")
+        }
+        accessToken?.let { builder.header("Authorization", "Bearer $it") }
+
+        val started = System.nanoTime()
+        val success = try {
+            // The whole body is read, so streamed responses are measured to their last event
+            client.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode() in 200..299
+        } catch (e: Exception) {
+            logger.warning("${request.scenario} failed: ${e.message}")
+            false
+        }
+        return Sample(request.scenario, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), success)
+    }
+
+    companion object {
+        private val REQUEST_TIMEOUT: Duration = Duration.ofSeconds(60)
+    }
+}
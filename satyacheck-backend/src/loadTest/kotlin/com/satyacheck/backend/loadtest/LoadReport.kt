@@ -0,0 +1,105 @@
+package com.satyacheck.backend.loadtest
+
+/**
+ * Throughput and latency percentiles of one load run, overall and per scenario
+ */
+data class LoadReport(
+    val requests: Int,
+    val durationMs: Long,
+    val throughputPerSecond: Double,
+    val scenarios: Map<String, ScenarioStats>
+) {
+    data class ScenarioStats(
+        val requests: Int,
+        val errors: Int,
+        val p50Ms: Long,
+        val p95Ms: Long,
+        val p99Ms: Long
+    ) {
+        val errorRate: Double
+            get() = if (requests == 0) 0.0 else errors.toDouble() / requests
+    }
+
+    /**
+     * How this run is worse than [baseline], one line per regression
+     *
+     * Latency percentiles may grow by [tolerance] plus [slackMs], so that small absolute
+     * jitter on fast endpoints does not count; throughput may drop by [tolerance]; error
+     * rates may grow by [errorRateSlack]. Scenarios missing from the baseline are skipped,
+     * and so are percentiles with fewer than [minTailSamples] requests beyond them: the p99
+     * of a scenario with 100 requests is its slowest request, and varies run to run with it.
+     */
+    fun regressionsAgainst(
+        baseline: LoadReport,
+        tolerance: Double,
+        slackMs: Long = 25,
+        errorRateSlack: Double = 0.02,
+        minTailSamples: Int = 5
+    ): List<String> {
+        val regressions = mutableListOf<String>()
+        if (throughputPerSecond < baseline.throughputPerSecond * (1 - tolerance)) {
+            regressions += "throughput %.1f/s is below the baseline %.1f/s".format(throughputPerSecond, baseline.throughputPerSecond)
+        }
+        for ((name, stats) in scenarios) {
+            val base = baseline.scenarios[name] ?: continue
+            listOf(
+                Percentile("p50", 0.50, stats.p50Ms, base.p50Ms),
+                Percentile("p95", 0.95, stats.p95Ms, base.p95Ms),
+                Percentile("p99", 0.99, stats.p99Ms, base.p99Ms)
+            ).forEach { (percentile, rank, current, limit) ->
+                val tailSamples = minOf(stats.requests, base.requests) * (1 - rank)
+                if (tailSamples >= minTailSamples && current > limit * (1 + tolerance) + slackMs) {
+                    regressions += "$name $percentile ${current}ms exceeds the baseline ${limit}ms"
+                }
+            }
+            if (stats.errorRate > base.errorRate + errorRateSlack) {
+                regressions += "$name error rate %.3f exceeds the baseline %.3f".format(stats.errorRate, base.errorRate)
+            }
+        }
+        return regressions
+    }
+
+    /**
+     * This baseline widened by [run]: the lower throughput, and per scenario the higher
+     * percentiles and error rate of the two, so that a baseline built from a few runs
+     * covers their run-to-run noise
+     */
+    fun widenedBy(run: LoadReport): LoadReport {
+        val names = scenarios.keys + run.scenarios.keys
+        return copy(
+            durationMs = maxOf(durationMs, run.durationMs),
+            throughputPerSecond = minOf(throughputPerSecond, run.throughputPerSecond),
+            scenarios = names.sorted().associateWith { name ->
+                val stats = listOfNotNull(scenarios[name], run.scenarios[name])
+                stats.maxBy { it.errorRate }.copy(
+                    p50Ms = stats.maxOf { it.p50Ms },
+                    p95Ms = stats.maxOf { it.p95Ms },
+                    p99Ms = stats.maxOf { it.p99Ms }
+                )
+            }
+        )
+    }
+
+    private data class Percentile(val name: String, val rank: Double, val currentMs: Long, val baselineMs: Long)
+
+    fun summary(): String = buildString {
+        appendLine("%d requests in %d ms, %.1f requests/s".format(requests, durationMs, throughputPerSecond))
+        appendLine("%-28s %8s %7s %8s %8s %8s".format("scenario", "requests", "errors", "p50 ms", "p95 ms", "p99 ms"))
+        scenarios.forEach { (name, s) ->
+            appendLine("%-28s %8d %7d %8d %8d %8d".format(name, s.requests, s.errors, s.p50Ms, s.p95Ms, s.p99Ms))
+        }
+    }
+
+    companion object {
+        /**
+         * Nearest-rank percentile of sorted latencies
+         */
+        fun percentile(sortedMs: LongArray, p: Double): Long {
+            if (sortedMs.isEmpty()) {
+                return 0
+            }
+            val rank = Math.ceil(p * sortedMs.size).toInt().coerceIn(1, sortedMs.size)
+            return sortedMs[rank - 1]
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.satyacheck.backend.loadtest
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import com.fasterxml.jackson.module.kotlin.readValue
+import com.satyacheck.backend.SatyacheckBackendApplication
+import org.junit.jupiter.api.AfterAll
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.test.web.server.LocalServerPort
+import org.springframework.test.context.DynamicPropertyRegistry
+import org.springframework.test.context.DynamicPropertySource
+import org.testcontainers.containers.MongoDBContainer
+import org.testcontainers.utility.DockerImageName
+import java.io.File
+import java.net.URI
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+import java.util.UUID
+import java.util.logging.Logger
+import kotlin.test.assertTrue
+
+/**
+ * Replays the traffic mix against the application wired to [StubServer] instead
+ * of Gemini, Natural Language and the web, and fails when throughput, latency percentiles
+ * or error rates regress beyond the tolerance against the stored baseline.
+ *
+ * Run with ./gradlew loadTest, which needs Docker for MongoDB unless
+ * loadtest.mongodb-uri is given; it is not part of check. System properties:
+ * - loadtest.requests, loadtest.concurrency: size of the measured run
+ * - loadtest.tolerance: allowed relative regression, 0.25 by default
+ * - loadtest.mongodb-uri: use this MongoDB instead of starting a container
+ * - loadtest.update-baselines=true: store this run as the new baseline instead of comparing
+ * - loadtest.update-baselines=widen: widen the stored baseline by this run instead of
+ *   comparing, see [LoadReport.widenedBy]
+ *
+ * A missing baseline fails the run; baselines are only written on request.
+ */
+@SpringBootTest(classes = [SatyacheckBackendApplication::class], webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RecordedMixLoadTest {
+
+    @LocalServerPort
+    private var port: Int = 0
+
+    @Autowired
+    private lateinit var objectMapper: ObjectMapper
+
+    private val logger = Logger.getLogger(RecordedMixLoadTest::class.java.name)
+
+    @Test
+    fun `recorded traffic mix stays within the baseline`() {
+        val mix = TrafficMix.load("/traffic/recorded-mix.json", objectMapper)
+        val driver = LoadDriver("http://localhost:$port", mix, STUB, objectMapper, register())
+
+        val report = driver.run(
+            requests = System.getProperty("loadtest.requests")?.toInt() ?: DEFAULT_REQUESTS,
+            concurrency = System.getProperty("loadtest.concurrency")?.toInt() ?: DEFAULT_CONCURRENCY,
+            warmupRequests = WARMUP_REQUESTS
+        )
+        logger.info("Load run:\n${report.summary()}Stub requests: ${STUB.counts()}")
+        write(File(reportsDir(), BASELINE_FILE), report)
+
+        val baselineFile = File(baselinesDir(), BASELINE_FILE)
+        val update = System.getProperty("loadtest.update-baselines")
+        if (update == "true") {
+            write(baselineFile, report)
+            logger.warning("Stored this run as the baseline in $baselineFile")
+            return
+        }
+        check(baselineFile.exists()) {
+            "No baseline at $baselineFile; record one with -Dloadtest.update-baselines=true and commit it"
+        }
+
+        val baseline = objectMapper.readValue<LoadReport>(baselineFile)
+        if (update == "widen") {
+            write(baselineFile, baseline.widenedBy(report))
+            logger.warning("Widened the baseline in $baselineFile by this run")
+            return
+        }
+        val tolerance = System.getProperty("loadtest.tolerance")?.toDouble() ?: DEFAULT_TOLERANCE
+        val regressions = report.regressionsAgainst(baseline, tolerance)
+        assertTrue(regressions.isEmpty(), "Load test regressions against $baselineFile:\n${regressions.joinToString("\n")}")
+    }
+
+    /**
+     * Register a throwaway user and return its access token
+     */
+    private fun register(): String {
+        val username = "load${UUID.randomUUID().toString().take(8)}"
+        val body = objectMapper.writeValueAsString(
+            mapOf(
+                "username" to username,
+                "password" to UUID.randomUUID().toString(),
+                "email" to "$username@loadtest.local",
+                "name" to "Load Test"
+            )
+        )
+        val request = HttpRequest.newBuilder(URI.create("http://localhost:$port/api/auth/register"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build()
+        val response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString())
+        return objectMapper.readTree(response.body()).path("data").path("accessToken").asText()
+            .ifEmpty { throw IllegalStateException("Registration failed: ${response.statusCode()} ${response.body()}") }
+    }
+
+    private fun write(file: File, report: LoadReport) {
+        file.parentFile.mkdirs()
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report)
+    }
+
+    private fun baselinesDir() = File(System.getProperty("loadtest.baselines-dir") ?: "src/loadTest/resources/baselines")
+
+    private fun reportsDir() = File(System.getProperty("loadtest.reports-dir") ?: "build/reports/loadtest")
+
+    companion object {
+        private const val BASELINE_FILE = "recorded-mix.json"
+        private const val DEFAULT_REQUESTS = 1200
+        private const val DEFAULT_CONCURRENCY = 16
+        private const val WARMUP_REQUESTS = 100
+        private const val DEFAULT_TOLERANCE = 0.25
+
+        private val MONGO_URI: String = System.getProperty("loadtest.mongodb-uri")
+            ?: MongoDBContainer(DockerImageName.parse("mongo:6.0")).apply { start() }.replicaSetUrl
+
+        // Gemini latency with a long tail, kept short enough for runs to take minutes
+        private val STUB = StubServer(
+            gemini = FaultProfile(LatencyDistribution.LogNormal(medianMs = 300, p99Ms = 3000), errorRate = 0.01, rateLimitRate = 0.02),
+            naturalLanguage = FaultProfile(LatencyDistribution.Uniform(40, 120)),
+            webPages = FaultProfile(LatencyDistribution.Uniform(20, 80)),
+            objectMapper = jacksonObjectMapper()
+        ).start()
+
+        @JvmStatic
+        @DynamicPropertySource
+        fun properties(registry: DynamicPropertyRegistry) {
+            registry.add("spring.data.mongodb.uri") { MONGO_URI }
+            registry.add("gemini.gateway.base-url") { STUB.baseUrl }
+            registry.add("google.cloud.natural-language.endpoint") { STUB.baseUrl }
+            registry.add("google.cloud.gemini.api-key") { "load-test" }
+        }
+
+        @JvmStatic
+        @AfterAll
+        fun stopStub() {
+            STUB.close()
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.satyacheck.backend.loadtest
+
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.JsonNodeFactory
+import kotlin.random.Random
+
+/**
+ * Generates a JSON value that follows a Gemini responseSchema, so the stub answers every
+ * structured-output request (fact-check, fused, category, topics, ...) with output the
+ * application accepts, without knowing which operation sent it
+ */
+class SchemaSampler(private val objectMapper: ObjectMapper) {
+
+    private val nodes = JsonNodeFactory.instance
+
+    fun sample(schema: JsonNode, random: Random): JsonNode {
+        return when (schema.path("type").asText()) {
+            "OBJECT" -> nodes.objectNode().also { node ->
+                schema.path("properties").fields().forEach { (name, property) ->
+                    node.set<JsonNode>(name, sampleProperty(name, property, random))
+                }
+            }
+            "ARRAY" -> nodes.arrayNode().also { node ->
+                repeat(ARRAY_ITEMS) { node.add(sample(schema.path("items"), random)) }
+            }
+            else -> sampleProperty("value", schema, random)
+        }
+    }
+
+    /**
+     * The sampled value as the text a model would return
+     */
+    fun sampleText(schema: JsonNode, random: Random): String = objectMapper.writeValueAsString(sample(schema, random))
+
+    private fun sampleProperty(name: String, schema: JsonNode, random: Random): JsonNode {
+        val enumValues = schema.path("enum")
+        if (enumValues.isArray && enumValues.size() > 0) {
+            return enumValues[random.nextInt(enumValues.size())]
+        }
+        return when (schema.path("type").asText()) {
+            "OBJECT", "ARRAY" -> sample(schema, random)
+            "NUMBER" -> nodes.numberNode(0.5 + random.nextDouble() * 0.49)
+            "INTEGER" -> nodes.numberNode(random.nextInt(1, 10))
+            "BOOLEAN" -> nodes.booleanNode(random.nextBoolean())
+            else -> nodes.textNode(TEXT.getOrDefault(name, "Stub $name ${random.nextInt(1000)}"))
+        }
+    }
+
+    companion object {
+        private const val ARRAY_ITEMS = 2
+
+        private val TEXT = mapOf(
+            "explanation" to "The claim could not be traced to any official source and matches a pattern " +
+                "seen in earlier forwards. Check the original announcement before sharing it.",
+            "rationale" to "The claim has no official source."
+        )
+    }
+}
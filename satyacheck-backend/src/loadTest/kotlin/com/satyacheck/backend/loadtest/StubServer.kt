@@ -0,0 +1,206 @@
+package com.satyacheck.backend.loadtest
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.satyacheck.backend.service.api.GenerateContentResponse
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.random.Random
+
+/**
+ * In-process stand-in for the upstreams the application calls, on a random local port:
+ * - Gemini generateContent and streamGenerateContent, answering with JSON that follows the
+ *   responseSchema of each request
+ * - the Natural Language REST API (analyzeSentiment, analyzeEntities)
+ * - web pages under /pages/{id}, for URL analysis
+ *
+ * Each upstream has its own [FaultProfile] for latency, 500s and 429s. The draws for a
+ * request come from [seed], the request itself and how many times the same request was
+ * seen before, so a run injects the same faults into the same requests every time,
+ * whatever order concurrent requests arrive in.
+ */
+class StubServer(
+    private val gemini: FaultProfile,
+    private val naturalLanguage: FaultProfile,
+    private val webPages: FaultProfile,
+    private val objectMapper: ObjectMapper,
+    private val seed: Long = 42
+) : AutoCloseable {
+    private val server = HttpServer.create(InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0)
+    private val executor: ExecutorService = Executors.newCachedThreadPool()
+    private val occurrences = ConcurrentHashMap<Int, AtomicInteger>()
+    private val sampler = SchemaSampler(objectMapper)
+    private val counters = ConcurrentHashMap<String, AtomicLong>()
+
+    val baseUrl: String
+        get() = "http://${server.address.hostString}:${server.address.port}"
+
+    fun start(): StubServer {
+        server.createContext("/v1beta/models/") { exchange -> handle(exchange, ROUTE_GEMINI, gemini, ::geminiResponse) }
+        server.createContext("/v1/documents") { exchange -> handle(exchange, ROUTE_NATURAL_LANGUAGE, naturalLanguage, ::naturalLanguageResponse) }
+        server.createContext("/pages/") { exchange -> handle(exchange, ROUTE_PAGES, webPages, ::pageResponse) }
+        server.executor = executor
+        server.start()
+        return this
+    }
+
+    fun pageUrl(id: Int): String = "$baseUrl/pages/$id"
+
+    /**
+     * Requests served per route and outcome, e.g. "gemini.ok" or "gemini.429"
+     */
+    fun counts(): Map<String, Long> = counters.mapValues { it.value.get() }.toSortedMap()
+
+    override fun close() {
+        server.stop(0)
+        executor.shutdownNow()
+    }
+
+    private fun handle(
+        exchange: HttpExchange,
+        route: String,
+        faults: FaultProfile,
+        respond: (HttpExchange, ByteArray, Random) -> Unit
+    ) {
+        try {
+            val body = exchange.requestBody.readBytes()
+            val requestKey = "${exchange.requestMethod} ${exchange.requestURI}".hashCode() * 31 + body.contentHashCode()
+            // A retry of the same request is its next occurrence, so it gets fresh draws
+            val occurrence = occurrences.computeIfAbsent(requestKey) { AtomicInteger() }.getAndIncrement()
+            val requestRandom = Random(seed * 31 + requestKey.toLong() * 1_000_003 + occurrence)
+            val roll = requestRandom.nextDouble()
+            if (roll < faults.rateLimitRate) {
+                count(route, "429")
+                exchange.responseHeaders.add("Retry-After", faults.retryAfterSeconds.toString())
+                send(exchange, 429, "application/json", """{"error": {"code": 429, "status": "RESOURCE_EXHAUSTED"}}""")
+                return
+            }
+
+            Thread.sleep(faults.latency.sampleMs(requestRandom))
+            if (roll < faults.rateLimitRate + faults.errorRate) {
+                count(route, "500")
+                send(exchange, 500, "application/json", """{"error": {"code": 500, "status": "INTERNAL"}}""")
+                return
+            }
+            count(route, "ok")
+            respond(exchange, body, requestRandom)
+        } finally {
+            exchange.close()
+        }
+    }
+
+    private fun geminiResponse(exchange: HttpExchange, body: ByteArray, random: Random) {
+        val request = objectMapper.readTree(body)
+        val schema = request.path("generationConfig").path("responseSchema")
+        val text = if (schema.isMissingNode) {
+            """{"verdict": "INSUFFICIENT_INFO", "explanation": "Stub response without a schema."}"""
+        } else {
+            sampler.sampleText(schema, random)
+        }
+
+        if (!exchange.requestURI.path.endsWith(":streamGenerateContent")) {
+            send(exchange, 200, "application/json", objectMapper.writeValueAsString(candidate(text)))
+            return
+        }
+
+        exchange.responseHeaders.add("Content-Type", "text/event-stream")
+        exchange.sendResponseHeaders(200, 0)
+        val chunkSize = (text.length / STREAM_CHUNKS).coerceAtLeast(1)
+        text.chunked(chunkSize).forEach { chunk ->
+            exchange.responseBody.write("data: ${objectMapper.writeValueAsString(candidate(chunk))}\r\n\r\n".toByteArray())
+            exchange.responseBody.flush()
+            Thread.sleep(STREAM_CHUNK_GAP_MS)
+        }
+    }
+
+    private fun naturalLanguageResponse(exchange: HttpExchange, body: ByteArray, random: Random) {
+        val body = if (exchange.requestURI.path.endsWith(":analyzeSentiment")) {
+            mapOf(
+                "documentSentiment" to mapOf("score" to random.nextDouble(-1.0, 1.0), "magnitude" to random.nextDouble(0.0, 3.0)),
+                "language" to "en"
+            )
+        } else {
+            mapOf(
+                "entities" to ENTITIES.map { (name, type) ->
+                    mapOf(
+                        "name" to name,
+                        "type" to type,
+                        "salience" to random.nextDouble(0.05, 0.6),
+                        "mentions" to listOf(mapOf("text" to mapOf("content" to name), "type" to "PROPER")),
+                        "metadata" to emptyMap<String, String>()
+                    )
+                },
+                "language" to "en"
+            )
+        }
+        send(exchange, 200, "application/json", objectMapper.writeValueAsString(body))
+    }
+
+    private fun pageResponse(exchange: HttpExchange, body: ByteArray, random: Random) {
+        val id = exchange.requestURI.path.substringAfterLast('/').toIntOrNull() ?: 0
+        // Every fourth page is long enough to be analysed in several chunks
+        val paragraphs = if (id % 4 == 0) LONG_PAGE_PARAGRAPHS else SHORT_PAGE_PARAGRAPHS
+        val html = buildString {
+            append("<html lang=\"en\"><head><title>Stub article $id</title>")
+            append("<meta name=\"description\" content=\"Stub article for load tests\"></head><body><article>")
+            repeat(paragraphs) { i ->
+                append("<p>").append(PARAGRAPHS[(id + i) % PARAGRAPHS.size]).append("</p>")
+            }
+            append("</article></body></html>")
+        }
+        send(exchange, 200, "text/html; charset=utf-8", html)
+    }
+
+    private fun candidate(text: String): GenerateContentResponse {
+        return GenerateContentResponse(
+            candidates = listOf(
+                GenerateContentResponse.Candidate(
+                    content = GenerateContentResponse.Content(
+                        parts = listOf(GenerateContentResponse.Part(text)),
+                        role = "model"
+                    ),
+                    finishReason = "STOP"
+                )
+            )
+        )
+    }
+
+    private fun send(exchange: HttpExchange, status: Int, contentType: String, body: String) {
+        val bytes = body.toByteArray()
+        exchange.responseHeaders.add("Content-Type", contentType)
+        exchange.sendResponseHeaders(status, bytes.size.toLong())
+        exchange.responseBody.write(bytes)
+    }
+
+    private fun count(route: String, outcome: String) {
+        counters.computeIfAbsent("$route.$outcome") { AtomicLong() }.incrementAndGet()
+    }
+
+    companion object {
+        private const val ROUTE_GEMINI = "gemini"
+        private const val ROUTE_NATURAL_LANGUAGE = "natural_language"
+        private const val ROUTE_PAGES = "pages"
+
+        private const val STREAM_CHUNKS = 4
+        private const val STREAM_CHUNK_GAP_MS = 20L
+        private const val SHORT_PAGE_PARAGRAPHS = 6
+        private const val LONG_PAGE_PARAGRAPHS = 400
+
+        private val ENTITIES = listOf("Reserve Bank of India" to "ORGANIZATION", "New Delhi" to "LOCATION")
+
+        private val PARAGRAPHS = listOf(
+            "The state health department said on Monday that vaccination camps will continue in all districts until the end of the month.",
+            "Officials denied reports circulating on messaging apps that the camps had been suspended because of a shortage of doses.",
+            "A spokesperson added that the schedule for each district is published on the department's website and updated every morning.",
+            "Residents were advised not to share unverified messages and to call the helpline for information about their nearest camp.",
+            "Opposition leaders questioned the pace of the programme and asked for district-wise figures to be released every week.",
+            "The department said it would publish the figures along with the number of doses administered since the start of the drive."
+        )
+    }
+}
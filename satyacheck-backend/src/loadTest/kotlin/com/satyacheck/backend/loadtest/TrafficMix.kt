@@ -0,0 +1,111 @@
+package com.satyacheck.backend.loadtest
+
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ArrayNode
+import com.fasterxml.jackson.databind.node.ObjectNode
+import com.fasterxml.jackson.databind.node.TextNode
+import com.fasterxml.jackson.module.kotlin.readValue
+import java.net.URLEncoder
+import java.nio.charset.StandardCharsets
+import kotlin.random.Random
+
+/**
+ * The request mix the load driver replays: which endpoints are called in what proportion,
+ * and the messages they are called with. The shares are a synthetic estimate, described in
+ * the mix file itself.
+ *
+ * Request templates may contain two placeholders in their string values:
+ * - ${message}: one of [messages]; with probability [uniqueContentShare] it gets a unique
+ *   suffix, so that share of the traffic misses the caches like first-seen content does
+ * - ${page}: one of [pagePoolSize] stub web pages
+ */
+data class TrafficMix(
+    val description: String = "",
+    val uniqueContentShare: Double,
+    val pagePoolSize: Int,
+    val messages: List<String>,
+    val scenarios: List<Scenario>
+) {
+    /**
+     * One endpoint of the mix and its share of requests
+     *
+     * @param params Query parameters, for the form-style endpoints
+     * @param json Request body
+     */
+    data class Scenario(
+        val name: String,
+        val method: String,
+        val path: String,
+        val weight: Int,
+        val params: Map<String, String> = emptyMap(),
+        val json: JsonNode? = null
+    )
+
+    /**
+     * A concrete request, with every placeholder filled in
+     */
+    data class Request(val scenario: String, val method: String, val pathAndQuery: String, val body: String?)
+
+    private val totalWeight = scenarios.sumOf { it.weight }
+
+    /**
+     * The request for position [index] of a run; the same index always gives the same request
+     */
+    fun request(index: Int, seed: Long, stub: StubServer, objectMapper: ObjectMapper): Request {
+        val random = Random(seed * 31 + index)
+        val scenario = pick(random)
+        val expand = { value: String -> expand(value, index, random, stub) }
+
+        val query = scenario.params.entries.joinToString("&") { (name, value) ->
+            "$name=${URLEncoder.encode(expand(value), StandardCharsets.UTF_8)}"
+        }
+        val body = scenario.json?.let { objectMapper.writeValueAsString(expandJson(it.deepCopy(), expand)) }
+        val pathAndQuery = if (query.isEmpty()) scenario.path else "${scenario.path}?$query"
+        return Request(scenario.name, scenario.method, pathAndQuery, body)
+    }
+
+    private fun pick(random: Random): Scenario {
+        var remaining = random.nextInt(totalWeight)
+        for (scenario in scenarios) {
+            remaining -= scenario.weight
+            if (remaining < 0) {
+                return scenario
+            }
+        }
+        return scenarios.last()
+    }
+
+    private fun expand(value: String, index: Int, random: Random, stub: StubServer): String {
+        var result = value
+        while (MESSAGE in result) {
+            val message = messages[random.nextInt(messages.size)]
+            val unique = if (random.nextDouble() < uniqueContentShare) "$message (ref $index-${random.nextInt(1_000_000)})" else message
+            result = result.replaceFirst(MESSAGE, unique)
+        }
+        while (PAGE in result) {
+            result = result.replaceFirst(PAGE, stub.pageUrl(random.nextInt(pagePoolSize)))
+        }
+        return result
+    }
+
+    private fun expandJson(node: JsonNode, expand: (String) -> String): JsonNode {
+        when {
+            node is ObjectNode -> node.fields().forEach { entry -> entry.setValue(expandJson(entry.value, expand)) }
+            node is ArrayNode -> (0 until node.size()).forEach { i -> node.set(i, expandJson(node[i], expand)) }
+            node.isTextual -> return TextNode(expand(node.asText()))
+        }
+        return node
+    }
+
+    companion object {
+        private const val MESSAGE = "\${message}"
+        private const val PAGE = "\${page}"
+
+        fun load(resource: String, objectMapper: ObjectMapper): TrafficMix {
+            val stream = TrafficMix::class.java.getResourceAsStream(resource)
+                ?: throw IllegalArgumentException("Traffic mix $resource not found")
+            return stream.use { objectMapper.readValue(it) }
+        }
+    }
+}
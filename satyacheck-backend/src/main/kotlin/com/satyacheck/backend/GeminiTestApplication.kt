@@ -1,13 +1,12 @@
 package com.satyacheck.backend
 
 import com.satyacheck.backend.service.api.GeminiService
-import org.springframework.beans.factory.annotation.Autowired
+import kotlinx.coroutines.runBlocking
 import org.springframework.boot.CommandLineRunner
 import org.springframework.boot.SpringApplication
 import org.springframework.boot.autoconfigure.SpringBootApplication
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Profile
-import org.springframework.web.reactive.function.client.WebClient
 
 /**
  * A simplified application for testing Gemini API integration
@@ -15,14 +14,7 @@ import org.springframework.web.reactive.function.client.WebClient
 @SpringBootApplication
 class GeminiTestApplication {
     
-    @Autowired
-    lateinit var webClientBuilder: WebClient.Builder
-    
-    @Bean
-    fun webClient(): WebClient {
-        return webClientBuilder.build()
-    }
-    
+    // The WebClient comes from WebClientConfig, which is scanned by both applications
     @Bean
     @Profile("test-gemini")
     fun testGeminiRunner(geminiService: GeminiService): CommandLineRunner {
@@ -32,7 +24,7 @@ class GeminiTestApplication {
             val testContent = "This is a test content to check if the Gemini API integration works."
             
             try {
-                val (verdict, explanation) = geminiService.analyzeContent(testContent)
+                val (verdict, explanation) = runBlocking { geminiService.analyzeContent(testContent) }
                 println("Verdict: $verdict")
                 println("Explanation: $explanation")
                 println("Gemini API test successful!")
@@ -1,82 +1,107 @@
 package com.satyacheck.backend.config
 
-import com.github.benmanes.caffeine.cache.Caffeine
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.satyacheck.backend.service.cache.CacheRegistry
+import com.satyacheck.backend.service.cache.CacheSpec
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
+import com.satyacheck.backend.service.cache.SerializedSizeWeigher
+import com.satyacheck.backend.service.cache.SharedCacheStore
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.cache.CacheManager
 import org.springframework.cache.annotation.EnableCaching
 import org.springframework.cache.caffeine.CaffeineCacheManager
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
-import java.util.concurrent.TimeUnit
+import org.springframework.context.annotation.Primary
+import org.springframework.core.env.Environment
 
 @Configuration
 @EnableCaching
 class CacheConfig {
 
     /**
-     * Configure the cache manager with Caffeine as the cache provider
+     * Property-driven registry holding one Caffeine AsyncCache per cache name, each with
+     * the TTL, refresh point and byte budget from its cache.* properties
      */
     @Bean
-    fun cacheManager(): CacheManager {
-        val caffeineCacheManager = CaffeineCacheManager()
-        caffeineCacheManager.setCacheNames(listOf(
-            "articles", 
-            "articleBySlug", 
-            "articlesByCategory", 
-            "analysisResults",
-            "enhancedAnalysis",
-            "contentCategories",
-            "extractedTopics",
-            "misinformationAnalysis",
-            "geminiAnalysis",
-            "webContent",
-            "urlAnalysis",
-            "translations",
-            "languageDetection"
-        ))
-        caffeineCacheManager.setCaffeine(caffeineCacheBuilder())
-        return caffeineCacheManager
+    fun cacheRegistry(environment: Environment, objectMapper: ObjectMapper, meterRegistry: MeterRegistry): CacheRegistry {
+        val specs = CACHE_NAMES.map { CacheSpec.fromEnvironment(it, environment) }
+        return CacheRegistry(specs, SerializedSizeWeigher(objectMapper), meterRegistry)
     }
 
     /**
-     * Configure Caffeine cache properties
-     */
-    fun caffeineCacheBuilder(): Caffeine<Any, Any> {
-        return Caffeine.newBuilder()
-            .initialCapacity(100)
-            .maximumSize(500)
-            .expireAfterWrite(10, TimeUnit.MINUTES)
-            .recordStats()
-    }
-    
-    /**
-     * Special cache configuration for analysis results
+     * Cache facility used by suspend functions in place of @Cacheable.
+     * Serves the registry's caches (L1), backed by the shared MongoDB tier (L2)
+     * for the caches listed in cache.l2.caches.
      */
     @Bean
-    fun analysisResultsCacheManager(): CacheManager {
-        val caffeineCacheManager = CaffeineCacheManager("analysisResults")
-        caffeineCacheManager.setCaffeine(
-            Caffeine.newBuilder()
-                .initialCapacity(200)
-                .maximumSize(1000)
-                .expireAfterWrite(24, TimeUnit.HOURS)
-                .recordStats()
+    fun coroutineCacheManager(
+        cacheRegistry: CacheRegistry,
+        sharedCacheStore: SharedCacheStore,
+        meterRegistry: MeterRegistry,
+        @Value("\${cache.hot-keys.sample-rate:0.05}") hotKeySampleRate: Double,
+        @Value("\${cache.hot-keys.capacity:500}") hotKeyCapacity: Long,
+        @Value("\${cache.revalidation.max-concurrent:4}") maxConcurrentRefreshes: Int
+    ): CoroutineCacheManager {
+        return CoroutineCacheManager(
+            cacheRegistry,
+            sharedCacheStore,
+            meterRegistry,
+            hotKeySampleRate,
+            hotKeyCapacity,
+            maxConcurrentRefreshes
         )
-        return caffeineCacheManager
     }
-    
+
     /**
-     * Special cache configuration for language-related caches with longer expiration
+     * Configure the cache manager with Caffeine as the cache provider.
+     * It wraps the registry's AsyncCaches, so blocking services, the cache admin
+     * endpoints and suspend functions all see the same entries.
      */
     @Bean
-    fun languageCacheManager(): CacheManager {
-        val caffeineCacheManager = CaffeineCacheManager("translations", "languageDetection")
-        caffeineCacheManager.setCaffeine(
-            Caffeine.newBuilder()
-                .initialCapacity(100)
-                .maximumSize(500)
-                .expireAfterWrite(7, TimeUnit.DAYS)  // 7 days expiration
-                .recordStats()
-        )
+    @Primary
+    fun cacheManager(cacheRegistry: CacheRegistry): CacheManager {
+        val caffeineCacheManager = CaffeineCacheManager()
+        cacheRegistry.getCaches().forEach { (name, cache) ->
+            caffeineCacheManager.registerCustomCache(name, cache)
+        }
         return caffeineCacheManager
     }
-}
\ No newline at end of file
+
+    companion object {
+        const val ARTICLES = "articles"
+        const val ARTICLE_BY_SLUG = "articleBySlug"
+        const val ARTICLES_BY_CATEGORY = "articlesByCategory"
+        const val ANALYSIS_RESULTS = "analysisResults"
+        const val ENHANCED_ANALYSIS = "enhancedAnalysis"
+        const val CONTENT_CATEGORIES = "contentCategories"
+        const val EXTRACTED_TOPICS = "extractedTopics"
+        const val MISINFORMATION_ANALYSIS = "misinformationAnalysis"
+        const val GEMINI_ANALYSIS = "geminiAnalysis"
+        const val QUICK_VERDICTS = "quickVerdicts"
+        const val VERDICT_EXPLANATIONS = "verdictExplanations"
+        const val WEB_CONTENT = "webContent"
+        const val URL_ANALYSIS = "urlAnalysis"
+        const val TRANSLATIONS = "translations"
+        const val LANGUAGE_DETECTION = "languageDetection"
+
+        val CACHE_NAMES = listOf(
+            ARTICLES,
+            ARTICLE_BY_SLUG,
+            ARTICLES_BY_CATEGORY,
+            ANALYSIS_RESULTS,
+            ENHANCED_ANALYSIS,
+            CONTENT_CATEGORIES,
+            EXTRACTED_TOPICS,
+            MISINFORMATION_ANALYSIS,
+            GEMINI_ANALYSIS,
+            QUICK_VERDICTS,
+            VERDICT_EXPLANATIONS,
+            WEB_CONTENT,
+            URL_ANALYSIS,
+            TRANSLATIONS,
+            LANGUAGE_DETECTION
+        )
+    }
+}
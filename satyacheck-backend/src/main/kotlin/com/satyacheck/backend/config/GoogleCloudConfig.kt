@@ -1,9 +1,7 @@
 package com.satyacheck.backend.config
 
 import org.springframework.beans.factory.annotation.Value
-import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
-import org.springframework.web.reactive.function.client.WebClient
 
 @Configuration
 class GoogleCloudConfig {
@@ -13,10 +11,4 @@ class GoogleCloudConfig {
     
     @Value("\${google.cloud.project-id}")
     private lateinit var projectId: String
-    
-    @Bean
-    fun webClient(): WebClient {
-        return WebClient.builder()
-            .build()
-    }
 }
\ No newline at end of file
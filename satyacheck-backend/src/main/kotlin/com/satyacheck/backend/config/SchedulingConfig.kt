@@ -0,0 +1,11 @@
+package com.satyacheck.backend.config
+
+import org.springframework.context.annotation.Configuration
+import org.springframework.scheduling.annotation.EnableScheduling
+
+/**
+ * Runs the @Scheduled trend jobs
+ */
+@Configuration
+@EnableScheduling
+class SchedulingConfig
@@ -2,6 +2,7 @@ package com.satyacheck.backend.config
 
 import com.satyacheck.backend.security.JwtAuthenticationEntryPoint
 import com.satyacheck.backend.security.JwtAuthenticationFilter
+import jakarta.servlet.DispatcherType
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import org.springframework.security.authentication.AuthenticationManager
@@ -33,6 +34,9 @@ class SecurityConfig(
             .sessionManagement { it.sessionCreationPolicy(SessionCreationPolicy.STATELESS) }
             .authorizeHttpRequests { auth ->
                 auth
+                    // Suspend and streaming handlers finish on an async dispatch; the JWT filter
+                    // does not run again there, and the request was authorized on its first dispatch
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                     .requestMatchers("/api/auth/**", "/health").permitAll()
                     .requestMatchers("/api/public/**").permitAll()
                     .anyRequest().authenticated()
@@ -1,15 +1,44 @@
 package com.satyacheck.backend.config
 
+import io.netty.channel.ChannelOption
+import io.netty.handler.timeout.WriteTimeoutHandler
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
+import org.springframework.http.client.reactive.ReactorClientHttpConnector
 import org.springframework.web.reactive.function.client.WebClient
+import reactor.netty.http.client.HttpClient
+import java.time.Duration
+import java.util.concurrent.TimeUnit
 
+/**
+ * The shared WebClient, with connection and response timeouts so a stalled upstream
+ * cannot hold a request open indefinitely. Callers with tighter deadlines (the Gemini
+ * gateway, the web content fetcher) still apply their own.
+ */
 @Configuration
 class WebClientConfig {
 
+    @Value("\${webclient.connect-timeout-ms:5000}")
+    private var connectTimeoutMs: Int = 5000
+
+    @Value("\${webclient.response-timeout-ms:30000}")
+    private var responseTimeoutMs: Long = 30000
+
+    @Value("\${webclient.write-timeout-ms:10000}")
+    private var writeTimeoutMs: Long = 10000
+
     @Bean
     fun webClient(): WebClient {
+        val httpClient = HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            // Bounds the wait for the response and every gap between reads while it arrives
+            .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+            .doOnConnected { connection ->
+                connection.addHandlerLast(WriteTimeoutHandler(writeTimeoutMs, TimeUnit.MILLISECONDS))
+            }
         return WebClient.builder()
+            .clientConnector(ReactorClientHttpConnector(httpClient))
             .build()
     }
-}
\ No newline at end of file
+}
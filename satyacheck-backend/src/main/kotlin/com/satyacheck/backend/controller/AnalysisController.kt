@@ -2,12 +2,24 @@ package com.satyacheck.backend.controller
 
 import com.satyacheck.backend.model.dto.AnalysisRequest
 import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.AnalysisStreamEvent
 import com.satyacheck.backend.model.dto.ApiResponse
 import com.satyacheck.backend.service.AnalysisService
+import com.satyacheck.backend.service.trends.AnalysisRecordService
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.catch
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.onEach
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
 import org.springframework.http.ResponseEntity
+import org.springframework.http.codec.ServerSentEvent
 import org.springframework.security.access.prepost.PreAuthorize
 import org.springframework.security.core.annotation.AuthenticationPrincipal
 import org.springframework.security.core.userdetails.UserDetails
+import org.springframework.web.bind.annotation.GetMapping
+import org.springframework.web.bind.annotation.PathVariable
 import org.springframework.web.bind.annotation.PostMapping
 import org.springframework.web.bind.annotation.RequestBody
 import org.springframework.web.bind.annotation.RequestMapping
@@ -16,7 +28,10 @@ import java.util.logging.Logger
 
 @RestController
 @RequestMapping("/api/analyze")
-class AnalysisController(private val analysisService: AnalysisService) {
+class AnalysisController(
+    private val analysisService: AnalysisService,
+    private val analysisRecordService: AnalysisRecordService
+) {
     private val logger = Logger.getLogger(AnalysisController::class.java.name)
 
     @PostMapping
@@ -24,17 +39,129 @@ class AnalysisController(private val analysisService: AnalysisService) {
     suspend fun analyzeContent(
         @RequestBody request: AnalysisRequest,
         @AuthenticationPrincipal userDetails: UserDetails
-    ): ResponseEntity<ApiResponse<Map<String, Any>>> {
+    ): ResponseEntity<ApiResponse<Map<String, Any?>>> {
         logger.info("Analysis requested by user: ${userDetails.username}")
         
         val result = analysisService.analyzeText(request)
+        
+        // Record analysis for trend tracking
+        analysisRecordService.recordAnalysis(result, request.content, request.language, contentType = request.contentType)
 
         // Format the response to match what the Android app expects
         val response = mapOf(
             "verdict" to result.verdict.toString(),
-            "explanation" to result.explanation
+            "explanation" to result.explanation,
+            "nearDuplicateOf" to result.nearDuplicateOf,
+            "stale" to result.stale,
+            "degraded" to result.degraded
         )
 
         return ResponseEntity.ok(ApiResponse.success(response, "Content analyzed successfully"))
     }
+
+    /**
+     * Verdict-first variant of [analyzeContent]: returns the verdict, a one-line rationale
+     * and an analysisId much sooner, since Gemini generates no detailed explanation.
+     * The explanation is fetched separately from [getExplanation] when the user asks for it.
+     */
+    @PostMapping("/verdict")
+    @PreAuthorize("isAuthenticated()")
+    suspend fun analyzeVerdict(
+        @RequestBody request: AnalysisRequest,
+        @AuthenticationPrincipal userDetails: UserDetails
+    ): ResponseEntity<ApiResponse<Map<String, Any?>>> {
+        logger.info("Verdict-first analysis requested by user: ${userDetails.username}")
+        
+        val result = analysisService.analyzeVerdictFirst(request)
+        
+        // Record analysis for trend tracking
+        analysisRecordService.recordAnalysis(
+            AnalysisResult(result.verdict, result.rationale, degraded = result.degraded),
+            request.content,
+            request.language,
+            contentType = request.contentType
+        )
+        
+        val response = mapOf(
+            "analysisId" to result.analysisId,
+            "verdict" to result.verdict.toString(),
+            "rationale" to result.rationale,
+            "degraded" to result.degraded
+        )
+        
+        return ResponseEntity.ok(ApiResponse.success(response, "Verdict decided successfully"))
+    }
+    
+    /**
+     * The detailed explanation of an analysis, generated on first request for verdict-first analyses
+     */
+    @GetMapping("/{id}/explanation")
+    @PreAuthorize("isAuthenticated()")
+    suspend fun getExplanation(
+        @PathVariable id: String,
+        @AuthenticationPrincipal userDetails: UserDetails
+    ): ResponseEntity<ApiResponse<Map<String, Any>>> {
+        logger.info("Explanation of analysis $id requested by user: ${userDetails.username}")
+        
+        val result = try {
+            analysisService.explainAnalysis(id)
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            logger.severe("Failed to explain analysis $id: ${e.message}")
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error("The explanation could not be generated, please retry"))
+        } ?: return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(ApiResponse.error("No analysis with ID $id"))
+        
+        val response = mapOf(
+            "analysisId" to id,
+            "verdict" to result.verdict.toString(),
+            "explanation" to result.explanation
+        )
+        
+        return ResponseEntity.ok(ApiResponse.success(response, "Explanation retrieved successfully"))
+    }
+
+    /**
+     * Streaming variant of [analyzeContent] over Server-Sent Events: a "verdict" event as
+     * soon as Gemini has decided, "explanation" events with the text as it is generated,
+     * and a final "result" event in the same shape as the non-streaming response data
+     */
+    @PostMapping("/stream", produces = [MediaType.TEXT_EVENT_STREAM_VALUE])
+    @PreAuthorize("isAuthenticated()")
+    fun analyzeContentStream(
+        @RequestBody request: AnalysisRequest,
+        @AuthenticationPrincipal userDetails: UserDetails
+    ): Flow<ServerSentEvent<Any>> {
+        logger.info("Streaming analysis requested by user: ${userDetails.username}")
+
+        return analysisService.analyzeTextStreaming(request)
+            .onEach { event ->
+                if (event is AnalysisStreamEvent.Completed) {
+                    // Record analysis for trend tracking
+                    analysisRecordService.recordAnalysis(
+                        event.result,
+                        request.content,
+                        request.language,
+                        contentType = request.contentType
+                    )
+                }
+            }
+            .map { event -> event.toServerSentEvent(::toResponseData) }
+            .catch { e ->
+                logger.severe("Streaming analysis failed: ${e.message}")
+                emit(AnalysisStreamEvents.error(e.message))
+            }
+    }
+
+    private fun toResponseData(result: AnalysisResult): Map<String, Any?> {
+        return mapOf(
+            "verdict" to result.verdict.toString(),
+            "explanation" to result.explanation,
+            "nearDuplicateOf" to result.nearDuplicateOf,
+            "stale" to result.stale,
+            "degraded" to result.degraded
+        )
+    }
 }
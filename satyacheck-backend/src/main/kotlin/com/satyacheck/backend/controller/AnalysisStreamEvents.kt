@@ -0,0 +1,44 @@
+package com.satyacheck.backend.controller
+
+import com.satyacheck.backend.model.dto.AnalysisStreamEvent
+import org.springframework.http.codec.ServerSentEvent
+
+/**
+ * SSE names of the streamed analysis events
+ */
+internal object AnalysisStreamEvents {
+    const val VERDICT = "verdict"
+    const val EXPLANATION = "explanation"
+    const val RESULT = "result"
+    const val ERROR = "error"
+
+    /**
+     * Event sent when the stream fails after it has started; the client should retry
+     * with the non-streaming endpoint
+     */
+    fun error(message: String?): ServerSentEvent<Any> {
+        return ServerSentEvent.builder<Any>(mapOf("message" to (message ?: "Analysis failed")))
+            .event(ERROR)
+            .build()
+    }
+}
+
+/**
+ * Convert a stream event to SSE, rendering the completed result with [resultBody]
+ */
+internal fun <T> AnalysisStreamEvent<T>.toServerSentEvent(resultBody: (T) -> Any): ServerSentEvent<Any> {
+    return when (this) {
+        is AnalysisStreamEvent.VerdictDecided ->
+            ServerSentEvent.builder<Any>(mapOf("verdict" to verdict.toString()))
+                .event(AnalysisStreamEvents.VERDICT)
+                .build()
+        is AnalysisStreamEvent.ExplanationChunk ->
+            ServerSentEvent.builder<Any>(mapOf("text" to text))
+                .event(AnalysisStreamEvents.EXPLANATION)
+                .build()
+        is AnalysisStreamEvent.Completed ->
+            ServerSentEvent.builder<Any>(resultBody(result))
+                .event(AnalysisStreamEvents.RESULT)
+                .build()
+    }
+}
@@ -6,12 +6,14 @@ import org.springframework.web.bind.annotation.*
 import java.util.logging.Logger
 
 /**
- * Admin controller for cache management
+ * Admin controller for cache management; statistics are served by CacheController
  * In production, this should be secured with proper authorization
  */
 @RestController
 @RequestMapping("/api/admin/cache")
-class CacheAdminController(private val cacheManager: CacheManager) {
+class CacheAdminController(
+    private val cacheManager: CacheManager
+) {
     
     private val logger = Logger.getLogger(CacheAdminController::class.java.name)
     
@@ -62,33 +64,4 @@ class CacheAdminController(private val cacheManager: CacheManager) {
             "clearedCaches" to clearedCaches
         ))
     }
-    
-    /**
-     * Get cache statistics
-     */
-    @GetMapping("/stats")
-    fun getCacheStats(): ResponseEntity<Map<String, Any>> {
-        logger.info("Request for cache statistics")
-        
-        val cacheNames = cacheManager.cacheNames.toList()
-        val stats = mutableMapOf<String, Any>()
-        
-        cacheNames.forEach { cacheName ->
-            // We can't get exact statistics without direct access to Caffeine's native cache
-            // This is just a placeholder - in a real implementation you'd use:
-            // val nativeCache = (cacheManager.getCache(cacheName)?.nativeCache as? com.github.benmanes.caffeine.cache.Cache<*, *>)
-            // val stats = nativeCache?.stats()
-            
-            stats[cacheName] = mapOf(
-                "available" to true,
-                "name" to cacheName
-                // In real implementation, add: "hitRate", "missRate", "size", etc.
-            )
-        }
-        
-        return ResponseEntity.ok(mapOf(
-            "status" to "success",
-            "caches" to stats
-        ))
-    }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.satyacheck.backend.controller
 
 import com.satyacheck.backend.model.dto.ApiResponse
+import com.satyacheck.backend.service.cache.CacheStatisticsService
+import com.satyacheck.backend.service.cache.HotKey
 import com.satyacheck.backend.service.impl.ArticleServiceImpl
 import org.springframework.cache.CacheManager
 import org.springframework.http.ResponseEntity
@@ -9,6 +11,7 @@ import org.springframework.web.bind.annotation.DeleteMapping
 import org.springframework.web.bind.annotation.GetMapping
 import org.springframework.web.bind.annotation.PathVariable
 import org.springframework.web.bind.annotation.RequestMapping
+import org.springframework.web.bind.annotation.RequestParam
 import org.springframework.web.bind.annotation.RestController
 import java.util.logging.Logger
 
@@ -17,7 +20,7 @@ import java.util.logging.Logger
 @PreAuthorize("hasRole('ADMIN')")
 class CacheController(
     private val cacheManager: CacheManager,
-    private val analysisResultsCacheManager: CacheManager,
+    private val cacheStatisticsService: CacheStatisticsService,
     private val articleService: ArticleServiceImpl
 ) {
     private val logger = Logger.getLogger(CacheController::class.java.name)
@@ -29,22 +32,23 @@ class CacheController(
     }
 
     @GetMapping("/stats")
-    fun getCacheStats(): ResponseEntity<ApiResponse<Map<String, Any>>> {
-        val stats = mutableMapOf<String, Any>()
-        
-        cacheManager.cacheNames.forEach { cacheName ->
-            val cache = cacheManager.getCache(cacheName)
-            stats[cacheName] = mapOf(
-                "name" to cacheName,
-                "active" to (cache != null)
-            )
-        }
-        
+    fun getCacheStats(): ResponseEntity<ApiResponse<Map<String, Map<String, Any?>>>> {
+        val stats = cacheStatisticsService.getStatistics()
         return ResponseEntity.ok(ApiResponse.success(stats, "Cache statistics"))
     }
 
+    @GetMapping("/{cacheName}/hot-keys")
+    fun getHotKeys(
+        @PathVariable cacheName: String,
+        @RequestParam(defaultValue = "20") limit: Int
+    ): ResponseEntity<ApiResponse<List<HotKey>>> {
+        val hotKeys = cacheStatisticsService.getHotKeys(cacheName, limit)
+            ?: return ResponseEntity.notFound().build()
+        return ResponseEntity.ok(ApiResponse.success(hotKeys, "Most requested keys in '$cacheName' (sampled)"))
+    }
+
     @DeleteMapping("/{cacheName}")
-    fun clearCache(@PathVariable cacheName: String): ResponseEntity<ApiResponse<Void>> {
+    fun clearCache(@PathVariable cacheName: String): ResponseEntity<ApiResponse<Void?>> {
         val cache = cacheManager.getCache(cacheName)
         if (cache != null) {
             cache.clear()
@@ -55,15 +59,11 @@ class CacheController(
     }
 
     @DeleteMapping
-    fun clearAllCaches(): ResponseEntity<ApiResponse<Void>> {
+    fun clearAllCaches(): ResponseEntity<ApiResponse<Void?>> {
         cacheManager.cacheNames.forEach { cacheName ->
             cacheManager.getCache(cacheName)?.clear()
         }
         
-        analysisResultsCacheManager.cacheNames.forEach { cacheName ->
-            analysisResultsCacheManager.getCache(cacheName)?.clear()
-        }
-        
         articleService.clearArticleCaches()
         
         logger.info("Cleared all caches")
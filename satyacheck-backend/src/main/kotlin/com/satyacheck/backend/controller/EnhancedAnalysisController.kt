@@ -1,15 +1,19 @@
 package com.satyacheck.backend.controller
 
+import com.satyacheck.backend.model.dto.AnalysisStreamEvent
 import com.satyacheck.backend.model.dto.EnhancedAnalysisResult
+import com.satyacheck.backend.model.enum.AnalysisExecutionMode
 import com.satyacheck.backend.service.EnhancedAnalysisService
 import com.satyacheck.backend.service.trends.AnalysisRecordService
 import com.satyacheck.backend.service.web.UrlAnalysisResult
 import com.satyacheck.backend.service.web.UrlAnalysisService
-import kotlinx.coroutines.reactive.awaitSingle
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.catch
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.onEach
 import org.springframework.http.MediaType
+import org.springframework.http.codec.ServerSentEvent
 import org.springframework.web.bind.annotation.*
-import org.springframework.web.reactive.function.server.ServerResponse
-import reactor.core.publisher.Mono
 import java.util.logging.Logger
 
 /**
@@ -34,11 +38,13 @@ class EnhancedAnalysisController(
         @RequestParam(required = false) source: String?,
         @RequestParam(required = false) contentType: String?,
         @RequestParam(required = false) userRegion: String?,
-        @RequestParam(required = false) deviceType: String?
+        @RequestParam(required = false) deviceType: String?,
+        @RequestParam(required = false) mode: String?
     ): EnhancedAnalysisResult {
         logger.info("Received comprehensive analysis request for content: ${content.take(50)}...")
         
-        val result = enhancedAnalysisService.analyzeComprehensively(content, language)
+        val executionMode = AnalysisExecutionMode.fromStringOrNull(mode)
+        val result = enhancedAnalysisService.analyzeComprehensively(content, language, executionMode)
         
         // Record analysis for trend tracking
         analysisRecordService.recordAnalysis(
@@ -54,6 +60,44 @@ class EnhancedAnalysisController(
         return result
     }
 
+    /**
+     * Streaming variant of [analyzeComprehensively] over Server-Sent Events: the fact-check
+     * "verdict" and "explanation" events arrive while the other branches are still running,
+     * followed by a "result" event with the complete analysis
+     */
+    @PostMapping("/comprehensive/stream", produces = [MediaType.TEXT_EVENT_STREAM_VALUE])
+    fun analyzeComprehensivelyStream(
+        @RequestParam content: String,
+        @RequestParam(defaultValue = "en") language: String,
+        @RequestParam(required = false) source: String?,
+        @RequestParam(required = false) contentType: String?,
+        @RequestParam(required = false) userRegion: String?,
+        @RequestParam(required = false) deviceType: String?
+    ): Flow<ServerSentEvent<Any>> {
+        logger.info("Received streaming comprehensive analysis request for content: ${content.take(50)}...")
+        
+        return enhancedAnalysisService.analyzeComprehensivelyStreaming(content, language)
+            .onEach { event ->
+                if (event is AnalysisStreamEvent.Completed) {
+                    // Record analysis for trend tracking
+                    analysisRecordService.recordAnalysis(
+                        result = event.result,
+                        content = content,
+                        source = source,
+                        contentType = contentType,
+                        language = language,
+                        userRegion = userRegion,
+                        deviceType = deviceType
+                    )
+                }
+            }
+            .map { event -> event.toServerSentEvent { it } }
+            .catch { e ->
+                logger.severe("Streaming comprehensive analysis failed: ${e.message}")
+                emit(AnalysisStreamEvents.error(e.message))
+            }
+    }
+
     /**
      * Analyze content specifically for misinformation patterns
      */
@@ -63,7 +107,12 @@ class EnhancedAnalysisController(
         @RequestParam(defaultValue = "en") language: String
     ): EnhancedAnalysisResult {
         logger.info("Received misinformation analysis request for content: ${content.take(50)}...")
-        return enhancedAnalysisService.analyzeMisinformationPatterns(content, language)
+        val result = enhancedAnalysisService.analyzeMisinformationPatterns(content, language)
+        
+        // Record analysis for trend tracking
+        analysisRecordService.recordAnalysis(result = result, content = content, language = language)
+        
+        return result
     }
 
     /**
@@ -74,7 +123,12 @@ class EnhancedAnalysisController(
         @RequestParam url: String
     ): UrlAnalysisResult {
         logger.info("Received analysis request for URL: $url")
-        return urlAnalysisService.analyzeUrl(url)
+        val result = urlAnalysisService.analyzeUrl(url)
+        
+        // Record analysis for trend tracking
+        analysisRecordService.recordUrlAnalysis(result)
+        
+        return result
     }
 
     /**
@@ -82,7 +136,7 @@ class EnhancedAnalysisController(
      * Should be secured in production
      */
     @PostMapping("/admin/clear-cache")
-    suspend fun clearCache(): Mono<ServerResponse> {
+    fun clearCache(): Map<String, String> {
         logger.info("Clearing enhanced analysis caches")
         
         // In a real implementation, you would inject CacheManager and clear specific caches
@@ -90,11 +144,9 @@ class EnhancedAnalysisController(
         // cacheManager.getCache("misinformationAnalysis")?.clear()
         // cacheManager.getCache("contentCategories")?.clear()
         
-        return ServerResponse.ok()
-            .contentType(MediaType.APPLICATION_JSON)
-            .bodyValue(mapOf(
-                "status" to "success",
-                "message" to "Enhanced analysis caches cleared"
-            )).awaitSingle()
+        return mapOf(
+            "status" to "success",
+            "message" to "Enhanced analysis caches cleared"
+        )
     }
 }
\ No newline at end of file
@@ -25,7 +25,7 @@ class FeedbackController(
      * Submit new feedback
      */
     @PostMapping
-    fun submitFeedback(@RequestBody feedback: AnalysisFeedback): ResponseEntity<AnalysisFeedback> {
+    suspend fun submitFeedback(@RequestBody feedback: AnalysisFeedback): ResponseEntity<AnalysisFeedback> {
         logger.info("Received feedback submission for analysis ${feedback.analysisId}")
         val savedFeedback = feedbackService.submitFeedback(feedback)
         return ResponseEntity.status(HttpStatus.CREATED).body(savedFeedback)
@@ -35,7 +35,7 @@ class FeedbackController(
      * Update existing feedback
      */
     @PutMapping("/{id}")
-    fun updateFeedback(
+    suspend fun updateFeedback(
         @PathVariable id: String,
         @RequestBody feedback: AnalysisFeedback
     ): ResponseEntity<AnalysisFeedback> {
@@ -48,7 +48,7 @@ class FeedbackController(
      * Get feedback by ID
      */
     @GetMapping("/{id}")
-    fun getFeedbackById(@PathVariable id: String): ResponseEntity<AnalysisFeedback> {
+    suspend fun getFeedbackById(@PathVariable id: String): ResponseEntity<AnalysisFeedback> {
         return try {
             val feedback = feedbackService.getFeedbackById(id)
             ResponseEntity.ok(feedback)
@@ -61,7 +61,7 @@ class FeedbackController(
      * Get all feedback with pagination
      */
     @GetMapping
-    fun getAllFeedback(
+    suspend fun getAllFeedback(
         @RequestParam(defaultValue = "0") page: Int,
         @RequestParam(defaultValue = "20") size: Int,
         @RequestParam(defaultValue = "createdAt") sortBy: String,
@@ -78,7 +78,7 @@ class FeedbackController(
      * Get feedback by analysis ID
      */
     @GetMapping("/analysis/{analysisId}")
-    fun getFeedbackByAnalysisId(@PathVariable analysisId: String): ResponseEntity<List<AnalysisFeedback>> {
+    suspend fun getFeedbackByAnalysisId(@PathVariable analysisId: String): ResponseEntity<List<AnalysisFeedback>> {
         val feedback = feedbackService.getFeedbackByAnalysisId(analysisId)
         return ResponseEntity.ok(feedback)
     }
@@ -87,7 +87,7 @@ class FeedbackController(
      * Get feedback by analysis type
      */
     @GetMapping("/type/{analysisType}")
-    fun getFeedbackByAnalysisType(@PathVariable analysisType: String): ResponseEntity<List<AnalysisFeedback>> {
+    suspend fun getFeedbackByAnalysisType(@PathVariable analysisType: String): ResponseEntity<List<AnalysisFeedback>> {
         val feedback = feedbackService.getFeedbackByAnalysisType(analysisType)
         return ResponseEntity.ok(feedback)
     }
@@ -96,7 +96,7 @@ class FeedbackController(
      * Get feedback by user ID
      */
     @GetMapping("/user/{userId}")
-    fun getFeedbackByUserId(@PathVariable userId: String): ResponseEntity<List<AnalysisFeedback>> {
+    suspend fun getFeedbackByUserId(@PathVariable userId: String): ResponseEntity<List<AnalysisFeedback>> {
         val feedback = feedbackService.getFeedbackByUserId(userId)
         return ResponseEntity.ok(feedback)
     }
@@ -105,7 +105,7 @@ class FeedbackController(
      * Get feedback by language
      */
     @GetMapping("/language/{language}")
-    fun getFeedbackByLanguage(@PathVariable language: String): ResponseEntity<List<AnalysisFeedback>> {
+    suspend fun getFeedbackByLanguage(@PathVariable language: String): ResponseEntity<List<AnalysisFeedback>> {
         val feedback = feedbackService.getFeedbackByLanguage(language)
         return ResponseEntity.ok(feedback)
     }
@@ -114,7 +114,7 @@ class FeedbackController(
      * Get accuracy metrics
      */
     @GetMapping("/metrics/accuracy")
-    fun getAccuracyMetrics(): ResponseEntity<AccuracyMetrics> {
+    suspend fun getAccuracyMetrics(): ResponseEntity<AccuracyMetrics> {
         val metrics = feedbackService.calculateAccuracyMetrics()
         return ResponseEntity.ok(metrics)
     }
@@ -123,7 +123,7 @@ class FeedbackController(
      * Delete feedback by ID
      */
     @DeleteMapping("/{id}")
-    fun deleteFeedback(@PathVariable id: String): ResponseEntity<Map<String, String>> {
+    suspend fun deleteFeedback(@PathVariable id: String): ResponseEntity<Map<String, String>> {
         try {
             feedbackService.deleteFeedback(id)
             return ResponseEntity.ok(mapOf("message" to "Feedback deleted successfully"))
@@ -4,6 +4,7 @@ import com.satyacheck.backend.model.entity.AnalysisRecord
 import com.satyacheck.backend.model.entity.MisinformationTrend
 import com.satyacheck.backend.service.trends.AnalysisRecordService
 import com.satyacheck.backend.service.trends.TrendAnalysisService
+import com.satyacheck.backend.service.trends.TrendRollupService
 import org.springframework.format.annotation.DateTimeFormat
 import org.springframework.http.ResponseEntity
 import org.springframework.web.bind.annotation.*
@@ -17,7 +18,8 @@ import java.util.logging.Logger
 @RequestMapping("/api/v1/trends")
 class TrendAnalysisController(
     private val trendAnalysisService: TrendAnalysisService,
-    private val analysisRecordService: AnalysisRecordService
+    private val analysisRecordService: AnalysisRecordService,
+    private val trendRollupService: TrendRollupService
 ) {
     private val logger = Logger.getLogger(TrendAnalysisController::class.java.name)
 
@@ -25,7 +27,7 @@ class TrendAnalysisController(
      * Get trend data for a specific date and period
      */
     @GetMapping("/date/{date}")
-    fun getTrendByDate(
+    suspend fun getTrendByDate(
         @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) date: LocalDate,
         @RequestParam(defaultValue = "DAILY") period: String,
         @RequestParam(required = false) contentType: String?,
@@ -46,7 +48,7 @@ class TrendAnalysisController(
      * Get trend data for a date range
      */
     @GetMapping("/range")
-    fun getTrendsByRange(
+    suspend fun getTrendsByRange(
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) startDate: LocalDate,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) endDate: LocalDate,
         @RequestParam(defaultValue = "DAILY") period: String,
@@ -68,13 +70,14 @@ class TrendAnalysisController(
      * Find similar content from analysis records
      */
     @PostMapping("/similar-content")
-    fun findSimilarContent(
+    suspend fun findSimilarContent(
         @RequestParam content: String,
-        @RequestParam(defaultValue = "5") limit: Int
+        @RequestParam(defaultValue = "5") limit: Int,
+        @RequestParam(defaultValue = "en") language: String
     ): ResponseEntity<List<AnalysisRecord>> {
         logger.info("Finding similar content for analysis")
         
-        val records = analysisRecordService.findSimilarRecords(content, limit)
+        val records = analysisRecordService.findSimilarRecords(content, limit, language)
         
         return ResponseEntity.ok(records)
     }
@@ -96,6 +99,32 @@ class TrendAnalysisController(
         ))
     }
 
+    /**
+     * Rebuild the trend rollups of a finished day from its analysis records and regenerate
+     * its daily trends (admin endpoint)
+     */
+    @PostMapping("/admin/rollups/rebuild/{date}")
+    fun rebuildRollups(
+        @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) date: LocalDate
+    ): ResponseEntity<Map<String, String>> {
+        logger.info("Rebuilding trend rollups for date: $date")
+        
+        if (!date.isBefore(LocalDate.now())) {
+            return ResponseEntity.badRequest().body(mapOf(
+                "status" to "error",
+                "message" to "Only rollups of past days can be rebuilt"
+            ))
+        }
+        
+        trendRollupService.rebuild(date)
+        trendAnalysisService.generateTrendsForDate(date, "DAILY")
+        
+        return ResponseEntity.ok(mapOf(
+            "status" to "success",
+            "message" to "Rebuilt trend rollups for $date"
+        ))
+    }
+
     /**
      * Generate weekly trends (admin endpoint)
      */
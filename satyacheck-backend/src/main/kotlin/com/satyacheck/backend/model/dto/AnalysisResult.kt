@@ -1,8 +1,20 @@
 package com.satyacheck.backend.model.dto
 
 import com.satyacheck.backend.model.enum.Verdict
+import com.satyacheck.backend.service.cache.Previewable
+import com.satyacheck.backend.service.cache.StaleMarkable
 
 data class AnalysisResult(
     val verdict: Verdict,
-    val explanation: String
-)
\ No newline at end of file
+    val explanation: String,
+    // Set when the verdict was reused from the stored analysis of a near-identical text
+    val nearDuplicateOf: String? = null,
+    // Set when served from an expired cache entry while a fresh analysis runs in the background
+    val stale: Boolean = false,
+    // Set when Gemini was unavailable and the verdict comes from the local heuristic classifier
+    val degraded: Boolean = false
+) : StaleMarkable<AnalysisResult>, Previewable {
+    override fun asStale(): AnalysisResult = copy(stale = true)
+
+    override fun preview(maxLength: Int): String = "$verdict: ${explanation.take(maxLength)}".take(maxLength)
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.satyacheck.backend.model.dto
+
+import com.satyacheck.backend.model.enum.Verdict
+
+/**
+ * Progress of a streamed analysis: the verdict as soon as it is known, the explanation
+ * in pieces, and finally the complete result of type [T]. The completed result is
+ * authoritative; it may differ from the streamed verdict if streaming failed half-way
+ * and the analysis had to be redone.
+ */
+sealed interface AnalysisStreamEvent<out T> {
+
+    data class VerdictDecided(val verdict: Verdict) : AnalysisStreamEvent<Nothing>
+
+    data class ExplanationChunk(val text: String) : AnalysisStreamEvent<Nothing>
+
+    data class Completed<T>(val result: T) : AnalysisStreamEvent<T>
+
+    companion object {
+        /**
+         * The events for a result that is already known, e.g. one served from cache
+         */
+        fun <T> replay(verdict: Verdict, explanation: String, result: T): List<AnalysisStreamEvent<T>> {
+            return listOf(VerdictDecided(verdict), ExplanationChunk(explanation), Completed(result))
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.satyacheck.backend.model.dto
+
+import com.satyacheck.backend.model.enum.Verdict
+
+/**
+ * Data class representing the fact-check of one chunk of a long page
+ */
+data class ChunkEvidence(
+    val index: Int,
+    // Character offsets of the chunk in the analysed content
+    val start: Int,
+    val end: Int,
+    val excerpt: String,
+    // Null when the chunk could not be analysed in time
+    val verdict: Verdict?,
+    val explanation: String?
+)
@@ -1,12 +1,25 @@
 package com.satyacheck.backend.model.dto
 
+import com.satyacheck.backend.service.cache.Previewable
+
 /**
  * Data class representing the enhanced analysis result with additional information
  */
 data class EnhancedAnalysisResult(
-    val basic: AnalysisResult,
-    val sentiment: Map<String, Any>? = null,
-    val entities: List<Map<String, Any>>? = null,
-    val category: ContentCategory? = null,
-    val topics: List<ExtractedTopic>? = null
-)
\ No newline at end of file
+    val factCheckResult: AnalysisResult,
+    val misinformationPatterns: List<String> = emptyList(),
+    val misinformationTechniques: List<String> = emptyList(),
+    val contentCategory: ContentCategory? = null,
+    val extractedTopics: List<ExtractedTopic> = emptyList(),
+    val namedEntities: List<Map<String, Any>> = emptyList(),
+    val sentimentScore: Double? = null,
+    val additionalContext: Map<String, Any> = emptyMap(),
+    // True when one or more optional branches timed out or failed
+    val partial: Boolean = false,
+    // Names of the branches missing from a partial result
+    val missingComponents: List<String> = emptyList(),
+    // Per-chunk verdicts when long content was analysed in chunks, in page order
+    val chunkEvidence: List<ChunkEvidence> = emptyList()
+) : Previewable {
+    override fun preview(maxLength: Int): String = factCheckResult.preview(maxLength)
+}
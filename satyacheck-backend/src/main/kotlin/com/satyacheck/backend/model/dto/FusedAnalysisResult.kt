@@ -0,0 +1,10 @@
+package com.satyacheck.backend.model.dto
+
+/**
+ * Data class for the verdict, category and topics returned by a single fused Gemini call
+ */
+data class FusedAnalysisResult(
+    val analysis: AnalysisResult,
+    val category: ContentCategory,
+    val topics: List<ExtractedTopic>
+)
@@ -0,0 +1,16 @@
+package com.satyacheck.backend.model.dto
+
+import com.satyacheck.backend.model.enum.Verdict
+
+/**
+ * Phase one of a verdict-first analysis: the verdict and a one-line rationale. The detailed
+ * explanation is generated on demand for [analysisId].
+ */
+data class QuickVerdict(
+    // Null when the analysis failed and was not stored
+    val analysisId: String?,
+    val verdict: Verdict,
+    val rationale: String,
+    // Set when Gemini was unavailable and the verdict comes from the local heuristic classifier
+    val degraded: Boolean = false
+)
@@ -0,0 +1,27 @@
+package com.satyacheck.backend.model.entity
+
+import org.springframework.data.annotation.Id
+import org.springframework.data.mongodb.core.index.Indexed
+import org.springframework.data.mongodb.core.mapping.Document
+import java.time.Instant
+
+/**
+ * Shared (L2) cache entry, visible to every backend instance.
+ * MongoDB's TTL monitor deletes the document once expiresAt has passed.
+ */
+@Document(collection = "analysis_cache")
+data class AnalysisCacheEntry(
+    // "<cacheName>:<content fingerprint>"
+    @Id
+    val id: String,
+    
+    val cacheName: String,
+    
+    // JSON form of the cached value
+    val payload: String,
+    
+    val createdAt: Instant = Instant.now(),
+    
+    @Indexed(expireAfterSeconds = 0)
+    val expiresAt: Instant
+)
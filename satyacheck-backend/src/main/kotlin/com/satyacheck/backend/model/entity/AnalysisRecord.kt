@@ -1,7 +1,10 @@
 package com.satyacheck.backend.model.entity
 
 import org.springframework.data.annotation.Id
+import org.springframework.data.mongodb.core.index.Indexed
+import org.springframework.data.mongodb.core.index.TextIndexed
 import org.springframework.data.mongodb.core.mapping.Document
+import org.springframework.data.mongodb.core.mapping.TextScore
 import java.time.Instant
 
 /**
@@ -13,9 +16,11 @@ data class AnalysisRecord(
     val id: String? = null,
     
     // Content hash (used for deduplication)
+    @Indexed
     val contentHash: String,
     
-    // Small sample of the content (for reference)
+    // Small sample of the content (for reference and similar-content search)
+    @TextIndexed
     val contentSample: String,
     
     // Original content length
@@ -61,11 +66,28 @@ data class AnalysisRecord(
     val deviceType: String? = null,
     
     // Time of analysis
+    @Indexed
     val analyzedAt: Instant = Instant.now(),
     
     // Has this record been processed for trends
+    @Indexed
     val processedForTrends: Boolean = false,
     
     // When this record was last processed for trends
-    val trendProcessedAt: Instant? = null
+    val trendProcessedAt: Instant? = null,
+    
+    // Claim tag of the writer or trend sweep that last claimed this record
+    @Indexed(sparse = true)
+    val trendClaimId: String? = null,
+    
+    // When this record was last claimed; the claim lapses after trends.sweep.claim-expiry-minutes
+    val trendClaimedAt: Instant? = null,
+    
+    // Rollup batch this record is counted in, kept across claims so that retries are idempotent
+    @Indexed(sparse = true)
+    val trendBatchId: String? = null,
+    
+    // Relevance of a similar-content search result (not stored)
+    @TextScore
+    val score: Float? = null
 )
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.satyacheck.backend.model.entity
+
+import org.springframework.data.annotation.Id
+import org.springframework.data.mongodb.core.index.Indexed
+import org.springframework.data.mongodb.core.mapping.Document
+import java.time.Instant
+import java.time.LocalDate
+
+/**
+ * Running trend counts of one day, content type and language, incremented as analysis
+ * records are ingested. Keys of the count maps are encoded by TrendRollups.encodeKey.
+ */
+@Document(collection = "trend_rollups")
+data class TrendRollup(
+    // "<day>:<contentType>:<language>"
+    @Id
+    val id: String,
+    
+    // Day the counted records were analyzed on
+    @Indexed
+    val day: LocalDate,
+    
+    // Type of content (UNKNOWN if not given)
+    val contentType: String,
+    
+    // Language of content
+    val language: String,
+    
+    // Records counted
+    val totalAnalyzed: Long = 0,
+    
+    // Records identified as misinformation
+    val misinformationCount: Long = 0,
+    
+    // Sum and count of the sentiment scores of records that have one
+    val sentimentSum: Double = 0.0,
+    val sentimentCount: Long = 0,
+    
+    // Records with a positive, negative and neutral sentiment score
+    val positiveCount: Long = 0,
+    val negativeCount: Long = 0,
+    val neutralCount: Long = 0,
+    
+    // Occurrences per category, technique, keyword and region; only the most frequent
+    // are kept once the day is compacted
+    val categories: Map<String, Long> = emptyMap(),
+    val techniques: Map<String, Long> = emptyMap(),
+    val keywords: Map<String, Long> = emptyMap(),
+    val regions: Map<String, Long> = emptyMap(),
+    
+    // IDs of the most recent record batches added to the counts, so that a batch applied
+    // again is skipped; not read with the rollup
+    val appliedBatches: List<String> = emptyList(),
+    
+    // When the counts were last changed
+    val updatedAt: Instant = Instant.now()
+)
@@ -0,0 +1,26 @@
+package com.satyacheck.backend.model.enum
+
+/**
+ * Strategy used to run the independent branches of a comprehensive analysis
+ */
+enum class AnalysisExecutionMode {
+    // Await each remote call one after another
+    SEQUENTIAL,
+
+    // Fan out all branches concurrently, each with its own deadline
+    PARALLEL,
+
+    // Ask Gemini for verdict, category and topics in a single call, falling back to PARALLEL
+    FUSED;
+
+    companion object {
+        fun fromStringOrNull(value: String?): AnalysisExecutionMode? {
+            if (value.isNullOrBlank()) return null
+            return values().firstOrNull { it.name.equals(value.trim(), ignoreCase = true) }
+        }
+
+        fun fromString(value: String?, default: AnalysisExecutionMode): AnalysisExecutionMode {
+            return fromStringOrNull(value) ?: default
+        }
+    }
+}
@@ -9,6 +9,11 @@ enum class Verdict {
     ERROR,
     UNKNOWN;
     
+    /**
+     * True for the verdicts produced when analysis itself failed rather than judged the content
+     */
+    fun isFailure(): Boolean = this == ERROR || this == UNKNOWN
+    
     companion object {
         fun fromString(value: String): Verdict {
             return when (value.lowercase()) {
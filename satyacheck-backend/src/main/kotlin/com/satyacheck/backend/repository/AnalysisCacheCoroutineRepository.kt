@@ -0,0 +1,17 @@
+package com.satyacheck.backend.repository
+
+import com.satyacheck.backend.model.entity.AnalysisCacheEntry
+import org.springframework.data.repository.kotlin.CoroutineCrudRepository
+import org.springframework.stereotype.Repository
+
+/**
+ * Non-blocking access to the shared analysis cache tier, which is read on every local cache miss
+ */
+@Repository
+interface AnalysisCacheCoroutineRepository : CoroutineCrudRepository<AnalysisCacheEntry, String> {
+    
+    /**
+     * Remove every entry belonging to one cache
+     */
+    suspend fun deleteByCacheName(cacheName: String): Long
+}
@@ -0,0 +1,12 @@
+package com.satyacheck.backend.repository
+
+import com.satyacheck.backend.model.entity.Analysis
+import org.springframework.data.repository.kotlin.CoroutineCrudRepository
+import org.springframework.stereotype.Repository
+
+/**
+ * Non-blocking access to Analysis documents for request paths running on coroutines;
+ * batch jobs keep using [AnalysisRepository]
+ */
+@Repository
+interface AnalysisCoroutineRepository : CoroutineCrudRepository<Analysis, String>
@@ -0,0 +1,26 @@
+package com.satyacheck.backend.repository
+
+import com.satyacheck.backend.model.entity.AnalysisRecord
+import kotlinx.coroutines.flow.Flow
+import org.springframework.data.domain.Pageable
+import org.springframework.data.mongodb.core.query.TextCriteria
+import org.springframework.data.repository.kotlin.CoroutineCrudRepository
+import org.springframework.stereotype.Repository
+
+/**
+ * Non-blocking reads of AnalysisRecord entities for the trends API; ingestion and the
+ * trend scheduler use [AnalysisRecordRepository]
+ */
+@Repository
+interface AnalysisRecordCoroutineRepository : CoroutineCrudRepository<AnalysisRecord, String> {
+    
+    /**
+     * Most recent records of the same normalized content
+     */
+    fun findByContentHashOrderByAnalyzedAtDesc(contentHash: String, pageable: Pageable): Flow<AnalysisRecord>
+    
+    /**
+     * Full-text search over content samples, best matches first
+     */
+    fun findAllByOrderByScoreDesc(criteria: TextCriteria, pageable: Pageable): Flow<AnalysisRecord>
+}
@@ -0,0 +1,39 @@
+package com.satyacheck.backend.repository
+
+import com.satyacheck.backend.model.entity.AnalysisFeedback
+import kotlinx.coroutines.flow.Flow
+import org.springframework.data.domain.Pageable
+import org.springframework.data.repository.kotlin.CoroutineCrudRepository
+import org.springframework.stereotype.Repository
+
+/**
+ * Non-blocking access to AnalysisFeedback entities for the feedback API
+ */
+@Repository
+interface FeedbackCoroutineRepository : CoroutineCrudRepository<AnalysisFeedback, String> {
+
+    /**
+     * One page of all feedback
+     */
+    fun findAllBy(pageable: Pageable): Flow<AnalysisFeedback>
+
+    /**
+     * Find feedback by analysis ID
+     */
+    fun findByAnalysisId(analysisId: String): Flow<AnalysisFeedback>
+    
+    /**
+     * Find feedback for a specific analysis type
+     */
+    fun findByAnalysisType(analysisType: String): Flow<AnalysisFeedback>
+    
+    /**
+     * Find feedback by user ID
+     */
+    fun findByUserId(userId: String): Flow<AnalysisFeedback>
+    
+    /**
+     * Find feedback by content language
+     */
+    fun findByContentLanguage(language: String): Flow<AnalysisFeedback>
+}
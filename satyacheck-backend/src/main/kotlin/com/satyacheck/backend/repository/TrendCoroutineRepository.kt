@@ -0,0 +1,46 @@
+package com.satyacheck.backend.repository
+
+import com.satyacheck.backend.model.entity.MisinformationTrend
+import kotlinx.coroutines.flow.Flow
+import org.springframework.data.domain.Pageable
+import org.springframework.data.repository.kotlin.CoroutineCrudRepository
+import org.springframework.stereotype.Repository
+import java.time.LocalDate
+
+/**
+ * Non-blocking reads of MisinformationTrend entities for the trends API; the scheduled
+ * trend generation keeps using [TrendRepository]
+ */
+@Repository
+interface TrendCoroutineRepository : CoroutineCrudRepository<MisinformationTrend, String> {
+    
+    /**
+     * Find trends by date range
+     */
+    fun findByDateBetween(startDate: LocalDate, endDate: LocalDate, pageable: Pageable): Flow<MisinformationTrend>
+    
+    /**
+     * Find trends by date and period
+     */
+    fun findByDateAndPeriod(date: LocalDate, period: String): Flow<MisinformationTrend>
+    
+    /**
+     * Find trends by date, period and content type
+     */
+    fun findByDateAndPeriodAndContentType(date: LocalDate, period: String, contentType: String): Flow<MisinformationTrend>
+    
+    /**
+     * Find trends by date, period and language
+     */
+    fun findByDateAndPeriodAndLanguage(date: LocalDate, period: String, language: String): Flow<MisinformationTrend>
+    
+    /**
+     * Find trends by date, period, content type and language
+     */
+    fun findByDateAndPeriodAndContentTypeAndLanguage(
+        date: LocalDate,
+        period: String,
+        contentType: String,
+        language: String
+    ): Flow<MisinformationTrend>
+}
@@ -0,0 +1,31 @@
+package com.satyacheck.backend.repository
+
+import com.satyacheck.backend.model.entity.TrendRollup
+import org.springframework.data.mongodb.repository.MongoRepository
+import org.springframework.data.mongodb.repository.Query
+import org.springframework.stereotype.Repository
+import java.time.LocalDate
+
+/**
+ * Repository for TrendRollup entities
+ */
+@Repository
+interface TrendRollupRepository : MongoRepository<TrendRollup, String> {
+    
+    /**
+     * Find the rollups of one day
+     */
+    @Query(value = "{'day': ?0}", fields = "{'appliedBatches': 0}")
+    fun findByDay(day: LocalDate): List<TrendRollup>
+    
+    /**
+     * Find the rollups of the days from start to end, both included
+     */
+    @Query(value = "{'day': {'\$gte': ?0, '\$lte': ?1}}", fields = "{'appliedBatches': 0}")
+    fun findByDayRange(start: LocalDate, end: LocalDate): List<TrendRollup>
+    
+    /**
+     * Delete the rollups of one day
+     */
+    fun deleteByDay(day: LocalDate): Long
+}
@@ -11,9 +11,11 @@ import org.springframework.stereotype.Component
 import java.util.logging.Logger
 
 @Component
-class JwtAuthenticationEntryPoint : AuthenticationEntryPoint {
+class JwtAuthenticationEntryPoint(
+    // The application's mapper, which can write the timestamp of ApiResponse
+    private val objectMapper: ObjectMapper
+) : AuthenticationEntryPoint {
     private val logger = Logger.getLogger(JwtAuthenticationEntryPoint::class.java.name)
-    private val objectMapper = ObjectMapper()
     
     override fun commence(
         request: HttpServletRequest,
@@ -10,14 +10,12 @@ import org.springframework.security.core.context.SecurityContextHolder
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource
 import org.springframework.stereotype.Component
 import org.springframework.web.filter.OncePerRequestFilter
-import java.util.logging.Logger
 
 @Component
 class JwtAuthenticationFilter(
     private val jwtService: JwtService,
     private val userDetailsService: UserDetailsServiceImpl
 ) : OncePerRequestFilter() {
-    private val logger = Logger.getLogger(JwtAuthenticationFilter::class.java.name)
 
     override fun doFilterInternal(
         request: HttpServletRequest,
@@ -38,7 +36,7 @@ class JwtAuthenticationFilter(
                 SecurityContextHolder.getContext().authentication = authentication
             }
         } catch (e: Exception) {
-            logger.warning("Cannot set user authentication: ${e.message}")
+            logger.warn("Cannot set user authentication: ${e.message}")
         }
         
         filterChain.doFilter(request, response)
@@ -2,7 +2,35 @@ package com.satyacheck.backend.service
 
 import com.satyacheck.backend.model.dto.AnalysisRequest
 import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.AnalysisStreamEvent
+import com.satyacheck.backend.model.dto.QuickVerdict
+import kotlinx.coroutines.flow.Flow
 
 interface AnalysisService {
     suspend fun analyzeText(request: AnalysisRequest): AnalysisResult
-}
\ No newline at end of file
+    
+    /**
+     * Same analysis as [analyzeText], with the Gemini verdict taken from [geminiVerdict]
+     * instead of a separate call, e.g. the fact-check part of a fused analysis. The result
+     * is cached, indexed and stored like any other.
+     */
+    suspend fun analyzeText(request: AnalysisRequest, geminiVerdict: suspend () -> AnalysisResult): AnalysisResult
+    
+    /**
+     * Same analysis as [analyzeText], emitting the verdict as soon as it is known and the
+     * explanation as it is generated
+     */
+    fun analyzeTextStreaming(request: AnalysisRequest): Flow<AnalysisStreamEvent<AnalysisResult>>
+    
+    /**
+     * Phase one of a verdict-first analysis: only the verdict and a one-line rationale,
+     * stored under an analysis ID whose explanation can be fetched with [explainAnalysis]
+     */
+    suspend fun analyzeVerdictFirst(request: AnalysisRequest): QuickVerdict
+    
+    /**
+     * Phase two: the stored analysis with its detailed explanation, generated on first
+     * request. Null if there is no analysis with [analysisId].
+     */
+    suspend fun explainAnalysis(analysisId: String): AnalysisResult?
+}
@@ -2,9 +2,12 @@ package com.satyacheck.backend.service
 
 import com.satyacheck.backend.model.dto.AnalysisRequest
 import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.AnalysisStreamEvent
 import com.satyacheck.backend.model.dto.ContentCategory
 import com.satyacheck.backend.model.dto.EnhancedAnalysisResult
 import com.satyacheck.backend.model.dto.ExtractedTopic
+import com.satyacheck.backend.model.enum.AnalysisExecutionMode
+import kotlinx.coroutines.flow.Flow
 
 /**
  * Enhanced interface for text analysis service with additional advanced features
@@ -20,6 +23,31 @@ interface EnhancedAnalysisService {
      */
     suspend fun analyzeTextEnhanced(request: AnalysisRequest): EnhancedAnalysisResult
     
+    /**
+     * Performs fact-checking, categorization, topic extraction, entity and sentiment
+     * analysis on the content and combines them into a single result.
+     * A null [mode] uses the configured default execution mode.
+     */
+    suspend fun analyzeComprehensively(
+        content: String,
+        language: String = "en",
+        mode: AnalysisExecutionMode? = null
+    ): EnhancedAnalysisResult
+    
+    /**
+     * Same analysis as [analyzeComprehensively], streaming the fact-check verdict and
+     * explanation while the other branches run, then completing with the combined result
+     */
+    fun analyzeComprehensivelyStreaming(
+        content: String,
+        language: String = "en"
+    ): Flow<AnalysisStreamEvent<EnhancedAnalysisResult>>
+    
+    /**
+     * Performs analysis focused on misinformation patterns and techniques
+     */
+    suspend fun analyzeMisinformationPatterns(content: String, language: String = "en"): EnhancedAnalysisResult
+    
     /**
      * Categorizes content into topics
      */
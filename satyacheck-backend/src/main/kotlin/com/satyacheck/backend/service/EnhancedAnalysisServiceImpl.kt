@@ -1,16 +1,36 @@
 package com.satyacheck.backend.service
 
+import com.satyacheck.backend.config.CacheConfig
+import com.satyacheck.backend.model.dto.AnalysisRequest
 import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.AnalysisStreamEvent
 import com.satyacheck.backend.model.dto.ContentCategory
 import com.satyacheck.backend.model.dto.EnhancedAnalysisResult
 import com.satyacheck.backend.model.dto.ExtractedTopic
+import com.satyacheck.backend.model.dto.FusedAnalysisResult
+import com.satyacheck.backend.model.enum.AnalysisExecutionMode
 import com.satyacheck.backend.service.api.ContentCategorizationService
 import com.satyacheck.backend.service.api.GeminiService
 import com.satyacheck.backend.service.api.NaturalLanguageService
-import com.satyacheck.backend.service.api.TranslationService
-import com.satyacheck.backend.service.api.VisionService
-import org.springframework.cache.annotation.CacheConfig
-import org.springframework.cache.annotation.Cacheable
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.TimeoutCancellationException
+import kotlinx.coroutines.async
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runInterruptible
+import kotlinx.coroutines.selects.select
+import kotlinx.coroutines.withTimeout
+import kotlinx.coroutines.withTimeoutOrNull
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.stereotype.Service
 import java.util.logging.Logger
 
@@ -19,30 +39,137 @@ import java.util.logging.Logger
  * for comprehensive content evaluation
  */
 @Service
-@CacheConfig(cacheNames = ["enhancedAnalysis"])
 class EnhancedAnalysisServiceImpl(
     private val analysisService: AnalysisService,
     private val geminiService: GeminiService,
     private val contentCategorizationService: ContentCategorizationService,
     private val naturalLanguageService: NaturalLanguageService,
-    private val translationService: TranslationService,
-    private val visionService: VisionService
+    private val coroutineCacheManager: CoroutineCacheManager,
+    private val meterRegistry: MeterRegistry
 ) : EnhancedAnalysisService {
 
     private val logger = Logger.getLogger(EnhancedAnalysisServiceImpl::class.java.name)
 
+    @Value("\${analysis.comprehensive.execution-mode:PARALLEL}")
+    private var executionMode: AnalysisExecutionMode = AnalysisExecutionMode.PARALLEL
+
+    @Value("\${analysis.comprehensive.timeout.fact-check-ms:15000}")
+    private var factCheckTimeoutMs: Long = 15000
+
+    @Value("\${analysis.comprehensive.timeout.category-ms:8000}")
+    private var categoryTimeoutMs: Long = 8000
+
+    @Value("\${analysis.comprehensive.timeout.topics-ms:6000}")
+    private var topicsTimeoutMs: Long = 6000
+
+    @Value("\${analysis.comprehensive.timeout.natural-language-ms:4000}")
+    private var naturalLanguageTimeoutMs: Long = 4000
+
+    @Value("\${analysis.comprehensive.timeout.fused-head-start-ms:5000}")
+    private var fusedHeadStartMs: Long = 5000
+
+    /**
+     * Basic fact-check through the core analysis service
+     */
+    override suspend fun analyzeText(request: AnalysisRequest): AnalysisResult {
+        return analysisService.analyzeText(request)
+    }
+
+    /**
+     * Comprehensive analysis of the request content in the configured execution mode
+     */
+    override suspend fun analyzeTextEnhanced(request: AnalysisRequest): EnhancedAnalysisResult {
+        return analyzeComprehensively(request.content, request.language)
+    }
+
+    override suspend fun categorizeContent(content: String, language: String): ContentCategory {
+        return contentCategorizationService.categorizeContent(content, language)
+    }
+
+    override suspend fun extractTopics(content: String, language: String): List<ExtractedTopic> {
+        return contentCategorizationService.extractTopics(content, language)
+    }
+
+    /**
+     * Perform comprehensive analysis on the provided content using multiple services.
+     *
+     * [mode], or the configured default, picks how the fact check, categorization, topics,
+     * entities and sentiment are gathered: one after another (sequential), concurrently
+     * (parallel), or concurrently with one fused Gemini call raced against the separate
+     * ones (fused). The combined result is cached in ENHANCED_ANALYSIS through the
+     * CoroutineCacheManager per content and language, whatever the mode; results whose
+     * fact check failed or was stale are returned but not cached (see [isCacheable]).
+     */
+    override suspend fun analyzeComprehensively(
+        content: String,
+        language: String,
+        mode: AnalysisExecutionMode?
+    ): EnhancedAnalysisResult {
+        return coroutineCacheManager.cached(
+            CacheConfig.ENHANCED_ANALYSIS,
+            ContentFingerprint.of(content, language),
+            cacheIf = ::isCacheable
+        ) {
+            val effectiveMode = mode ?: executionMode
+            logger.info("Starting comprehensive analysis ($effectiveMode) for content: ${content.take(50)}...")
+            
+            when (effectiveMode) {
+                AnalysisExecutionMode.SEQUENTIAL -> analyzeSequentially(content, language)
+                AnalysisExecutionMode.PARALLEL -> analyzeInParallel(content, language, fused = false)
+                AnalysisExecutionMode.FUSED -> analyzeInParallel(content, language, fused = true)
+            }
+        }
+    }
+    
     /**
-     * Perform comprehensive analysis on the provided content using multiple services
-     * Cached to improve performance for repeated requests
+     * Streams the fact-check through [AnalysisService.analyzeTextStreaming] while the other
+     * branches run as in the parallel mode, so the verdict reaches the client before the
+     * slower branches finish. The combined result is cached like [analyzeComprehensively].
      */
-    @Cacheable(key = "#content.hashCode() + '_' + #language")
-    override suspend fun analyzeComprehensively(content: String, language: String): EnhancedAnalysisResult {
-        logger.info("Starting comprehensive analysis for content: ${content.take(50)}...")
+    override fun analyzeComprehensivelyStreaming(
+        content: String,
+        language: String
+    ): Flow<AnalysisStreamEvent<EnhancedAnalysisResult>> = channelFlow {
+        val cacheKey = ContentFingerprint.of(content, language)
+        val known = coroutineCacheManager.getIfPresent<EnhancedAnalysisResult>(CacheConfig.ENHANCED_ANALYSIS, cacheKey)
+        if (known != null) {
+            AnalysisStreamEvent.replay(known.factCheckResult.verdict, known.factCheckResult.explanation, known)
+                .forEach { send(it) }
+            return@channelFlow
+        }
         
-        // Run all analysis operations in parallel where possible
+        val factCheckResult = CompletableDeferred<AnalysisResult>()
+        launch {
+            try {
+                analysisService.analyzeTextStreaming(AnalysisRequest(content = content, language = language))
+                    .collect { event ->
+                        when (event) {
+                            is AnalysisStreamEvent.VerdictDecided -> send(event)
+                            is AnalysisStreamEvent.ExplanationChunk -> send(event)
+                            is AnalysisStreamEvent.Completed -> factCheckResult.complete(event.result)
+                        }
+                    }
+            } catch (e: CancellationException) {
+                factCheckResult.cancel(e)
+                throw e
+            } catch (e: Exception) {
+                factCheckResult.completeExceptionally(e)
+            }
+        }
         
+        val result = analyzeInParallel(content, language, fused = false) { factCheckResult.await() }
+        if (isCacheable(result)) {
+            coroutineCacheManager.put(CacheConfig.ENHANCED_ANALYSIS, cacheKey, result)
+        }
+        send(AnalysisStreamEvent.Completed(result))
+    }
+    
+    /**
+     * Runs every branch one after another; latency is the sum of all round trips
+     */
+    private suspend fun analyzeSequentially(content: String, language: String): EnhancedAnalysisResult {
         // Get base fact-checking analysis
-        val baseAnalysis = analysisService.analyzeContent(content, language)
+        val baseAnalysis = factCheck(content, language)
         
         // Get content categorization
         val contentCategory = contentCategorizationService.categorizeContent(content, language)
@@ -68,231 +195,245 @@ class EnhancedAnalysisServiceImpl(
     }
     
     /**
-     * Perform enhanced analysis focused on detecting misinformation patterns
+     * Fans all branches out concurrently. The fact-check is required and fails the whole
+     * analysis when it misses its deadline; every other branch is optional and degrades
+     * to a partial result instead of holding up the verdict.
+     *
+     * When [fused] is set, verdict, category and topics come from one Gemini call. If that
+     * call fails or is still running after analysis.comprehensive.timeout.fused-head-start-ms,
+     * the separate three-call path starts and races it. [factCheckBranch] supplies the
+     * verdict on the three-call path.
      */
-    @Cacheable(key = "'misinformation_' + #content.hashCode() + '_' + #language")
-    override suspend fun analyzeMisinformationPatterns(content: String, language: String): EnhancedAnalysisResult {
-        logger.info("Analyzing misinformation patterns for content: ${content.take(50)}...")
-        
-        // Get base fact-checking analysis
-        val baseAnalysis = analysisService.analyzeContent(content, language)
-        
-        // Get deeper misinformation analysis from Gemini
-        val misinformationAnalysis = geminiService.analyzeContentForMisinformation(content, language)
+    private suspend fun analyzeInParallel(
+        content: String,
+        language: String,
+        fused: Boolean,
+        factCheckBranch: suspend () -> AnalysisResult = { factCheck(content, language) }
+    ): EnhancedAnalysisResult = coroutineScope {
+        val supportsNaturalLanguage = language == "en"
+        
+        // The Natural Language client is blocking, so run it interruptibly to let deadlines cancel it
+        val entities = async {
+            if (supportsNaturalLanguage) {
+                optionalBranch(BRANCH_ENTITIES, naturalLanguageTimeoutMs) {
+                    runInterruptible(Dispatchers.IO) { naturalLanguageService.extractEntities(content) }
+                }
+            } else {
+                emptyList()
+            }
+        }
+        val sentiment = async {
+            if (supportsNaturalLanguage) {
+                optionalBranch(BRANCH_SENTIMENT, naturalLanguageTimeoutMs) {
+                    runInterruptible(Dispatchers.IO) { naturalLanguageService.analyzeSentiment(content) }
+                }
+            } else {
+                null
+            }
+        }
         
-        // Extract topics and get content categorization
-        val contentCategory = contentCategorizationService.categorizeContent(content, language)
-        val extractedTopics = contentCategorizationService.extractTopics(content, language)
+        // Started only when needed: always on the separate path, and in fused mode once the
+        // fused call has failed or used up its head start, after which both race
+        val factCheckCall = async(start = CoroutineStart.LAZY) {
+            timedBranch(BRANCH_FACT_CHECK) {
+                withTimeout(factCheckTimeoutMs) { factCheckBranch() }
+            }
+        }
+        val categoryCall = async(start = CoroutineStart.LAZY) {
+            optionalBranch(BRANCH_CATEGORY, categoryTimeoutMs) {
+                contentCategorizationService.categorizeContent(content, language)
+            }
+        }
+        val topicsCall = async(start = CoroutineStart.LAZY) {
+            optionalBranch(BRANCH_TOPICS, topicsTimeoutMs) {
+                contentCategorizationService.extractTopics(content, language)
+            }
+        }
+        val separateCalls = listOf(factCheckCall, categoryCall, topicsCall)
         
-        return EnhancedAnalysisResult(
-            factCheckResult = baseAnalysis,
-            misinformationPatterns = misinformationAnalysis.patterns ?: emptyList(),
-            misinformationTechniques = misinformationAnalysis.techniques ?: emptyList(),
-            contentCategory = contentCategory,
-            extractedTopics = extractedTopics,
-            namedEntities = emptyList(),
-            sentimentScore = null,
-            additionalContext = mapOf(
-                "misinformationRisk" to (misinformationAnalysis.riskLevel ?: "UNKNOWN"),
-                "techniquesIdentified" to (misinformationAnalysis.techniques?.size ?: 0),
-                "analysisType" to "MISINFORMATION_FOCUSED"
-            )
-        )
-    }
-    
-    /**
-     * Cross-language analysis with translation support
-     */
-    override suspend fun analyzeCrossLanguage(content: String, targetLanguages: List<String>): Map<String, Any> {
-        logger.info("Starting cross-language analysis for ${targetLanguages.size} languages")
+        val fusedCall = if (fused) {
+            async {
+                optionalBranch(BRANCH_FUSED, factCheckTimeoutMs) {
+                    geminiService.analyzeContentFused(content, language)
+                }
+            }
+        } else {
+            null
+        }
+        val earlyFused = fusedCall?.let { call -> withTimeoutOrNull(fusedHeadStartMs) { call.await() } }
+        val fusedAnalysis = earlyFused ?: run {
+            if (fusedCall != null) {
+                logger.warning("Fused analysis failed or exceeded its ${fusedHeadStartMs}ms head start, starting separate Gemini calls")
+            }
+            separateCalls.forEach { it.start() }
+            // The first verdict decides the path; null once the fused call has failed
+            fusedCall?.let { call ->
+                select<FusedAnalysisResult?> {
+                    call.onAwait { it }
+                    factCheckCall.onAwait { null }
+                }
+            }
+        }
+        if (fusedAnalysis != null) {
+            separateCalls.forEach { it.cancel() }
+        } else {
+            fusedCall?.cancel()
+        }
         
-        // Detect original language
-        val languageDetection = translationService.detectLanguage(content)
-        val originalLanguage = languageDetection["detectedLanguage"] as? String ?: "unknown"
+        val category = if (fusedAnalysis != null) fusedAnalysis.category else categoryCall.await()
+        val topics = if (fusedAnalysis != null) fusedAnalysis.topics else topicsCall.await()
+        val entityList = entities.await()
+        val sentimentMap = sentiment.await()
         
-        // Translate to target languages and analyze each
-        val analyses = mutableMapOf<String, Map<String, Any>>()
+        val missingComponents = buildList {
+            if (category == null) add(BRANCH_CATEGORY)
+            if (topics == null) add(BRANCH_TOPICS)
+            if (entityList == null) add(BRANCH_ENTITIES)
+            if (supportsNaturalLanguage && sentimentMap == null) add(BRANCH_SENTIMENT)
+        }
+        if (missingComponents.isNotEmpty()) {
+            logger.warning("Returning partial comprehensive analysis, missing: $missingComponents")
+        }
         
-        targetLanguages.forEach { targetLang ->
-            val translatedContent = if (targetLang == originalLanguage) {
-                content
-            } else {
-                val translation = translationService.translateText(content, targetLang, originalLanguage)
-                translation["translatedText"] as? String ?: content
+        val baseAnalysis = if (fusedAnalysis != null) {
+            // Cached, indexed and stored like a verdict from the separate fact-check call
+            analysisService.analyzeText(AnalysisRequest(content = content, language = language)) {
+                fusedAnalysis.analysis
             }
-            
-            // Analyze in target language
-            val analysis = naturalLanguageService.analyzeComprehensively(translatedContent, targetLang)
-            analyses[targetLang] = analysis
+        } else {
+            factCheckCall.await()
         }
-        
-        return mapOf(
-            "originalContent" to content,
-            "detectedLanguage" to originalLanguage,
-            "targetLanguages" to targetLanguages,
-            "analyses" to analyses,
-            "crossLanguageConsistency" to calculateCrossLanguageConsistency(analyses),
-            "recommendations" to generateCrossLanguageRecommendations(analyses, originalLanguage)
+        val result = combineResults(
+            baseAnalysis,
+            category,
+            topics ?: emptyList(),
+            entityList ?: emptyList(),
+            sentimentMap
+        )
+        result.copy(
+            additionalContext = result.additionalContext + ("fused" to (fusedAnalysis != null)),
+            partial = missingComponents.isNotEmpty(),
+            missingComponents = missingComponents
         )
     }
     
     /**
-     * Analyze image content for misinformation
+     * Base fact-check for the content through the core analysis service
      */
-    override suspend fun analyzeImageContent(imageData: ByteArray, language: String): Map<String, Any> {
-        logger.info("Starting image content analysis for misinformation detection")
-        
-        // Comprehensive image analysis
-        val imageAnalysis = visionService.analyzeImageComprehensively(imageData)
-        
-        // Extract text and analyze if present
-        val textAnalysis = imageAnalysis["textAnalysis"] as? Map<String, Any> ?: emptyMap()
-        val extractedText = textAnalysis["extractedText"] as? String ?: ""
-        
-        val textMisinformationAnalysis = if (extractedText.isNotEmpty()) {
-            // Analyze extracted text for misinformation
-            val baseAnalysis = analysisService.analyzeContent(extractedText, language)
-            val nlpAnalysis = naturalLanguageService.analyzeComprehensively(extractedText, language)
-            
-            mapOf(
-                "factCheckResult" to baseAnalysis,
-                "nlpAnalysis" to nlpAnalysis,
-                "hasTextContent" to true
-            )
-        } else {
-            mapOf(
-                "hasTextContent" to false,
-                "message" to "No text content found in image"
-            )
-        }
-        
-        // Check for image manipulation
-        val manipulationAnalysis = visionService.detectImageManipulation(imageData)
-        
-        return mapOf(
-            "imageAnalysis" to imageAnalysis,
-            "textMisinformationAnalysis" to textMisinformationAnalysis,
-            "manipulationAnalysis" to manipulationAnalysis,
-            "combinedRisk" to calculateImageMisinformationRisk(imageAnalysis, textMisinformationAnalysis, manipulationAnalysis),
-            "recommendations" to generateImageAnalysisRecommendations(extractedText, imageAnalysis, manipulationAnalysis)
-        )
+    private suspend fun factCheck(content: String, language: String): AnalysisResult {
+        return analysisService.analyzeText(AnalysisRequest(content = content, language = language))
     }
     
-    // Helper methods for new functionality
-    private fun calculateCrossLanguageConsistency(analyses: Map<String, Map<String, Any>>): Double {
-        // Calculate consistency based on sentiment scores across languages
-        val sentimentScores = analyses.values.mapNotNull { analysis ->
-            val sentiment = analysis["sentiment"] as? Map<String, Any>
-            sentiment?.get("score") as? Double
+    /**
+     * Runs a required branch, recording its latency and outcome
+     */
+    private suspend fun <T> timedBranch(branch: String, block: suspend () -> T): T {
+        val sample = Timer.start(meterRegistry)
+        var outcome = OUTCOME_ERROR
+        try {
+            return block().also { outcome = OUTCOME_SUCCESS }
+        } catch (e: TimeoutCancellationException) {
+            // Surface as a regular failure so it isn't mistaken for cancellation of the caller
+            outcome = OUTCOME_TIMEOUT
+            throw RuntimeException("Analysis branch '$branch' did not complete in time", e)
+        } catch (e: CancellationException) {
+            // E.g. the fused call won the race
+            outcome = OUTCOME_CANCELLED
+            throw e
+        } finally {
+            sample.stop(branchTimer(branch, outcome))
         }
-        
-        if (sentimentScores.size < 2) return 1.0
-        
-        val avg = sentimentScores.average()
-        val variance = sentimentScores.map { (it - avg) * (it - avg) }.average()
-        
-        // Convert variance to consistency score (lower variance = higher consistency)
-        return maxOf(0.0, 1.0 - variance)
     }
     
-    private fun generateCrossLanguageRecommendations(
-        analyses: Map<String, Map<String, Any>>,
-        originalLanguage: String
-    ): List<String> {
-        val recommendations = mutableListOf<String>()
-        
-        val consistency = calculateCrossLanguageConsistency(analyses)
-        
-        when {
-            consistency > 0.8 -> {
-                recommendations.add("High cross-language consistency - content meaning preserved")
-                recommendations.add("Analysis results are reliable across languages")
-            }
-            consistency > 0.6 -> {
-                recommendations.add("Moderate cross-language consistency - some variation in analysis")
-                recommendations.add("Recommend verification in original language ($originalLanguage)")
-            }
-            else -> {
-                recommendations.add("Low cross-language consistency - significant translation impact")
-                recommendations.add("Strongly recommend analysis in original language ($originalLanguage)")
-                recommendations.add("Consider human translation for critical analysis")
+    /**
+     * Runs an optional branch under its own deadline, returning null if it times out or fails
+     */
+    private suspend fun <T> optionalBranch(branch: String, timeoutMs: Long, block: suspend () -> T): T? {
+        val sample = Timer.start(meterRegistry)
+        var outcome = OUTCOME_ERROR
+        try {
+            var completed = false
+            val result = withTimeoutOrNull(timeoutMs) { block().also { completed = true } }
+            outcome = if (completed) OUTCOME_SUCCESS else OUTCOME_TIMEOUT
+            if (!completed) {
+                logger.warning("Analysis branch '$branch' exceeded its ${timeoutMs}ms deadline")
             }
+            return result
+        } catch (e: CancellationException) {
+            // Parent was cancelled (e.g. the fact-check failed) - don't swallow it
+            outcome = OUTCOME_CANCELLED
+            throw e
+        } catch (e: Exception) {
+            logger.warning("Analysis branch '$branch' failed: ${e.message}")
+            return null
+        } finally {
+            sample.stop(branchTimer(branch, outcome))
         }
-        
-        return recommendations
     }
     
-    private fun calculateImageMisinformationRisk(
-        imageAnalysis: Map<String, Any>,
-        textAnalysis: Map<String, Any>,
-        manipulationAnalysis: Map<String, Any>
-    ): String {
-        var riskScore = 0
-        
-        // Check image misinformation indicators
-        val imageRisk = ((imageAnalysis["misinformationIndicators"] as? Map<String, Any>)?.get("riskLevel") as? String) ?: "LOW"
-        riskScore += when (imageRisk) {
-            "HIGH", "VERY_HIGH" -> 3
-            "MEDIUM" -> 2
-            else -> 1
-        }
-        
-        // Check text analysis if available
-        if (textAnalysis["hasTextContent"] as? Boolean == true) {
-            val factCheckResult = textAnalysis["factCheckResult"] as? AnalysisResult
-            riskScore += when (factCheckResult?.verdict?.name) {
-                "HIGH_MISINFORMATION_RISK", "SCAM_ALERT" -> 3
-                "POTENTIALLY_MISLEADING" -> 2
-                else -> 1
-            }
-        }
-        
-        // Check manipulation likelihood
-        val manipulationRisk = manipulationAnalysis["manipulationLikelihood"] as? String ?: "LOW"
-        riskScore += when (manipulationRisk) {
-            "HIGH" -> 3
-            "MEDIUM" -> 2
-            else -> 1
-        }
-        
-        return when {
-            riskScore >= 7 -> "VERY_HIGH"
-            riskScore >= 5 -> "HIGH"
-            riskScore >= 3 -> "MEDIUM"
-            else -> "LOW"
+    private fun branchTimer(branch: String, outcome: String): Timer {
+        return Timer.builder("satyacheck.analysis.branch")
+            .description("Latency of each branch of a comprehensive analysis")
+            .tag("branch", branch)
+            .tag("outcome", outcome)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry)
+    }
+    
+    /**
+     * Perform enhanced analysis focused on detecting misinformation patterns
+     */
+    override suspend fun analyzeMisinformationPatterns(content: String, language: String): EnhancedAnalysisResult {
+        val cacheKey = ContentFingerprint.of(content, language, OPERATION_MISINFORMATION)
+        return coroutineCacheManager.cached(CacheConfig.ENHANCED_ANALYSIS, cacheKey, cacheIf = ::isCacheable) {
+            analyzeMisinformation(content, language)
         }
     }
     
-    private fun generateImageAnalysisRecommendations(
-        extractedText: String,
-        imageAnalysis: Map<String, Any>,
-        manipulationAnalysis: Map<String, Any>
-    ): List<String> {
-        val recommendations = mutableListOf<String>()
+    /**
+     * Results whose fact check failed are not cached, so the next request retries Gemini.
+     * Neither are results built on a stale fact-check served while it is revalidated, which
+     * would otherwise keep the stale flag for the whole lifetime of the combined entry.
+     */
+    private fun isCacheable(result: EnhancedAnalysisResult): Boolean {
+        return !result.factCheckResult.verdict.isFailure() && !result.factCheckResult.stale
+    }
+
+    private suspend fun analyzeMisinformation(content: String, language: String): EnhancedAnalysisResult {
+        logger.info("Analyzing misinformation patterns for content: ${content.take(50)}...")
         
-        if (extractedText.isNotEmpty()) {
-            recommendations.add("Verify text claims found in image through official sources")
-            recommendations.add("Cross-check extracted text with fact-checking databases")
-        }
+        // Get base fact-checking analysis
+        val baseAnalysis = factCheck(content, language)
         
-        val manipulationRisk = manipulationAnalysis["manipulationLikelihood"] as? String ?: "LOW"
-        if (manipulationRisk in listOf("HIGH", "MEDIUM")) {
-            recommendations.add("Image shows signs of potential manipulation - verify authenticity")
-            recommendations.add("Use reverse image search to find original source")
-        }
+        // Get deeper misinformation analysis from Gemini
+        val misinformationAnalysis = geminiService.analyzeContentForMisinformation(content, language)
         
-        recommendations.add("Check image metadata for creation date and camera information")
-        recommendations.add("Verify image source and distribution chain")
+        // Extract topics and get content categorization
+        val contentCategory = contentCategorizationService.categorizeContent(content, language)
+        val extractedTopics = contentCategorizationService.extractTopics(content, language)
         
-        return recommendations
+        return EnhancedAnalysisResult(
+            factCheckResult = baseAnalysis,
+            misinformationPatterns = misinformationAnalysis.patterns ?: emptyList(),
+            misinformationTechniques = misinformationAnalysis.techniques ?: emptyList(),
+            contentCategory = contentCategory,
+            extractedTopics = extractedTopics,
+            namedEntities = emptyList(),
+            sentimentScore = null,
+            additionalContext = mapOf(
+                "misinformationRisk" to (misinformationAnalysis.riskLevel ?: "UNKNOWN"),
+                "techniquesIdentified" to (misinformationAnalysis.techniques?.size ?: 0),
+                "analysisType" to "MISINFORMATION_FOCUSED"
+            )
+        )
     }
-
+    
     /**
      * Combines results from various analysis services into a single comprehensive result
      */
     private fun combineResults(
         baseAnalysis: AnalysisResult,
-        contentCategory: ContentCategory,
+        contentCategory: ContentCategory?,
         extractedTopics: List<ExtractedTopic>,
         entities: List<Map<String, Any>>,
         sentiment: Map<String, Any>?
@@ -312,39 +453,20 @@ class EnhancedAnalysisServiceImpl(
             )
         )
     }
-}
-     */
-    private fun combineResults(
-        baseAnalysis: AnalysisResult,
-        contentCategory: ContentCategory,
-        extractedTopics: List<ExtractedTopic>,
-        entities: List<Map<String, Any>>,
-        sentiment: Map<String, Any>?
-    ): EnhancedAnalysisResult {
-        // Extract sentiment score if available
-        val sentimentScore = sentiment?.get("score") as? Double
-        
-        // Build additional context with relevant information
-        val additionalContext = mutableMapOf<String, Any>(
-            "categoryConfidence" to contentCategory.confidence,
-            "topicCount" to extractedTopics.size,
-            "entityCount" to entities.size,
-            "analysisType" to "COMPREHENSIVE"
-        )
-        
-        // Add sentiment information if available
-        sentiment?.let {
-            additionalContext["sentimentMagnitude"] = it["magnitude"] as? Double ?: 0.0
-            additionalContext["sentimentLanguage"] = it["language"] as? String ?: "unknown"
-        }
-        
-        return EnhancedAnalysisResult(
-            factCheckResult = baseAnalysis,
-            contentCategory = contentCategory,
-            extractedTopics = extractedTopics,
-            namedEntities = entities,
-            sentimentScore = sentimentScore,
-            additionalContext = additionalContext
-        )
+
+    companion object {
+        private const val BRANCH_FACT_CHECK = "factCheck"
+        private const val BRANCH_CATEGORY = "category"
+        private const val BRANCH_TOPICS = "topics"
+        private const val BRANCH_ENTITIES = "entities"
+        private const val BRANCH_SENTIMENT = "sentiment"
+        private const val BRANCH_FUSED = "fused"
+        
+        private const val OUTCOME_SUCCESS = "success"
+        private const val OUTCOME_TIMEOUT = "timeout"
+        private const val OUTCOME_ERROR = "error"
+        private const val OUTCOME_CANCELLED = "cancelled"
+        
+        private const val OPERATION_MISINFORMATION = "misinformation"
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.satyacheck.backend.service.api
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.TimeoutCancellationException
+import kotlinx.coroutines.withTimeout
+
+/**
+ * AIMD concurrency limit with a bounded FIFO wait queue.
+ *
+ * The limit grows by 1/limit for every successful call, roughly one slot per round of
+ * calls, and is multiplied by [backoffRatio] whenever the downstream signals overload
+ * (429, 503, timeouts). Callers beyond the limit wait in a queue of at most
+ * [maxQueueDepth]; a full queue or a missed wait deadline rejects the call at once
+ * instead of piling more load onto an overloaded upstream.
+ */
+class AdaptiveConcurrencyLimiter(
+    initialLimit: Int,
+    private val minLimit: Int,
+    private val maxLimit: Int,
+    private val maxQueueDepth: Int,
+    private val backoffRatio: Double = 0.7
+) {
+    private val lock = Any()
+    private var limit = initialLimit.coerceIn(minLimit, maxLimit).toDouble()
+    private var inFlight = 0
+    private val waiters = ArrayDeque<CompletableDeferred<Unit>>()
+
+    /**
+     * Wait for a slot, for at most [maxWaitMillis] when given
+     *
+     * @throws LimiterRejectedException if the queue is full or the wait times out
+     */
+    suspend fun acquire(maxWaitMillis: Long? = null) {
+        val waiter = synchronized(lock) {
+            if (waiters.isEmpty() && inFlight < currentLimit()) {
+                inFlight++
+                return
+            }
+            if (waiters.size >= maxQueueDepth) {
+                throw LimiterRejectedException(LimiterRejectedException.Reason.QUEUE_FULL)
+            }
+            CompletableDeferred<Unit>().also { waiters.addLast(it) }
+        }
+
+        try {
+            if (maxWaitMillis == null) waiter.await() else withTimeout(maxWaitMillis) { waiter.await() }
+        } catch (e: CancellationException) {
+            synchronized(lock) {
+                // A slot granted while we were giving up has to be handed back
+                if (!waiters.remove(waiter) && waiter.isCompleted) {
+                    releaseSlot()
+                }
+            }
+            if (e is TimeoutCancellationException) {
+                throw LimiterRejectedException(LimiterRejectedException.Reason.DEADLINE)
+            }
+            throw e
+        }
+    }
+
+    /**
+     * Take a slot only if one is free right now and nobody is queued for it
+     *
+     * @return true if a slot was taken and must be given back with [release]
+     */
+    fun tryAcquire(): Boolean {
+        synchronized(lock) {
+            if (waiters.isEmpty() && inFlight < currentLimit()) {
+                inFlight++
+                return true
+            }
+            return false
+        }
+    }
+
+    /**
+     * Give back a slot and adapt the limit to the outcome of the call it was used for
+     */
+    fun release(outcome: Outcome) {
+        synchronized(lock) {
+            when (outcome) {
+                Outcome.SUCCESS -> limit = (limit + 1.0 / limit).coerceAtMost(maxLimit.toDouble())
+                Outcome.OVERLOADED -> limit = (limit * backoffRatio).coerceAtLeast(minLimit.toDouble())
+                Outcome.IGNORED -> Unit
+            }
+            releaseSlot()
+        }
+    }
+
+    fun getLimit(): Int = synchronized(lock) { currentLimit() }
+
+    fun getInFlight(): Int = synchronized(lock) { inFlight }
+
+    fun getQueueDepth(): Int = synchronized(lock) { waiters.size }
+
+    private fun currentLimit(): Int = limit.toInt().coerceAtLeast(minLimit)
+
+    private fun releaseSlot() {
+        inFlight--
+        while (inFlight < currentLimit() && waiters.isNotEmpty()) {
+            inFlight++
+            waiters.removeFirst().complete(Unit)
+        }
+    }
+
+    enum class Outcome {
+        SUCCESS,
+        // The downstream asked us to slow down
+        OVERLOADED,
+        // Failures that say nothing about downstream capacity (e.g. 400 Bad Request)
+        IGNORED
+    }
+}
+
+/**
+ * Thrown when a call is turned away by [AdaptiveConcurrencyLimiter]
+ */
+class LimiterRejectedException(val reason: Reason) : RuntimeException("Gemini call rejected: ${reason.name.lowercase()}") {
+    enum class Reason {
+        QUEUE_FULL,
+        DEADLINE
+    }
+}
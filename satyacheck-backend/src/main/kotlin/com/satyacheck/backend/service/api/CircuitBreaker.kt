@@ -0,0 +1,169 @@
+package com.satyacheck.backend.service.api
+
+/**
+ * Failure-rate circuit breaker that lets traffic back in gradually.
+ *
+ * CLOSED: calls pass and their outcomes fill a window of the last [windowSize] calls. Once
+ * at least [minCalls] are recorded and [failureRateThreshold] of them failed, the breaker
+ * opens. OPEN: every call is rejected for [openDurationMs]. HALF_OPEN: probe calls are let
+ * through, one at first and twice as many concurrently after each success, so traffic is
+ * restored step by step. [halfOpenSuccesses] successful probes close the breaker again; a
+ * single failed probe reopens it.
+ *
+ * Outcomes are reported against the [Permit] a call was admitted with, so calls admitted
+ * before a state change cannot affect the state that followed it.
+ */
+class CircuitBreaker(
+    private val windowSize: Int,
+    private val minCalls: Int,
+    private val failureRateThreshold: Double,
+    private val openDurationMs: Long,
+    private val halfOpenSuccesses: Int,
+    private val nanoTime: () -> Long = System::nanoTime
+) {
+    private val lock = Any()
+    private var state = State.CLOSED
+    private var generation = 0L
+    private var openedAt = 0L
+
+    private val outcomes = BooleanArray(windowSize)
+    private var recorded = 0
+    private var failures = 0
+
+    private var probesInFlight = 0
+    private var probeSuccesses = 0
+
+    init {
+        require(windowSize > 0 && minCalls in 1..windowSize) { "minCalls must be between 1 and windowSize" }
+    }
+
+    /**
+     * Admission to make one call; outcomes are reported with it
+     */
+    class Permit internal constructor(internal val generation: Long, internal val probe: Boolean)
+
+    /**
+     * Admit a call, or return null if the breaker is open or all probe slots are taken
+     */
+    fun tryAcquire(): Permit? {
+        synchronized(lock) {
+            when (currentState()) {
+                State.CLOSED -> return Permit(generation, probe = false)
+                State.OPEN -> return null
+                State.HALF_OPEN -> {
+                    if (probesInFlight >= allowedProbes()) {
+                        return null
+                    }
+                    probesInFlight++
+                    return Permit(generation, probe = true)
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether a call made now would be admitted, without admitting it
+     */
+    fun isCallPermitted(): Boolean {
+        synchronized(lock) {
+            return when (currentState()) {
+                State.CLOSED -> true
+                State.OPEN -> false
+                State.HALF_OPEN -> probesInFlight < allowedProbes()
+            }
+        }
+    }
+
+    fun onSuccess(permit: Permit) {
+        synchronized(lock) {
+            if (permit.generation != generation) {
+                return
+            }
+            if (permit.probe) {
+                probesInFlight--
+                probeSuccesses++
+                if (probeSuccesses >= halfOpenSuccesses) {
+                    transition(State.CLOSED)
+                }
+            } else {
+                record(failed = false)
+            }
+        }
+    }
+
+    fun onFailure(permit: Permit) {
+        synchronized(lock) {
+            if (permit.generation != generation) {
+                return
+            }
+            if (permit.probe) {
+                transition(State.OPEN)
+            } else {
+                record(failed = true)
+                val calls = recorded.coerceAtMost(windowSize)
+                if (calls >= minCalls && failures >= failureRateThreshold * calls) {
+                    transition(State.OPEN)
+                }
+            }
+        }
+    }
+
+    /**
+     * The call ended without saying anything about the downstream's health (e.g. it was cancelled)
+     */
+    fun onIgnored(permit: Permit) {
+        synchronized(lock) {
+            if (permit.generation == generation && permit.probe) {
+                probesInFlight--
+            }
+        }
+    }
+
+    fun getState(): State = synchronized(lock) { currentState() }
+
+    private fun currentState(): State {
+        if (state == State.OPEN && nanoTime() - openedAt >= openDurationMs * 1_000_000) {
+            transition(State.HALF_OPEN)
+        }
+        return state
+    }
+
+    private fun allowedProbes(): Int = (1 shl probeSuccesses.coerceAtMost(20)).coerceAtMost(halfOpenSuccesses)
+
+    private fun record(failed: Boolean) {
+        val slot = recorded % windowSize
+        if (recorded >= windowSize && outcomes[slot]) {
+            failures--
+        }
+        outcomes[slot] = failed
+        if (failed) {
+            failures++
+        }
+        // Past the first window only the position in the ring matters, so keep the count bounded
+        recorded++
+        if (recorded >= 2 * windowSize) {
+            recorded -= windowSize
+        }
+    }
+
+    private fun transition(to: State) {
+        state = to
+        generation++
+        probesInFlight = 0
+        probeSuccesses = 0
+        if (to == State.OPEN) {
+            openedAt = nanoTime()
+        }
+        if (to == State.CLOSED) {
+            outcomes.fill(false)
+            recorded = 0
+            failures = 0
+        }
+    }
+
+    enum class State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
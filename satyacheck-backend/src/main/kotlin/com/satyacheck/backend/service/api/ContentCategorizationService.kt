@@ -1,14 +1,12 @@
 package com.satyacheck.backend.service.api
 
 import com.fasterxml.jackson.core.type.TypeReference
-import com.fasterxml.jackson.databind.ObjectMapper
+import com.satyacheck.backend.config.CacheConfig
 import com.satyacheck.backend.model.dto.ContentCategory
 import com.satyacheck.backend.model.dto.ExtractedTopic
-import org.springframework.beans.factory.annotation.Value
-import org.springframework.cache.annotation.Cacheable
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
 import org.springframework.stereotype.Service
-import org.springframework.web.reactive.function.client.WebClient
-import org.springframework.web.reactive.function.client.awaitBody
 import java.util.logging.Logger
 
 /**
@@ -16,47 +14,44 @@ import java.util.logging.Logger
  */
 @Service
 class ContentCategorizationService(
-    private val webClient: WebClient,
-    private val objectMapper: ObjectMapper
+    private val structuredOutput: GeminiStructuredOutput,
+    private val requestCoalescer: GeminiRequestCoalescer,
+    private val coroutineCacheManager: CoroutineCacheManager
 ) {
     private val logger = Logger.getLogger(ContentCategorizationService::class.java.name)
 
-    @Value("\${google.cloud.gemini.api-key}")
-    private lateinit var geminiApiKey: String
-
     /**
      * Categorize content into relevant categories
      */
-    @Cacheable(value = ["contentCategories"], key = "#content.hashCode() + '_' + #language")
     suspend fun categorizeContent(content: String, language: String = "en"): ContentCategory {
+        return coroutineCacheManager.cached(
+            CacheConfig.CONTENT_CATEGORIES,
+            ContentFingerprint.of(content, language),
+            cacheIf = { it.primaryCategory !in FAILED_CATEGORIES || it.confidence > 0.0 }
+        ) {
+            requestCoalescer.coalesce(OPERATION_CATEGORIZE, content, language) {
+                requestCategorization(content, language)
+            }
+        }
+    }
+    
+    /**
+     * Performs the Gemini call behind [categorizeContent]
+     */
+    private suspend fun requestCategorization(content: String, language: String): ContentCategory {
         try {
             logger.info("Categorizing content with Gemini API: ${content.take(50)}...")
             
-            val prompt = buildCategorizationPrompt(content, language)
-            
-            val requestBody = mapOf(
-                "contents" to listOf(
-                    mapOf(
-                        "parts" to listOf(
-                            mapOf("text" to prompt)
-                        )
-                    )
-                ),
-                "generationConfig" to mapOf(
-                    "temperature" to 0.1,
-                    "topK" to 40,
-                    "topP" to 0.95,
-                    "maxOutputTokens" to 1024
-                )
+            val output = structuredOutput.generate(
+                OPERATION_CATEGORIZE,
+                buildCategorizationPrompt(content, language),
+                GeminiOutputSchemas.CATEGORY,
+                CATEGORY_OUTPUT,
+                temperature = 0.1,
+                maxOutputTokens = 1024
             )
             
-            val response = webClient.post()
-                .uri("https://generativelanguage.googleapis.com/v1/models/gemini-pro:generateContent?key=$geminiApiKey")
-                .bodyValue(requestBody)
-                .retrieve()
-                .awaitBody<Map<String, Any>>()
-            
-            return processCategorizationResponse(response)
+            return processCategorizationOutput(output.value)
         } catch (e: Exception) {
             logger.severe("Error categorizing content with Gemini API: ${e.message}")
             return ContentCategory(
@@ -71,36 +66,35 @@ class ContentCategorizationService(
     /**
      * Extract main topics from content
      */
-    @Cacheable(value = ["extractedTopics"], key = "#content.hashCode() + '_' + #language")
     suspend fun extractTopics(content: String, language: String = "en"): List<ExtractedTopic> {
+        return coroutineCacheManager.cached(
+            CacheConfig.EXTRACTED_TOPICS,
+            ContentFingerprint.of(content, language),
+            cacheIf = { topics -> topics.none { it.topic == FAILED_TOPIC } }
+        ) {
+            requestCoalescer.coalesce(OPERATION_TOPICS, content, language) {
+                requestTopicExtraction(content, language)
+            }
+        }
+    }
+    
+    /**
+     * Performs the Gemini call behind [extractTopics]
+     */
+    private suspend fun requestTopicExtraction(content: String, language: String): List<ExtractedTopic> {
         try {
             logger.info("Extracting topics from content with Gemini API: ${content.take(50)}...")
             
-            val prompt = buildTopicExtractionPrompt(content, language)
-            
-            val requestBody = mapOf(
-                "contents" to listOf(
-                    mapOf(
-                        "parts" to listOf(
-                            mapOf("text" to prompt)
-                        )
-                    )
-                ),
-                "generationConfig" to mapOf(
-                    "temperature" to 0.1,
-                    "topK" to 40,
-                    "topP" to 0.95,
-                    "maxOutputTokens" to 1024
-                )
+            val output = structuredOutput.generate(
+                OPERATION_TOPICS,
+                buildTopicExtractionPrompt(content, language),
+                GeminiOutputSchemas.TOPICS,
+                TOPICS_OUTPUT,
+                temperature = 0.1,
+                maxOutputTokens = 1024
             )
             
-            val response = webClient.post()
-                .uri("https://generativelanguage.googleapis.com/v1/models/gemini-pro:generateContent?key=$geminiApiKey")
-                .bodyValue(requestBody)
-                .retrieve()
-                .awaitBody<Map<String, Any>>()
-            
-            return processTopicsResponse(response)
+            return processTopicsOutput(output.value)
         } catch (e: Exception) {
             logger.severe("Error extracting topics with Gemini API: ${e.message}")
             return listOf(
@@ -192,36 +186,19 @@ class ContentCategorizationService(
     }
     
     /**
-     * Process the response from Gemini API for content categorization
+     * Convert the generated category object, null when it was unusable
      */
-    @Suppress("UNCHECKED_CAST")
-    private fun processCategorizationResponse(response: Map<String, Any>): ContentCategory {
+    private fun processCategorizationOutput(output: CategoryOutput?): ContentCategory {
         try {
-            // Extract the generated content from the Gemini API response
-            val candidates = response["candidates"] as? List<Map<String, Any>>
-            val content = candidates?.firstOrNull()?.get("content") as? Map<String, Any>
-            val parts = content?.get("parts") as? List<Map<String, Any>>
-            val text = parts?.firstOrNull()?.get("text") as? String
-                ?: return ContentCategory("ERROR", emptyList(), 0.0, emptyList())
-            
-            // Find JSON content within the text
-            val jsonPattern = "\\{.*\"primaryCategory\".*\\}".toRegex(RegexOption.DOT_MATCHES_ALL)
-            val jsonMatch = jsonPattern.find(text)
-            val jsonContent = jsonMatch?.value ?: text
-            
-            // Parse the JSON
-            val resultMap = objectMapper.readValue(jsonContent, object : TypeReference<Map<String, Any>>() {})
-            
-            val primaryCategory = resultMap["primaryCategory"] as? String ?: "UNCATEGORIZED"
-            val subCategories = resultMap["subCategories"] as? List<String> ?: emptyList()
-            val confidence = (resultMap["confidence"] as? Number)?.toDouble() ?: 0.0
-            val tags = resultMap["tags"] as? List<String> ?: emptyList()
+            if (output == null) {
+                throw IllegalStateException("No valid JSON object in response")
+            }
             
             return ContentCategory(
-                primaryCategory = primaryCategory,
-                subCategories = subCategories,
-                confidence = confidence,
-                tags = tags
+                primaryCategory = output.primaryCategory ?: "UNCATEGORIZED",
+                subCategories = output.subCategories ?: emptyList(),
+                confidence = output.confidence ?: 0.0,
+                tags = output.tags ?: emptyList()
             )
         } catch (e: Exception) {
             logger.severe("Error processing categorization response: ${e.message}")
@@ -235,37 +212,30 @@ class ContentCategorizationService(
     }
     
     /**
-     * Process the response from Gemini API for topic extraction
+     * Convert the generated topics array, null when it was unusable
      */
-    @Suppress("UNCHECKED_CAST")
-    private fun processTopicsResponse(response: Map<String, Any>): List<ExtractedTopic> {
+    private fun processTopicsOutput(topics: List<TopicOutput>?): List<ExtractedTopic> {
         try {
-            // Extract the generated content from the Gemini API response
-            val candidates = response["candidates"] as? List<Map<String, Any>>
-            val content = candidates?.firstOrNull()?.get("content") as? Map<String, Any>
-            val parts = content?.get("parts") as? List<Map<String, Any>>
-            val text = parts?.firstOrNull()?.get("text") as? String
-                ?: return listOf(ExtractedTopic("ERROR", 0.0))
-            
-            // Find JSON content within the text
-            val jsonPattern = "\\[.*\\]".toRegex(RegexOption.DOT_MATCHES_ALL)
-            val jsonMatch = jsonPattern.find(text)
-            val jsonContent = jsonMatch?.value ?: text
-            
-            // Parse the JSON
-            val topicsArray = objectMapper.readValue(jsonContent, object : TypeReference<List<Map<String, Any>>>() {})
-            
-            return topicsArray.map { topic ->
-                ExtractedTopic(
-                    topic = topic["topic"] as? String ?: "UNKNOWN",
-                    relevance = (topic["relevance"] as? Number)?.toDouble() ?: 0.0,
-                    subtopics = topic["subtopics"] as? List<String> ?: emptyList(),
-                    keywords = topic["keywords"] as? List<String> ?: emptyList()
-                )
+            if (topics == null) {
+                throw IllegalStateException("No valid JSON array in response")
             }
+            
+            return topics.map { it.toExtractedTopic() }
         } catch (e: Exception) {
             logger.severe("Error processing topics response: ${e.message}")
             return listOf(ExtractedTopic("ERROR", 0.0))
         }
     }
+    
+    companion object {
+        private const val OPERATION_CATEGORIZE = "categorizeContent"
+        private const val OPERATION_TOPICS = "extractTopics"
+        
+        // Placeholders returned when Gemini could not be reached or its answer not parsed
+        private val FAILED_CATEGORIES = setOf("ERROR", "UNCATEGORIZED")
+        private const val FAILED_TOPIC = "ERROR"
+        
+        private val CATEGORY_OUTPUT = object : TypeReference<CategoryOutput>() {}
+        private val TOPICS_OUTPUT = object : TypeReference<List<TopicOutput>>() {}
+    }
 }
\ No newline at end of file
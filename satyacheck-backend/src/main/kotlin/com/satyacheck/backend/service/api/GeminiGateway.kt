@@ -0,0 +1,495 @@
+package com.satyacheck.backend.service.api
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.TimeoutCancellationException
+import kotlinx.coroutines.async
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.reactive.asFlow
+import kotlinx.coroutines.selects.select
+import kotlinx.coroutines.supervisorScope
+import kotlinx.coroutines.withTimeout
+import kotlinx.coroutines.withTimeoutOrNull
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
+import org.springframework.stereotype.Component
+import org.springframework.web.reactive.function.client.WebClient
+import org.springframework.web.reactive.function.client.WebClientRequestException
+import org.springframework.web.reactive.function.client.WebClientResponseException
+import org.springframework.web.reactive.function.client.awaitBody
+import java.time.Duration
+import java.time.ZonedDateTime
+import java.time.format.DateTimeFormatter
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.logging.Logger
+
+/**
+ * Single outbound path to the Gemini generateContent endpoint.
+ *
+ * Every call passes through an [AdaptiveConcurrencyLimiter], so the number of requests
+ * in flight follows what the quota actually allows instead of a fixed pool size: 429 and
+ * 503 responses and timeouts shrink the limit, successes grow it back slowly. Callers
+ * beyond the limit queue for at most their wait deadline and are then rejected.
+ *
+ * Rate limiting, server errors and connection failures are retried with exponential
+ * backoff and full jitter, honouring Retry-After when Gemini sends it. Other client
+ * errors (bad request, invalid key) fail at once.
+ *
+ * A call still unanswered after the rolling p90 of recent latencies
+ * (gemini.gateway.hedging.percentile) gets one duplicate request on a free slot, and the
+ * first success wins. Hedges are capped at gemini.gateway.hedging.budget-percent of
+ * requests by [HedgingPolicy] and counted as satyacheck.gemini.hedges{operation,outcome}.
+ *
+ * A [CircuitBreaker] sits in front of all of this. When too many recent calls failed with
+ * errors that say Gemini is unhealthy (429, 5xx, timeouts, connection failures, after
+ * retries), calls fail at once with [GeminiUnavailableException] instead of waiting, until
+ * probe calls show that Gemini has recovered.
+ */
+@Component
+class GeminiGateway(
+    private val webClient: WebClient,
+    private val objectMapper: ObjectMapper,
+    private val meterRegistry: MeterRegistry,
+    @Value("\${gemini.gateway.initial-limit:8}") initialLimit: Int,
+    @Value("\${gemini.gateway.min-limit:1}") minLimit: Int,
+    @Value("\${gemini.gateway.max-limit:32}") maxLimit: Int,
+    @Value("\${gemini.gateway.max-queue-depth:64}") maxQueueDepth: Int,
+    @Value("\${gemini.gateway.queue-timeout-ms:5000}") private val defaultQueueTimeoutMs: Long,
+    @Value("\${gemini.gateway.request-timeout-ms:20000}") private val requestTimeoutMs: Long,
+    @Value("\${gemini.gateway.max-attempts:3}") private val maxAttempts: Int,
+    @Value("\${gemini.gateway.backoff.base-ms:250}") private val backoffBaseMs: Long,
+    @Value("\${gemini.gateway.backoff.max-ms:8000}") private val backoffMaxMs: Long,
+    @Value("\${gemini.gateway.hedging.enabled:true}") private val hedgingEnabled: Boolean,
+    @Value("\${gemini.gateway.hedging.percentile:0.9}") hedgePercentile: Double,
+    @Value("\${gemini.gateway.hedging.budget-percent:5}") hedgeBudgetPercent: Double,
+    @Value("\${gemini.gateway.hedging.min-samples:50}") hedgeMinSamples: Int,
+    @Value("\${gemini.gateway.hedging.min-delay-ms:500}") hedgeMinDelayMs: Long,
+    @Value("\${gemini.gateway.hedging.max-delay-ms:10000}") hedgeMaxDelayMs: Long,
+    @Value("\${gemini.gateway.circuit-breaker.enabled:true}") private val circuitBreakerEnabled: Boolean,
+    @Value("\${gemini.gateway.circuit-breaker.window-size:20}") breakerWindowSize: Int,
+    @Value("\${gemini.gateway.circuit-breaker.min-calls:10}") breakerMinCalls: Int,
+    @Value("\${gemini.gateway.circuit-breaker.failure-rate-threshold:0.5}") breakerFailureRateThreshold: Double,
+    @Value("\${gemini.gateway.circuit-breaker.open-duration-ms:30000}") breakerOpenDurationMs: Long,
+    @Value("\${gemini.gateway.circuit-breaker.half-open-successes:8}") breakerHalfOpenSuccesses: Int
+) {
+    private val logger = Logger.getLogger(GeminiGateway::class.java.name)
+
+    @Value("\${google.cloud.gemini.api-key}")
+    private lateinit var geminiApiKey: String
+
+    @Value("\${gemini.gateway.default-model:gemini-1.5-flash}")
+    private lateinit var defaultModel: String
+
+    // Overridden by the load-test harness to point at its stand-in server
+    @Value("\${gemini.gateway.base-url:https://generativelanguage.googleapis.com}")
+    private lateinit var baseUrl: String
+
+    // responseMimeType and responseSchema are only accepted by v1beta
+    @Value("\${gemini.gateway.api-version:v1beta}")
+    private lateinit var apiVersion: String
+
+    private val limiter = AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, maxQueueDepth)
+
+    private val hedgingPolicy = HedgingPolicy(hedgePercentile, hedgeBudgetPercent, hedgeMinSamples, hedgeMinDelayMs, hedgeMaxDelayMs)
+
+    private val circuitBreaker = CircuitBreaker(
+        breakerWindowSize,
+        breakerMinCalls,
+        breakerFailureRateThreshold,
+        breakerOpenDurationMs,
+        breakerHalfOpenSuccesses
+    )
+
+    init {
+        Gauge.builder("satyacheck.gemini.limit", limiter) { it.getLimit().toDouble() }
+            .description("Current adaptive concurrency limit for Gemini calls")
+            .register(meterRegistry)
+        Gauge.builder("satyacheck.gemini.inflight", limiter) { it.getInFlight().toDouble() }
+            .description("Gemini calls currently holding a concurrency slot")
+            .register(meterRegistry)
+        Gauge.builder("satyacheck.gemini.queue.depth", limiter) { it.getQueueDepth().toDouble() }
+            .description("Gemini calls waiting for a concurrency slot")
+            .register(meterRegistry)
+        Gauge.builder("satyacheck.gemini.circuit.state", circuitBreaker) { it.getState().ordinal.toDouble() }
+            .description("Gemini circuit breaker state: 0 closed, 1 open, 2 half-open")
+            .register(meterRegistry)
+    }
+
+    /**
+     * Send a generateContent request and return the decoded response
+     *
+     * @param operation Name of the calling operation, used as a metric tag
+     * @param requestBody The generateContent request
+     * @param model The Gemini model to call, the configured default when null
+     * @param queueTimeoutMs How long this caller is willing to wait for a slot
+     * @throws GeminiUnavailableException if the circuit breaker is open
+     * @throws LimiterRejectedException if no slot became free in time
+     * @throws WebClientResponseException if Gemini kept failing or rejected the request
+     */
+    suspend fun generateContent(
+        operation: String,
+        requestBody: Map<String, Any>,
+        model: String? = null,
+        queueTimeoutMs: Long = defaultQueueTimeoutMs
+    ): GenerateContentResponse {
+        val permit = admit(operation)
+        try {
+            val response = generateWithRetries(operation, requestBody, model, queueTimeoutMs)
+            permit?.let { circuitBreaker.onSuccess(it) }
+            return response
+        } catch (e: CancellationException) {
+            permit?.let { circuitBreaker.onIgnored(it) }
+            throw e
+        } catch (e: Exception) {
+            permit?.let { reportFailure(it, e) }
+            throw e
+        }
+    }
+
+    /**
+     * Whether Gemini calls are currently let through by the circuit breaker
+     */
+    fun isAvailable(): Boolean = !circuitBreakerEnabled || circuitBreaker.isCallPermitted()
+
+    private suspend fun generateWithRetries(
+        operation: String,
+        requestBody: Map<String, Any>,
+        model: String?,
+        queueTimeoutMs: Long
+    ): GenerateContentResponse {
+        val url = "$baseUrl/$apiVersion/models/${model ?: defaultModel}:generateContent?key=$geminiApiKey"
+        var attempt = 1
+        while (true) {
+            acquire(queueTimeoutMs)
+            val failure: Exception
+            try {
+                val response = if (hedgingEnabled) sendHedged(operation, url, requestBody) else send(url, requestBody)
+                callCounter(operation, OUTCOME_SUCCESS).increment()
+                return response
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                failure = e
+            }
+
+            if (!isRetryable(failure) || attempt >= maxAttempts) {
+                callCounter(operation, OUTCOME_FAILURE).increment()
+                throw failure
+            }
+            callCounter(operation, OUTCOME_RETRY).increment()
+            val backoff = backoffFor(failure, attempt)
+            logger.warning("Gemini $operation attempt $attempt failed (${failure.message}), retrying in ${backoff}ms")
+            delay(backoff)
+            attempt++
+        }
+    }
+
+    /**
+     * Send the request on an already acquired slot, and give the slot back afterwards
+     */
+    private suspend fun send(url: String, requestBody: Map<String, Any>): GenerateContentResponse {
+        val started = System.nanoTime()
+        try {
+            val response = withTimeout(requestTimeoutMs) {
+                webClient.post()
+                    .uri(url)
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .awaitBody<GenerateContentResponse>()
+            }
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS)
+            hedgingPolicy.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+            return response
+        } catch (e: TimeoutCancellationException) {
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.OVERLOADED)
+            // Only our own request timeout is retried, not a cancelled caller
+            currentCoroutineContext().ensureActive()
+            throw GeminiTimeoutException(requestTimeoutMs)
+        } catch (e: CancellationException) {
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED)
+            throw e
+        } catch (e: Exception) {
+            limiter.release(
+                if (isOverload(e)) AdaptiveConcurrencyLimiter.Outcome.OVERLOADED else AdaptiveConcurrencyLimiter.Outcome.IGNORED
+            )
+            throw e
+        }
+    }
+
+    /**
+     * [send], plus one duplicate request if the first has not answered by the hedge delay
+     *
+     * The hedge needs budget and a free concurrency slot; it never queues. Whichever request
+     * succeeds first wins and the other is cancelled. If one of them fails, the other is
+     * still awaited, and only when both fail is the last failure thrown.
+     */
+    private suspend fun sendHedged(operation: String, url: String, requestBody: Map<String, Any>): GenerateContentResponse {
+        val hedgeDelayMs = hedgingPolicy.hedgeDelayMs()
+        hedgingPolicy.recordRequest()
+        if (hedgeDelayMs == null) {
+            return send(url, requestBody)
+        }
+
+        return supervisorScope {
+            // ATOMIC: the body must run even if cancelled right away, or its slot would never be released
+            val primary = async(start = CoroutineStart.ATOMIC) { send(url, requestBody) }
+            withTimeoutOrNull(hedgeDelayMs) { primary.join() }
+            if (primary.isCompleted) {
+                return@supervisorScope primary.await()
+            }
+            if (!limiter.tryAcquire()) {
+                hedgeCounter(operation, HEDGE_DENIED_CAPACITY).increment()
+                return@supervisorScope primary.await()
+            }
+            if (!hedgingPolicy.tryAcquireHedge()) {
+                limiter.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED)
+                hedgeCounter(operation, HEDGE_DENIED_BUDGET).increment()
+                return@supervisorScope primary.await()
+            }
+
+            hedgeCounter(operation, HEDGE_FIRED).increment()
+            val hedge = async(start = CoroutineStart.ATOMIC) { send(url, requestBody) }
+            firstSuccess(operation, primary, hedge)
+        }
+    }
+
+    /**
+     * The first successful response of [primary] and [hedge], cancelling the other request
+     */
+    private suspend fun firstSuccess(
+        operation: String,
+        primary: Deferred<GenerateContentResponse>,
+        hedge: Deferred<GenerateContentResponse>
+    ): GenerateContentResponse {
+        val racing = mutableListOf(primary, hedge)
+        while (true) {
+            val finished = select<Deferred<GenerateContentResponse>> {
+                racing.forEach { request -> request.onJoin { request } }
+            }
+            racing.remove(finished)
+            val response = try {
+                finished.await()
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                if (racing.isEmpty()) {
+                    throw e
+                }
+                continue
+            }
+            racing.forEach { it.cancel() }
+            hedgeCounter(operation, if (finished === hedge) HEDGE_WON else HEDGE_LOST).increment()
+            return response
+        }
+    }
+
+    /**
+     * Send a streamGenerateContent request and emit the generated text as it arrives
+     *
+     * The call holds one concurrency slot until the stream ends. It is not retried, since
+     * part of the output may already have been consumed; callers fall back to
+     * [generateContent] instead. gemini.gateway.request-timeout-ms bounds the gap between
+     * two chunks rather than the whole response.
+     */
+    fun streamGenerateContent(
+        operation: String,
+        requestBody: Map<String, Any>,
+        model: String? = null,
+        queueTimeoutMs: Long = defaultQueueTimeoutMs
+    ): Flow<String> = flow {
+        val modelName = model ?: defaultModel
+        val permit = admit(operation)
+        try {
+            acquire(queueTimeoutMs)
+        } catch (e: Exception) {
+            permit?.let { circuitBreaker.onIgnored(it) }
+            throw e
+        }
+        var outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORED
+        var failure: Exception? = null
+        try {
+            webClient.post()
+                .uri("$baseUrl/$apiVersion/models/$modelName:streamGenerateContent?alt=sse&key=$geminiApiKey")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(String::class.java)
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .asFlow()
+                .collect { data -> extractText(data)?.let { emit(it) } }
+            outcome = AdaptiveConcurrencyLimiter.Outcome.SUCCESS
+            callCounter(operation, OUTCOME_SUCCESS).increment()
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            if (isOverload(e)) {
+                outcome = AdaptiveConcurrencyLimiter.Outcome.OVERLOADED
+            }
+            // A stalled stream timed out like a buffered call, and counts against the breaker as one
+            val thrown = if (e is TimeoutException) GeminiTimeoutException(requestTimeoutMs) else e
+            failure = thrown
+            callCounter(operation, OUTCOME_FAILURE).increment()
+            throw thrown
+        } finally {
+            limiter.release(outcome)
+            permit?.let {
+                when {
+                    outcome == AdaptiveConcurrencyLimiter.Outcome.SUCCESS -> circuitBreaker.onSuccess(it)
+                    failure != null -> reportFailure(it, failure)
+                    else -> circuitBreaker.onIgnored(it)
+                }
+            }
+        }
+    }
+
+    /**
+     * The text of the first candidate in one streamed response chunk
+     */
+    private fun extractText(data: String): String? {
+        if (data.isBlank()) {
+            return null
+        }
+        return objectMapper.readValue(data, GenerateContentResponse::class.java).text()
+    }
+
+    /**
+     * Let a call past the circuit breaker; null when the breaker is disabled
+     *
+     * @throws GeminiUnavailableException if the breaker is open
+     */
+    private fun admit(operation: String): CircuitBreaker.Permit? {
+        if (!circuitBreakerEnabled) {
+            return null
+        }
+        return circuitBreaker.tryAcquire() ?: run {
+            Counter.builder("satyacheck.gemini.circuit.rejections")
+                .description("Gemini calls failed fast by the open circuit breaker")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment()
+            throw GeminiUnavailableException()
+        }
+    }
+
+    /**
+     * Count a failed call against the breaker if the failure says Gemini is unhealthy
+     */
+    private fun reportFailure(permit: CircuitBreaker.Permit, e: Exception) {
+        val before = circuitBreaker.getState()
+        if (isRetryable(e)) circuitBreaker.onFailure(permit) else circuitBreaker.onIgnored(permit)
+        val after = circuitBreaker.getState()
+        if (before != after) {
+            logger.warning("Gemini circuit breaker ${before.name} -> ${after.name} after: ${e.message}")
+        }
+    }
+
+    private suspend fun acquire(queueTimeoutMs: Long) {
+        try {
+            limiter.acquire(queueTimeoutMs)
+        } catch (e: LimiterRejectedException) {
+            Counter.builder("satyacheck.gemini.rejections")
+                .description("Gemini calls turned away by the concurrency limiter")
+                .tag("reason", e.reason.name.lowercase())
+                .register(meterRegistry)
+                .increment()
+            throw e
+        }
+    }
+
+    private fun isOverload(e: Exception): Boolean {
+        return when (e) {
+            is WebClientResponseException ->
+                e.statusCode.value() == HttpStatus.TOO_MANY_REQUESTS.value() ||
+                    e.statusCode.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+            is TimeoutException -> true
+            else -> false
+        }
+    }
+
+    private fun isRetryable(e: Exception): Boolean {
+        return when (e) {
+            is WebClientResponseException ->
+                e.statusCode.value() == HttpStatus.TOO_MANY_REQUESTS.value() || e.statusCode.is5xxServerError
+            is WebClientRequestException, is GeminiTimeoutException -> true
+            else -> false
+        }
+    }
+
+    /**
+     * Delay before the next attempt: Retry-After when given, exponential backoff with full jitter otherwise
+     */
+    private fun backoffFor(e: Exception, attempt: Int): Long {
+        val retryAfter = (e as? WebClientResponseException)?.headers?.getFirst(HttpHeaders.RETRY_AFTER)
+        parseRetryAfter(retryAfter)?.let { return it.toMillis().coerceIn(0, backoffMaxMs) }
+
+        val ceiling = (backoffBaseMs shl (attempt - 1).coerceAtMost(20)).coerceAtMost(backoffMaxMs)
+        return ThreadLocalRandom.current().nextLong(ceiling + 1)
+    }
+
+    private fun hedgeCounter(operation: String, outcome: String): Counter {
+        return Counter.builder("satyacheck.gemini.hedges")
+            .description("Hedged Gemini requests by outcome")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+    }
+
+    private fun callCounter(operation: String, outcome: String): Counter {
+        return Counter.builder("satyacheck.gemini.calls")
+            .description("Outbound Gemini call attempts by outcome")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+    }
+
+    companion object {
+        private const val OUTCOME_SUCCESS = "success"
+        private const val OUTCOME_RETRY = "retry"
+        private const val OUTCOME_FAILURE = "failure"
+
+        private const val HEDGE_FIRED = "fired"
+        private const val HEDGE_WON = "won"
+        private const val HEDGE_LOST = "lost"
+        private const val HEDGE_DENIED_BUDGET = "denied_budget"
+        private const val HEDGE_DENIED_CAPACITY = "denied_capacity"
+
+        /**
+         * Parse a Retry-After header given either as delta-seconds or as an HTTP date
+         */
+        fun parseRetryAfter(value: String?): Duration? {
+            if (value.isNullOrBlank()) {
+                return null
+            }
+            value.trim().toLongOrNull()?.let { return Duration.ofSeconds(it.coerceAtLeast(0)) }
+            return try {
+                val until = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                Duration.between(ZonedDateTime.now(until.zone), until).takeUnless { it.isNegative } ?: Duration.ZERO
+            } catch (e: Exception) {
+                null
+            }
+        }
+    }
+}
+
+/**
+ * Thrown when a Gemini request did not complete within gemini.gateway.request-timeout-ms
+ */
+class GeminiTimeoutException(timeoutMs: Long) : RuntimeException("Gemini request timed out after ${timeoutMs}ms")
+
+/**
+ * Thrown without calling Gemini while its circuit breaker is open
+ */
+class GeminiUnavailableException : RuntimeException("Gemini is temporarily unavailable (circuit breaker open)")
@@ -0,0 +1,55 @@
+package com.satyacheck.backend.service.api
+
+import com.fasterxml.jackson.core.JsonProcessingException
+import com.fasterxml.jackson.core.type.TypeReference
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.springframework.stereotype.Component
+
+/**
+ * Pulls the JSON value a prompt asked for out of the free text Gemini generated.
+ *
+ * The model often surrounds the value with prose or a markdown code fence. Rather than
+ * isolating it with a regex and then parsing the match again, the extractor positions a
+ * streaming Jackson parser at the first opening brace (or bracket) and binds the value
+ * directly, in a single pass. Jackson stops at the end of the value, so whatever follows
+ * it is never read. If the text at that position is not valid JSON, the next candidate
+ * opening character is tried, up to [MAX_ATTEMPTS] times.
+ */
+@Component
+class GeminiJsonExtractor(private val objectMapper: ObjectMapper) {
+
+    /**
+     * Bind the first JSON object in [text] to [type], or return null if there is none
+     */
+    fun <T> extractObject(text: String, type: TypeReference<T>): T? = extract(text, '{', type)
+
+    /**
+     * Bind the first JSON array in [text] to [type], or return null if there is none
+     */
+    fun <T> extractArray(text: String, type: TypeReference<T>): T? = extract(text, '[', type)
+
+    private fun <T> extract(text: String, open: Char, type: TypeReference<T>): T? {
+        var start = text.indexOf(open)
+        if (start < 0) {
+            return null
+        }
+        val chars = text.toCharArray()
+        var attempts = 0
+        while (start >= 0 && attempts < MAX_ATTEMPTS) {
+            try {
+                objectMapper.factory.createParser(chars, start, chars.size - start).use { parser ->
+                    parser.nextToken()
+                    return objectMapper.readValue(parser, type)
+                }
+            } catch (e: JsonProcessingException) {
+                attempts++
+                start = text.indexOf(open, start + 1)
+            }
+        }
+        return null
+    }
+
+    companion object {
+        private const val MAX_ATTEMPTS = 3
+    }
+}
@@ -0,0 +1,158 @@
+package com.satyacheck.backend.service.api
+
+import com.satyacheck.backend.model.enum.Verdict
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import kotlinx.coroutines.CancellationException
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.core.env.Environment
+import org.springframework.http.HttpStatus
+import org.springframework.stereotype.Component
+import org.springframework.web.reactive.function.client.WebClientResponseException
+import java.util.logging.Logger
+
+/**
+ * Cascades verdict-producing Gemini calls from a fast, cheap triage model to a larger one.
+ *
+ * The call is first made with the triage model. Its answer is kept unless
+ * - the call failed or returned no usable verdict, e.g. an unparseable answer,
+ * - the verdict is HIGH_MISINFORMATION_RISK or SCAM_ALERT, where a wrong answer costs most, or
+ * - the model's confidence in the verdict is below the operation's threshold,
+ * in which case the same call is repeated with the escalation model. A triage call that failed
+ * because Gemini is overloaded or unavailable (429 or 503 responses, timeouts, an open circuit
+ * breaker or a limiter rejection) is not escalated: the error is rethrown so that the larger
+ * model doesn't add load while Gemini is shedding it.
+ *
+ * Configuration:
+ * - gemini.routing.enabled: when false, every call goes straight to the gateway's default model
+ * - gemini.routing.operations: the operations that are routed; others use the default model
+ * - gemini.routing.triage-model, gemini.routing.escalation-model
+ * - gemini.routing.threshold.<operation>: minimum triage confidence, falling back to
+ *   gemini.routing.default-threshold
+ *
+ * Routing decisions are counted as satyacheck.gemini.routing{operation,escalated,reason}, so the
+ * escalation rate is escalated=true over the total, and each tier's latency is recorded as
+ * satyacheck.gemini.model.latency{operation,model,tier}.
+ */
+@Component
+class GeminiModelRouter(
+    private val environment: Environment,
+    private val meterRegistry: MeterRegistry,
+    @Value("\${gemini.routing.enabled:true}") private val enabled: Boolean,
+    @Value("\${gemini.routing.operations:}") private val operations: Set<String>,
+    @Value("\${gemini.routing.triage-model:gemini-1.5-flash-8b}") private val triageModel: String,
+    @Value("\${gemini.routing.escalation-model:gemini-1.5-pro}") private val escalationModel: String,
+    @Value("\${gemini.routing.default-threshold:0.7}") private val defaultThreshold: Double
+) {
+    private val logger = Logger.getLogger(GeminiModelRouter::class.java.name)
+
+    /**
+     * Run [call] with the triage model, and again with the escalation model if its answer is not good enough
+     *
+     * @param call Makes the Gemini call with the given model, the gateway default when null
+     * @param verdictOf The verdict of an answer, null if it has none
+     * @param confidenceOf The model's confidence in that verdict, null if it gave none
+     */
+    suspend fun <T> route(
+        operation: String,
+        call: suspend (model: String?) -> T,
+        verdictOf: (T) -> Verdict?,
+        confidenceOf: (T) -> Double?
+    ): T {
+        if (!enabled || operation !in operations) {
+            return timed(operation, null, TIER_DIRECT) { call(null) }
+        }
+
+        val triage = try {
+            timed(operation, triageModel, TIER_TRIAGE) { call(triageModel) }
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            if (isOverload(e)) {
+                throw e
+            }
+            logger.warning("Triage call for $operation failed, escalating: ${e.message}")
+            record(operation, REASON_FAILURE)
+            return timed(operation, escalationModel, TIER_ESCALATION) { call(escalationModel) }
+        }
+
+        val reason = escalationReason(operation, verdictOf(triage), confidenceOf(triage))
+        record(operation, reason)
+        if (reason == REASON_NONE) {
+            return triage
+        }
+        logger.info("Escalating $operation to $escalationModel ($reason)")
+        return timed(operation, escalationModel, TIER_ESCALATION) { call(escalationModel) }
+    }
+
+    /**
+     * Why a triage answer with [verdict] and [confidence] must be escalated, or [REASON_NONE]
+     */
+    fun escalationReason(operation: String, verdict: Verdict?, confidence: Double?): String {
+        return when {
+            verdict == null || verdict.isFailure() -> REASON_FAILURE
+            verdict in HIGH_STAKES_VERDICTS -> REASON_VERDICT
+            confidence == null || confidence < threshold(operation) -> REASON_CONFIDENCE
+            else -> REASON_NONE
+        }
+    }
+
+    /**
+     * Failures that say Gemini is saturated rather than that the triage model couldn't answer
+     */
+    private fun isOverload(e: Exception): Boolean {
+        return when (e) {
+            is LimiterRejectedException, is GeminiUnavailableException, is GeminiTimeoutException -> true
+            is WebClientResponseException ->
+                e.statusCode.value() == HttpStatus.TOO_MANY_REQUESTS.value() ||
+                    e.statusCode.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+            else -> false
+        }
+    }
+
+    private fun threshold(operation: String): Double {
+        return environment.getProperty("gemini.routing.threshold.$operation", Double::class.javaObjectType, defaultThreshold)
+    }
+
+    private suspend fun <T> timed(operation: String, model: String?, tier: String, block: suspend () -> T): T {
+        val sample = Timer.start(meterRegistry)
+        try {
+            return block()
+        } finally {
+            sample.stop(
+                Timer.builder("satyacheck.gemini.model.latency")
+                    .description("Latency of routed Gemini calls per model")
+                    .tag("operation", operation)
+                    .tag("model", model ?: MODEL_DEFAULT)
+                    .tag("tier", tier)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+            )
+        }
+    }
+
+    private fun record(operation: String, reason: String) {
+        Counter.builder("satyacheck.gemini.routing")
+            .description("Routing decisions for triaged Gemini calls")
+            .tag("operation", operation)
+            .tag("escalated", (reason != REASON_NONE).toString())
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment()
+    }
+
+    companion object {
+        const val REASON_NONE = "none"
+        const val REASON_FAILURE = "failure"
+        const val REASON_VERDICT = "verdict"
+        const val REASON_CONFIDENCE = "confidence"
+
+        private const val TIER_DIRECT = "direct"
+        private const val TIER_TRIAGE = "triage"
+        private const val TIER_ESCALATION = "escalation"
+        private const val MODEL_DEFAULT = "default"
+
+        private val HIGH_STAKES_VERDICTS = setOf(Verdict.HIGH_MISINFORMATION_RISK, Verdict.SCAM_ALERT)
+    }
+}
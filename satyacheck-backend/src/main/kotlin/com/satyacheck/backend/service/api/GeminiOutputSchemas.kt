@@ -0,0 +1,62 @@
+package com.satyacheck.backend.service.api
+
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.ContentCategory
+import com.satyacheck.backend.model.dto.ExtractedTopic
+import com.satyacheck.backend.model.dto.MisinformationAnalysis
+import com.satyacheck.backend.model.dto.QuickVerdict
+import com.satyacheck.backend.model.enum.Verdict
+
+/**
+ * The response schemas our prompts ask Gemini to follow, derived from the DTOs the output ends up in
+ */
+object GeminiOutputSchemas {
+
+    /**
+     * Verdicts the model may choose; ERROR and UNKNOWN are reserved for failed analyses
+     */
+    val VERDICTS: List<String> = Verdict.values().filterNot { it.isFailure() }.map { it.name }
+
+    val CATEGORIES: List<String> = listOf(
+        "NEWS", "POLITICS", "HEALTH", "SCIENCE", "TECHNOLOGY", "ENTERTAINMENT",
+        "SPORTS", "BUSINESS", "EDUCATION", "OPINION", "SOCIAL_MEDIA", "OTHER"
+    )
+
+    val RISK_LEVELS: List<String> = listOf("LOW", "MEDIUM", "HIGH", "CRITICAL")
+
+    /**
+     * The model's confidence in its verdict, which decides whether a triage answer is escalated
+     */
+    const val VERDICT_CONFIDENCE = "verdictConfidence"
+
+    val FACT_CHECK: ResponseSchema = ResponseSchema.of(
+        AnalysisResult::class,
+        exclude = setOf("nearDuplicateOf", "stale", "degraded"),
+        enums = mapOf("verdict" to VERDICTS)
+    ).withProperty(VERDICT_CONFIDENCE, ResponseSchema.number())
+
+    val QUICK_VERDICT: ResponseSchema = ResponseSchema.of(
+        QuickVerdict::class,
+        exclude = setOf("analysisId", "degraded"),
+        enums = mapOf("verdict" to VERDICTS)
+    ).withProperty(VERDICT_CONFIDENCE, ResponseSchema.number())
+
+    val EXPLANATION: ResponseSchema = ResponseSchema.of(
+        AnalysisResult::class,
+        exclude = setOf("verdict", "nearDuplicateOf", "stale", "degraded")
+    )
+
+    val MISINFORMATION: ResponseSchema = ResponseSchema.of(
+        MisinformationAnalysis::class,
+        enums = mapOf("riskLevel" to RISK_LEVELS)
+    )
+
+    val CATEGORY: ResponseSchema = ResponseSchema.of(
+        ContentCategory::class,
+        enums = mapOf("primaryCategory" to CATEGORIES)
+    )
+
+    val TOPICS: ResponseSchema = ResponseSchema.arrayOf(ExtractedTopic::class)
+
+    val FUSED: ResponseSchema = (FACT_CHECK + CATEGORY).withProperty("topics", TOPICS)
+}
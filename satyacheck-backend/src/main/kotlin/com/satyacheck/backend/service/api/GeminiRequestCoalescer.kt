@@ -0,0 +1,89 @@
+package com.satyacheck.backend.service.api
+
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import jakarta.annotation.PreDestroy
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.cancel
+import org.springframework.stereotype.Component
+import java.util.concurrent.ConcurrentHashMap
+import java.util.logging.Logger
+import kotlin.coroutines.coroutineContext
+
+/**
+ * Single-flight layer in front of the Gemini-backed services.
+ *
+ * Concurrent callers asking for the same operation on the same content and language
+ * suspend on one shared [Deferred] instead of each making their own Gemini call.
+ * The shared call runs in this component's scope, so a caller that gives up does not
+ * cancel it for everyone else, and keeps the context elements of the caller that
+ * started it, such as MDC and tracing.
+ */
+@Component
+class GeminiRequestCoalescer(private val meterRegistry: MeterRegistry) {
+    private val logger = Logger.getLogger(GeminiRequestCoalescer::class.java.name)
+    
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.Default)
+    private val inFlight = ConcurrentHashMap<ContentFingerprint, Deferred<Any?>>()
+    
+    init {
+        meterRegistry.gaugeMapSize("satyacheck.gemini.coalescing.inflight", emptyList(), inFlight)
+    }
+    
+    /**
+     * Run [block] for the given operation, content and language, or join an identical call already in flight
+     */
+    @Suppress("UNCHECKED_CAST")
+    suspend fun <T> coalesce(operation: String, content: String, language: String, block: suspend () -> T): T {
+        val key = ContentFingerprint.of(content, language, operation)
+        // Keep the caller's context elements (e.g. MDC, tracing) but not its Job
+        val callerContext = coroutineContext.minusKey(Job)
+        
+        var originated = false
+        val deferred = inFlight.computeIfAbsent(key) {
+            originated = true
+            scope.async(callerContext, start = CoroutineStart.LAZY) { block() }
+        }
+        
+        if (originated) {
+            deferred.invokeOnCompletion { inFlight.remove(key, deferred) }
+            deferred.start()
+            callCounter(operation, OUTCOME_ORIGINATED).increment()
+        } else {
+            logger.fine("Joining in-flight $operation call for key $key")
+            callCounter(operation, OUTCOME_COALESCED).increment()
+        }
+        
+        return deferred.await() as T
+    }
+    
+    /**
+     * Number of distinct calls currently in flight
+     */
+    fun inFlightCount(): Int = inFlight.size
+    
+    @PreDestroy
+    fun shutdown() {
+        scope.cancel()
+    }
+    
+    private fun callCounter(operation: String, outcome: String): Counter {
+        return Counter.builder("satyacheck.gemini.coalescing.calls")
+            .description("Gemini calls that originated a request versus joined one already in flight")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+    }
+    
+    companion object {
+        private const val OUTCOME_ORIGINATED = "originated"
+        private const val OUTCOME_COALESCED = "coalesced"
+    }
+}
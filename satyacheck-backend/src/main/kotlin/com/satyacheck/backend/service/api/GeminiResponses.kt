@@ -0,0 +1,122 @@
+package com.satyacheck.backend.service.api
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties
+import com.fasterxml.jackson.annotation.JsonProperty
+import com.satyacheck.backend.model.dto.ExtractedTopic
+
+/**
+ * Body of a generateContent response, and of each chunk of a streamGenerateContent response
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+data class GenerateContentResponse(
+    val candidates: List<Candidate>? = null,
+    val usageMetadata: UsageMetadata? = null
+) {
+    /**
+     * The text generated for the first candidate, or null if there is none
+     */
+    fun text(): String? {
+        val parts = candidates?.firstOrNull()?.content?.parts ?: return null
+        if (parts.size == 1) {
+            return parts[0].text
+        }
+        return parts.mapNotNull { it.text }.joinToString("").ifEmpty { null }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    data class Candidate(
+        val content: Content? = null,
+        val finishReason: String? = null
+    )
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    data class Content(
+        val parts: List<Part>? = null,
+        val role: String? = null
+    )
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    data class Part(
+        val text: String? = null
+    )
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    data class UsageMetadata(
+        val promptTokenCount: Int? = null,
+        val candidatesTokenCount: Int? = null,
+        val totalTokenCount: Int? = null
+    )
+}
+
+/*
+ * The JSON objects our prompts ask Gemini to generate. Every field is optional so that a
+ * response with a missing or mistyped field still decodes, and the caller decides how to
+ * degrade.
+ */
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+data class FactCheckOutput(
+    val verdict: String? = null,
+    val explanation: String? = null,
+    val verdictConfidence: Double? = null
+)
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+data class QuickVerdictOutput(
+    val verdict: String? = null,
+    val rationale: String? = null,
+    val verdictConfidence: Double? = null
+)
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+data class ExplanationOutput(
+    val explanation: String? = null
+)
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+data class MisinformationOutput(
+    @JsonProperty("isLikelyMisinformation")
+    val isLikelyMisinformation: Boolean? = null,
+    val confidenceScore: Double? = null,
+    val riskLevel: String? = null,
+    val patterns: List<String>? = null,
+    val techniques: List<String>? = null,
+    val explanation: String? = null
+)
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+data class CategoryOutput(
+    val primaryCategory: String? = null,
+    val subCategories: List<String>? = null,
+    val confidence: Double? = null,
+    val tags: List<String>? = null
+)
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+data class TopicOutput(
+    val topic: String? = null,
+    val relevance: Double? = null,
+    val subtopics: List<String>? = null,
+    val keywords: List<String>? = null
+) {
+    fun toExtractedTopic(): ExtractedTopic {
+        return ExtractedTopic(
+            topic = topic ?: "UNKNOWN",
+            relevance = relevance ?: 0.0,
+            subtopics = subtopics ?: emptyList(),
+            keywords = keywords ?: emptyList()
+        )
+    }
+}
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+data class FusedOutput(
+    val verdict: String? = null,
+    val explanation: String? = null,
+    val verdictConfidence: Double? = null,
+    val primaryCategory: String? = null,
+    val subCategories: List<String>? = null,
+    val confidence: Double? = null,
+    val tags: List<String>? = null,
+    val topics: List<TopicOutput>? = null
+)
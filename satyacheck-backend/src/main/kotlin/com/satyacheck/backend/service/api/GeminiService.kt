@@ -1,21 +1,29 @@
 package com.satyacheck.backend.service.api
 
 import com.fasterxml.jackson.core.type.TypeReference
-import com.fasterxml.jackson.databind.ObjectMapper
+import com.satyacheck.backend.config.CacheConfig
 import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.AnalysisStreamEvent
+import com.satyacheck.backend.model.dto.ContentCategory
+import com.satyacheck.backend.model.dto.FusedAnalysisResult
 import com.satyacheck.backend.model.dto.MisinformationAnalysis
 import com.satyacheck.backend.model.enum.Verdict
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
 import org.springframework.beans.factory.annotation.Value
-import org.springframework.cache.annotation.Cacheable
 import org.springframework.stereotype.Service
-import org.springframework.web.reactive.function.client.WebClient
-import org.springframework.web.reactive.function.client.awaitBody
 import java.util.logging.Logger
 
 @Service
 class GeminiService(
-    private val webClient: WebClient,
-    private val objectMapper: ObjectMapper
+    private val geminiGateway: GeminiGateway,
+    private val jsonExtractor: GeminiJsonExtractor,
+    private val structuredOutput: GeminiStructuredOutput,
+    private val modelRouter: GeminiModelRouter,
+    private val requestCoalescer: GeminiRequestCoalescer,
+    private val coroutineCacheManager: CoroutineCacheManager
 ) {
     private val logger = Logger.getLogger(GeminiService::class.java.name)
 
@@ -31,6 +39,11 @@ class GeminiService(
         return ::geminiApiKey.isInitialized && geminiApiKey.isNotBlank() && geminiApiKey != "your-gemini-api-key"
     }
     
+    /**
+     * Whether Gemini calls are currently let through, false while its circuit breaker is open
+     */
+    fun isAvailable(): Boolean = geminiGateway.isAvailable()
+    
     /**
      * Analyzes text content using Google's Gemini API for fact-checking
      * 
@@ -39,40 +52,181 @@ class GeminiService(
      * @return A Pair containing the verdict and explanation
      */
     suspend fun analyzeContent(content: String, language: String = "en"): Pair<Verdict, String> {
+        return coroutineCacheManager.cached(
+            CacheConfig.GEMINI_ANALYSIS,
+            ContentFingerprint.of(content, language),
+            cacheIf = { (verdict, _) -> !verdict.isFailure() }
+        ) {
+            requestCoalescer.coalesce(OPERATION_ANALYZE, content, language) {
+                requestContentAnalysis(content, language)
+            }
+        }
+    }
+    
+    /**
+     * Performs the Gemini call behind [analyzeContent]
+     */
+    private suspend fun requestContentAnalysis(content: String, language: String): Pair<Verdict, String> {
         try {
             logger.info("Analyzing content with Gemini API: ${content.take(100)}...")
             
             val prompt = buildPrompt(content, language)
-            
-            val requestBody = mapOf(
-                "contents" to listOf(
-                    mapOf(
-                        "parts" to listOf(
-                            mapOf("text" to prompt)
-                        )
+            val output = modelRouter.route(
+                OPERATION_ANALYZE,
+                call = { model ->
+                    structuredOutput.generate(
+                        OPERATION_ANALYZE,
+                        prompt,
+                        GeminiOutputSchemas.FACT_CHECK,
+                        FACT_CHECK_OUTPUT,
+                        temperature = 0.2,
+                        maxOutputTokens = 1024,
+                        model = model
                     )
-                ),
-                "generationConfig" to mapOf(
-                    "temperature" to 0.2,
-                    "topK" to 40,
-                    "topP" to 0.95,
-                    "maxOutputTokens" to 1024
-                )
+                },
+                verdictOf = { it.value?.verdict?.let(::verdictOrNull) },
+                confidenceOf = { it.value?.verdictConfidence }
             )
             
-            val response = webClient.post()
-                .uri("https://generativelanguage.googleapis.com/v1/models/gemini-pro:generateContent?key=$geminiApiKey")
-                .bodyValue(requestBody)
-                .retrieve()
-                .awaitBody<Map<String, Any>>()
-            
-            return processGeminiResponse(response)
+            val value = output.value
+            if (value?.verdict != null && value.explanation != null) {
+                return Pair(parseVerdict(value.verdict), value.explanation)
+            }
+            // Still invalid after repair, salvage what we can from the text
+            return parseAnalysisText(output.text.orEmpty())
         } catch (e: Exception) {
             logger.severe("Error analyzing content with Gemini API: ${e.message}")
             return Pair(Verdict.UNKNOWN, "An error occurred during analysis: ${e.message}")
         }
     }
     
+    /**
+     * Decides only the verdict, with a one-line rationale, under a small output budget.
+     * Output tokens dominate Gemini latency, so this is much faster than [analyzeContent];
+     * the detailed explanation can be generated later with [explainVerdict].
+     * 
+     * @return A Pair containing the verdict and rationale
+     */
+    suspend fun analyzeVerdict(content: String, language: String = "en"): Pair<Verdict, String> {
+        return requestCoalescer.coalesce(OPERATION_VERDICT, content, language) {
+            requestVerdict(content, language)
+        }
+    }
+    
+    /**
+     * Performs the Gemini call behind [analyzeVerdict]
+     */
+    private suspend fun requestVerdict(content: String, language: String): Pair<Verdict, String> {
+        try {
+            logger.info("Deciding verdict with Gemini API: ${content.take(100)}...")
+            
+            val prompt = buildVerdictPrompt(content, language)
+            val output = modelRouter.route(
+                OPERATION_VERDICT,
+                call = { model ->
+                    structuredOutput.generate(
+                        OPERATION_VERDICT,
+                        prompt,
+                        GeminiOutputSchemas.QUICK_VERDICT,
+                        QUICK_VERDICT_OUTPUT,
+                        temperature = 0.1,
+                        maxOutputTokens = 128,
+                        model = model
+                    )
+                },
+                verdictOf = { it.value?.verdict?.let(::verdictOrNull) },
+                confidenceOf = { it.value?.verdictConfidence }
+            )
+            
+            val value = output.value
+            if (value?.verdict == null || value.rationale == null) {
+                return Pair(Verdict.ERROR, "Failed to extract a verdict from Gemini API response")
+            }
+            return Pair(parseVerdict(value.verdict), value.rationale)
+        } catch (e: Exception) {
+            logger.severe("Error deciding verdict with Gemini API: ${e.message}")
+            return Pair(Verdict.UNKNOWN, "An error occurred during analysis: ${e.message}")
+        }
+    }
+    
+    /**
+     * Generates the detailed explanation for a verdict already decided by [analyzeVerdict].
+     * Cached per content, language and verdict.
+     * 
+     * @throws IllegalStateException if Gemini did not produce a usable explanation
+     */
+    suspend fun explainVerdict(content: String, language: String, verdict: Verdict): String {
+        return coroutineCacheManager.cached(
+            CacheConfig.VERDICT_EXPLANATIONS,
+            ContentFingerprint.of(content, language, verdict.name)
+        ) {
+            requestExplanation(content, language, verdict)
+        }
+    }
+    
+    /**
+     * Performs the Gemini call behind [explainVerdict]
+     */
+    private suspend fun requestExplanation(content: String, language: String, verdict: Verdict): String {
+        logger.info("Explaining $verdict verdict with Gemini API: ${content.take(50)}...")
+        
+        val output = structuredOutput.generate(
+            OPERATION_EXPLAIN,
+            buildExplanationPrompt(content, language, verdict),
+            GeminiOutputSchemas.EXPLANATION,
+            EXPLANATION_OUTPUT,
+            temperature = 0.2,
+            maxOutputTokens = 1024
+        )
+        return output.value?.explanation
+            ?: throw IllegalStateException("Gemini did not return an explanation")
+    }
+    
+    /**
+     * Streams the same analysis as [analyzeContent] through streamGenerateContent.
+     *
+     * Emits the verdict as soon as it has been generated, then the explanation in pieces,
+     * and completes with the result parsed from the streamed text. The stream uses the
+     * gateway's default model without [GeminiModelRouter] escalation or schema repair, so
+     * its result is not written to [analyzeContent]'s cache, where buffered callers would
+     * take it for a routed answer. Failures are thrown to the caller, which can fall back
+     * to the buffered call.
+     */
+    fun streamContentAnalysis(content: String, language: String = "en"): Flow<AnalysisStreamEvent<AnalysisResult>> = flow {
+        logger.info("Streaming content analysis with Gemini API: ${content.take(100)}...")
+        
+        val parser = StreamingAnalysisParser()
+        val text = StringBuilder()
+        var verdictSent = false
+        var explanationSent = 0
+        
+        geminiGateway.streamGenerateContent(OPERATION_ANALYZE, buildAnalysisRequest(content, language)).collect { fragment ->
+            text.append(fragment)
+            parser.feed(fragment).verdict?.let {
+                emit(AnalysisStreamEvent.VerdictDecided(parseVerdict(it)))
+                verdictSent = true
+            }
+            // Explanation text generated before the verdict is held back until the verdict is out
+            val explanation = parser.explanation
+            if (verdictSent && explanation.length > explanationSent) {
+                emit(AnalysisStreamEvent.ExplanationChunk(explanation.substring(explanationSent)))
+                explanationSent = explanation.length
+            }
+        }
+        
+        val (verdict, explanation) = parseAnalysisText(text.toString())
+        emit(AnalysisStreamEvent.Completed(AnalysisResult(verdict = verdict, explanation = explanation)))
+    }
+    
+    private fun buildAnalysisRequest(content: String, language: String): Map<String, Any> {
+        return structuredOutput.requestBody(
+            buildPrompt(content, language),
+            GeminiOutputSchemas.FACT_CHECK,
+            temperature = 0.2,
+            maxOutputTokens = 1024
+        )
+    }
+    
     /**
      * Builds a prompt for the Gemini API to analyze content
      */
@@ -97,124 +251,263 @@ class GeminiService(
             "${content}"
             
             First, determine if the content is:
-            - ACCURATE (contains only factually correct information)
+            - CREDIBLE (contains only factually correct information)
             - POTENTIALLY_MISLEADING (contains some misleading elements or needs context)
-            - FALSE (contains demonstrably false information)
-            - SATIRE (intended as humor or parody, not factual)
-            - OPINION (primarily an opinion rather than factual claim)
-            - INSUFFICIENT_INFO (not enough information to determine accuracy)
+            - HIGH_MISINFORMATION_RISK (contains demonstrably false or manipulative information)
+            - SCAM_ALERT (fraud, phishing or a financial scam)
+            - INSUFFICIENT_INFO (not enough information to determine accuracy, including satire and opinion)
             
             Then, provide a detailed explanation of your verdict, citing specific parts of the content and why they are accurate or problematic.
             
-            Format your response as a JSON object with two keys:
+            Format your response as a JSON object with three keys:
             - "verdict": One of the verdicts listed above (exact string match)
             - "explanation": A detailed explanation of your analysis, with evidence
+            - "verdictConfidence": A number between 0.0 and 1.0 indicating how certain you are of the verdict
             
             Response format:
-            {"verdict": "VERDICT_HERE", "explanation": "Your detailed explanation here"}
+            {"verdict": "VERDICT_HERE", "explanation": "Your detailed explanation here", "verdictConfidence": 0.9}
         """.trimIndent()
     }
     
     /**
-     * Processes the response from the Gemini API
+     * Builds a prompt asking only for the verdict and a one-line rationale
      */
-    @Suppress("UNCHECKED_CAST")
-    private fun processGeminiResponse(response: Map<String, Any>): Pair<Verdict, String> {
+    private fun buildVerdictPrompt(content: String, language: String): String {
+        val languageSpecificInstructions = if (language == "en") {
+            "Classify the following text for factual accuracy and potential misinformation."
+        } else {
+            "Classify the following text for factual accuracy and potential misinformation. The text is in $language."
+        }
+        
+        return """
+            $languageSpecificInstructions
+            
+            You are a fact-checking assistant for the SatyaCheck app.
+            
+            Content to analyze:
+            "${content}"
+            
+            Choose exactly one verdict:
+            - CREDIBLE (contains only factually correct information)
+            - POTENTIALLY_MISLEADING (contains some misleading elements or needs context)
+            - HIGH_MISINFORMATION_RISK (contains demonstrably false or manipulative information)
+            - SCAM_ALERT (fraud, phishing or a financial scam)
+            - INSUFFICIENT_INFO (not enough information to determine accuracy, including satire and opinion)
+            
+            Respond with a JSON object:
+            {"verdict": "VERDICT_HERE", "rationale": "One sentence of at most 20 words", "verdictConfidence": 0.9}
+            Do not write a detailed explanation.
+        """.trimIndent()
+    }
+    
+    /**
+     * Builds a prompt asking for the detailed explanation of a verdict that has already been decided
+     */
+    private fun buildExplanationPrompt(content: String, language: String, verdict: Verdict): String {
+        val languageNote = if (language == "en") "" else " The text is in $language."
+        
+        return """
+            You are a fact-checking assistant for the SatyaCheck app. The following text has been rated $verdict.$languageNote
+            
+            Content:
+            "${content}"
+            
+            Explain in detail why the text deserves this rating, citing specific parts of the content
+            and why they are accurate or problematic, and what a reader should check before sharing it.
+            
+            Response format:
+            {"explanation": "Your detailed explanation here"}
+        """.trimIndent()
+    }
+    
+    /**
+     * Parses the verdict and explanation out of the text Gemini generated
+     */
+    private fun parseAnalysisText(text: String): Pair<Verdict, String> {
+        if (text.isBlank()) {
+            return Pair(Verdict.ERROR, "Failed to extract text from Gemini API response")
+        }
         try {
-            // Extract the generated content from the Gemini API response
-            val candidates = response["candidates"] as? List<Map<String, Any>>
-            val content = candidates?.firstOrNull()?.get("content") as? Map<String, Any>
-            val parts = content?.get("parts") as? List<Map<String, Any>>
-            val text = parts?.firstOrNull()?.get("text") as? String
-                ?: return Pair(Verdict.ERROR, "Failed to extract text from Gemini API response")
-            
-            // Try to parse the JSON response
-            try {
-                // Find JSON content within the text (sometimes Gemini wraps the JSON in markdown code blocks)
-                val jsonPattern = "\\{\"verdict\":.+\"explanation\":.+\\}".toRegex()
-                val jsonMatch = jsonPattern.find(text)
-                val jsonContent = jsonMatch?.value ?: text
-                
-                val resultMap = objectMapper.readValue(jsonContent, Map::class.java) as Map<String, String>
-                
-                val verdictStr = resultMap["verdict"] ?: return Pair(Verdict.ERROR, "Missing verdict in response")
-                val explanation = resultMap["explanation"] ?: return Pair(Verdict.ERROR, "Missing explanation in response")
-                
-                // Parse the verdict
-                val verdict = try {
-                    Verdict.valueOf(verdictStr)
-                } catch (e: IllegalArgumentException) {
-                    logger.warning("Invalid verdict: $verdictStr, falling back to INSUFFICIENT_INFO")
-                    Verdict.INSUFFICIENT_INFO
-                }
-                
-                return Pair(verdict, explanation)
-            } catch (e: Exception) {
-                // If JSON parsing fails, extract information manually using regex
-                logger.warning("Failed to parse JSON from Gemini response, attempting regex extraction: ${e.message}")
-                
-                val verdictRegex = "verdict\"?:\\s*\"?(ACCURATE|POTENTIALLY_MISLEADING|FALSE|SATIRE|OPINION|INSUFFICIENT_INFO|ERROR)\"?".toRegex()
-                val verdictMatch = verdictRegex.find(text)
-                
-                val verdict = if (verdictMatch != null) {
-                    val verdictStr = verdictMatch.groupValues[1]
-                    try {
-                        Verdict.valueOf(verdictStr)
-                    } catch (e: IllegalArgumentException) {
-                        Verdict.INSUFFICIENT_INFO
-                    }
-                } else {
-                    Verdict.INSUFFICIENT_INFO
-                }
-                
-                // Extract the explanation - look for text after "explanation":
-                val explanationRegex = "explanation\"?:\\s*\"?([^\"]+)\"?".toRegex()
-                val explanationMatch = explanationRegex.find(text)
-                val explanation = explanationMatch?.groupValues?.get(1)
-                    ?: "Unable to extract explanation from the analysis."
-                
-                return Pair(verdict, explanation)
+            val output = jsonExtractor.extractObject(text, FACT_CHECK_OUTPUT)
+            if (output != null) {
+                val verdictStr = output.verdict ?: return Pair(Verdict.ERROR, "Missing verdict in response")
+                val explanation = output.explanation ?: return Pair(Verdict.ERROR, "Missing explanation in response")
+                return Pair(parseVerdict(verdictStr), explanation)
             }
+            
+            // No usable JSON object in the text, extract information manually
+            logger.warning("Failed to parse JSON from Gemini response, attempting regex extraction")
+            
+            val verdict = VERDICT_FALLBACK.find(text)?.groupValues?.get(1)
+                ?.let(::verdictOrNull)
+                ?: Verdict.INSUFFICIENT_INFO
+            
+            // Extract the explanation - look for text after "explanation":
+            val explanation = EXPLANATION_FALLBACK.find(text)?.groupValues?.get(1)
+                ?: "Unable to extract explanation from the analysis."
+            
+            return Pair(verdict, explanation)
         } catch (e: Exception) {
             logger.severe("Error processing Gemini API response: ${e.message}")
             return Pair(Verdict.ERROR, "Error processing analysis results: ${e.message}")
         }
     }
     
+    private fun parseVerdict(verdictStr: String): Verdict {
+        return verdictOrNull(verdictStr) ?: run {
+            logger.warning("Invalid verdict: $verdictStr, falling back to INSUFFICIENT_INFO")
+            Verdict.INSUFFICIENT_INFO
+        }
+    }
+    
+    private fun verdictOrNull(verdictStr: String): Verdict? {
+        return runCatching { Verdict.valueOf(verdictStr) }.getOrNull()
+    }
+    
+    /**
+     * Fact-checks, categorizes and extracts topics from the content in a single Gemini call
+     * 
+     * @param content The text content to analyze
+     * @param language The language of the content (default: "en")
+     * @return The combined result, or null if the call failed or the response could not be parsed
+     */
+    suspend fun analyzeContentFused(content: String, language: String = "en"): FusedAnalysisResult? {
+        return requestCoalescer.coalesce(OPERATION_FUSED, content, language) {
+            requestFusedAnalysis(content, language)
+        }
+    }
+    
+    /**
+     * Performs the Gemini call behind [analyzeContentFused]
+     */
+    private suspend fun requestFusedAnalysis(content: String, language: String): FusedAnalysisResult? {
+        try {
+            logger.info("Running fused analysis with Gemini API: ${content.take(50)}...")
+            
+            val prompt = buildFusedPrompt(content, language)
+            val output = modelRouter.route(
+                OPERATION_FUSED,
+                call = { model ->
+                    structuredOutput.generate(
+                        OPERATION_FUSED,
+                        prompt,
+                        GeminiOutputSchemas.FUSED,
+                        FUSED_OUTPUT,
+                        temperature = 0.2,
+                        maxOutputTokens = 2048,
+                        model = model
+                    )
+                },
+                verdictOf = { it.value?.verdict?.let(::verdictOrNull) },
+                confidenceOf = { it.value?.verdictConfidence }
+            )
+            
+            return output.value?.let { processFusedOutput(it) }
+        } catch (e: Exception) {
+            logger.severe("Error running fused analysis with Gemini API: ${e.message}")
+            return null
+        }
+    }
+    
+    /**
+     * Builds a prompt asking for verdict, explanation, category and topics as one JSON object
+     */
+    private fun buildFusedPrompt(content: String, language: String): String {
+        val languageSpecificInstructions = if (language == "en") {
+            "Analyze the following text for factual accuracy, then categorize it and extract its main topics."
+        } else {
+            "Analyze the following text for factual accuracy, then categorize it and extract its main topics. The text is in $language."
+        }
+        
+        return """
+            $languageSpecificInstructions
+            
+            You are the fact-checking and content classification system for the SatyaCheck app.
+            
+            Content to analyze:
+            "${content}"
+            
+            1. Determine the verdict, choosing exactly one of:
+            - CREDIBLE (factually correct information)
+            - POTENTIALLY_MISLEADING (some misleading elements or missing context)
+            - HIGH_MISINFORMATION_RISK (demonstrably false or manipulative information)
+            - SCAM_ALERT (fraud, phishing or financial scam)
+            - INSUFFICIENT_INFO (not enough information to determine accuracy)
+            
+            2. Explain the verdict, citing specific parts of the content, and rate how certain you are of it
+            from 0.0 to 1.0.
+            
+            3. Choose the primary category from: NEWS, POLITICS, HEALTH, SCIENCE, TECHNOLOGY, ENTERTAINMENT,
+            SPORTS, BUSINESS, EDUCATION, OPINION, SOCIAL_MEDIA, OTHER. Add up to 3 subcategories and up to 5 tags.
+            
+            4. Extract up to 3 main topics, each with a relevance score, up to 3 subtopics and up to 5 keywords.
+            
+            Format your response as a single JSON object with exactly these keys:
+            {"verdict": "VERDICT_HERE", "explanation": "Your detailed explanation here", "verdictConfidence": 0.9, "primaryCategory": "CATEGORY", "subCategories": ["sub1", "sub2"], "confidence": 0.95, "tags": ["tag1", "tag2"], "topics": [{"topic": "Topic", "relevance": 0.9, "subtopics": ["Subtopic"], "keywords": ["keyword1", "keyword2"]}]}
+        """.trimIndent()
+    }
+    
+    /**
+     * Convert the generated object of a fused analysis
+     */
+    private fun processFusedOutput(output: FusedOutput): FusedAnalysisResult? {
+        try {
+            val verdictStr = output.verdict ?: return null
+            val explanation = output.explanation ?: return null
+            
+            val verdict = parseVerdict(verdictStr)
+            
+            val category = ContentCategory(
+                primaryCategory = output.primaryCategory ?: "UNCATEGORIZED",
+                subCategories = output.subCategories ?: emptyList(),
+                confidence = output.confidence ?: 0.0,
+                tags = output.tags ?: emptyList()
+            )
+            
+            return FusedAnalysisResult(
+                analysis = AnalysisResult(verdict = verdict, explanation = explanation),
+                category = category,
+                topics = (output.topics ?: emptyList()).map { it.toExtractedTopic() }
+            )
+        } catch (e: Exception) {
+            logger.warning("Error processing fused analysis response: ${e.message}")
+            return null
+        }
+    }
+    
     /**
      * Analyze content specifically for misinformation patterns and techniques
      * Cached to improve performance for repeated requests
      */
-    @Cacheable(value = ["misinformationAnalysis"], key = "#content.hashCode() + '_' + #language")
     suspend fun analyzeContentForMisinformation(content: String, language: String = "en"): MisinformationAnalysis {
+        return coroutineCacheManager.cached(
+            CacheConfig.MISINFORMATION_ANALYSIS,
+            ContentFingerprint.of(content, language),
+            cacheIf = { !isFailedMisinformationAnalysis(it) }
+        ) {
+            requestCoalescer.coalesce(OPERATION_MISINFORMATION, content, language) {
+                requestMisinformationAnalysis(content, language)
+            }
+        }
+    }
+    
+    /**
+     * Performs the Gemini call behind [analyzeContentForMisinformation]
+     */
+    private suspend fun requestMisinformationAnalysis(content: String, language: String): MisinformationAnalysis {
         try {
             logger.info("Analyzing content for misinformation with Gemini API: ${content.take(50)}...")
             
-            val prompt = buildMisinformationPrompt(content, language)
-            
-            val requestBody = mapOf(
-                "contents" to listOf(
-                    mapOf(
-                        "parts" to listOf(
-                            mapOf("text" to prompt)
-                        )
-                    )
-                ),
-                "generationConfig" to mapOf(
-                    "temperature" to 0.1,
-                    "topK" to 40,
-                    "topP" to 0.95,
-                    "maxOutputTokens" to 1024
-                )
+            val output = structuredOutput.generate(
+                OPERATION_MISINFORMATION,
+                buildMisinformationPrompt(content, language),
+                GeminiOutputSchemas.MISINFORMATION,
+                MISINFORMATION_OUTPUT,
+                temperature = 0.1,
+                maxOutputTokens = 1024
             )
             
-            val response = webClient.post()
-                .uri("https://generativelanguage.googleapis.com/v1/models/gemini-pro:generateContent?key=$geminiApiKey")
-                .bodyValue(requestBody)
-                .retrieve()
-                .awaitBody<Map<String, Any>>()
-            
-            return processMisinformationResponse(response)
+            return processMisinformationOutput(output.value)
         } catch (e: Exception) {
             logger.severe("Error analyzing misinformation with Gemini API: ${e.message}")
             return MisinformationAnalysis(
@@ -225,6 +518,13 @@ class GeminiService(
         }
     }
     
+    /**
+     * The fallbacks returned by [requestMisinformationAnalysis] and [processMisinformationOutput]
+     */
+    private fun isFailedMisinformationAnalysis(analysis: MisinformationAnalysis): Boolean {
+        return analysis.confidenceScore == 0.0 && analysis.explanation?.startsWith("Failed") == true
+    }
+    
     /**
      * Build prompt for misinformation analysis
      */
@@ -278,44 +578,21 @@ class GeminiService(
     }
     
     /**
-     * Process the response from Gemini API for misinformation analysis
+     * Convert the generated object of a misinformation analysis, null when it was unusable
      */
-    @Suppress("UNCHECKED_CAST")
-    private fun processMisinformationResponse(response: Map<String, Any>): MisinformationAnalysis {
+    private fun processMisinformationOutput(output: MisinformationOutput?): MisinformationAnalysis {
         try {
-            // Extract the generated content from the Gemini API response
-            val candidates = response["candidates"] as? List<Map<String, Any>>
-            val content = candidates?.firstOrNull()?.get("content") as? Map<String, Any>
-            val parts = content?.get("parts") as? List<Map<String, Any>>
-            val text = parts?.firstOrNull()?.get("text") as? String
-                ?: return MisinformationAnalysis(
-                    isLikelyMisinformation = false,
-                    confidenceScore = 0.0,
-                    explanation = "Failed to extract response from API"
-                )
-            
-            // Find JSON content within the text
-            val jsonPattern = "\\{.*\"isLikelyMisinformation\".*\\}".toRegex(RegexOption.DOT_MATCHES_ALL)
-            val jsonMatch = jsonPattern.find(text)
-            val jsonContent = jsonMatch?.value ?: text
-            
-            // Parse the JSON
-            val resultMap = objectMapper.readValue(jsonContent, object : TypeReference<Map<String, Any>>() {})
-            
-            val isLikelyMisinformation = resultMap["isLikelyMisinformation"] as? Boolean ?: false
-            val confidenceScore = (resultMap["confidenceScore"] as? Number)?.toDouble() ?: 0.0
-            val riskLevel = resultMap["riskLevel"] as? String
-            val patterns = resultMap["patterns"] as? List<String>
-            val techniques = resultMap["techniques"] as? List<String>
-            val explanation = resultMap["explanation"] as? String
+            if (output == null) {
+                throw IllegalStateException("No valid JSON object in response")
+            }
             
             return MisinformationAnalysis(
-                isLikelyMisinformation = isLikelyMisinformation,
-                confidenceScore = confidenceScore,
-                riskLevel = riskLevel,
-                patterns = patterns,
-                techniques = techniques,
-                explanation = explanation
+                isLikelyMisinformation = output.isLikelyMisinformation ?: false,
+                confidenceScore = output.confidenceScore ?: 0.0,
+                riskLevel = output.riskLevel,
+                patterns = output.patterns,
+                techniques = output.techniques,
+                explanation = output.explanation
             )
         } catch (e: Exception) {
             logger.severe("Error processing misinformation response: ${e.message}")
@@ -326,4 +603,23 @@ class GeminiService(
             )
         }
     }
+    
+    companion object {
+        private const val OPERATION_ANALYZE = "analyzeContent"
+        private const val OPERATION_FUSED = "analyzeContentFused"
+        private const val OPERATION_MISINFORMATION = "analyzeContentForMisinformation"
+        private const val OPERATION_VERDICT = "analyzeVerdict"
+        private const val OPERATION_EXPLAIN = "explainVerdict"
+        
+        private val FACT_CHECK_OUTPUT = object : TypeReference<FactCheckOutput>() {}
+        private val FUSED_OUTPUT = object : TypeReference<FusedOutput>() {}
+        private val QUICK_VERDICT_OUTPUT = object : TypeReference<QuickVerdictOutput>() {}
+        private val EXPLANATION_OUTPUT = object : TypeReference<ExplanationOutput>() {}
+        private val MISINFORMATION_OUTPUT = object : TypeReference<MisinformationOutput>() {}
+        
+        // Used only when the generated text contains no parseable JSON object
+        private val VERDICT_FALLBACK =
+            "verdict\"?:\\s*\"?(${GeminiOutputSchemas.VERDICTS.joinToString("|")})\"?".toRegex()
+        private val EXPLANATION_FALLBACK = "explanation\"?:\\s*\"?([^\"]+)\"?".toRegex()
+    }
 }
\ No newline at end of file
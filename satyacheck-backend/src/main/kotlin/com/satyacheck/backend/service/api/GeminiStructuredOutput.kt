@@ -0,0 +1,160 @@
+package com.satyacheck.backend.service.api
+
+import com.fasterxml.jackson.core.type.TypeReference
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.stereotype.Component
+import java.util.logging.Logger
+
+/**
+ * Requests JSON output constrained by a [ResponseSchema] and checks what comes back.
+ *
+ * Each request carries responseMimeType application/json and the schema, so Gemini decodes
+ * against it and should return exactly one valid JSON value. The output is still validated:
+ * if it is not JSON or breaks the schema, the model is asked once more in the same
+ * conversation, with its previous answer and the list of problems, to return a corrected
+ * value. The outcome is counted as satyacheck.gemini.structured_output{operation,result},
+ * where result is valid, repaired or invalid.
+ */
+@Component
+class GeminiStructuredOutput(
+    private val geminiGateway: GeminiGateway,
+    private val jsonExtractor: GeminiJsonExtractor,
+    private val objectMapper: ObjectMapper,
+    private val meterRegistry: MeterRegistry,
+    @Value("\${gemini.structured-output.enabled:true}") private val enabled: Boolean,
+    @Value("\${gemini.structured-output.repair-attempts:1}") private val repairAttempts: Int
+) {
+    private val logger = Logger.getLogger(GeminiStructuredOutput::class.java.name)
+
+    /**
+     * A value decoded from the generated text, and the text itself for callers with their own fallback
+     */
+    data class Output<T>(val value: T?, val text: String?)
+
+    /**
+     * A single-turn generateContent request asking for output that follows [schema]
+     */
+    fun requestBody(prompt: String, schema: ResponseSchema, temperature: Double, maxOutputTokens: Int): Map<String, Any> {
+        return requestBody(listOf(turn(ROLE_USER, prompt)), schema, temperature, maxOutputTokens)
+    }
+
+    /**
+     * Generate a value for [prompt] that follows [schema] and decode it as [type]
+     *
+     * @param model The Gemini model to call, the gateway's default when null
+     * @return The decoded value, or a null value if the output was still invalid after repair
+     * @throws Exception whatever [GeminiGateway.generateContent] throws
+     */
+    suspend fun <T> generate(
+        operation: String,
+        prompt: String,
+        schema: ResponseSchema,
+        type: TypeReference<T>,
+        temperature: Double,
+        maxOutputTokens: Int,
+        model: String? = null
+    ): Output<T> {
+        val contents = mutableListOf(turn(ROLE_USER, prompt))
+        var repairs = 0
+        while (true) {
+            val response = geminiGateway.generateContent(operation, requestBody(contents, schema, temperature, maxOutputTokens), model)
+            val text = response.text()
+            if (text.isNullOrBlank()) {
+                // Nothing to repair: the candidate was blocked or empty
+                record(operation, RESULT_INVALID)
+                return Output(null, text)
+            }
+
+            val node = extract(text, schema)
+            val problems = if (node == null) listOf("the response is not a JSON ${if (schema.isArray) "array" else "object"}") else schema.validate(node)
+            if (node != null && problems.isEmpty()) {
+                record(operation, if (repairs == 0) RESULT_VALID else RESULT_REPAIRED)
+                return Output(objectMapper.convertValue(node, type), text)
+            }
+
+            if (repairs >= repairAttempts) {
+                logger.warning("Gemini output for $operation is still invalid after $repairs repair(s): $problems")
+                record(operation, RESULT_INVALID)
+                return Output(null, text)
+            }
+            logger.warning("Gemini output for $operation is invalid, asking for a repair: $problems")
+            contents += turn(ROLE_MODEL, text)
+            contents += turn(ROLE_USER, buildRepairPrompt(problems))
+            repairs++
+        }
+    }
+
+    private fun requestBody(
+        contents: List<Map<String, Any>>,
+        schema: ResponseSchema,
+        temperature: Double,
+        maxOutputTokens: Int
+    ): Map<String, Any> {
+        val generationConfig = mutableMapOf<String, Any>(
+            "temperature" to temperature,
+            "topK" to 40,
+            "topP" to 0.95,
+            "maxOutputTokens" to maxOutputTokens
+        )
+        if (enabled) {
+            generationConfig["responseMimeType"] = "application/json"
+            generationConfig["responseSchema"] = schema.definition
+        }
+        return mapOf(
+            "contents" to contents,
+            "generationConfig" to generationConfig
+        )
+    }
+
+    private fun extract(text: String, schema: ResponseSchema): JsonNode? {
+        return if (schema.isArray) {
+            jsonExtractor.extractArray(text, JSON_NODE)
+        } else {
+            jsonExtractor.extractObject(text, JSON_NODE)
+        }
+    }
+
+    private fun buildRepairPrompt(problems: List<String>): String {
+        // Built line by line: unindented problem lines interpolated into a trimIndent literal
+        // leave it no common indent to strip
+        return buildString {
+            appendLine("Your previous response could not be used:")
+            problems.forEach { appendLine("- $it") }
+            appendLine()
+            append("Return the corrected JSON only, following the same format and allowed values, with no other text.")
+        }
+    }
+
+    private fun turn(role: String, text: String): Map<String, Any> {
+        return mapOf(
+            "role" to role,
+            "parts" to listOf(
+                mapOf("text" to text)
+            )
+        )
+    }
+
+    private fun record(operation: String, result: String) {
+        Counter.builder("satyacheck.gemini.structured_output")
+            .description("Gemini JSON outputs by validation result")
+            .tag("operation", operation)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment()
+    }
+
+    companion object {
+        private const val ROLE_USER = "user"
+        private const val ROLE_MODEL = "model"
+
+        private const val RESULT_VALID = "valid"
+        private const val RESULT_REPAIRED = "repaired"
+        private const val RESULT_INVALID = "invalid"
+
+        private val JSON_NODE = object : TypeReference<JsonNode>() {}
+    }
+}
@@ -0,0 +1,80 @@
+package com.satyacheck.backend.service.api
+
+/**
+ * Decides when a slow Gemini call gets a duplicate ("hedge") request, and how many may be sent.
+ *
+ * The hedge delay is the [percentile] of the last [windowSize] successful call latencies,
+ * clamped to [minDelayMs, maxDelayMs]; until [minSamples] latencies have been seen there is
+ * no delay and nothing is hedged. Hedges are paid for from a token bucket: every primary
+ * request adds [budgetPercent]/100 of a token, every hedge takes a whole one, and at most
+ * [maxBurst] tokens are kept. Hedges are therefore never more than [budgetPercent] of the
+ * traffic, however slow Gemini becomes.
+ */
+class HedgingPolicy(
+    private val percentile: Double,
+    private val budgetPercent: Double,
+    private val minSamples: Int,
+    private val minDelayMs: Long,
+    private val maxDelayMs: Long,
+    private val windowSize: Int = 512,
+    private val maxBurst: Double = 10.0
+) {
+    private val lock = Any()
+    private val latencies = LongArray(windowSize)
+    private var recorded = 0L
+    private var tokens = 0.0
+
+    init {
+        require(percentile > 0.0 && percentile < 1.0) { "percentile must be between 0 and 1" }
+        require(windowSize > 0) { "windowSize must be positive" }
+    }
+
+    /**
+     * Remember the latency of a successful call
+     */
+    fun recordLatency(latencyMs: Long) {
+        synchronized(lock) {
+            latencies[(recorded % windowSize).toInt()] = latencyMs
+            recorded++
+        }
+    }
+
+    /**
+     * Count a primary request towards the hedge budget
+     */
+    fun recordRequest() {
+        synchronized(lock) {
+            tokens = (tokens + budgetPercent / 100.0).coerceAtMost(maxBurst)
+        }
+    }
+
+    /**
+     * How long to wait for a call before hedging it, null while there are too few latencies
+     */
+    fun hedgeDelayMs(): Long? {
+        val window = synchronized(lock) {
+            if (recorded < minSamples) {
+                return null
+            }
+            latencies.copyOf(recorded.coerceAtMost(windowSize.toLong()).toInt())
+        }
+        window.sort()
+        val index = (Math.ceil(percentile * window.size).toInt() - 1).coerceIn(0, window.size - 1)
+        return window[index].coerceIn(minDelayMs, maxDelayMs)
+    }
+
+    /**
+     * Spend one hedge from the budget
+     *
+     * @return false if the budget is used up
+     */
+    fun tryAcquireHedge(): Boolean {
+        synchronized(lock) {
+            if (tokens < 1.0) {
+                return false
+            }
+            tokens -= 1.0
+            return true
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.satyacheck.backend.service.api
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.google.api.gax.core.NoCredentialsProvider
 import com.google.cloud.language.v1.AnalyzeEntitiesRequest
 import com.google.cloud.language.v1.AnalyzeSentimentRequest
 import com.google.cloud.language.v1.Document
 import com.google.cloud.language.v1.EncodingType
 import com.google.cloud.language.v1.LanguageServiceClient
+import com.google.cloud.language.v1.LanguageServiceSettings
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.stereotype.Service
 import java.util.logging.Logger
 
@@ -16,12 +19,16 @@ import java.util.logging.Logger
 class NaturalLanguageService {
     private val logger = Logger.getLogger(NaturalLanguageService::class.java.name)
 
+    // When set, calls go over REST to this endpoint without credentials, e.g. the load-test stub
+    @Value("\${google.cloud.natural-language.endpoint:}")
+    private var endpoint: String = ""
+
     /**
      * Analyzes the sentiment of the provided text
      * @return A map with sentiment score and magnitude
      */
     fun analyzeSentiment(text: String, language: String = "en"): Map<String, Any> {
-        LanguageServiceClient.create().use { languageService ->
+        createClient().use { languageService ->
             // Set up the request
             val doc = Document.newBuilder()
                 .setContent(text)
@@ -62,7 +69,7 @@ class NaturalLanguageService {
      * @return A list of entity information
      */
     fun extractEntities(text: String, language: String = "en"): List<Map<String, Any>> {
-        LanguageServiceClient.create().use { languageService ->
+        createClient().use { languageService ->
             // Set up the request
             val doc = Document.newBuilder()
                 .setContent(text)
@@ -92,4 +99,15 @@ class NaturalLanguageService {
             }
         }
     }
-}
\ No newline at end of file
+
+    private fun createClient(): LanguageServiceClient {
+        if (endpoint.isBlank()) {
+            return LanguageServiceClient.create()
+        }
+        val settings = LanguageServiceSettings.newHttpJsonBuilder()
+            .setEndpoint(endpoint)
+            .setCredentialsProvider(NoCredentialsProvider.create())
+            .build()
+        return LanguageServiceClient.create(settings)
+    }
+}
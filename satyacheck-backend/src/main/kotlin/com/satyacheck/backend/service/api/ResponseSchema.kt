@@ -0,0 +1,171 @@
+package com.satyacheck.backend.service.api
+
+import com.fasterxml.jackson.databind.JsonNode
+import kotlin.reflect.KClass
+import kotlin.reflect.KType
+import kotlin.reflect.full.isSubclassOf
+import kotlin.reflect.full.primaryConstructor
+
+/**
+ * A Gemini responseSchema, plus validation of generated JSON against it.
+ *
+ * Schemas are derived from our Kotlin DTOs: every primary constructor parameter becomes a
+ * property, non-nullable parameters without a default become required, and enum classes
+ * become string enums. [definition] is the map sent as generationConfig.responseSchema.
+ */
+class ResponseSchema private constructor(
+    private val type: String,
+    private val properties: Map<String, ResponseSchema> = emptyMap(),
+    private val required: List<String> = emptyList(),
+    private val items: ResponseSchema? = null,
+    private val enumValues: List<String>? = null,
+    private val nullable: Boolean = false
+) {
+
+    /**
+     * The schema in the shape the Gemini API expects
+     */
+    val definition: Map<String, Any> by lazy {
+        buildMap {
+            put("type", type)
+            if (nullable) put("nullable", true)
+            if (enumValues != null) {
+                put("format", "enum")
+                put("enum", enumValues)
+            }
+            if (properties.isNotEmpty()) {
+                put("properties", properties.mapValues { it.value.definition })
+                // Gemini otherwise orders properties alphabetically; keep the declared order
+                put("propertyOrdering", properties.keys.toList())
+            }
+            if (required.isNotEmpty()) put("required", required)
+            if (items != null) put("items", items.definition)
+        }
+    }
+
+    val isArray: Boolean
+        get() = type == TYPE_ARRAY
+
+    /**
+     * An object schema with the properties of both object schemas, all of their required ones required
+     */
+    operator fun plus(other: ResponseSchema): ResponseSchema {
+        require(type == TYPE_OBJECT && other.type == TYPE_OBJECT) { "Only object schemas can be combined" }
+        return ResponseSchema(TYPE_OBJECT, properties + other.properties, (required + other.required).distinct())
+    }
+
+    /**
+     * This object schema with an additional required property
+     */
+    fun withProperty(name: String, schema: ResponseSchema): ResponseSchema {
+        require(type == TYPE_OBJECT) { "Only object schemas have properties" }
+        return ResponseSchema(TYPE_OBJECT, properties + (name to schema), required + name)
+    }
+
+    /**
+     * Check [node] against this schema, returning a description of each violation
+     */
+    fun validate(node: JsonNode?, path: String = "$"): List<String> {
+        if (node == null || node.isMissingNode || node.isNull) {
+            return if (nullable) emptyList() else listOf("$path is missing")
+        }
+        return when (type) {
+            TYPE_OBJECT -> {
+                if (!node.isObject) return listOf("$path is not an object")
+                required.filter { node.get(it) == null || node.get(it).isNull }.map { "$path.$it is missing" } +
+                    properties.flatMap { (name, schema) ->
+                        node.get(name)?.let { schema.validate(it, "$path.$name") } ?: emptyList()
+                    }
+            }
+            TYPE_ARRAY -> {
+                if (!node.isArray) return listOf("$path is not an array")
+                node.flatMapIndexed { index, element -> items?.validate(element, "$path[$index]") ?: emptyList() }
+            }
+            TYPE_STRING -> when {
+                !node.isTextual -> listOf("$path is not a string")
+                enumValues != null && node.asText() !in enumValues ->
+                    listOf("$path is '${node.asText()}', expected one of $enumValues")
+                else -> emptyList()
+            }
+            TYPE_NUMBER -> if (node.isNumber) emptyList() else listOf("$path is not a number")
+            TYPE_INTEGER -> if (node.isIntegralNumber) emptyList() else listOf("$path is not an integer")
+            TYPE_BOOLEAN -> if (node.isBoolean) emptyList() else listOf("$path is not a boolean")
+            else -> emptyList()
+        }
+    }
+
+    companion object {
+        private const val TYPE_OBJECT = "OBJECT"
+        private const val TYPE_ARRAY = "ARRAY"
+        private const val TYPE_STRING = "STRING"
+        private const val TYPE_NUMBER = "NUMBER"
+        private const val TYPE_INTEGER = "INTEGER"
+        private const val TYPE_BOOLEAN = "BOOLEAN"
+
+        /**
+         * Derive an object schema from the primary constructor of [type]
+         *
+         * @param exclude Parameters that are not part of the model output
+         * @param enums Allowed values of string (or enum) parameters, overriding the enum constants
+         */
+        fun of(
+            type: KClass<*>,
+            exclude: Set<String> = emptySet(),
+            enums: Map<String, List<String>> = emptyMap()
+        ): ResponseSchema {
+            val constructor = type.primaryConstructor
+                ?: throw IllegalArgumentException("${type.simpleName} has no primary constructor")
+            val parameters = constructor.parameters.filter { it.name != null && it.name !in exclude }
+            return ResponseSchema(
+                type = TYPE_OBJECT,
+                properties = parameters.associate { it.name!! to forType(it.type, enums[it.name]) },
+                required = parameters.filter { !it.type.isMarkedNullable && !it.isOptional }.map { it.name!! }
+            )
+        }
+
+        /**
+         * A number property that is not derived from a DTO
+         */
+        fun number(): ResponseSchema = ResponseSchema(TYPE_NUMBER)
+
+        /**
+         * An array schema whose items are derived from [type]
+         */
+        fun arrayOf(type: KClass<*>, exclude: Set<String> = emptySet(), enums: Map<String, List<String>> = emptyMap()): ResponseSchema {
+            return ResponseSchema(type = TYPE_ARRAY, items = of(type, exclude, enums))
+        }
+
+        private fun forType(type: KType, enumOverride: List<String>?): ResponseSchema {
+            val nullable = type.isMarkedNullable
+            val classifier = type.classifier as? KClass<*>
+                ?: throw IllegalArgumentException("Unsupported schema type $type")
+            return when {
+                classifier == String::class ->
+                    ResponseSchema(TYPE_STRING, enumValues = enumOverride, nullable = nullable)
+                classifier == Double::class || classifier == Float::class ->
+                    ResponseSchema(TYPE_NUMBER, nullable = nullable)
+                classifier == Int::class || classifier == Long::class ->
+                    ResponseSchema(TYPE_INTEGER, nullable = nullable)
+                classifier == Boolean::class ->
+                    ResponseSchema(TYPE_BOOLEAN, nullable = nullable)
+                classifier.isSubclassOf(Enum::class) ->
+                    ResponseSchema(
+                        TYPE_STRING,
+                        enumValues = enumOverride ?: classifier.java.enumConstants.map { (it as Enum<*>).name },
+                        nullable = nullable
+                    )
+                classifier.isSubclassOf(Collection::class) -> {
+                    val itemType = type.arguments.firstOrNull()?.type
+                        ?: throw IllegalArgumentException("Collection without element type: $type")
+                    ResponseSchema(TYPE_ARRAY, items = forType(itemType, enumOverride), nullable = nullable)
+                }
+                classifier.isData -> of(classifier).copyNullable(nullable)
+                else -> throw IllegalArgumentException("Unsupported schema type $type")
+            }
+        }
+
+        private fun ResponseSchema.copyNullable(nullable: Boolean): ResponseSchema {
+            return ResponseSchema(type, properties, required, items, enumValues, nullable)
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.satyacheck.backend.service.api
+
+/**
+ * Incremental parser for the {"verdict": ..., "explanation": ...} object Gemini writes
+ * for a fact-check, fed with text fragments as they arrive from streamGenerateContent.
+ *
+ * The verdict is reported as soon as its closing quote has been read, and the
+ * explanation is handed out piece by piece while its string is still open. Anything
+ * before the opening brace (such as a markdown code fence) and any other fields are
+ * skipped. The parser never fails; when the output turns out not to be the expected
+ * object, [verdict] or [explanation] simply stay empty and callers fall back to parsing
+ * the complete text.
+ */
+class StreamingAnalysisParser {
+
+    private enum class State {
+        SEEK_OBJECT,
+        EXPECT_KEY,
+        IN_KEY,
+        EXPECT_COLON,
+        EXPECT_VALUE,
+        IN_STRING_VALUE,
+        IN_SCALAR_VALUE,
+        IN_NESTED_VALUE,
+        EXPECT_SEPARATOR,
+        DONE
+    }
+
+    private var state = State.SEEK_OBJECT
+    private val key = StringBuilder()
+    private val value = StringBuilder()
+    private val explanationText = StringBuilder()
+    private var currentKey: String? = null
+
+    // Characters of an escape sequence read so far, without the backslash
+    private var escape: StringBuilder? = null
+
+    // Skipping a nested object or array value
+    private var nestedDepth = 0
+    private var nestedInString = false
+    private var nestedEscape = false
+
+    /**
+     * The raw verdict string, once it has been read completely
+     */
+    var verdict: String? = null
+        private set
+
+    /**
+     * The explanation decoded so far
+     */
+    val explanation: String
+        get() = explanationText.toString()
+
+    /**
+     * Whether the closing brace of the object has been read
+     */
+    val isComplete: Boolean
+        get() = state == State.DONE
+
+    /**
+     * Consume the next fragment of model output
+     */
+    fun feed(fragment: String): Update {
+        val hadVerdict = verdict != null
+        val explanationDelta = StringBuilder()
+
+        for (c in fragment) {
+            when (state) {
+                State.SEEK_OBJECT -> if (c == '{') state = State.EXPECT_KEY
+                State.EXPECT_KEY -> when (c) {
+                    '"' -> {
+                        key.setLength(0)
+                        state = State.IN_KEY
+                    }
+                    '}' -> state = State.DONE
+                }
+                State.IN_KEY -> if (readStringChar(c, key)) {
+                    currentKey = key.toString()
+                    state = State.EXPECT_COLON
+                }
+                State.EXPECT_COLON -> if (c == ':') state = State.EXPECT_VALUE
+                State.EXPECT_VALUE -> when {
+                    c == '"' -> {
+                        value.setLength(0)
+                        state = State.IN_STRING_VALUE
+                    }
+                    c == '{' || c == '[' -> {
+                        nestedDepth = 1
+                        nestedInString = false
+                        nestedEscape = false
+                        state = State.IN_NESTED_VALUE
+                    }
+                    !c.isWhitespace() -> state = State.IN_SCALAR_VALUE
+                }
+                State.IN_STRING_VALUE -> {
+                    val sink = if (currentKey == FIELD_EXPLANATION) explanationDelta else value
+                    if (readStringChar(c, sink)) {
+                        if (currentKey == FIELD_VERDICT) {
+                            verdict = value.toString().trim()
+                        }
+                        state = State.EXPECT_SEPARATOR
+                    }
+                }
+                State.IN_SCALAR_VALUE -> when (c) {
+                    ',' -> state = State.EXPECT_KEY
+                    '}' -> state = State.DONE
+                }
+                State.IN_NESTED_VALUE -> skipNested(c)
+                State.EXPECT_SEPARATOR -> when (c) {
+                    ',' -> state = State.EXPECT_KEY
+                    '}' -> state = State.DONE
+                }
+                // Trailing text after the object, e.g. a closing code fence
+                State.DONE -> Unit
+            }
+        }
+
+        explanationText.append(explanationDelta)
+        return Update(verdict = verdict.takeUnless { hadVerdict }, explanation = explanationDelta.toString())
+    }
+
+    /**
+     * Decode one character of a JSON string into [out], returning true on the closing quote
+     */
+    private fun readStringChar(c: Char, out: StringBuilder): Boolean {
+        val pending = escape
+        if (pending != null) {
+            pending.append(c)
+            if (pending[0] == 'u') {
+                if (pending.length == UNICODE_ESCAPE_LENGTH) {
+                    out.append(pending.substring(1).toIntOrNull(16)?.toChar() ?: '\uFFFD')
+                    escape = null
+                }
+            } else {
+                out.append(
+                    when (c) {
+                        'n' -> '\n'
+                        't' -> '\t'
+                        'r' -> '\r'
+                        'b' -> '\b'
+                        'f' -> '\u000C'
+                        else -> c
+                    }
+                )
+                escape = null
+            }
+            return false
+        }
+
+        return when (c) {
+            '\\' -> {
+                escape = StringBuilder()
+                false
+            }
+            '"' -> true
+            else -> {
+                out.append(c)
+                false
+            }
+        }
+    }
+
+    private fun skipNested(c: Char) {
+        if (nestedInString) {
+            when {
+                nestedEscape -> nestedEscape = false
+                c == '\\' -> nestedEscape = true
+                c == '"' -> nestedInString = false
+            }
+            return
+        }
+        when (c) {
+            '"' -> nestedInString = true
+            '{', '[' -> nestedDepth++
+            '}', ']' -> if (--nestedDepth == 0) state = State.EXPECT_SEPARATOR
+        }
+    }
+
+    /**
+     * What one fragment added: the verdict if it was completed by this fragment, and the
+     * newly decoded part of the explanation (possibly empty)
+     */
+    data class Update(
+        val verdict: String?,
+        val explanation: String
+    )
+
+    companion object {
+        private const val FIELD_VERDICT = "verdict"
+        private const val FIELD_EXPLANATION = "explanation"
+
+        // 'u' followed by four hex digits
+        private const val UNICODE_ESCAPE_LENGTH = 5
+    }
+}
@@ -2,6 +2,7 @@ package com.satyacheck.backend.service.batch
 
 import com.satyacheck.backend.model.dto.EnhancedAnalysisResult
 import com.satyacheck.backend.service.EnhancedAnalysisService
+import com.satyacheck.backend.service.trends.AnalysisRecordService
 import com.satyacheck.backend.service.web.UrlAnalysisResult
 import com.satyacheck.backend.service.web.UrlAnalysisService
 import kotlinx.coroutines.async
@@ -17,7 +18,8 @@ import java.util.UUID
 @Service
 class BulkAnalysisService(
     private val enhancedAnalysisService: EnhancedAnalysisService,
-    private val urlAnalysisService: UrlAnalysisService
+    private val urlAnalysisService: UrlAnalysisService,
+    private val analysisRecordService: AnalysisRecordService
 ) {
     private val logger = Logger.getLogger(BulkAnalysisService::class.java.name)
     
@@ -35,9 +37,15 @@ class BulkAnalysisService(
         val results = contents.map { contentItem ->
             async {
                 try {
-                    val result = enhancedAnalysisService.analyzeComprehensively(
-                        contentItem.content,
-                        contentItem.language ?: "en"
+                    val language = contentItem.language ?: "en"
+                    val result = enhancedAnalysisService.analyzeComprehensively(contentItem.content, language)
+                    
+                    // Record analysis for trend tracking
+                    analysisRecordService.recordAnalysis(
+                        result = result,
+                        content = contentItem.content,
+                        language = language,
+                        source = SOURCE_BULK
                     )
                     
                     BulkItemResult(
@@ -87,6 +95,9 @@ class BulkAnalysisService(
                 try {
                     val result = urlAnalysisService.analyzeUrl(urlItem.url)
                     
+                    // Record analysis for trend tracking
+                    analysisRecordService.recordUrlAnalysis(result)
+                    
                     BulkUrlItemResult(
                         id = urlItem.id,
                         metadata = urlItem.metadata,
@@ -119,6 +130,10 @@ class BulkAnalysisService(
             results = results
         )
     }
+    
+    companion object {
+        private const val SOURCE_BULK = "BULK"
+    }
 }
 
 /**
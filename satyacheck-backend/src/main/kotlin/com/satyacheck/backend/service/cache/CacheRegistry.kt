@@ -0,0 +1,90 @@
+package com.satyacheck.backend.service.cache
+
+import com.github.benmanes.caffeine.cache.AsyncCache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.github.benmanes.caffeine.cache.Ticker
+import com.github.benmanes.caffeine.cache.Weigher
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics
+import java.util.logging.Logger
+
+/**
+ * Property-driven registry of the application's Caffeine caches.
+ *
+ * Every named cache gets its own TTL and byte budget from its [CacheSpec], with entries
+ * weighed by [weigher]. Caffeine's statistics are bound to Micrometer through
+ * CaffeineCacheMetrics (cache.size, cache.gets, cache.evictions, ...), alongside the
+ * weighted size of each cache.
+ */
+class CacheRegistry(
+    specs: List<CacheSpec>,
+    weigher: Weigher<Any, Any>,
+    private val meterRegistry: MeterRegistry,
+    ticker: Ticker = Ticker.systemTicker()
+) {
+    private val logger = Logger.getLogger(CacheRegistry::class.java.name)
+
+    private val specs: Map<String, CacheSpec> = specs.associateBy { it.name }
+
+    private val caches: Map<String, AsyncCache<Any, Any>> = specs.associate { spec ->
+        spec.name to Caffeine.newBuilder()
+            .maximumWeight(spec.maxWeightBytes)
+            .weigher(weigher)
+            .expireAfterWrite(spec.retention)
+            .ticker(ticker)
+            .recordStats()
+            .buildAsync<Any, Any>()
+    }
+
+    init {
+        caches.forEach { (name, cache) -> bindMetrics(name, cache) }
+        specs.forEach { spec ->
+            logger.info(
+                "Cache ${spec.name}: ttl=${spec.ttl.seconds}s, " +
+                    "refreshAfterWrite=${spec.refreshAfterWrite?.seconds?.let { "${it}s" } ?: "off"}, " +
+                    "staleGrace=${spec.staleGrace?.seconds?.let { "${it}s" } ?: "off"}, " +
+                    "maxBytes=${spec.maxWeightBytes}"
+            )
+        }
+    }
+
+    fun getCache(name: String): AsyncCache<Any, Any>? = caches[name]
+
+    fun getSpec(name: String): CacheSpec? = specs[name]
+
+    fun getCacheNames(): Set<String> = caches.keys
+
+    fun getCaches(): Map<String, AsyncCache<Any, Any>> = caches
+
+    /**
+     * Total weight in bytes of the entries currently held by a cache
+     */
+    fun weightedSize(name: String): Long {
+        return caches[name]?.synchronous()?.policy()?.eviction()?.map { it.weightedSize().orElse(0L) }?.orElse(0L) ?: 0L
+    }
+
+    /**
+     * Byte budget of a cache
+     */
+    fun maximumWeight(name: String): Long {
+        return caches[name]?.synchronous()?.policy()?.eviction()?.map { it.maximum }?.orElse(0L) ?: 0L
+    }
+
+    private fun bindMetrics(name: String, cache: AsyncCache<Any, Any>) {
+        // Size, gets (hit/miss), puts, evictions and load timings from Caffeine's own stats.
+        // Tagged like Spring Boot's cache metrics binder so both resolve to the same meters.
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name, CACHE_MANAGER_TAG, CACHE_MANAGER_NAME)
+
+        Gauge.builder("satyacheck.cache.weight", this) { it.weightedSize(name).toDouble() }
+            .description("Serialized size of the entries in the cache")
+            .tag("cache", name)
+            .baseUnit("bytes")
+            .register(meterRegistry)
+    }
+
+    companion object {
+        private const val CACHE_MANAGER_TAG = "cacheManager"
+        private const val CACHE_MANAGER_NAME = "cacheManager"
+    }
+}
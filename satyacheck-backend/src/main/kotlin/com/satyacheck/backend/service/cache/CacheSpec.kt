@@ -0,0 +1,56 @@
+package com.satyacheck.backend.service.cache
+
+import org.springframework.core.env.Environment
+import java.time.Duration
+
+/**
+ * Sizing and expiry of one named cache, read from properties:
+ *
+ * - cache.ttl.<name>: seconds an entry lives after it is written
+ * - cache.refresh.<name>: seconds after which a hit also reloads the entry in the background
+ * - cache.max-bytes.<name>: upper bound on the serialized size of all entries
+ * - cache.stale-grace.<name>: seconds past the TTL during which an expired entry is still
+ *   served, flagged stale, while it is revalidated in the background
+ *
+ * Caches without their own properties fall back to cache.default.*.
+ */
+data class CacheSpec(
+    val name: String,
+    val ttl: Duration,
+    val refreshAfterWrite: Duration?,
+    val maxWeightBytes: Long,
+    val staleGrace: Duration? = null
+) {
+    /**
+     * How long Caffeine keeps an entry: the TTL plus any stale grace window
+     */
+    val retention: Duration
+        get() = ttl.plus(staleGrace ?: Duration.ZERO)
+
+    companion object {
+        private const val DEFAULT_TTL_SECONDS = 600L
+        private const val DEFAULT_MAX_BYTES = 16L * 1024 * 1024
+
+        /**
+         * Build the spec for [name] from cache.* properties
+         */
+        fun fromEnvironment(name: String, environment: Environment): CacheSpec {
+            val defaultTtl = environment.getProperty("cache.default.ttl", Long::class.javaObjectType, DEFAULT_TTL_SECONDS)
+            val defaultMaxBytes = environment.getProperty("cache.default.max-bytes", Long::class.javaObjectType, DEFAULT_MAX_BYTES)
+
+            val ttlSeconds = environment.getProperty("cache.ttl.$name", Long::class.javaObjectType, defaultTtl)
+            val refreshSeconds = environment.getProperty("cache.refresh.$name", Long::class.javaObjectType)
+            val maxBytes = environment.getProperty("cache.max-bytes.$name", Long::class.javaObjectType, defaultMaxBytes)
+            val graceSeconds = environment.getProperty("cache.stale-grace.$name", Long::class.javaObjectType)
+
+            return CacheSpec(
+                name = name,
+                ttl = Duration.ofSeconds(ttlSeconds),
+                // A refresh point at or beyond the TTL would never be reached
+                refreshAfterWrite = refreshSeconds?.takeIf { it in 1 until ttlSeconds }?.let { Duration.ofSeconds(it) },
+                maxWeightBytes = maxBytes,
+                staleGrace = graceSeconds?.takeIf { it > 0 }?.let { Duration.ofSeconds(it) }
+            )
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.satyacheck.backend.service.cache
+
+import org.springframework.stereotype.Service
+
+/**
+ * Read-only view of cache behaviour for the admin API: Caffeine statistics, load time
+ * percentiles, per-tier hit ratios and sampled hot keys.
+ */
+@Service
+class CacheStatisticsService(private val coroutineCacheManager: CoroutineCacheManager) {
+
+    /**
+     * Statistics for every registered cache, keyed by cache name
+     */
+    fun getStatistics(): Map<String, Map<String, Any?>> {
+        return coroutineCacheManager.getCacheNames().sorted().associateWith { getStatistics(it)!! }
+    }
+
+    /**
+     * Statistics for one cache, or null if it does not exist
+     */
+    fun getStatistics(cacheName: String): Map<String, Any?>? {
+        val registry = coroutineCacheManager.getRegistry()
+        val cache = registry.getCache(cacheName)?.synchronous() ?: return null
+        val spec = registry.getSpec(cacheName)
+        val stats = cache.stats()
+
+        return linkedMapOf(
+            "name" to cacheName,
+            "estimatedSize" to cache.estimatedSize(),
+            "weightedSizeBytes" to registry.weightedSize(cacheName),
+            "maximumWeightBytes" to registry.maximumWeight(cacheName),
+            "ttlSeconds" to spec?.ttl?.seconds,
+            "refreshAfterWriteSeconds" to spec?.refreshAfterWrite?.seconds,
+            "requestCount" to stats.requestCount(),
+            "hitCount" to stats.hitCount(),
+            "missCount" to stats.missCount(),
+            "hitRate" to stats.hitRate(),
+            "missRate" to stats.missRate(),
+            "loadSuccessCount" to stats.loadSuccessCount(),
+            "loadFailureCount" to stats.loadFailureCount(),
+            "averageLoadPenaltyMs" to stats.averageLoadPenalty() / NANOS_PER_MILLI,
+            "loadTimePercentilesMs" to coroutineCacheManager.loadTimePercentiles(cacheName),
+            "evictionCount" to stats.evictionCount(),
+            "evictionWeightBytes" to stats.evictionWeight(),
+            "tierHitRatios" to mapOf(
+                CoroutineCacheManager.TIER_L1 to coroutineCacheManager.hitRatio(cacheName, CoroutineCacheManager.TIER_L1),
+                CoroutineCacheManager.TIER_L2 to coroutineCacheManager.hitRatio(cacheName, CoroutineCacheManager.TIER_L2)
+            )
+        )
+    }
+
+    /**
+     * The most frequently re-requested keys of a cache, or null if it does not exist
+     */
+    fun getHotKeys(cacheName: String, limit: Int): List<HotKey>? {
+        if (coroutineCacheManager.getCache(cacheName) == null) {
+            return null
+        }
+        return coroutineCacheManager.hotKeys(cacheName, limit.coerceIn(1, MAX_HOT_KEYS))
+    }
+
+    companion object {
+        private const val NANOS_PER_MILLI = 1_000_000.0
+        private const val MAX_HOT_KEYS = 100
+    }
+}
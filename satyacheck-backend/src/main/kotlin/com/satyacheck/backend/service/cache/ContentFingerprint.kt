@@ -0,0 +1,62 @@
+package com.satyacheck.backend.service.cache
+
+import java.nio.ByteBuffer
+import java.security.MessageDigest
+
+/**
+ * Compact 128-bit cache key derived from canonicalized content.
+ *
+ * Two longs replace the long concatenated string keys used before, and 128 bits of
+ * SHA-256 make accidental collisions practically impossible, unlike String.hashCode().
+ * Qualifiers such as language or operation are hashed in so each combination gets
+ * its own key.
+ */
+data class ContentFingerprint(val high: Long, val low: Long) {
+
+    fun toHex(): String = "%016x%016x".format(high, low)
+
+    override fun toString(): String = toHex()
+
+    companion object {
+        private const val SEPARATOR: Byte = 0
+
+        /**
+         * Fingerprint free text after [ContentNormalizer.normalize], qualified by e.g. language
+         */
+        @JvmStatic
+        fun of(content: String, vararg qualifiers: String): ContentFingerprint {
+            return digest(ContentNormalizer.normalize(content), qualifiers)
+        }
+
+        /**
+         * Fingerprint a URL after [ContentNormalizer.normalizeUrl]
+         */
+        @JvmStatic
+        fun ofUrl(url: String, vararg qualifiers: String): ContentFingerprint {
+            return digest(ContentNormalizer.normalizeUrl(url), qualifiers)
+        }
+
+        /**
+         * Parse the form produced by [toHex]
+         */
+        @JvmStatic
+        fun fromHex(hex: String): ContentFingerprint {
+            require(hex.length == 32) { "Fingerprint must be 32 hex characters" }
+            return ContentFingerprint(
+                java.lang.Long.parseUnsignedLong(hex.substring(0, 16), 16),
+                java.lang.Long.parseUnsignedLong(hex.substring(16), 16)
+            )
+        }
+
+        private fun digest(canonical: String, qualifiers: Array<out String>): ContentFingerprint {
+            val digest = MessageDigest.getInstance("SHA-256")
+            digest.update(canonical.toByteArray(Charsets.UTF_8))
+            for (qualifier in qualifiers) {
+                digest.update(SEPARATOR)
+                digest.update(qualifier.toByteArray(Charsets.UTF_8))
+            }
+            val buffer = ByteBuffer.wrap(digest.digest())
+            return ContentFingerprint(buffer.long, buffer.long)
+        }
+    }
+}
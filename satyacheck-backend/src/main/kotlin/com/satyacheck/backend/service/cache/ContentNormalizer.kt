@@ -0,0 +1,108 @@
+package com.satyacheck.backend.service.cache
+
+import java.text.Normalizer
+
+/**
+ * Canonical form of user-submitted text, shared by every cache key in the backend.
+ *
+ * Two submissions that only differ in Unicode composition, invisible characters,
+ * whitespace, URL tracking parameters or the case of Latin letters normalize to the
+ * same string. Case is left alone for other scripts, where lowercasing either does
+ * nothing or changes meaning.
+ */
+object ContentNormalizer {
+
+    private val ZERO_WIDTH = Regex("[\\u200B\\u200C\\u200D\\u2060\\uFEFF\\u00AD]")
+    private val WHITESPACE = Regex("\\s+")
+    // Links with a scheme, and bare ones like bit.ly/AbC that start with a domain and a path
+    private val URL = Regex(
+        "(?:https?://|\\b(?:[\\p{L}\\p{N}-]+\\.)+[a-z]{2,}/)[^\\s<>\"]*",
+        RegexOption.IGNORE_CASE
+    )
+    private val SCHEME = Regex("^[a-z][a-z0-9+.-]*://", RegexOption.IGNORE_CASE)
+
+    private val TRACKING_PARAMETERS = setOf(
+        "fbclid", "gclid", "dclid", "gbraid", "wbraid", "msclkid", "igshid",
+        "mc_cid", "mc_eid", "_ga", "_gl", "ref_src", "yclid"
+    )
+    private const val TRACKING_PREFIX = "utm_"
+
+    /**
+     * Canonicalize free text: NFC, zero-width stripping, tracking-free URLs,
+     * Latin case folding and whitespace collapse. URLs in the text only have their
+     * scheme and host folded, so bit.ly/AbC and bit.ly/abc stay different texts.
+     */
+    fun normalize(text: String): String {
+        var normalized = Normalizer.normalize(text, Normalizer.Form.NFC)
+        normalized = ZERO_WIDTH.replace(normalized, "")
+        normalized = foldCaseOutsideUrls(normalized)
+        return WHITESPACE.replace(normalized, " ").trim()
+    }
+
+    /**
+     * Canonicalize a URL used as a cache key. Only the scheme and host are case-folded
+     * because paths and query values are case-sensitive.
+     */
+    fun normalizeUrl(url: String): String {
+        return foldSchemeAndHost(stripTrackingParameters(ZERO_WIDTH.replace(url.trim(), "")))
+    }
+
+    private fun foldCaseOutsideUrls(text: String): String {
+        val builder = StringBuilder(text.length)
+        var last = 0
+        for (match in URL.findAll(text)) {
+            builder.append(foldLatinCase(text.substring(last, match.range.first)))
+            builder.append(foldSchemeAndHost(stripTrackingParameters(match.value)))
+            last = match.range.last + 1
+        }
+        builder.append(foldLatinCase(text.substring(last)))
+        return builder.toString()
+    }
+
+    /**
+     * Lowercase everything up to the end of the host; a URL without a scheme starts with its host
+     */
+    private fun foldSchemeAndHost(url: String): String {
+        val authorityStart = SCHEME.find(url)?.range?.last?.plus(1) ?: 0
+        val authorityEnd = url.indexOfAny(charArrayOf('/', '?', '#'), authorityStart)
+            .let { if (it < 0) url.length else it }
+        return url.substring(0, authorityEnd).lowercase() + url.substring(authorityEnd)
+    }
+
+    private fun stripTrackingParameters(url: String): String {
+        val queryStart = url.indexOf('?')
+        if (queryStart < 0) {
+            return url
+        }
+
+        val fragmentStart = url.indexOf('#', queryStart).let { if (it < 0) url.length else it }
+        val kept = url.substring(queryStart + 1, fragmentStart)
+            .split('&')
+            .filter { it.isNotEmpty() && !isTrackingParameter(it.substringBefore('=')) }
+
+        val base = url.substring(0, queryStart)
+        val fragment = url.substring(fragmentStart)
+        return if (kept.isEmpty()) base + fragment else base + "?" + kept.joinToString("&") + fragment
+    }
+
+    private fun isTrackingParameter(name: String): Boolean {
+        val lower = name.lowercase()
+        return lower.startsWith(TRACKING_PREFIX) || lower in TRACKING_PARAMETERS
+    }
+
+    private fun foldLatinCase(text: String): String {
+        val builder = StringBuilder(text.length)
+        var index = 0
+        while (index < text.length) {
+            val codePoint = text.codePointAt(index)
+            val folded = if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.LATIN) {
+                Character.toLowerCase(codePoint)
+            } else {
+                codePoint
+            }
+            builder.appendCodePoint(folded)
+            index += Character.charCount(codePoint)
+        }
+        return builder.toString()
+    }
+}
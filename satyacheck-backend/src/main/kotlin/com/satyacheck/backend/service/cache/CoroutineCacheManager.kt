@@ -0,0 +1,384 @@
+package com.satyacheck.backend.service.cache
+
+import com.fasterxml.jackson.core.type.TypeReference
+import com.fasterxml.jackson.module.kotlin.jacksonTypeRef
+import com.github.benmanes.caffeine.cache.AsyncCache
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import jakarta.annotation.PreDestroy
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.future.await
+import kotlinx.coroutines.future.future
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.LongAdder
+import java.util.logging.Logger
+import kotlin.coroutines.CoroutineContext
+import kotlin.coroutines.coroutineContext
+
+/**
+ * Coroutine-native cache facility backed by Caffeine [AsyncCache]s.
+ *
+ * Spring's @Cacheable cannot key or store the results of suspend functions reliably
+ * because of the hidden Continuation parameter, so suspend services call [cached]
+ * instead. Concurrent misses for the same key share one loader invocation, and the
+ * loader runs in this manager's scope so a cancelled caller does not abort the load
+ * for everyone else waiting on it.
+ *
+ * Caches listed in cache.l2.caches are two-tier: an L1 miss falls through to the
+ * shared MongoDB [SharedCacheStore] before the loader runs. L2 hits are promoted into
+ * L1, and freshly loaded values are written to L2 in the background.
+ *
+ * Caches with a refreshAfterWrite in their [CacheSpec] keep serving an entry past
+ * that age while one background reload per key replaces it. Caches with a stale grace
+ * window also serve entries past their TTL, flagged through [StaleMarkable], while
+ * they are revalidated. Background reloads share a small pool of permits, so a burst
+ * of expiring keys cannot turn into a burst of Gemini calls.
+ */
+class CoroutineCacheManager(
+    private val registry: CacheRegistry,
+    private val sharedCacheStore: SharedCacheStore?,
+    private val meterRegistry: MeterRegistry,
+    private val hotKeySampleRate: Double = 0.05,
+    private val hotKeyCapacity: Long = 500,
+    maxConcurrentRefreshes: Int = 4
+) {
+    private val logger = Logger.getLogger(CoroutineCacheManager::class.java.name)
+    
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.Default)
+    private val tierStats = ConcurrentHashMap<Pair<String, String>, TierStats>()
+    private val refreshing = ConcurrentHashMap.newKeySet<Pair<String, Any>>()
+    private val refreshPermits = Semaphore(maxConcurrentRefreshes.coerceAtLeast(1))
+    private val hotKeySamplers = ConcurrentHashMap<String, HotKeySampler>()
+    
+    /**
+     * Return the value cached under [key] in [cacheName], loading it with [loader] on a miss.
+     * Loaded values rejected by [cacheIf] are returned but not kept.
+     */
+    suspend inline fun <reified T : Any> cached(
+        cacheName: String,
+        key: Any,
+        noinline cacheIf: (T) -> Boolean = { true },
+        noinline loader: suspend () -> T
+    ): T {
+        return cached(cacheName, key, jacksonTypeRef<T>(), cacheIf, loader)
+    }
+    
+    /**
+     * Return the value cached under [key] in [cacheName], loading it with [loader] on a miss.
+     * [type] is used to read the value back from the shared tier. Loaded values rejected by
+     * [cacheIf], such as fallbacks produced after an upstream failure, are returned to the
+     * callers waiting on this load but kept in neither tier, so the next lookup tries again.
+     */
+    @Suppress("UNCHECKED_CAST")
+    suspend fun <T : Any> cached(
+        cacheName: String,
+        key: Any,
+        type: TypeReference<T>,
+        cacheIf: (T) -> Boolean = { true },
+        loader: suspend () -> T
+    ): T {
+        val cache = getCache(cacheName)
+            ?: throw IllegalArgumentException("Cache '$cacheName' is not configured")
+        
+        // Keep the caller's context elements (e.g. MDC, tracing) but not its Job
+        val callerContext = coroutineContext.minusKey(Job)
+        
+        // Probe through the map view, which does not touch Caffeine's statistics
+        val present = cache.asMap().containsKey(key)
+        record(cacheName, TIER_L1, hit = present)
+        
+        val spec = registry.getSpec(cacheName)
+        val age = if (present) entryAge(cache, key) else null
+        val stale = age != null && spec?.staleGrace != null && age >= spec.ttl
+        val dueForRefresh = age != null && spec?.refreshAfterWrite?.let { age >= it } == true
+        if (stale || dueForRefresh) {
+            refreshInBackground(cacheName, cache, key, callerContext, cacheIf, loader)
+        }
+        
+        // get() records exactly one Caffeine hit or miss and only loads on a miss
+        val future = cache.get(key) { _, _ ->
+            scope.future(callerContext) { timedLoad(cacheName) { loadThroughSharedTier(cacheName, key, type, cacheIf, loader) } }
+        }
+        val value = future.await() as T
+        if (!cacheIf(value)) {
+            // Only drops the entry if it is still the failed load, not a newer value
+            cache.asMap().remove(key, future)
+            return value
+        }
+        // Only values that can preview themselves cheaply get one; the others are shown by key alone
+        hotKeySampler(cacheName).sample(key) { (value as? Previewable)?.preview(PREVIEW_LENGTH) }
+        return if (stale && value is StaleMarkable<*>) value.asStale() as T else value
+    }
+    
+    /**
+     * Return the fresh value cached under [key] in [cacheName] without loading it, or null
+     * if neither tier has one. Entries past their TTL, even within a stale grace window,
+     * count as absent.
+     */
+    suspend inline fun <reified T : Any> getIfPresent(cacheName: String, key: Any): T? {
+        return getIfPresent(cacheName, key, jacksonTypeRef<T>())
+    }
+
+    /**
+     * Return the fresh value cached under [key] in [cacheName] without loading it, or null
+     * if neither tier has one. [type] is used to read the value back from the shared tier.
+     */
+    @Suppress("UNCHECKED_CAST")
+    suspend fun <T : Any> getIfPresent(cacheName: String, key: Any, type: TypeReference<T>): T? {
+        val cache = getCache(cacheName) ?: return null
+        val spec = registry.getSpec(cacheName)
+
+        val future = cache.asMap()[key]
+        val age = if (future != null) entryAge(cache, key) else null
+        val fresh = future != null && future.isDone && !future.isCompletedExceptionally &&
+            (age == null || spec == null || age < spec.ttl)
+        record(cacheName, TIER_L1, hit = fresh)
+        if (fresh) {
+            return future!!.join() as T
+        }
+
+        val store = sharedCacheStore
+        if (store == null || key !is ContentFingerprint || !store.isShared(cacheName)) {
+            return null
+        }
+        val shared = store.get(cacheName, key, type)
+        record(cacheName, TIER_L2, hit = shared != null)
+        shared?.let { cache.put(key, CompletableFuture.completedFuture(it)) }
+        return shared
+    }
+
+    /**
+     * Store a value computed outside [cached], such as the assembled result of a streamed
+     * analysis, in both tiers
+     */
+    fun put(cacheName: String, key: Any, value: Any) {
+        val cache = getCache(cacheName)
+            ?: throw IllegalArgumentException("Cache '$cacheName' is not configured")
+        cache.put(key, CompletableFuture.completedFuture(value))
+        if (key is ContentFingerprint && sharedCacheStore?.isShared(cacheName) == true) {
+            sharedCacheStore.putAsync(cacheName, key, value)
+        }
+    }
+
+    /**
+     * Remove a single entry from a cache, in both tiers
+     */
+    fun evict(cacheName: String, key: Any) {
+        getCache(cacheName)?.synchronous()?.invalidate(key)
+        if (key is ContentFingerprint && sharedCacheStore?.isShared(cacheName) == true) {
+            sharedCacheStore.evict(cacheName, key)
+        }
+    }
+    
+    /**
+     * Remove all entries from a cache, in both tiers
+     */
+    fun clear(cacheName: String) {
+        getCache(cacheName)?.synchronous()?.invalidateAll()
+        if (sharedCacheStore?.isShared(cacheName) == true) {
+            sharedCacheStore.clear(cacheName)
+        }
+        logger.info("Cleared coroutine cache: $cacheName")
+    }
+    
+    fun getCache(cacheName: String): AsyncCache<Any, Any>? = registry.getCache(cacheName)
+    
+    fun getCacheNames(): Set<String> = registry.getCacheNames()
+    
+    fun getCaches(): Map<String, AsyncCache<Any, Any>> = registry.getCaches()
+    
+    fun getRegistry(): CacheRegistry = registry
+    
+    @PreDestroy
+    fun shutdown() {
+        scope.cancel()
+    }
+    
+    /**
+     * The most frequently requested keys of a cache, from sampled lookups
+     */
+    fun hotKeys(cacheName: String, limit: Int): List<HotKey> {
+        return hotKeySamplers[cacheName]?.top(limit) ?: emptyList()
+    }
+    
+    /**
+     * Load time percentiles of a cache in milliseconds, keyed "p50", "p95" and "p99"
+     */
+    fun loadTimePercentiles(cacheName: String): Map<String, Double> {
+        return loadTimer(cacheName).takeSnapshot().percentileValues().associate { value ->
+            "p${(value.percentile() * 100).toInt()}" to value.value(TimeUnit.MILLISECONDS)
+        }
+    }
+    
+    /**
+     * Hit ratio of one tier of one cache, or null before its first lookup
+     */
+    fun hitRatio(cacheName: String, tier: String): Double? {
+        return tierStats[cacheName to tier]?.ratio()?.takeUnless { it.isNaN() }
+    }
+    
+    private fun entryAge(cache: AsyncCache<Any, Any>, key: Any): Duration? {
+        return cache.synchronous().policy().expireAfterWrite().flatMap { it.ageOf(key) }.orElse(null)
+    }
+    
+    /**
+     * Reload an entry from the origin while the current value keeps being served.
+     * At most one refresh per key runs at a time, and refreshes beyond the permit pool
+     * are dropped; the next hit on the key tries again. A failed refresh, or one whose value
+     * is rejected by cacheIf, keeps the old value.
+     */
+    private fun <T : Any> refreshInBackground(
+        cacheName: String,
+        cache: AsyncCache<Any, Any>,
+        key: Any,
+        callerContext: CoroutineContext,
+        cacheIf: (T) -> Boolean,
+        loader: suspend () -> T
+    ) {
+        val refreshKey = cacheName to key
+        if (!refreshing.add(refreshKey)) {
+            return
+        }
+        if (!refreshPermits.tryAcquire()) {
+            refreshing.remove(refreshKey)
+            refreshCounter(cacheName, REFRESH_REJECTED).increment()
+            return
+        }
+        
+        scope.launch(callerContext) {
+            try {
+                val value = timedLoad(cacheName) { loader() }
+                if (!cacheIf(value)) {
+                    refreshCounter(cacheName, REFRESH_FAILURE).increment()
+                    return@launch
+                }
+                cache.put(key, CompletableFuture.completedFuture(value))
+                if (key is ContentFingerprint && sharedCacheStore?.isShared(cacheName) == true) {
+                    sharedCacheStore.putAsync(cacheName, key, value)
+                }
+                refreshCounter(cacheName, REFRESH_SUCCESS).increment()
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                logger.warning("Background refresh of $cacheName entry failed: ${e.message}")
+                refreshCounter(cacheName, REFRESH_FAILURE).increment()
+            } finally {
+                refreshPermits.release()
+                refreshing.remove(refreshKey)
+            }
+        }
+    }
+    
+    private fun refreshCounter(cacheName: String, outcome: String): Counter {
+        return Counter.builder("satyacheck.cache.refreshes")
+            .description("Background revalidations of cache entries")
+            .tag("cache", cacheName)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+    }
+    
+    private suspend fun <T> timedLoad(cacheName: String, load: suspend () -> T): T {
+        val start = System.nanoTime()
+        try {
+            return load()
+        } finally {
+            loadTimer(cacheName).record(System.nanoTime() - start, TimeUnit.NANOSECONDS)
+        }
+    }
+    
+    private fun loadTimer(cacheName: String): Timer {
+        return Timer.builder("satyacheck.cache.load")
+            .description("Time to load a missing cache entry from the shared tier or origin")
+            .tag("cache", cacheName)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry)
+    }
+    
+    private fun hotKeySampler(cacheName: String): HotKeySampler {
+        return hotKeySamplers.computeIfAbsent(cacheName) { HotKeySampler(hotKeySampleRate, hotKeyCapacity) }
+    }
+    
+    private suspend fun <T : Any> loadThroughSharedTier(
+        cacheName: String,
+        key: Any,
+        type: TypeReference<T>,
+        cacheIf: (T) -> Boolean,
+        loader: suspend () -> T
+    ): T {
+        val store = sharedCacheStore
+        if (store == null || key !is ContentFingerprint || !store.isShared(cacheName)) {
+            return loader()
+        }
+        
+        store.get(cacheName, key, type)?.let { shared ->
+            record(cacheName, TIER_L2, hit = true)
+            return shared
+        }
+        
+        record(cacheName, TIER_L2, hit = false)
+        val value = loader()
+        if (cacheIf(value)) {
+            store.putAsync(cacheName, key, value)
+        }
+        return value
+    }
+    
+    private fun record(cacheName: String, tier: String, hit: Boolean) {
+        val stats = tierStats.computeIfAbsent(cacheName to tier) { TierStats(cacheName, tier) }
+        if (hit) stats.hits.increment() else stats.misses.increment()
+        lookupCounter(cacheName, tier, if (hit) RESULT_HIT else RESULT_MISS).increment()
+    }
+    
+    private fun lookupCounter(cacheName: String, tier: String, result: String): Counter {
+        return Counter.builder("satyacheck.cache.lookups")
+            .description("Lookups through the coroutine cache facility")
+            .tag("cache", cacheName)
+            .tag("tier", tier)
+            .tag("result", result)
+            .register(meterRegistry)
+    }
+    
+    private inner class TierStats(cacheName: String, tier: String) {
+        val hits = LongAdder()
+        val misses = LongAdder()
+        
+        init {
+            Gauge.builder("satyacheck.cache.hit_ratio", this) { it.ratio() }
+                .description("Share of lookups answered by this cache tier")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .register(meterRegistry)
+        }
+        
+        fun ratio(): Double {
+            val hitCount = hits.sum().toDouble()
+            return hitCount / (hitCount + misses.sum())
+        }
+    }
+    
+    companion object {
+        const val TIER_L1 = "l1"
+        const val TIER_L2 = "l2"
+        
+        private const val PREVIEW_LENGTH = 120
+        
+        private const val REFRESH_SUCCESS = "success"
+        private const val REFRESH_FAILURE = "failure"
+        private const val REFRESH_REJECTED = "rejected"
+        
+        private const val RESULT_HIT = "hit"
+        private const val RESULT_MISS = "miss"
+    }
+}
@@ -0,0 +1,68 @@
+package com.satyacheck.backend.service.cache
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Sampled lookup counter used to show which keys of a cache are re-requested most.
+ *
+ * Only a [sampleRate] share of lookups is counted, and at most [capacity] keys are
+ * tracked. The tracking map is itself a size-bounded Caffeine cache, whose frequency
+ * based admission keeps hot keys and drops one-off ones.
+ */
+class HotKeySampler(
+    private val sampleRate: Double,
+    capacity: Long
+) {
+    private val counts: Cache<Any, SampledKey> = Caffeine.newBuilder()
+        .maximumSize(capacity)
+        .build()
+
+    /**
+     * Count a lookup of [key] if it falls into the sample
+     */
+    fun sample(key: Any, preview: () -> String?) {
+        if (sampleRate <= 0.0 || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return
+        }
+        counts.get(key) { SampledKey(preview()) }.hits.increment()
+    }
+
+    /**
+     * The [limit] most frequently sampled keys, hottest first
+     */
+    fun top(limit: Int): List<HotKey> {
+        return counts.asMap().entries
+            .map { (key, sampled) ->
+                val sampledHits = sampled.hits.sum()
+                HotKey(
+                    key = key.toString(),
+                    sampledLookups = sampledHits,
+                    estimatedLookups = if (sampleRate > 0.0) (sampledHits / sampleRate).toLong() else 0L,
+                    preview = sampled.preview
+                )
+            }
+            .sortedByDescending { it.sampledLookups }
+            .take(limit)
+    }
+
+    fun clear() {
+        counts.invalidateAll()
+    }
+
+    private class SampledKey(val preview: String?) {
+        val hits = LongAdder()
+    }
+}
+
+/**
+ * A frequently requested cache key with a short preview of its cached value
+ */
+data class HotKey(
+    val key: String,
+    val sampledLookups: Long,
+    val estimatedLookups: Long,
+    val preview: String?
+)
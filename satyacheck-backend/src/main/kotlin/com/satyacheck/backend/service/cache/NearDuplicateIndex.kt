@@ -0,0 +1,170 @@
+package com.satyacheck.backend.service.cache
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.github.benmanes.caffeine.cache.RemovalCause
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.enum.Verdict
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.stereotype.Component
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.logging.Logger
+
+/**
+ * Near-duplicate lookup tier for analysis results.
+ *
+ * Every analysed text is indexed by its [SimHash] fingerprint. The 64 bits are split
+ * into maxDistance + 1 bands, so by the pigeonhole principle any fingerprint within
+ * maxDistance bits of a stored one matches it exactly on at least one band. Lookups
+ * only compare against entries sharing a band instead of scanning the whole index.
+ * A candidate must also mention the same numbers, apart from masked phone numbers,
+ * because a changed figure barely moves the fingerprint but changes the claim.
+ */
+@Component
+class NearDuplicateIndex(
+    @Value("\${cache.near-duplicate.enabled:true}") private val enabled: Boolean,
+    @Value("\${cache.near-duplicate.max-distance:3}") private val maxDistance: Int,
+    @Value("\${cache.near-duplicate.min-tokens:8}") private val minTokens: Int,
+    @Value("\${cache.near-duplicate.max-entries:20000}") maxEntries: Long,
+    @Value("\${cache.near-duplicate.ttl-seconds:3600}") ttlSeconds: Long,
+    private val meterRegistry: MeterRegistry
+) {
+    private val logger = Logger.getLogger(NearDuplicateIndex::class.java.name)
+
+    private val bands = (maxDistance + 1).coerceIn(1, 64)
+    private val bandWidth = 64 / bands
+
+    private val postings = ConcurrentHashMap<BandKey, MutableSet<String>>()
+
+    private val entries: Cache<String, IndexedResult> = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .removalListener<String, IndexedResult> { id, entry, cause ->
+            if (id != null && entry != null && cause != RemovalCause.REPLACED) {
+                unindex(id, entry.fingerprint)
+            }
+        }
+        .build()
+
+    init {
+        meterRegistry.gauge("satyacheck.cache.near_duplicate.entries", entries) { it.estimatedSize().toDouble() }
+    }
+
+    /**
+     * Find a stored analysis of text within the configured Hamming distance of [content]
+     */
+    fun findNearDuplicate(content: String, language: String): NearDuplicateMatch? {
+        if (!enabled) {
+            return null
+        }
+
+        val tokens = SimHash.tokens(content)
+        if (tokens.size < minTokens) {
+            return null
+        }
+
+        val fingerprint = SimHash.fingerprint(content)
+        val numbers = SimHash.numbers(tokens)
+        var best: NearDuplicateMatch? = null
+
+        for (band in 0 until bands) {
+            val candidates = postings[bandKey(band, fingerprint)] ?: continue
+            for (id in candidates) {
+                val entry = entries.getIfPresent(id) ?: continue
+                if (entry.language != language || entry.numbers != numbers) continue
+
+                val distance = SimHash.hammingDistance(fingerprint, entry.fingerprint)
+                if (distance <= maxDistance && (best == null || distance < best.distance)) {
+                    best = NearDuplicateMatch(id, entry.result, distance)
+                }
+            }
+        }
+
+        lookupCounter(if (best != null) RESULT_HIT else RESULT_MISS).increment()
+        best?.let { logger.info("Near-duplicate hit on ${it.id} at distance ${it.distance}") }
+        return best
+    }
+
+    /**
+     * Index an analysis result under the fingerprint of the text it was produced for
+     */
+    fun add(id: String, content: String, language: String, result: AnalysisResult) {
+        if (!enabled || result.verdict in UNINDEXED_VERDICTS) {
+            return
+        }
+        val tokens = SimHash.tokens(content)
+        if (tokens.size < minTokens) {
+            return
+        }
+
+        val fingerprint = SimHash.fingerprint(content)
+        entries.put(id, IndexedResult(fingerprint, SimHash.numbers(tokens), language, result))
+        for (band in 0 until bands) {
+            postings.computeIfAbsent(bandKey(band, fingerprint)) { ConcurrentHashMap.newKeySet() }.add(id)
+        }
+    }
+
+    /**
+     * Number of results currently indexed
+     */
+    fun size(): Long = entries.estimatedSize()
+
+    fun clear() {
+        entries.invalidateAll()
+        entries.cleanUp()
+    }
+
+    private fun unindex(id: String, fingerprint: Long) {
+        for (band in 0 until bands) {
+            val key = bandKey(band, fingerprint)
+            postings.computeIfPresent(key) { _, ids ->
+                ids.remove(id)
+                if (ids.isEmpty()) null else ids
+            }
+        }
+    }
+
+    private fun bandKey(band: Int, fingerprint: Long): BandKey {
+        val shift = band * bandWidth
+        // The last band absorbs the remainder when 64 is not a multiple of the band count
+        val width = if (band == bands - 1) 64 - shift else bandWidth
+        val mask = if (width == 64) -1L else (1L shl width) - 1
+        return BandKey(band, (fingerprint ushr shift) and mask)
+    }
+
+    private fun lookupCounter(result: String): Counter {
+        return Counter.builder("satyacheck.cache.near_duplicate.lookups")
+            .description("Near-duplicate lookups that found or missed a stored analysis")
+            .tag("result", result)
+            .register(meterRegistry)
+    }
+
+    private data class BandKey(val band: Int, val value: Long)
+
+    private data class IndexedResult(
+        val fingerprint: Long,
+        val numbers: List<String>,
+        val language: String,
+        val result: AnalysisResult
+    )
+
+    companion object {
+        private const val RESULT_HIT = "hit"
+        private const val RESULT_MISS = "miss"
+
+        // Failed analyses must not be replayed onto other texts
+        private val UNINDEXED_VERDICTS = setOf(Verdict.ERROR, Verdict.UNKNOWN)
+    }
+}
+
+/**
+ * A stored analysis found for a near-duplicate of the requested text
+ */
+data class NearDuplicateMatch(
+    val id: String,
+    val result: AnalysisResult,
+    val distance: Int
+)
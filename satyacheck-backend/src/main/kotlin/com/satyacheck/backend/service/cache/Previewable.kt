@@ -0,0 +1,13 @@
+package com.satyacheck.backend.service.cache
+
+/**
+ * A cached value that can describe itself in a few words for the hot key report,
+ * without serializing the whole value.
+ */
+interface Previewable {
+    
+    /**
+     * Description of at most [maxLength] characters, built from bounded fields of the value
+     */
+    fun preview(maxLength: Int): String
+}
@@ -0,0 +1,30 @@
+package com.satyacheck.backend.service.cache
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.github.benmanes.caffeine.cache.Weigher
+import java.util.logging.Logger
+
+/**
+ * Weighs cache entries by the size of their JSON form, so a cache's maximum weight is
+ * a byte budget. A 100 KB web page and a 30-byte language code then cost what they
+ * actually occupy instead of one entry each.
+ */
+class SerializedSizeWeigher(private val objectMapper: ObjectMapper) : Weigher<Any, Any> {
+    private val logger = Logger.getLogger(SerializedSizeWeigher::class.java.name)
+
+    override fun weigh(key: Any, value: Any): Int {
+        val valueBytes = try {
+            objectMapper.writeValueAsBytes(value).size.toLong()
+        } catch (e: Exception) {
+            logger.fine("Could not serialize ${value.javaClass.simpleName} for weighing: ${e.message}")
+            FALLBACK_VALUE_BYTES
+        }
+        return (valueBytes + ENTRY_OVERHEAD_BYTES).coerceAtMost(Int.MAX_VALUE.toLong()).toInt()
+    }
+
+    companion object {
+        // Key, node and bookkeeping overhead Caffeine keeps per entry
+        private const val ENTRY_OVERHEAD_BYTES = 96L
+        private const val FALLBACK_VALUE_BYTES = 1024L
+    }
+}
@@ -0,0 +1,130 @@
+package com.satyacheck.backend.service.cache
+
+import com.fasterxml.jackson.core.type.TypeReference
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.satyacheck.backend.model.entity.AnalysisCacheEntry
+import com.satyacheck.backend.repository.AnalysisCacheCoroutineRepository
+import jakarta.annotation.PreDestroy
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.launch
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.core.env.Environment
+import org.springframework.stereotype.Component
+import java.time.Instant
+import java.util.logging.Logger
+
+/**
+ * Shared (L2) cache tier stored in the MongoDB analysis_cache collection.
+ *
+ * Every Cloud Run instance reads and writes the same collection, so a result paid for
+ * by one instance is reused by the others after a restart or scale-out. Values are
+ * stored as JSON under "<cacheName>:<fingerprint>", and entries expire through a TTL
+ * index using the cache.ttl.<cacheName> properties. Reads go through the reactive driver,
+ * so a lookup never blocks the thread it runs on, and writes run in the background so
+ * the request path never waits on MongoDB.
+ */
+@Component
+class SharedCacheStore(
+    private val repository: AnalysisCacheCoroutineRepository,
+    private val objectMapper: ObjectMapper,
+    private val environment: Environment,
+    @Value("\${cache.l2.enabled:true}") private val enabled: Boolean,
+    @Value("\${cache.l2.caches:}") cacheNames: List<String>
+) {
+    private val logger = Logger.getLogger(SharedCacheStore::class.java.name)
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.Default)
+    private val sharedCacheNames = cacheNames.map { it.trim() }.filter { it.isNotEmpty() }.toSet()
+
+    /**
+     * Whether values of this cache are shared through MongoDB
+     */
+    fun isShared(cacheName: String): Boolean = enabled && cacheName in sharedCacheNames
+
+    /**
+     * Read a value from the shared tier, or null if it is absent, expired or unreadable
+     */
+    suspend fun <T : Any> get(cacheName: String, key: ContentFingerprint, type: TypeReference<T>): T? {
+        val entry = try {
+            repository.findById(entryId(cacheName, key))
+        } catch (e: Exception) {
+            logger.warning("Shared cache read failed for $cacheName: ${e.message}")
+            null
+        } ?: return null
+
+        // The TTL monitor only runs once a minute, so expired documents can still be returned
+        if (entry.expiresAt.isBefore(Instant.now())) {
+            return null
+        }
+
+        return try {
+            objectMapper.readValue(entry.payload, type)
+        } catch (e: Exception) {
+            logger.warning("Discarding unreadable shared cache entry ${entry.id}: ${e.message}")
+            null
+        }
+    }
+
+    /**
+     * Store a value in the shared tier without waiting for the write
+     */
+    fun putAsync(cacheName: String, key: ContentFingerprint, value: Any) {
+        scope.launch {
+            try {
+                val now = Instant.now()
+                repository.save(
+                    AnalysisCacheEntry(
+                        id = entryId(cacheName, key),
+                        cacheName = cacheName,
+                        payload = objectMapper.writeValueAsString(value),
+                        createdAt = now,
+                        expiresAt = now.plusSeconds(ttlSeconds(cacheName))
+                    )
+                )
+            } catch (e: Exception) {
+                logger.warning("Shared cache write failed for $cacheName: ${e.message}")
+            }
+        }
+    }
+
+    /**
+     * Remove a single entry from the shared tier
+     */
+    fun evict(cacheName: String, key: ContentFingerprint) {
+        scope.launch {
+            try {
+                repository.deleteById(entryId(cacheName, key))
+            } catch (e: Exception) {
+                logger.warning("Shared cache eviction failed for $cacheName: ${e.message}")
+            }
+        }
+    }
+
+    /**
+     * Remove all entries of one cache from the shared tier
+     */
+    fun clear(cacheName: String) {
+        scope.launch {
+            try {
+                val removed = repository.deleteByCacheName(cacheName)
+                logger.info("Cleared $removed shared cache entries for $cacheName")
+            } catch (e: Exception) {
+                logger.warning("Shared cache clear failed for $cacheName: ${e.message}")
+            }
+        }
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        scope.cancel()
+    }
+
+    private fun ttlSeconds(cacheName: String): Long {
+        return CacheSpec.fromEnvironment(cacheName, environment).ttl.seconds
+    }
+
+    private fun entryId(cacheName: String, key: ContentFingerprint): String = "$cacheName:${key.toHex()}"
+}
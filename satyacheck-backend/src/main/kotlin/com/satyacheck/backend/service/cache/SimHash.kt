@@ -0,0 +1,100 @@
+package com.satyacheck.backend.service.cache
+
+/**
+ * 64-bit SimHash over word shingles of normalized text.
+ *
+ * Texts that differ only by forwarding noise (emojis, "forwarded as received" banners,
+ * extra line breaks, changed phone numbers) produce fingerprints a few bits apart,
+ * so near-duplicates can be found by Hamming distance instead of exact equality.
+ * Other numbers are kept, since "95% effective" and "5% effective" are different claims
+ * even though their fingerprints may be just as close; see [numbers].
+ */
+object SimHash {
+
+    const val SHINGLE_SIZE = 3
+
+    private val FORWARDING_BANNERS = listOf(
+        Regex("forwarded as received", RegexOption.IGNORE_CASE),
+        Regex("forwarded many times", RegexOption.IGNORE_CASE),
+        Regex("\\bforwarded\\b", RegexOption.IGNORE_CASE),
+        Regex("\\bfwd?:", RegexOption.IGNORE_CASE)
+    )
+    // Seven or more digits, optionally grouped by single spaces or dashes, as in +91 98765-43210
+    private val PHONE_NUMBER = Regex("(?<!\\d)\\+?\\d(?:[ -]?\\d){6,}(?!\\d)")
+    private val DIGIT = Regex("\\d")
+    private val NON_WORD = Regex("[^\\p{L}\\p{M}\\p{N}]+")
+
+    /**
+     * Compute the SimHash fingerprint of a text
+     */
+    fun fingerprint(text: String): Long {
+        return fingerprintTokens(tokens(text))
+    }
+
+    /**
+     * Split a text into the noise-free tokens that feed the fingerprint
+     */
+    fun tokens(text: String): List<String> {
+        var normalized = ContentNormalizer.normalize(text).lowercase()
+        FORWARDING_BANNERS.forEach { normalized = it.replace(normalized, " ") }
+        // Phone numbers change between forwards; keep only that a number was there
+        normalized = PHONE_NUMBER.replace(normalized, " 0 ")
+        return NON_WORD.split(normalized).filter { it.isNotEmpty() }
+    }
+
+    /**
+     * The numbers among [tokens] in order, leaving out the 0 that stands for a masked phone
+     * number; near-duplicates must agree on them
+     */
+    fun numbers(tokens: List<String>): List<String> = tokens.filter { DIGIT.containsMatchIn(it) && it != "0" }
+
+    /**
+     * Number of differing bits between two fingerprints
+     */
+    fun hammingDistance(a: Long, b: Long): Int = java.lang.Long.bitCount(a xor b)
+
+    private fun fingerprintTokens(tokens: List<String>): Long {
+        if (tokens.isEmpty()) {
+            return 0L
+        }
+
+        val shingles = if (tokens.size < SHINGLE_SIZE) {
+            tokens
+        } else {
+            tokens.windowed(SHINGLE_SIZE) { it.joinToString(" ") }
+        }
+
+        val weights = IntArray(64)
+        for (shingle in shingles) {
+            val hash = hash64(shingle)
+            for (bit in 0 until 64) {
+                if ((hash ushr bit) and 1L == 1L) weights[bit]++ else weights[bit]--
+            }
+        }
+
+        var fingerprint = 0L
+        for (bit in 0 until 64) {
+            if (weights[bit] > 0) {
+                fingerprint = fingerprint or (1L shl bit)
+            }
+        }
+        return fingerprint
+    }
+
+    /**
+     * FNV-1a followed by the MurmurHash3 finalizer so every output bit depends on every input char
+     */
+    private fun hash64(value: String): Long {
+        var hash = -0x340d631b7bdddcdbL
+        for (ch in value) {
+            hash = hash xor ch.code.toLong()
+            hash *= 0x100000001b3L
+        }
+        hash = hash xor (hash ushr 33)
+        hash *= -0xae502812aa7333L
+        hash = hash xor (hash ushr 33)
+        hash *= -0x3b314601e57a13adL
+        hash = hash xor (hash ushr 33)
+        return hash
+    }
+}
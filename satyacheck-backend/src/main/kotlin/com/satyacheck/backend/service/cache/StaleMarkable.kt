@@ -0,0 +1,13 @@
+package com.satyacheck.backend.service.cache
+
+/**
+ * A cached value that can report it was served from an expired entry
+ * while a fresh one is being computed in the background.
+ */
+interface StaleMarkable<T> {
+    
+    /**
+     * Copy of this value flagged as stale
+     */
+    fun asStale(): T
+}
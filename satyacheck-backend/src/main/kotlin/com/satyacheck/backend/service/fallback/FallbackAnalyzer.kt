@@ -0,0 +1,66 @@
+package com.satyacheck.backend.service.fallback
+
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.service.cache.NearDuplicateIndex
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.stereotype.Service
+import java.util.logging.Logger
+
+/**
+ * Answers analysis requests in-process while Gemini is unavailable.
+ *
+ * Text that is a near-duplicate of an already fact-checked message gets that message's
+ * verdict, exactly as it would with Gemini up. Anything else is scored by
+ * [HeuristicVerdictClassifier] and returned with degraded = true, so clients can tell
+ * it apart from a full analysis. Answers are counted as
+ * satyacheck.analysis.degraded{source=near_duplicate|heuristic}.
+ */
+@Service
+class FallbackAnalyzer(
+    private val nearDuplicateIndex: NearDuplicateIndex,
+    private val meterRegistry: MeterRegistry
+) {
+    private val logger = Logger.getLogger(FallbackAnalyzer::class.java.name)
+    private val classifier = HeuristicVerdictClassifier()
+
+    fun analyze(content: String, language: String): AnalysisResult {
+        nearDuplicateIndex.findNearDuplicate(content, language)?.let { match ->
+            record(SOURCE_NEAR_DUPLICATE)
+            return match.result.copy(nearDuplicateOf = match.id)
+        }
+
+        val classification = classifier.classify(content)
+        record(SOURCE_HEURISTIC)
+        logger.info("Gemini unavailable, heuristic verdict ${classification.verdict} for: ${content.take(50)}...")
+        return AnalysisResult(
+            verdict = classification.verdict,
+            explanation = explanationOf(classification),
+            degraded = true
+        )
+    }
+
+    private fun explanationOf(classification: HeuristicVerdictClassifier.Classification): String {
+        val markers = classification.scamMarkers + classification.misinformationMarkers
+        val findings = if (markers.isEmpty()) {
+            "No common scam or misinformation markers were found, but the claims themselves could not be checked."
+        } else {
+            "Warning signs found: ${markers.joinToString("; ")}."
+        }
+        return "Full analysis is temporarily unavailable, so this is an automated pattern check only. $findings " +
+            "Please verify with trusted sources and try again later for a complete fact-check."
+    }
+
+    private fun record(source: String) {
+        Counter.builder("satyacheck.analysis.degraded")
+            .description("Analyses answered without Gemini while its circuit breaker was open")
+            .tag("source", source)
+            .register(meterRegistry)
+            .increment()
+    }
+
+    companion object {
+        private const val SOURCE_NEAR_DUPLICATE = "near_duplicate"
+        private const val SOURCE_HEURISTIC = "heuristic"
+    }
+}
@@ -0,0 +1,85 @@
+package com.satyacheck.backend.service.fallback
+
+import com.satyacheck.backend.model.enum.Verdict
+
+/**
+ * Keyword and pattern scoring for scam and misinformation markers, used when Gemini is unavailable.
+ *
+ * Each matching marker adds its weight to the scam or the misinformation score; a marker
+ * counts once however often it occurs. The scores map to a verdict with fixed thresholds.
+ * Content without markers is INSUFFICIENT_INFO rather than CREDIBLE: the absence of
+ * known red flags says nothing about whether a claim is true.
+ */
+class HeuristicVerdictClassifier {
+
+    /**
+     * The verdict for some content and the markers that led to it
+     */
+    data class Classification(
+        val verdict: Verdict,
+        val scamMarkers: List<String>,
+        val misinformationMarkers: List<String>
+    )
+
+    private data class Marker(val name: String, val pattern: Regex, val weight: Int)
+
+    fun classify(content: String): Classification {
+        val scam = SCAM_MARKERS.filter { it.pattern.containsMatchIn(content) }
+        val misinformation = MISINFORMATION_MARKERS.filter { it.pattern.containsMatchIn(content) }.toMutableList()
+        if (isShouting(content)) {
+            misinformation += SHOUTING
+        }
+
+        val scamScore = scam.sumOf { it.weight }
+        val misinformationScore = misinformation.sumOf { it.weight }
+        val verdict = when {
+            scamScore >= SCAM_THRESHOLD -> Verdict.SCAM_ALERT
+            misinformationScore >= HIGH_RISK_THRESHOLD -> Verdict.HIGH_MISINFORMATION_RISK
+            misinformationScore >= MISLEADING_THRESHOLD || scamScore > 0 -> Verdict.POTENTIALLY_MISLEADING
+            else -> Verdict.INSUFFICIENT_INFO
+        }
+        return Classification(verdict, scam.map { it.name }, misinformation.map { it.name })
+    }
+
+    /**
+     * Mostly upper-case Latin text, typical of alarmist forwards
+     */
+    private fun isShouting(content: String): Boolean {
+        val letters = content.filter { it in 'a'..'z' || it in 'A'..'Z' }
+        return letters.length >= MIN_SHOUTING_LETTERS && letters.count { it.isUpperCase() } >= letters.length * SHOUTING_RATIO
+    }
+
+    companion object {
+        private const val SCAM_THRESHOLD = 3
+        private const val HIGH_RISK_THRESHOLD = 4
+        private const val MISLEADING_THRESHOLD = 2
+        private const val MIN_SHOUTING_LETTERS = 40
+        private const val SHOUTING_RATIO = 0.7
+
+        private fun marker(name: String, pattern: String, weight: Int) =
+            Marker(name, pattern.toRegex(RegexOption.IGNORE_CASE), weight)
+
+        private val SHOUTING = Marker("mostly upper-case text", Regex(""), 1)
+
+        private val SCAM_MARKERS = listOf(
+            marker("asks for an OTP, PIN or password", "\\b(share|send|tell|enter)\\b.{0,30}\\b(otp|pin|cvv|password)\\b|\\u0913\\u091f\\u0940\\u092a\\u0940", 3),
+            marker("KYC or account block threat", "\\bkyc\\b.{0,40}\\b(update|expire|pending|verify)|\\baccount\\b.{0,30}\\b(blocked|suspended|deactivated)\\b|\\u0916\\u093e\\u0924\\u093e \\u092c\\u0902\\u0926", 2),
+            marker("prize or lottery win", "\\b(you have won|lottery|lucky draw|jackpot|claim your (prize|reward))\\b|\\u0932\\u0949\\u091f\\u0930\\u0940|\\u0907\\u0928\\u093e\\u092e", 2),
+            marker("upfront fee", "\\b(processing|registration|advance) fee\\b", 2),
+            marker("link shortener", "\\b(bit\\.ly|tinyurl\\.com|goo\\.gl|t\\.co|cutt\\.ly)/", 1),
+            marker("urgent link click", "\\bclick\\b.{0,20}\\blink\\b.{0,40}\\b(now|immediately|today|within)\\b", 1),
+            marker("easy money offer", "\\b(earn|make)\\b.{0,20}\\b(per day|daily|from home)\\b|\\bwork from home\\b", 1),
+            marker("gift card or UPI payment request", "\\b(gift card|upi pin|scan (the|this) qr)\\b", 2)
+        )
+
+        private val MISINFORMATION_MARKERS = listOf(
+            marker("asks to forward widely", "\\bforward\\b.{0,30}\\b(all|everyone|every group|10|ten)\\b|\\u092b\\u0949\\u0930\\u0935\\u0930\\u094d\\u0921|\\u0936\\u0947\\u092f\\u0930 \\u0915\\u0930\\u0947\\u0902", 2),
+            marker("share before it is deleted", "\\bbefore\\b.{0,20}\\b(deleted|removed|banned|taken down)\\b", 2),
+            marker("suppressed-truth claim", "\\b(they|doctors|media|government)\\b.{0,20}\\b(don'?t|do not|won'?t)\\b.{0,20}\\bwant you to know\\b|\\b(media|government) (is )?hiding\\b", 2),
+            marker("miracle cure", "\\b(miracle|100% (cure|guaranteed|proven))\\b|\\bcures? (cancer|covid|diabetes|corona)\\b|\\u091a\\u092e\\u0924\\u094d\\u0915\\u093e\\u0930\\u0940", 2),
+            marker("unverified breaking news", "\\b(breaking|urgent news|shocking)\\b", 1),
+            marker("appeal to anonymous authority", "\\b(sources say|a doctor friend|my friend in the (army|police|government))\\b", 1),
+            marker("excessive exclamation marks", "!{3,}", 1)
+        )
+    }
+}
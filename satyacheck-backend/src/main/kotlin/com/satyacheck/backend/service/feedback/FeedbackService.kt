@@ -1,8 +1,10 @@
 package com.satyacheck.backend.service.feedback
 
 import com.satyacheck.backend.model.entity.AnalysisFeedback
-import com.satyacheck.backend.repository.FeedbackRepository
+import com.satyacheck.backend.repository.FeedbackCoroutineRepository
+import kotlinx.coroutines.flow.toList
 import org.springframework.data.domain.Page
+import org.springframework.data.domain.PageImpl
 import org.springframework.data.domain.Pageable
 import org.springframework.stereotype.Service
 import java.time.Instant
@@ -14,14 +16,14 @@ import java.util.logging.Logger
  */
 @Service
 class FeedbackService(
-    private val feedbackRepository: FeedbackRepository
+    private val feedbackRepository: FeedbackCoroutineRepository
 ) {
     private val logger = Logger.getLogger(FeedbackService::class.java.name)
     
     /**
      * Submit new feedback
      */
-    fun submitFeedback(feedback: AnalysisFeedback): AnalysisFeedback {
+    suspend fun submitFeedback(feedback: AnalysisFeedback): AnalysisFeedback {
         logger.info("Submitting feedback for analysis ${feedback.analysisId}")
         
         val feedbackWithId = if (feedback.id == null) {
@@ -36,11 +38,11 @@ class FeedbackService(
     /**
      * Update existing feedback
      */
-    fun updateFeedback(id: String, feedback: AnalysisFeedback): AnalysisFeedback {
+    suspend fun updateFeedback(id: String, feedback: AnalysisFeedback): AnalysisFeedback {
         logger.info("Updating feedback $id")
         
         val existingFeedback = feedbackRepository.findById(id)
-            .orElseThrow { IllegalArgumentException("Feedback with ID $id not found") }
+            ?: throw IllegalArgumentException("Feedback with ID $id not found")
         
         val updatedFeedback = existingFeedback.copy(
             rating = feedback.rating,
@@ -57,51 +59,51 @@ class FeedbackService(
     /**
      * Get feedback by ID
      */
-    fun getFeedbackById(id: String): AnalysisFeedback {
+    suspend fun getFeedbackById(id: String): AnalysisFeedback {
         return feedbackRepository.findById(id)
-            .orElseThrow { IllegalArgumentException("Feedback with ID $id not found") }
+            ?: throw IllegalArgumentException("Feedback with ID $id not found")
     }
     
     /**
      * Get all feedback with pagination
      */
-    fun getAllFeedback(pageable: Pageable): Page<AnalysisFeedback> {
-        return feedbackRepository.findAll(pageable)
+    suspend fun getAllFeedback(pageable: Pageable): Page<AnalysisFeedback> {
+        return PageImpl(feedbackRepository.findAllBy(pageable).toList(), pageable, feedbackRepository.count())
     }
     
     /**
      * Get feedback by analysis ID
      */
-    fun getFeedbackByAnalysisId(analysisId: String): List<AnalysisFeedback> {
-        return feedbackRepository.findByAnalysisId(analysisId)
+    suspend fun getFeedbackByAnalysisId(analysisId: String): List<AnalysisFeedback> {
+        return feedbackRepository.findByAnalysisId(analysisId).toList()
     }
     
     /**
      * Get feedback by analysis type
      */
-    fun getFeedbackByAnalysisType(analysisType: String): List<AnalysisFeedback> {
-        return feedbackRepository.findByAnalysisType(analysisType)
+    suspend fun getFeedbackByAnalysisType(analysisType: String): List<AnalysisFeedback> {
+        return feedbackRepository.findByAnalysisType(analysisType).toList()
     }
     
     /**
      * Get feedback by user ID
      */
-    fun getFeedbackByUserId(userId: String): List<AnalysisFeedback> {
-        return feedbackRepository.findByUserId(userId)
+    suspend fun getFeedbackByUserId(userId: String): List<AnalysisFeedback> {
+        return feedbackRepository.findByUserId(userId).toList()
     }
     
     /**
      * Get feedback by language
      */
-    fun getFeedbackByLanguage(language: String): List<AnalysisFeedback> {
-        return feedbackRepository.findByContentLanguage(language)
+    suspend fun getFeedbackByLanguage(language: String): List<AnalysisFeedback> {
+        return feedbackRepository.findByContentLanguage(language).toList()
     }
     
     /**
      * Calculate accuracy metrics based on feedback
      */
-    fun calculateAccuracyMetrics(): AccuracyMetrics {
-        val allFeedback = feedbackRepository.findAll()
+    suspend fun calculateAccuracyMetrics(): AccuracyMetrics {
+        val allFeedback = feedbackRepository.findAll().toList()
         
         val feedbackWithCorrectness = allFeedback.filter { it.wasCorrect != null }
         
@@ -132,7 +134,7 @@ class FeedbackService(
     /**
      * Delete feedback by ID
      */
-    fun deleteFeedback(id: String) {
+    suspend fun deleteFeedback(id: String) {
         logger.info("Deleting feedback $id")
         feedbackRepository.deleteById(id)
     }
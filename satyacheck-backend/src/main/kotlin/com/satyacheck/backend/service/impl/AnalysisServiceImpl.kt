@@ -1,71 +1,274 @@
 package com.satyacheck.backend.service.impl
 
+import com.satyacheck.backend.config.CacheConfig
 import com.satyacheck.backend.model.dto.AnalysisRequest
 import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.AnalysisStreamEvent
+import com.satyacheck.backend.model.dto.QuickVerdict
 import com.satyacheck.backend.model.entity.Analysis
-import com.satyacheck.backend.model.enum.Verdict
-import com.satyacheck.backend.repository.AnalysisRepository
+import com.satyacheck.backend.repository.AnalysisCoroutineRepository
 import com.satyacheck.backend.service.AnalysisService
 import com.satyacheck.backend.service.api.GeminiService
-import org.springframework.cache.annotation.Cacheable
-import org.springframework.cache.annotation.CacheEvict
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
+import com.satyacheck.backend.service.cache.NearDuplicateIndex
+import com.satyacheck.backend.service.fallback.FallbackAnalyzer
+import com.satyacheck.backend.service.persistence.AnalysisWriter
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
 import org.springframework.stereotype.Service
-import java.security.MessageDigest
 import java.time.LocalDateTime
 import java.util.UUID
+import java.util.concurrent.TimeUnit
 import java.util.logging.Logger
 
 @Service
 class AnalysisServiceImpl(
     private val geminiService: GeminiService,
-    private val analysisRepository: AnalysisRepository
+    private val analysisRepository: AnalysisCoroutineRepository,
+    private val analysisWriter: AnalysisWriter,
+    private val coroutineCacheManager: CoroutineCacheManager,
+    private val nearDuplicateIndex: NearDuplicateIndex,
+    private val fallbackAnalyzer: FallbackAnalyzer,
+    private val meterRegistry: MeterRegistry
 ) : AnalysisService {
     private val logger = Logger.getLogger(AnalysisServiceImpl::class.java.name)
 
+    override suspend fun analyzeText(request: AnalysisRequest): AnalysisResult {
+        return analyzeText(request) {
+            val (verdict, explanation) = geminiService.analyzeContent(
+                content = request.content,
+                language = request.language
+            )
+            AnalysisResult(verdict = verdict, explanation = explanation)
+        }
+    }
+    
+    override suspend fun analyzeText(
+        request: AnalysisRequest,
+        geminiVerdict: suspend () -> AnalysisResult
+    ): AnalysisResult {
+        val cacheKey = ContentFingerprint.of(request.content, request.language)
+        return coroutineCacheManager.cached(
+            CacheConfig.ANALYSIS_RESULTS,
+            cacheKey,
+            cacheIf = { !it.verdict.isFailure() && !it.degraded }
+        ) {
+            if (!geminiService.isAvailable()) {
+                // Answer locally at once instead of queueing for a call that will fail
+                fallbackAnalyzer.analyze(request.content, request.language)
+            } else {
+                // Forwarded variants of an already analysed message reuse its verdict
+                nearDuplicateIndex.findNearDuplicate(request.content, request.language)
+                    ?.let { match -> match.result.copy(nearDuplicateOf = match.id) }
+                    ?: performAnalysis(request, geminiVerdict)
+            }
+        }
+    }
+    
+    override fun analyzeTextStreaming(request: AnalysisRequest): Flow<AnalysisStreamEvent<AnalysisResult>> = flow {
+        val started = System.nanoTime()
+        val cacheKey = ContentFingerprint.of(request.content, request.language)
+        
+        val known = coroutineCacheManager.getIfPresent<AnalysisResult>(CacheConfig.ANALYSIS_RESULTS, cacheKey)
+            ?: nearDuplicateIndex.findNearDuplicate(request.content, request.language)
+                ?.let { match -> match.result.copy(nearDuplicateOf = match.id) }
+        if (known != null) {
+            recordFirstVerdict(started, SOURCE_CACHE)
+            AnalysisStreamEvent.replay(known.verdict, known.explanation, known).forEach { emit(it) }
+            return@flow
+        }
+        
+        var verdictSent = false
+        var streamed: AnalysisResult? = null
+        try {
+            geminiService.streamContentAnalysis(request.content, request.language).collect { event ->
+                when (event) {
+                    is AnalysisStreamEvent.VerdictDecided -> {
+                        recordFirstVerdict(started, SOURCE_STREAM)
+                        verdictSent = true
+                        emit(event)
+                    }
+                    is AnalysisStreamEvent.ExplanationChunk -> emit(event)
+                    is AnalysisStreamEvent.Completed -> streamed = event.result
+                }
+            }
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            logger.warning("Streaming analysis failed, falling back to a buffered call: ${e.message}")
+        }
+        
+        // A streamed verdict skipped model routing, so it is stored in the history but not
+        // cached or indexed for buffered callers. A failed one is not stored at all; the
+        // buffered path retries Gemini and falls back to the local classifier when it is unavailable
+        val result = streamed?.takeUnless { it.verdict.isFailure() }
+            ?.also { save(UUID.randomUUID().toString(), request, it, DETAIL_FULL) }
+            ?: analyzeText(request)
+        if (!verdictSent) {
+            recordFirstVerdict(started, SOURCE_FALLBACK)
+            emit(AnalysisStreamEvent.VerdictDecided(result.verdict))
+        }
+        emit(AnalysisStreamEvent.Completed(result))
+    }
+    
+    override suspend fun analyzeVerdictFirst(request: AnalysisRequest): QuickVerdict {
+        val cacheKey = ContentFingerprint.of(request.content, request.language)
+        return coroutineCacheManager.cached(
+            CacheConfig.QUICK_VERDICTS,
+            cacheKey,
+            // Only stored analyses, so the explanation stays available for every cached verdict
+            cacheIf = { it.analysisId != null }
+        ) {
+            // When the full analysis is already known, store it so its explanation is ready at once
+            val known = coroutineCacheManager.getIfPresent<AnalysisResult>(CacheConfig.ANALYSIS_RESULTS, cacheKey)
+            if (known != null) {
+                val analysisId = UUID.randomUUID().toString()
+                save(analysisId, request, known, DETAIL_FULL)
+                QuickVerdict(analysisId, known.verdict, rationaleOf(known.explanation))
+            } else if (!geminiService.isAvailable()) {
+                fallbackVerdict(request)
+            } else {
+                val (verdict, rationale) = geminiService.analyzeVerdict(request.content, request.language)
+                if (verdict.isFailure() && !geminiService.isAvailable()) {
+                    return@cached fallbackVerdict(request)
+                }
+                val analysisId = if (verdict.isFailure()) {
+                    null
+                } else {
+                    UUID.randomUUID().toString().also {
+                        save(it, request, AnalysisResult(verdict = verdict, explanation = rationale), DETAIL_VERDICT_ONLY)
+                    }
+                }
+                QuickVerdict(analysisId, verdict, rationale)
+            }
+        }
+    }
+    
+    override suspend fun explainAnalysis(analysisId: String): AnalysisResult? {
+        // A verdict-first analysis may still be waiting in the write-behind queue
+        val analysis = analysisWriter.pending(analysisId)
+            ?: analysisRepository.findById(analysisId)
+            ?: return null
+        if (analysis.metadata[METADATA_DETAIL] != DETAIL_VERDICT_ONLY) {
+            return AnalysisResult(verdict = analysis.verdict, explanation = analysis.explanation)
+        }
+        
+        val explanation = geminiService.explainVerdict(analysis.content, analysis.language, analysis.verdict)
+        val result = AnalysisResult(verdict = analysis.verdict, explanation = explanation)
+        
+        // The completed analysis now serves full and near-duplicate requests as well
+        coroutineCacheManager.put(
+            CacheConfig.ANALYSIS_RESULTS,
+            ContentFingerprint.of(analysis.content, analysis.language),
+            result
+        )
+        nearDuplicateIndex.add(analysisId, analysis.content, analysis.language, result)
+        try {
+            analysisWriter.update(
+                analysis.copy(explanation = explanation, metadata = analysis.metadata + (METADATA_DETAIL to DETAIL_FULL))
+            )
+        } catch (e: Exception) {
+            logger.severe("Failed to store explanation for analysis $analysisId: ${e.message}")
+        }
+        return result
+    }
+    
     /**
-     * Generate a content hash for caching purposes
+     * A verdict-first answer from [FallbackAnalyzer]; it is not stored, so it has no explanation to fetch
      */
-    private fun generateContentHash(content: String, language: String): String {
-        val contentToHash = "$content:$language"
-        val bytes = MessageDigest.getInstance("SHA-256").digest(contentToHash.toByteArray())
-        return bytes.joinToString("") { "%02x".format(it) }
+    private fun fallbackVerdict(request: AnalysisRequest): QuickVerdict {
+        val result = fallbackAnalyzer.analyze(request.content, request.language)
+        return QuickVerdict(null, result.verdict, result.explanation, degraded = result.degraded)
     }
     
-    @Cacheable(value = ["analysisResults"], key = "#root.method.name + '_' + #root.target.generateContentHash(#request.content, #request.language)")
-    override suspend fun analyzeText(request: AnalysisRequest): AnalysisResult {
+    /**
+     * The first sentence of an explanation, used as the rationale of a verdict-first result
+     */
+    private fun rationaleOf(explanation: String): String {
+        val end = SENTENCE_END.find(explanation)?.range?.first?.plus(1) ?: explanation.length
+        return explanation.substring(0, end).take(MAX_RATIONALE_LENGTH).trim()
+    }
+    
+    private fun recordFirstVerdict(started: Long, source: String) {
+        Timer.builder("satyacheck.analysis.stream.first_verdict")
+            .description("Time from a streaming analysis request to its verdict event")
+            .tag("source", source)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry)
+            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS)
+    }
+    
+    /**
+     * Analyze the content with Gemini through [geminiVerdict] and persist the result
+     */
+    private suspend fun performAnalysis(
+        request: AnalysisRequest,
+        geminiVerdict: suspend () -> AnalysisResult
+    ): AnalysisResult {
         logger.info("Cache miss for content: ${request.content.take(50)}... - performing analysis")
 
-        // Call the Gemini API to analyze the text
-        val (verdict, explanation) = geminiService.analyzeContent(
-            content = request.content,
-            language = request.language
-        )
+        val result = geminiVerdict()
+        if (result.verdict.isFailure() && !geminiService.isAvailable()) {
+            // This call failed fast or tripped the circuit breaker
+            return fallbackAnalyzer.analyze(request.content, request.language)
+        }
 
-        // Create an AnalysisResult to return to the client
-        val result = AnalysisResult(
-            verdict = verdict,
-            explanation = explanation
-        )        // Store the analysis result in the database
+        return record(request, result)
+    }
+    
+    /**
+     * Index a fresh result for near-duplicate lookups and store it in the database
+     */
+    private suspend fun record(request: AnalysisRequest, result: AnalysisResult): AnalysisResult {
+        val analysisId = UUID.randomUUID().toString()
+        nearDuplicateIndex.add(analysisId, request.content, request.language, result)
+        save(analysisId, request, result, DETAIL_FULL)
+        return result
+    }
+    
+    /**
+     * Queue an analysis to be stored in the database; [detail] records whether its explanation is complete
+     */
+    private suspend fun save(analysisId: String, request: AnalysisRequest, result: AnalysisResult, detail: String) {
         try {
             val analysis = Analysis(
-                id = UUID.randomUUID().toString(),
+                id = analysisId,
                 content = request.content,
-                verdict = verdict,
-                explanation = explanation,
+                verdict = result.verdict,
+                explanation = result.explanation,
                 timestamp = LocalDateTime.now(),
                 metadata = mapOf(
-                    "contentType" to request.contentType
+                    "contentType" to request.contentType,
+                    METADATA_DETAIL to detail
                 ),
                 language = request.language
             )
             
-            analysisRepository.save(analysis)
-            logger.info("Saved analysis to database with ID: ${analysis.id}")
+            analysisWriter.write(analysis)
+            logger.fine("Queued analysis for the database with ID: ${analysis.id}")
+        } catch (e: CancellationException) {
+            throw e
         } catch (e: Exception) {
             logger.severe("Failed to save analysis to database: ${e.message}")
             // Continue execution - we still want to return the analysis result even if saving to DB fails
         }
+    }
+    
+    companion object {
+        private const val SOURCE_CACHE = "cache"
+        private const val SOURCE_STREAM = "stream"
+        private const val SOURCE_FALLBACK = "fallback"
         
-        return result
+        // Whether a stored analysis has its detailed explanation or only the verdict-first rationale
+        private const val METADATA_DETAIL = "detail"
+        private const val DETAIL_FULL = "FULL"
+        private const val DETAIL_VERDICT_ONLY = "VERDICT_ONLY"
+        
+        private const val MAX_RATIONALE_LENGTH = 200
+        private val SENTENCE_END = "[.!?\\u0964](\\s|$)".toRegex()
     }
 }
@@ -15,19 +15,19 @@ class ArticleServiceImpl(
 ) : ArticleService {
     private val logger = Logger.getLogger(ArticleServiceImpl::class.java.name)
 
-    @Cacheable(value = ["articles"], key = "#language")
+    @Cacheable(value = ["articles"], key = "T(com.satyacheck.backend.service.cache.ContentFingerprint).of(#language)")
     override fun getArticles(language: String): List<Article> {
         logger.info("Cache miss for all articles with language: $language - fetching from database")
         return articleRepository.findByLanguage(language)
     }
 
-    @Cacheable(value = ["articleBySlug"], key = "#slug + '_' + #language")
+    @Cacheable(value = ["articleBySlug"], key = "T(com.satyacheck.backend.service.cache.ContentFingerprint).of(#slug, #language)")
     override fun getArticleBySlug(slug: String, language: String): Article? {
         logger.info("Cache miss for article with slug: $slug and language: $language - fetching from database")
         return articleRepository.findBySlugAndLanguage(slug, language)
     }
 
-    @Cacheable(value = ["articlesByCategory"], key = "#category + '_' + #language")
+    @Cacheable(value = ["articlesByCategory"], key = "T(com.satyacheck.backend.service.cache.ContentFingerprint).of(#category, #language)")
     override fun getArticlesByCategory(category: String, language: String): List<Article> {
         logger.info("Cache miss for articles with category: $category and language: $language - fetching from database")
         return articleRepository.findByCategoryAndLanguage(category, language)
@@ -1,6 +1,8 @@
 package com.satyacheck.backend.service.language
 
-import org.springframework.cache.annotation.Cacheable
+import com.satyacheck.backend.config.CacheConfig
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
 import org.springframework.stereotype.Service
 import org.springframework.web.reactive.function.client.WebClient
 import org.springframework.web.reactive.function.client.awaitBody
@@ -10,7 +12,10 @@ import java.util.logging.Logger
  * Service for language detection and support
  */
 @Service
-class LanguageDetectionService(private val webClient: WebClient) {
+class LanguageDetectionService(
+    private val webClient: WebClient,
+    private val coroutineCacheManager: CoroutineCacheManager
+) {
     private val logger = Logger.getLogger(LanguageDetectionService::class.java.name)
     
     // Common languages with their codes
@@ -36,8 +41,16 @@ class LanguageDetectionService(private val webClient: WebClient) {
      * Detect the language of a text
      * Cached to improve performance for repeated requests
      */
-    @Cacheable(value = ["languageDetection"], key = "#text.hashCode()")
     suspend fun detectLanguage(text: String): DetectedLanguage {
+        return coroutineCacheManager.cached(CacheConfig.LANGUAGE_DETECTION, ContentFingerprint.of(text)) {
+            detect(text)
+        }
+    }
+    
+    /**
+     * Detect the language of a text without consulting the cache
+     */
+    private fun detect(text: String): DetectedLanguage {
         // For very short text, detection can be unreliable
         if (text.length < 10) {
             return DetectedLanguage("en", "English", 1.0)
@@ -1,7 +1,9 @@
 package com.satyacheck.backend.service.language
 
 import org.springframework.beans.factory.annotation.Value
-import org.springframework.cache.annotation.Cacheable
+import com.satyacheck.backend.config.CacheConfig
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
 import org.springframework.stereotype.Service
 import org.springframework.web.reactive.function.client.WebClient
 import org.springframework.web.reactive.function.client.awaitBody
@@ -11,7 +13,10 @@ import java.util.logging.Logger
  * Service for translating content between languages
  */
 @Service
-class TranslationService(private val webClient: WebClient) {
+class TranslationService(
+    private val webClient: WebClient,
+    private val coroutineCacheManager: CoroutineCacheManager
+) {
     private val logger = Logger.getLogger(TranslationService::class.java.name)
     
     @Value("\${google.cloud.translate.api-key}")
@@ -21,7 +26,6 @@ class TranslationService(private val webClient: WebClient) {
      * Translate text to English
      * Cached to improve performance for repeated requests
      */
-    @Cacheable(value = ["translations"], key = "#text.hashCode() + '_' + #sourceLanguage + '_en'")
     suspend fun translateToEnglish(text: String, sourceLanguage: String): TranslationResult {
         return translate(text, sourceLanguage, "en")
     }
@@ -30,7 +34,6 @@ class TranslationService(private val webClient: WebClient) {
      * Translate text from English to another language
      * Cached to improve performance for repeated requests
      */
-    @Cacheable(value = ["translations"], key = "#text.hashCode() + '_en_' + #targetLanguage")
     suspend fun translateFromEnglish(text: String, targetLanguage: String): TranslationResult {
         return translate(text, "en", targetLanguage)
     }
@@ -39,8 +42,17 @@ class TranslationService(private val webClient: WebClient) {
      * Translate text between any two languages
      * Cached to improve performance for repeated requests
      */
-    @Cacheable(value = ["translations"], key = "#text.hashCode() + '_' + #sourceLanguage + '_' + #targetLanguage")
     suspend fun translate(text: String, sourceLanguage: String, targetLanguage: String): TranslationResult {
+        val cacheKey = ContentFingerprint.of(text, sourceLanguage, targetLanguage)
+        return coroutineCacheManager.cached(CacheConfig.TRANSLATIONS, cacheKey) {
+            performTranslation(text, sourceLanguage, targetLanguage)
+        }
+    }
+    
+    /**
+     * Translate text without consulting the cache
+     */
+    private fun performTranslation(text: String, sourceLanguage: String, targetLanguage: String): TranslationResult {
         // Skip translation if source and target are the same
         if (sourceLanguage == targetLanguage) {
             return TranslationResult(
@@ -0,0 +1,149 @@
+package com.satyacheck.backend.service.persistence
+
+import com.satyacheck.backend.model.entity.Analysis
+import com.satyacheck.backend.repository.AnalysisCoroutineRepository
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.DistributionSummary
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import jakarta.annotation.PreDestroy
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.runInterruptible
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.data.mongodb.BulkOperationException
+import org.springframework.data.mongodb.core.BulkOperations
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.stereotype.Component
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.logging.Logger
+
+/**
+ * Write-behind persistence for new [Analysis] documents.
+ *
+ * Requests hand their analysis to [write] and return without waiting on MongoDB; a
+ * background worker inserts the queued documents in unordered bulk inserts of up to
+ * analysis.write-behind.batch-size, at least every analysis.write-behind.flush-interval-ms.
+ * When MongoDB falls behind and the queue is full, analysis.write-behind.overflow decides
+ * whether documents are dropped (and logged) or requests wait for room. Documents that
+ * are queued but not yet written are returned by [pending], and the queue is flushed
+ * when the application shuts down.
+ */
+@Component
+class AnalysisWriter(
+    private val mongoTemplate: MongoTemplate,
+    private val analysisRepository: AnalysisCoroutineRepository,
+    private val meterRegistry: MeterRegistry,
+    @Value("\${analysis.write-behind.capacity:10000}") capacity: Int,
+    @Value("\${analysis.write-behind.batch-size:100}") batchSize: Int,
+    @Value("\${analysis.write-behind.flush-interval-ms:200}") flushIntervalMs: Long,
+    @Value("\${analysis.write-behind.overflow:DROP}") overflow: WriteBehindQueue.OverflowPolicy,
+    @Value("\${analysis.write-behind.shutdown-timeout-ms:10000}") private val shutdownTimeoutMs: Long
+) {
+    private val logger = Logger.getLogger(AnalysisWriter::class.java.name)
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+    private val pending = ConcurrentHashMap<String, Analysis>()
+
+    private val batchSizes = DistributionSummary.builder("satyacheck.analysis.writebehind.batch.size")
+        .description("Analysis documents per bulk insert")
+        .register(meterRegistry)
+    private val flushTimer = Timer.builder("satyacheck.analysis.writebehind.flush")
+        .description("Time taken by one bulk insert of queued analyses")
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry)
+    private val queue = WriteBehindQueue(capacity, batchSize, flushIntervalMs, overflow, scope, ::insert)
+
+    init {
+        Gauge.builder("satyacheck.analysis.writebehind.queue.depth", queue) { it.depth().toDouble() }
+            .description("Analysis documents waiting to be written")
+            .register(meterRegistry)
+    }
+
+    /**
+     * Queue a new analysis for insertion; it must have an id
+     */
+    suspend fun write(analysis: Analysis) {
+        val id = requireNotNull(analysis.id) { "Write-behind analyses need an id" }
+        pending[id] = analysis
+        if (!queue.submit(analysis)) {
+            pending.remove(id)
+            documentCounter(OUTCOME_DROPPED).increment()
+            logger.warning("Write-behind queue full, dropped analysis $id")
+        }
+    }
+
+    /**
+     * The queued version of an analysis that has not been written yet
+     */
+    fun pending(id: String): Analysis? = pending[id]
+
+    /**
+     * Store a changed version of an analysis right away, superseding any queued one
+     */
+    suspend fun update(analysis: Analysis) {
+        analysisRepository.save(analysis)
+        // The queued insert of the old version will now fail as a duplicate and be skipped
+        analysis.id?.let { id -> pending.remove(id) }
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        runBlocking {
+            if (!queue.close(shutdownTimeoutMs)) {
+                logger.severe("Shutting down with ${queue.depth()} analyses not written")
+            }
+        }
+        scope.cancel()
+    }
+
+    private suspend fun insert(batch: List<Analysis>) {
+        batchSizes.record(batch.size.toDouble())
+        val started = System.nanoTime()
+        try {
+            runInterruptible(Dispatchers.IO) {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Analysis::class.java)
+                    .insert(batch)
+                    .execute()
+            }
+            documentCounter(OUTCOME_WRITTEN).increment(batch.size.toDouble())
+        } catch (e: BulkOperationException) {
+            // Unordered: every document without an error was inserted
+            val duplicates = e.errors.count { it.code == DUPLICATE_KEY }
+            val failed = e.errors.size - duplicates
+            documentCounter(OUTCOME_WRITTEN).increment((batch.size - e.errors.size).toDouble())
+            documentCounter(OUTCOME_DUPLICATE).increment(duplicates.toDouble())
+            if (failed > 0) {
+                documentCounter(OUTCOME_FAILED).increment(failed.toDouble())
+                logger.severe("Failed to insert $failed of ${batch.size} analyses: ${e.message}")
+            }
+        } catch (e: Exception) {
+            documentCounter(OUTCOME_FAILED).increment(batch.size.toDouble())
+            logger.severe("Failed to insert ${batch.size} analyses: ${e.message}")
+        } finally {
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS)
+            batch.forEach { analysis -> pending.remove(analysis.id!!, analysis) }
+        }
+    }
+
+    private fun documentCounter(outcome: String): Counter {
+        return Counter.builder("satyacheck.analysis.writebehind.documents")
+            .description("Queued analysis documents by what became of them")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+    }
+
+    companion object {
+        private const val OUTCOME_WRITTEN = "written"
+        private const val OUTCOME_DROPPED = "dropped"
+        private const val OUTCOME_DUPLICATE = "duplicate"
+        private const val OUTCOME_FAILED = "failed"
+
+        private const val DUPLICATE_KEY = 11000
+    }
+}
@@ -0,0 +1,127 @@
+package com.satyacheck.backend.service.persistence
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.ClosedSendChannelException
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withTimeoutOrNull
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.logging.Logger
+
+/**
+ * Bounded queue drained by a background worker that hands items to [sink] in batches.
+ *
+ * A batch is flushed as soon as it holds [batchSize] items, or [flushIntervalMs] after its
+ * first item arrived, whichever comes first. When the queue already holds [capacity] items
+ * the [overflow] policy decides: DROP rejects the item at once, BLOCK suspends the caller
+ * until the worker has made room. [close] stops accepting items and flushes what is queued.
+ */
+class WriteBehindQueue<T>(
+    capacity: Int,
+    private val batchSize: Int,
+    private val flushIntervalMs: Long,
+    private val overflow: OverflowPolicy,
+    scope: CoroutineScope,
+    private val sink: suspend (List<T>) -> Unit
+) {
+    private val logger = Logger.getLogger(WriteBehindQueue::class.java.name)
+
+    init {
+        require(capacity > 0 && batchSize > 0) { "capacity and batchSize must be positive" }
+    }
+
+    private val items = Channel<T>(capacity)
+    // Wakes the worker early once a full batch is waiting
+    private val batchReady = Channel<Unit>(Channel.CONFLATED)
+    private val depth = AtomicInteger()
+    private val worker = scope.launch { drain() }
+
+    /**
+     * Queue an item for the next batch
+     *
+     * @return false if the item was rejected because the queue is full or closed
+     */
+    suspend fun submit(item: T): Boolean {
+        val queued = depth.incrementAndGet()
+        var accepted = false
+        try {
+            accepted = when (overflow) {
+                OverflowPolicy.DROP -> items.trySend(item).isSuccess
+                OverflowPolicy.BLOCK -> try {
+                    items.send(item)
+                    true
+                } catch (e: ClosedSendChannelException) {
+                    false
+                }
+            }
+        } finally {
+            // Also reached when a blocked caller is cancelled, in which case nothing was sent
+            if (!accepted) {
+                depth.decrementAndGet()
+            }
+        }
+        if (accepted && queued >= batchSize) {
+            batchReady.trySend(Unit)
+        }
+        return accepted
+    }
+
+    /**
+     * Items accepted but not yet handed to the sink
+     */
+    fun depth(): Int = depth.get()
+
+    /**
+     * Stop accepting items and wait up to [timeoutMs] for the queued ones to be flushed
+     *
+     * @return false if the queue could not be drained in time
+     */
+    suspend fun close(timeoutMs: Long): Boolean {
+        items.close()
+        batchReady.trySend(Unit)
+        return withTimeoutOrNull(timeoutMs) { worker.join() } != null
+    }
+
+    private suspend fun drain() {
+        while (true) {
+            val first = items.receiveCatching().getOrNull() ?: return
+            val batch = ArrayList<T>(batchSize)
+            batch += first
+            val deadline = System.nanoTime() + flushIntervalMs * 1_000_000
+            while (batch.size < batchSize) {
+                val next = items.tryReceive()
+                if (next.isSuccess) {
+                    batch += next.getOrThrow()
+                    continue
+                }
+                if (next.isClosed) {
+                    break
+                }
+                val remainingMs = (deadline - System.nanoTime()) / 1_000_000
+                if (remainingMs <= 0 || withTimeoutOrNull(remainingMs) { batchReady.receive() } == null) {
+                    // Items that arrived while waiting belong to this batch
+                    while (batch.size < batchSize) {
+                        batch += items.tryReceive().getOrNull() ?: break
+                    }
+                    break
+                }
+            }
+            depth.addAndGet(-batch.size)
+            try {
+                sink(batch)
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                logger.severe("Write-behind flush of ${batch.size} items failed: ${e.message}")
+            }
+        }
+    }
+
+    enum class OverflowPolicy {
+        // Reject items while the queue is full; the caller logs and moves on
+        DROP,
+        // Make the caller wait for room
+        BLOCK
+    }
+}
@@ -0,0 +1,132 @@
+package com.satyacheck.backend.service.trends
+
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.EnhancedAnalysisResult
+import com.satyacheck.backend.model.entity.AnalysisRecord
+import com.satyacheck.backend.model.enum.Verdict
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import com.satyacheck.backend.service.web.UrlAnalysisResult
+import java.time.Instant
+
+/**
+ * Derives the [AnalysisRecord] kept for trend analysis from a completed analysis.
+ *
+ * The content hash is the fingerprint of the normalized content and its language, so
+ * forwarded copies of a message share one hash. Records are not derived from failed
+ * analyses, which say nothing about the content.
+ */
+object AnalysisRecordMapper {
+
+    const val SAMPLE_LENGTH = 200
+    const val CONTENT_TYPE_WEB_PAGE = "WEB_PAGE"
+    private const val MAX_KEYWORDS = 20
+
+    // Analyses expose no calibrated confidence: heuristic verdicts count as half as sure
+    private const val MODEL_CONFIDENCE = 1.0
+    private const val DEGRADED_CONFIDENCE = 0.5
+
+    val MISINFORMATION_VERDICTS: Set<Verdict> = setOf(
+        Verdict.POTENTIALLY_MISLEADING,
+        Verdict.HIGH_MISINFORMATION_RISK,
+        Verdict.SCAM_ALERT
+    )
+
+    /**
+     * Record of a comprehensive, misinformation-focused or URL analysis
+     */
+    fun fromEnhanced(
+        result: EnhancedAnalysisResult,
+        content: String,
+        language: String,
+        source: String? = null,
+        contentType: String? = null,
+        userRegion: String? = null,
+        deviceType: String? = null,
+        analyzedAt: Instant = Instant.now()
+    ): AnalysisRecord? {
+        val base = fromBasic(result.factCheckResult, content, language, source, contentType, analyzedAt) ?: return null
+        val category = result.contentCategory
+        val keywords = (category?.tags.orEmpty() + result.extractedTopics.flatMap { it.keywords })
+            .map { it.trim().lowercase() }
+            .filter { it.isNotEmpty() }
+            .distinct()
+            .take(MAX_KEYWORDS)
+
+        return base.copy(
+            riskLevel = (result.additionalContext["misinformationRisk"] as? String)
+                ?.takeIf { it != "UNKNOWN" }
+                ?: base.riskLevel,
+            categories = listOfNotNull(category?.primaryCategory) + category?.subCategories.orEmpty(),
+            misinformationTechniques = result.misinformationTechniques,
+            keywords = keywords,
+            topics = result.extractedTopics.map { it.topic },
+            sentimentScore = result.sentimentScore,
+            userRegion = userRegion,
+            deviceType = deviceType
+        )
+    }
+
+    /**
+     * Record of a web page analysis; the page text is not kept, so the hash is that of the
+     * URL and the sample is the page title or description
+     */
+    fun fromUrl(result: UrlAnalysisResult, analyzedAt: Instant = Instant.now()): AnalysisRecord? {
+        val analysis = result.analysis?.takeIf { result.error == null } ?: return null
+        val sample = result.title ?: result.metadata["description"] ?: result.url
+        val record = fromEnhanced(analysis, sample, result.language, result.url, CONTENT_TYPE_WEB_PAGE, analyzedAt = analyzedAt)
+            ?: return null
+        val pageKeywords = result.metadata["keywords"].orEmpty().split(',')
+            .map { it.trim().lowercase() }
+            .filter { it.isNotEmpty() }
+        return record.copy(
+            contentHash = ContentFingerprint.ofUrl(result.url, result.language).toHex(),
+            // The length of the page text is not known here
+            contentLength = 0,
+            keywords = (record.keywords + pageKeywords).distinct().take(MAX_KEYWORDS)
+        )
+    }
+
+    /**
+     * Record of a fact-check-only analysis
+     */
+    fun fromBasic(
+        result: AnalysisResult,
+        content: String,
+        language: String,
+        source: String? = null,
+        contentType: String? = null,
+        analyzedAt: Instant = Instant.now()
+    ): AnalysisRecord? {
+        if (result.verdict.isFailure()) {
+            return null
+        }
+        return AnalysisRecord(
+            contentHash = contentHash(content, language),
+            contentSample = content.take(SAMPLE_LENGTH),
+            contentLength = content.length,
+            contentSource = source,
+            contentType = contentType,
+            language = language,
+            isMisinformation = result.verdict in MISINFORMATION_VERDICTS,
+            confidenceScore = when {
+                result.verdict == Verdict.INSUFFICIENT_INFO -> 0.0
+                result.degraded -> DEGRADED_CONFIDENCE
+                else -> MODEL_CONFIDENCE
+            },
+            riskLevel = riskLevelOf(result.verdict),
+            analyzedAt = analyzedAt
+        )
+    }
+
+    fun contentHash(content: String, language: String): String = ContentFingerprint.of(content, language).toHex()
+
+    private fun riskLevelOf(verdict: Verdict): String? {
+        return when (verdict) {
+            Verdict.CREDIBLE -> "LOW"
+            Verdict.POTENTIALLY_MISLEADING -> "MEDIUM"
+            Verdict.HIGH_MISINFORMATION_RISK -> "HIGH"
+            Verdict.SCAM_ALERT -> "CRITICAL"
+            else -> null
+        }
+    }
+}
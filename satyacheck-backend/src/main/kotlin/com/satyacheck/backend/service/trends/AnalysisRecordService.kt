@@ -0,0 +1,313 @@
+package com.satyacheck.backend.service.trends
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.EnhancedAnalysisResult
+import com.satyacheck.backend.model.entity.AnalysisRecord
+import com.satyacheck.backend.repository.AnalysisRecordCoroutineRepository
+import com.satyacheck.backend.service.persistence.WriteBehindQueue
+import com.satyacheck.backend.service.web.UrlAnalysisResult
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import jakarta.annotation.PreDestroy
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.runInterruptible
+import org.bson.Document
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.data.domain.PageRequest
+import org.springframework.data.domain.Sort
+import org.springframework.data.mongodb.BulkOperationException
+import org.springframework.data.mongodb.core.BulkOperations
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.data.mongodb.core.query.Criteria
+import org.springframework.data.mongodb.core.query.Query
+import org.springframework.data.mongodb.core.query.TextCriteria
+import org.springframework.data.mongodb.core.query.Update
+import org.springframework.stereotype.Service
+import java.time.Duration
+import java.time.Instant
+import java.util.UUID
+import java.util.concurrent.TimeUnit
+import java.util.logging.Logger
+
+/**
+ * Ingestion of [AnalysisRecord] documents for trend analysis.
+ *
+ * Every completed analysis is turned into a record by [AnalysisRecordMapper] and queued;
+ * a background worker bulk-inserts the queue in batches, so recording adds no MongoDB
+ * round trip to the response. The same content is recorded once per dedup window
+ * (analysis.records.dedup-window-minutes): repeats are dropped in memory, and since the
+ * record ID is the content hash plus the window, repeats seen by other instances are
+ * rejected by MongoDB as duplicates. When the queue is full, records are dropped rather
+ * than slowing down analyses. Each written batch is inserted already claimed under its
+ * own batch ID, added to the trend rollups under that ID, and only then marked as
+ * processed; records whose rollup failed are claimed again by [claimUnprocessedRecords]
+ * once their claim lapses, and re-applied under the same batch ID.
+ */
+@Service
+class AnalysisRecordService(
+    private val recordReadRepository: AnalysisRecordCoroutineRepository,
+    private val mongoTemplate: MongoTemplate,
+    private val trendRollupService: TrendRollupService,
+    private val meterRegistry: MeterRegistry,
+    @Value("\${analysis.records.capacity:20000}") capacity: Int,
+    @Value("\${analysis.records.batch-size:500}") batchSize: Int,
+    @Value("\${analysis.records.flush-interval-ms:1000}") flushIntervalMs: Long,
+    @Value("\${analysis.records.dedup-window-minutes:60}") dedupWindowMinutes: Long,
+    @Value("\${analysis.records.dedup-max-entries:100000}") dedupMaxEntries: Long,
+    @Value("\${analysis.records.shutdown-timeout-ms:10000}") private val shutdownTimeoutMs: Long,
+    @Value("\${trends.sweep.claim-expiry-minutes:15}") claimExpiryMinutes: Long
+) {
+    private val logger = Logger.getLogger(AnalysisRecordService::class.java.name)
+
+    private val dedupWindowMs = Duration.ofMinutes(dedupWindowMinutes).toMillis()
+    private val claimExpiry = Duration.ofMinutes(claimExpiryMinutes)
+    private val recentlyRecorded: Cache<String, Boolean> = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofMinutes(dedupWindowMinutes))
+        .maximumSize(dedupMaxEntries)
+        .build()
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+    private val flushTimer = Timer.builder("satyacheck.trends.records.flush")
+        .description("Time taken by one bulk insert of analysis records")
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry)
+    private val queue = WriteBehindQueue(
+        capacity, batchSize, flushIntervalMs, WriteBehindQueue.OverflowPolicy.DROP, scope, ::insert
+    )
+
+    init {
+        Gauge.builder("satyacheck.trends.records.queue.depth", queue) { it.depth().toDouble() }
+            .description("Analysis records waiting to be written")
+            .register(meterRegistry)
+    }
+
+    /**
+     * Record a comprehensive or misinformation-focused analysis
+     */
+    suspend fun recordAnalysis(
+        result: EnhancedAnalysisResult,
+        content: String,
+        language: String,
+        source: String? = null,
+        contentType: String? = null,
+        userRegion: String? = null,
+        deviceType: String? = null
+    ) {
+        enqueue(AnalysisRecordMapper.fromEnhanced(result, content, language, source, contentType, userRegion, deviceType))
+    }
+
+    /**
+     * Record a fact-check-only analysis
+     */
+    suspend fun recordAnalysis(
+        result: AnalysisResult,
+        content: String,
+        language: String,
+        source: String? = null,
+        contentType: String? = null
+    ) {
+        enqueue(AnalysisRecordMapper.fromBasic(result, content, language, source, contentType))
+    }
+
+    /**
+     * Record a web page analysis
+     */
+    suspend fun recordUrlAnalysis(result: UrlAnalysisResult) {
+        enqueue(AnalysisRecordMapper.fromUrl(result))
+    }
+
+    /**
+     * Claim the oldest records analyzed before [analyzedBefore] that are neither processed
+     * for trends nor claimed within the claim expiry, at most [limit] of them plus the rest
+     * of their batches; a claim is held by one caller only until it lapses.
+     *
+     * Records keep the batch ID of their first claim, so a batch whose rollup or marking
+     * failed is claimed again as a whole and applied under the same ID. The candidates are
+     * tagged with a fresh claim ID in one update and read back by that tag, so a claim
+     * costs four queries whatever its size. Records must be passed to [markAsProcessed]
+     * once their batches are applied.
+     */
+    fun claimUnprocessedRecords(analyzedBefore: Instant, limit: Int): List<AnalysisRecord> {
+        val now = Instant.now()
+        val claimable = Criteria.where("processedForTrends").`is`(false).orOperator(
+            Criteria.where("trendClaimedAt").`is`(null),
+            Criteria.where("trendClaimedAt").lt(now.minus(claimExpiry))
+        )
+        val candidates = Query(Criteria().andOperator(claimable, Criteria.where("analyzedAt").lt(analyzedBefore)))
+            .with(Sort.by(Sort.Direction.ASC, "analyzedAt"))
+            .limit(limit)
+        candidates.fields().include("_id").include("trendBatchId")
+        val collection = mongoTemplate.getCollectionName(AnalysisRecord::class.java)
+        val found = mongoTemplate.find(candidates, Document::class.java, collection)
+        if (found.isEmpty()) {
+            return emptyList()
+        }
+
+        // Records claimed by another caller in the meantime no longer match
+        val claimId = UUID.randomUUID().toString()
+        val ids = found.map { it["_id"] }
+        val batchIds = found.mapNotNull { it.getString("trendBatchId") }.distinct()
+        val selected = if (batchIds.isEmpty()) {
+            Criteria.where("_id").`in`(ids)
+        } else {
+            Criteria().orOperator(Criteria.where("_id").`in`(ids), Criteria.where("trendBatchId").`in`(batchIds))
+        }
+        val claim = Update().set("trendClaimId", claimId).set("trendClaimedAt", now)
+        mongoTemplate.updateMulti(Query(Criteria().andOperator(claimable, selected)), claim, AnalysisRecord::class.java)
+        val claimed = Criteria.where("trendClaimId").`is`(claimId)
+        mongoTemplate.updateMulti(
+            Query(Criteria().andOperator(claimed, Criteria.where("trendBatchId").`is`(null))),
+            Update().set("trendBatchId", claimId),
+            AnalysisRecord::class.java
+        )
+        return mongoTemplate.find(Query(claimed), AnalysisRecord::class.java)
+    }
+
+    /**
+     * Mark records as processed for trends in a single update
+     *
+     * @return the number of records updated
+     */
+    fun markAsProcessed(records: Collection<AnalysisRecord>): Long {
+        val ids = records.mapNotNull { it.id }
+        if (ids.isEmpty()) {
+            return 0
+        }
+        return mongoTemplate.updateMulti(Query(Criteria.where("_id").`in`(ids)), processedUpdate(), AnalysisRecord::class.java)
+            .modifiedCount
+    }
+
+    /**
+     * Records of the same content first, then the best full-text matches of its opening
+     */
+    suspend fun findSimilarRecords(content: String, limit: Int, language: String = "en"): List<AnalysisRecord> {
+        val pageable = PageRequest.of(0, limit)
+        val sameContent = recordReadRepository.findByContentHashOrderByAnalyzedAtDesc(
+            AnalysisRecordMapper.contentHash(content, language),
+            pageable
+        ).toList()
+        if (sameContent.size >= limit) {
+            return sameContent
+        }
+        val criteria = TextCriteria.forDefaultLanguage().matching(content.take(AnalysisRecordMapper.SAMPLE_LENGTH))
+        val matches = recordReadRepository.findAllByOrderByScoreDesc(criteria, pageable).toList()
+        return (sameContent + matches).distinctBy { it.id }.take(limit)
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        runBlocking {
+            if (!queue.close(shutdownTimeoutMs)) {
+                logger.severe("Shutting down with ${queue.depth()} analysis records not written")
+            }
+        }
+        scope.cancel()
+    }
+
+    private suspend fun enqueue(record: AnalysisRecord?) {
+        if (record == null) {
+            return
+        }
+        val id = "${record.contentHash}:${record.analyzedAt.toEpochMilli() / dedupWindowMs}"
+        if (recentlyRecorded.asMap().putIfAbsent(id, true) != null) {
+            recordCounter(OUTCOME_DUPLICATE).increment()
+            return
+        }
+        if (!queue.submit(record.copy(id = id))) {
+            recentlyRecorded.invalidate(id)
+            recordCounter(OUTCOME_DROPPED).increment()
+            logger.warning("Analysis record queue full, dropped record $id")
+        }
+    }
+
+    private suspend fun insert(batch: List<AnalysisRecord>) {
+        // Claimed on insert so that the sweep leaves the batch to this writer until the claim lapses
+        val batchId = UUID.randomUUID().toString()
+        val claimedAt = Instant.now()
+        val claimed = batch.map { it.copy(trendClaimId = batchId, trendClaimedAt = claimedAt, trendBatchId = batchId) }
+        rollUp(write(claimed), batchId)
+    }
+
+    /**
+     * Bulk-insert a batch, returning the records that were inserted
+     */
+    private suspend fun write(batch: List<AnalysisRecord>): List<AnalysisRecord> {
+        val started = System.nanoTime()
+        return try {
+            runInterruptible(Dispatchers.IO) {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalysisRecord::class.java)
+                    .insert(batch)
+                    .execute()
+            }
+            recordCounter(OUTCOME_WRITTEN).increment(batch.size.toDouble())
+            batch
+        } catch (e: BulkOperationException) {
+            // Duplicates were recorded by another instance within the same window
+            val duplicates = e.errors.count { it.code == DUPLICATE_KEY }
+            val failed = e.errors.size - duplicates
+            recordCounter(OUTCOME_WRITTEN).increment((batch.size - e.errors.size).toDouble())
+            recordCounter(OUTCOME_DUPLICATE).increment(duplicates.toDouble())
+            if (failed > 0) {
+                recordCounter(OUTCOME_FAILED).increment(failed.toDouble())
+                logger.severe("Failed to insert $failed of ${batch.size} analysis records: ${e.message}")
+            }
+            val rejected = e.errors.map { it.index }.toSet()
+            batch.filterIndexed { index, _ -> index !in rejected }
+        } catch (e: Exception) {
+            recordCounter(OUTCOME_FAILED).increment(batch.size.toDouble())
+            logger.severe("Failed to insert ${batch.size} analysis records: ${e.message}")
+            emptyList()
+        } finally {
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS)
+        }
+    }
+
+    /**
+     * Add inserted records to the trend rollups and mark them as processed
+     */
+    private suspend fun rollUp(records: List<AnalysisRecord>, batchId: String) {
+        if (records.isEmpty()) {
+            return
+        }
+        try {
+            runInterruptible(Dispatchers.IO) {
+                trendRollupService.apply(records, batchId)
+                markAsProcessed(records)
+            }
+        } catch (e: Exception) {
+            // Left unprocessed, to be claimed by the trend sweep once the claim lapses
+            logger.warning("Failed to roll up ${records.size} analysis records: ${e.message}")
+        }
+    }
+
+    private fun processedUpdate(): Update {
+        return Update()
+            .set("processedForTrends", true)
+            .set("trendProcessedAt", Instant.now())
+    }
+
+    private fun recordCounter(outcome: String): Counter {
+        return Counter.builder("satyacheck.trends.records")
+            .description("Analysis records by what became of them")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+    }
+
+    companion object {
+        private const val OUTCOME_WRITTEN = "written"
+        private const val OUTCOME_DUPLICATE = "duplicate"
+        private const val OUTCOME_DROPPED = "dropped"
+        private const val OUTCOME_FAILED = "failed"
+
+        private const val DUPLICATE_KEY = 11000
+    }
+}
@@ -0,0 +1,210 @@
+package com.satyacheck.backend.service.trends
+
+import com.satyacheck.backend.model.entity.AnalysisRecord
+import org.bson.Document
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.stereotype.Component
+import java.time.Instant
+import java.util.Date
+import java.util.logging.Logger
+
+/**
+ * Trend statistics of the analysis records in a time range, computed by MongoDB.
+ *
+ * A single aggregation scans the range once: a `$facet` stage counts totals and
+ * sentiment per content type and language and across all of them, and ranks categories,
+ * techniques, keywords and regions with `$unwind`/`$group` followed by `$topN` per group
+ * or `$sort`/`$limit` overall. Only the summaries come back to the JVM, so memory does not
+ * grow with the number of records. `$topN` needs MongoDB 5.2 or later.
+ */
+@Component
+class TrendAggregator(private val mongoTemplate: MongoTemplate) {
+    private val logger = Logger.getLogger(TrendAggregator::class.java.name)
+
+    /**
+     * Summaries per content type and language, followed by the summary of all records,
+     * of the records analyzed in [start, end); empty if there were none. [rankSize]
+     * replaces the number of entries ranked per dimension, e.g. to rebuild trend rollups.
+     */
+    fun summarize(start: Instant, end: Instant, rankSize: Int? = null): List<TrendSummary> {
+        val started = System.currentTimeMillis()
+        val result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(AnalysisRecord::class.java))
+            .aggregate(pipeline(start, end, rankSize))
+            .allowDiskUse(true)
+            .first()
+            ?: return emptyList()
+        val summaries = parse(result)
+        logger.info("Aggregated ${summaries.size} trend summaries for $start to $end in ${System.currentTimeMillis() - started} ms")
+        return summaries
+    }
+
+    companion object {
+        const val ALL = "ALL"
+        const val UNKNOWN = "UNKNOWN"
+
+        const val TOP_CATEGORIES = 10
+        const val TOP_TECHNIQUES = 10
+        const val TOP_KEYWORDS = 20
+        const val TOP_REGIONS = 10
+
+        private const val ALL_SUFFIX = "All"
+
+        // Ranked dimensions: facet name to record field and number of entries kept
+        private val RANKED = listOf(
+            Triple("categories", "categories", TOP_CATEGORIES),
+            Triple("techniques", "misinformationTechniques", TOP_TECHNIQUES),
+            Triple("keywords", "keywords", TOP_KEYWORDS),
+            Triple("regions", "userRegion", TOP_REGIONS)
+        )
+
+        private val GROUP_KEY = Document("contentType", "\$contentType").append("language", "\$language")
+
+        /**
+         * The aggregation pipeline over the analysis_records collection
+         */
+        internal fun pipeline(start: Instant, end: Instant, rankSize: Int? = null): List<Document> {
+            val facets = Document("groups", listOf(Document("\$group", totals(GROUP_KEY))))
+                .append("all", listOf(Document("\$group", totals(null))))
+            RANKED.forEach { (name, field, limit) ->
+                facets.append(name, rankedPerGroup(field, rankSize ?: limit))
+                facets.append("$name$ALL_SUFFIX", rankedOverall(field, rankSize ?: limit))
+            }
+
+            return listOf(
+                Document("\$match", Document("analyzedAt", Document("\$gte", Date.from(start)).append("\$lt", Date.from(end)))),
+                Document(
+                    "\$project",
+                    Document("contentType", Document("\$ifNull", listOf("\$contentType", UNKNOWN)))
+                        .append("language", 1)
+                        .append("isMisinformation", 1)
+                        .append("sentimentScore", 1)
+                        .apply { RANKED.forEach { (_, field, _) -> append(field, 1) } }
+                ),
+                Document("\$facet", facets)
+            )
+        }
+
+        /**
+         * Summaries from the single document the pipeline returns
+         */
+        internal fun parse(result: Document): List<TrendSummary> {
+            val perGroup = RANKED.associate { (name, _, _) ->
+                name to result.documents(name).associate { ranking ->
+                    groupKey(ranking.get("_id", Document::class.java)) to
+                        ranking.documents("top").associate { it.getString("value") to it.count("count") }
+                }
+            }
+            val groups = result.documents("groups").map { totals ->
+                val key = groupKey(totals.get("_id", Document::class.java))
+                summary(key.first, key.second, totals) { name -> perGroup.getValue(name)[key].orEmpty() }
+            }
+            val all = result.documents("all").firstOrNull() ?: return groups
+            val overall = summary(ALL, ALL, all) { name ->
+                result.documents("$name$ALL_SUFFIX").associate { it.getString("_id") to it.count("count") }
+            }
+            return groups + overall
+        }
+
+        private fun totals(key: Any?): Document {
+            val sentiment = "\$sentimentScore"
+            return Document("_id", key)
+                .append("total", Document("\$sum", 1))
+                .append("misinformation", countIf(Document("\$eq", listOf("\$isMisinformation", true))))
+                // $sum skips records without a sentiment score, $isNumber counts the rest
+                .append("sentimentSum", Document("\$sum", sentiment))
+                .append("sentimentCount", countIf(Document("\$isNumber", sentiment)))
+                .append("positive", countIf(Document("\$gt", listOf(sentiment, 0))))
+                .append("neutral", countIf(Document("\$eq", listOf(sentiment, 0))))
+        }
+
+        private fun countIf(condition: Document): Document {
+            return Document("\$sum", Document("\$cond", listOf(condition, 1, 0)))
+        }
+
+        private fun rankedPerGroup(field: String, limit: Int): List<Document> {
+            return listOf(
+                Document("\$unwind", "\$$field"),
+                Document(
+                    "\$group",
+                    Document("_id", Document(GROUP_KEY).append("value", "\$$field")).append("count", Document("\$sum", 1))
+                ),
+                Document(
+                    "\$group",
+                    Document("_id", Document("contentType", "\$_id.contentType").append("language", "\$_id.language"))
+                        .append(
+                            "top",
+                            Document(
+                                "\$topN",
+                                Document("n", limit)
+                                    .append("sortBy", Document("count", -1).append("_id.value", 1))
+                                    .append("output", Document("value", "\$_id.value").append("count", "\$count"))
+                            )
+                        )
+                )
+            )
+        }
+
+        private fun rankedOverall(field: String, limit: Int): List<Document> {
+            return listOf(
+                Document("\$unwind", "\$$field"),
+                Document("\$group", Document("_id", "\$$field").append("count", Document("\$sum", 1))),
+                Document("\$sort", Document("count", -1).append("_id", 1)),
+                Document("\$limit", limit)
+            )
+        }
+
+        private fun summary(
+            contentType: String,
+            language: String,
+            totals: Document,
+            ranking: (String) -> Map<String, Int>
+        ): TrendSummary {
+            val sentimentCount = totals.count("sentimentCount")
+            val positive = totals.count("positive")
+            val neutral = totals.count("neutral")
+            return TrendSummary(
+                contentType = contentType,
+                language = language,
+                totalAnalyzed = totals.count("total"),
+                misinformationCount = totals.count("misinformation"),
+                sentimentSum = (totals.get("sentimentSum") as? Number)?.toDouble() ?: 0.0,
+                sentimentCount = sentimentCount,
+                positiveCount = positive,
+                negativeCount = sentimentCount - positive - neutral,
+                neutralCount = neutral,
+                topCategories = ranking("categories"),
+                topTechniques = ranking("techniques"),
+                topKeywords = ranking("keywords"),
+                topRegions = ranking("regions")
+            )
+        }
+
+        private fun groupKey(id: Document): Pair<String, String> {
+            return Pair(id.getString("contentType") ?: UNKNOWN, id.getString("language") ?: UNKNOWN)
+        }
+
+        private fun Document.documents(key: String): List<Document> = getList(key, Document::class.java).orEmpty()
+
+        private fun Document.count(key: String): Int = (get(key) as? Number)?.toInt() ?: 0
+    }
+}
+
+/**
+ * Trend statistics of one content type and language, or of all records; the ranked
+ * maps are ordered by count, highest first
+ */
+data class TrendSummary(
+    val contentType: String,
+    val language: String,
+    val totalAnalyzed: Int,
+    val misinformationCount: Int,
+    val sentimentSum: Double,
+    val sentimentCount: Int,
+    val positiveCount: Int,
+    val negativeCount: Int,
+    val neutralCount: Int,
+    val topCategories: Map<String, Int>,
+    val topTechniques: Map<String, Int>,
+    val topKeywords: Map<String, Int>,
+    val topRegions: Map<String, Int>
+)
@@ -1,26 +1,32 @@
 package com.satyacheck.backend.service.trends
 
-import com.satyacheck.backend.model.entity.AnalysisRecord
 import com.satyacheck.backend.model.entity.MisinformationTrend
-import com.satyacheck.backend.repository.AnalysisRecordRepository
+import com.satyacheck.backend.repository.TrendCoroutineRepository
 import com.satyacheck.backend.repository.TrendRepository
+import kotlinx.coroutines.flow.toList
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.scheduling.annotation.Scheduled
 import org.springframework.stereotype.Service
+import java.time.Duration
 import java.time.Instant
 import java.time.LocalDate
-import java.time.ZoneId
-import java.time.temporal.ChronoUnit
-import java.util.UUID
 import java.util.logging.Logger
 
 /**
- * Service for generating and retrieving misinformation trend data
+ * Service for generating and retrieving misinformation trend data.
+ *
+ * Trends are computed from the daily rollups maintained by [TrendRollupService], so a
+ * trend run reads a few documents per day whatever the number of records, and today's
+ * daily trends are refreshed every trends.refresh-interval-ms.
  */
 @Service
 class TrendAnalysisService(
-    private val analysisRecordRepository: AnalysisRecordRepository,
+    private val trendRollupService: TrendRollupService,
     private val trendRepository: TrendRepository,
-    private val analysisRecordService: AnalysisRecordService
+    private val trendReadRepository: TrendCoroutineRepository,
+    private val analysisRecordService: AnalysisRecordService,
+    @Value("\${trends.sweep.grace-minutes:10}") private val sweepGraceMinutes: Long,
+    @Value("\${trends.sweep.batch-size:1000}") private val sweepBatchSize: Int
 ) {
     private val logger = Logger.getLogger(TrendAnalysisService::class.java.name)
     
@@ -36,6 +42,20 @@ class TrendAnalysisService(
         
         // Generate trends by content type and language
         generateTrendsForDate(yesterday, "DAILY")
+        
+        // Yesterday is over: keep only its most frequent categories, keywords etc.
+        trendRollupService.compact(yesterday)
+    }
+    
+    /**
+     * Refresh today's daily trends from the rollups
+     */
+    @Scheduled(
+        initialDelayString = "\${trends.refresh-interval-ms:60000}",
+        fixedDelayString = "\${trends.refresh-interval-ms:60000}"
+    )
+    fun refreshTodayTrends() {
+        generateTrendsForDate(LocalDate.now(), "DAILY")
     }
     
     /**
@@ -68,28 +88,35 @@ class TrendAnalysisService(
     }
     
     /**
-     * Process unprocessed records - scheduled to run every hour
+     * Roll up records whose rollup failed when they were written - scheduled to run every hour.
+     * Claims are drained batch by batch until none are left; a record is marked as processed
+     * only once its batch is applied, and a failed run leaves its claim to lapse and be retried.
      */
     @Scheduled(cron = "0 0 * * * ?")
     fun processUnprocessedRecords() {
         logger.info("Processing unprocessed records for trend analysis")
         
-        val unprocessedRecords = analysisRecordService.getUnprocessedRecords(1000)
-        
-        if (unprocessedRecords.isEmpty()) {
-            logger.info("No unprocessed records found")
-            return
+        // Records written in the last few minutes may still be rolled up by their writer
+        val analyzedBefore = Instant.now().minus(Duration.ofMinutes(sweepGraceMinutes))
+        var processed = 0
+        while (true) {
+            val claimedRecords = analysisRecordService.claimUnprocessedRecords(analyzedBefore, sweepBatchSize)
+            if (claimedRecords.isEmpty()) {
+                break
+            }
+            
+            // Every claimed record has a batch ID, kept from its first claim
+            claimedRecords.groupBy { checkNotNull(it.trendBatchId) }
+                .forEach { (batchId, records) -> trendRollupService.apply(records, batchId) }
+            analysisRecordService.markAsProcessed(claimedRecords)
+            processed += claimedRecords.size
         }
         
-        logger.info("Found ${unprocessedRecords.size} unprocessed records")
-        
-        unprocessedRecords.forEach { record ->
-            // Mark as processed
-            analysisRecordService.markAsProcessed(record)
+        if (processed == 0) {
+            logger.info("No unprocessed records found")
+        } else {
+            logger.info("Rolled up $processed unprocessed records")
         }
-        
-        // Generate trends for today (partial)
-        generateTrendsForDate(LocalDate.now(), "DAILY")
     }
     
     /**
@@ -97,46 +124,7 @@ class TrendAnalysisService(
      */
     fun generateTrendsForDate(date: LocalDate, period: String) {
         logger.info("Generating $period trends for date: $date")
-        
-        // Convert date to start and end instants
-        val startInstant = date.atStartOfDay(ZoneId.systemDefault()).toInstant()
-        val endInstant = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()
-        
-        // Get all records for the date
-        val records = getRecordsForTimeRange(startInstant, endInstant)
-        
-        if (records.isEmpty()) {
-            logger.info("No records found for date: $date")
-            return
-        }
-        
-        // Group records by content type and language
-        val recordsByTypeAndLang = records.groupBy { 
-            Pair(it.contentType ?: "UNKNOWN", it.language) 
-        }
-        
-        // Process each group
-        recordsByTypeAndLang.forEach { (typeAndLang, groupRecords) ->
-            val (contentType, language) = typeAndLang
-            
-            // Generate trend for this group
-            generateTrendForRecords(
-                date,
-                period,
-                contentType,
-                language,
-                groupRecords
-            )
-        }
-        
-        // Also generate an overall trend for all content types and languages
-        generateTrendForRecords(
-            date,
-            period,
-            "ALL",
-            "ALL",
-            records
-        )
+        generateTrends(date, date, date, period)
     }
     
     /**
@@ -144,144 +132,84 @@ class TrendAnalysisService(
      */
     fun generateTrendsForDateRange(startDate: LocalDate, endDate: LocalDate, period: String) {
         logger.info("Generating $period trends for date range: $startDate to $endDate")
-        
-        // Convert dates to instants
-        val startInstant = startDate.atStartOfDay(ZoneId.systemDefault()).toInstant()
-        val endInstant = endDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()
-        
-        // Get all records for the date range
-        val records = getRecordsForTimeRange(startInstant, endInstant)
-        
-        if (records.isEmpty()) {
-            logger.info("No records found for date range: $startDate to $endDate")
+        // Use end date as the trend date
+        generateTrends(startDate, endDate, endDate, period)
+    }
+    
+    /**
+     * Store one trend per content type and language, plus an overall one, for the records
+     * analyzed from [startDate] to [endDate], both included
+     */
+    private fun generateTrends(startDate: LocalDate, endDate: LocalDate, trendDate: LocalDate, period: String) {
+        val summaries = trendRollupService.summarize(startDate, endDate)
+        if (summaries.isEmpty()) {
+            logger.info("No records found for $startDate to $endDate")
             return
         }
         
-        // Group records by content type and language
-        val recordsByTypeAndLang = records.groupBy { 
-            Pair(it.contentType ?: "UNKNOWN", it.language) 
-        }
-        
-        // Process each group
-        recordsByTypeAndLang.forEach { (typeAndLang, groupRecords) ->
-            val (contentType, language) = typeAndLang
-            
-            // Generate trend for this group
-            generateTrendForRecords(
-                endDate, // Use end date as the trend date
-                period,
-                contentType,
-                language,
-                groupRecords
-            )
-        }
-        
-        // Also generate an overall trend for all content types and languages
-        generateTrendForRecords(
-            endDate, // Use end date as the trend date
-            period,
-            "ALL",
-            "ALL",
-            records
-        )
+        trendRepository.saveAll(summaries.map { toTrend(trendDate, period, it) })
     }
     
     /**
-     * Generate trend for a group of records
+     * Trend entity of a summary; its ID is derived from the period, date,
+     * content type and language so that regenerating a trend replaces it
      */
-    private fun generateTrendForRecords(
-        date: LocalDate,
-        period: String,
-        contentType: String,
-        language: String,
-        records: List<AnalysisRecord>
-    ) {
-        logger.info("Generating $period trend for date: $date, content type: $contentType, language: $language")
-        
-        val totalCount = records.size
-        val misinfoCount = records.count { it.isMisinformation }
-        val misinfoRate = if (totalCount > 0) misinfoCount.toDouble() / totalCount else 0.0
+    private fun toTrend(date: LocalDate, period: String, summary: TrendSummary): MisinformationTrend {
+        logger.info("Generating $period trend for date: $date, content type: ${summary.contentType}, language: ${summary.language}")
         
-        // Collect top categories
-        val categories = mutableMapOf<String, Int>()
-        records.flatMap { it.categories }.forEach { category ->
-            categories[category] = categories.getOrDefault(category, 0) + 1
-        }
-        
-        // Collect top misinformation techniques
-        val techniques = mutableMapOf<String, Int>()
-        records.flatMap { it.misinformationTechniques }.forEach { technique ->
-            techniques[technique] = techniques.getOrDefault(technique, 0) + 1
-        }
-        
-        // Collect common keywords
-        val keywords = mutableMapOf<String, Int>()
-        records.flatMap { it.keywords }.forEach { keyword ->
-            keywords[keyword] = keywords.getOrDefault(keyword, 0) + 1
-        }
-        
-        // Collect regions
-        val regions = mutableMapOf<String, Int>()
-        records.mapNotNull { it.userRegion }.forEach { region ->
-            regions[region] = regions.getOrDefault(region, 0) + 1
-        }
+        val totalCount = summary.totalAnalyzed
+        val misinfoRate = if (totalCount > 0) summary.misinformationCount.toDouble() / totalCount else 0.0
+        val sentimentCount = summary.sentimentCount.coerceAtLeast(1)
         
-        // Calculate average sentiment
-        val sentiments = records.mapNotNull { it.sentimentScore }
-        val avgSentiment = if (sentiments.isNotEmpty()) sentiments.average() else 0.0
-        
-        // Create trend entity
-        val trend = MisinformationTrend(
-            id = UUID.randomUUID().toString(),
+        return MisinformationTrend(
+            id = "$period:$date:${summary.contentType}:${summary.language}",
             date = date,
             period = period,
-            contentType = contentType,
-            language = language,
+            contentType = summary.contentType,
+            language = summary.language,
             totalAnalyzed = totalCount,
-            misinformationCount = misinfoCount,
+            misinformationCount = summary.misinformationCount,
             misinformationRate = misinfoRate,
-            topCategories = categories.toList().sortedByDescending { it.second }.take(10).toMap(),
-            topTechniques = techniques.toList().sortedByDescending { it.second }.take(10).toMap(),
-            commonKeywords = keywords.toList().sortedByDescending { it.second }.take(20).map { it.first },
+            topCategories = summary.topCategories,
+            topTechniques = summary.topTechniques,
+            commonKeywords = summary.topKeywords.keys.toList(),
             sentimentAnalysis = mapOf(
-                "average" to avgSentiment,
-                "positive" to sentiments.count { it > 0.0 }.toDouble() / sentiments.size.coerceAtLeast(1),
-                "negative" to sentiments.count { it < 0.0 }.toDouble() / sentiments.size.coerceAtLeast(1),
-                "neutral" to sentiments.count { it == 0.0 }.toDouble() / sentiments.size.coerceAtLeast(1)
+                "average" to if (summary.sentimentCount > 0) summary.sentimentSum / summary.sentimentCount else 0.0,
+                "positive" to summary.positiveCount.toDouble() / sentimentCount,
+                "negative" to summary.negativeCount.toDouble() / sentimentCount,
+                "neutral" to summary.neutralCount.toDouble() / sentimentCount
             ),
-            regions = regions.toList().sortedByDescending { it.second }.take(10).toMap(),
+            regions = summary.topRegions,
             reliabilityScore = calculateReliabilityScore(totalCount)
         )
-        
-        // Save trend
-        trendRepository.save(trend)
     }
     
     /**
      * Get trend data for a specific date and period
      */
-    fun getTrendData(
+    suspend fun getTrendData(
         date: LocalDate,
         period: String,
         contentType: String? = null,
         language: String? = null
     ): List<MisinformationTrend> {
-        return when {
+        val trends = when {
             contentType != null && language != null ->
-                trendRepository.findByDateAndPeriodAndContentTypeAndLanguage(date, period, contentType, language)
+                trendReadRepository.findByDateAndPeriodAndContentTypeAndLanguage(date, period, contentType, language)
             contentType != null ->
-                trendRepository.findByDateAndPeriodAndContentType(date, period, contentType)
+                trendReadRepository.findByDateAndPeriodAndContentType(date, period, contentType)
             language != null ->
-                trendRepository.findByDateAndPeriodAndLanguage(date, period, language)
+                trendReadRepository.findByDateAndPeriodAndLanguage(date, period, language)
             else ->
-                trendRepository.findByDateAndPeriod(date, period)
+                trendReadRepository.findByDateAndPeriod(date, period)
         }
+        return trends.toList()
     }
     
     /**
      * Get trend data for a date range
      */
-    fun getTrendDataForRange(
+    suspend fun getTrendDataForRange(
         startDate: LocalDate,
         endDate: LocalDate,
         period: String,
@@ -292,7 +220,7 @@ class TrendAnalysisService(
     ): List<MisinformationTrend> {
         val pageable = org.springframework.data.domain.PageRequest.of(page, size)
         
-        val trends = trendRepository.findByDateBetween(startDate, endDate, pageable).content
+        val trends = trendReadRepository.findByDateBetween(startDate, endDate, pageable).toList()
         
         return trends.filter { trend ->
             (contentType == null || trend.contentType == contentType) &&
@@ -301,14 +229,6 @@ class TrendAnalysisService(
         }
     }
     
-    /**
-     * Get records for a specific time range
-     */
-    private fun getRecordsForTimeRange(start: Instant, end: Instant): List<AnalysisRecord> {
-        val pageable = org.springframework.data.domain.PageRequest.of(0, 10000)
-        return analysisRecordRepository.findByAnalyzedAtBetween(start, end, pageable).content
-    }
-    
     /**
      * Calculate reliability score based on sample size
      */
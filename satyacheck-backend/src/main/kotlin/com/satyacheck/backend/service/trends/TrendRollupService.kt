@@ -0,0 +1,165 @@
+package com.satyacheck.backend.service.trends
+
+import com.satyacheck.backend.model.entity.AnalysisRecord
+import com.satyacheck.backend.model.entity.TrendRollup
+import com.satyacheck.backend.repository.TrendRollupRepository
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.data.mongodb.BulkOperationException
+import org.springframework.data.mongodb.core.BulkOperations
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.data.mongodb.core.query.Criteria
+import org.springframework.data.mongodb.core.query.Query
+import org.springframework.data.mongodb.core.query.Update
+import org.springframework.stereotype.Service
+import java.time.Instant
+import java.time.LocalDate
+import java.time.ZoneId
+import java.util.logging.Logger
+
+/**
+ * Incrementally maintained [TrendRollup] documents, one per day, content type and language.
+ *
+ * Each batch of ingested records is applied with one `$inc` upsert per rollup it touches,
+ * so trends can be computed at any time from a handful of rollups instead of rescanning
+ * records. A rollup keeps the IDs of the last trends.rollup.applied-batch-history batches
+ * it counted and skips those, so a batch may be applied again after a failure or a lapsed
+ * claim without being counted twice. Once a day is over, [compact] trims its count maps to the
+ * trends.rollup.top-k-capacity most frequent entries so that weekly and monthly merges
+ * stay small.
+ */
+@Service
+class TrendRollupService(
+    private val mongoTemplate: MongoTemplate,
+    private val trendRollupRepository: TrendRollupRepository,
+    private val trendAggregator: TrendAggregator,
+    @Value("\${trends.rollup.top-k-capacity:200}") private val capacity: Int,
+    @Value("\${trends.rollup.applied-batch-history:2000}") private val appliedBatchHistory: Int
+) {
+    private val logger = Logger.getLogger(TrendRollupService::class.java.name)
+    private val zone: ZoneId = ZoneId.systemDefault()
+
+    /**
+     * Add a batch of records to the rollups of their days, unless the batch was already
+     * added to them
+     */
+    fun apply(records: Collection<AnalysisRecord>, batchId: String) {
+        if (records.isEmpty()) {
+            return
+        }
+        var pending = TrendRollups.deltas(records, zone)
+        repeat(UPSERT_ATTEMPTS) {
+            pending = upsert(pending, batchId)
+            if (pending.isEmpty()) {
+                return
+            }
+        }
+        logger.fine("Batch $batchId was already applied to ${pending.size} trend rollups")
+    }
+
+    /**
+     * Summaries per content type and language, and overall, of the days from [startDay]
+     * to [endDay], both included
+     */
+    fun summarize(startDay: LocalDate, endDay: LocalDate): List<TrendSummary> {
+        val rollups = if (startDay == endDay) {
+            trendRollupRepository.findByDay(startDay)
+        } else {
+            trendRollupRepository.findByDayRange(startDay, endDay)
+        }
+        return TrendRollups.summarize(rollups)
+    }
+
+    /**
+     * Drop the least frequent entries of the count maps of a finished day; entries are
+     * unset rather than the rollup rewritten, so late increments are not lost
+     */
+    fun compact(day: LocalDate) {
+        val overflowing = trendRollupRepository.findByDay(day)
+            .associate { it.id to TrendRollups.overflow(it, capacity) }
+            .filterValues { it.isNotEmpty() }
+        if (overflowing.isEmpty()) {
+            return
+        }
+        val bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrendRollup::class.java)
+        overflowing.forEach { (id, fields) ->
+            val update = Update()
+            fields.forEach { (field, keys) -> keys.forEach { key -> update.unset("$field.$key") } }
+            bulk.updateOne(Query(Criteria.where("_id").`is`(id)), update)
+        }
+        bulk.execute()
+        logger.info("Compacted ${overflowing.size} trend rollups of $day")
+    }
+
+    /**
+     * Recompute the rollups of a finished day from its analysis records, e.g. for days
+     * recorded before rollups existed
+     */
+    fun rebuild(day: LocalDate) {
+        require(day.isBefore(LocalDate.now(zone))) { "Only finished days can be rebuilt" }
+        val start = day.atStartOfDay(zone).toInstant()
+        val end = day.plusDays(1).atStartOfDay(zone).toInstant()
+        val rollups = trendAggregator.summarize(start, end, capacity)
+            .filterNot { it.contentType == TrendAggregator.ALL && it.language == TrendAggregator.ALL }
+            .map { TrendRollups.fromSummary(day, it) }
+
+        trendRollupRepository.deleteByDay(day)
+        trendRollupRepository.saveAll(rollups)
+        logger.info("Rebuilt ${rollups.size} trend rollups of $day")
+    }
+
+    /**
+     * Upsert the deltas of a batch, returning those rejected as duplicate keys: either the
+     * rollup already counts the batch, so the filter missed and the insert collided, or a
+     * concurrent upsert created the rollup first and the delta has to be applied again
+     */
+    private fun upsert(deltas: List<TrendRollup>, batchId: String): List<TrendRollup> {
+        val bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrendRollup::class.java)
+        deltas.forEach { delta ->
+            val notApplied = Criteria.where("_id").`is`(delta.id).and(FIELD_APPLIED_BATCHES).ne(batchId)
+            bulk.upsert(Query(notApplied), increment(delta, batchId))
+        }
+        return try {
+            bulk.execute()
+            emptyList()
+        } catch (e: BulkOperationException) {
+            if (e.errors.any { it.code != DUPLICATE_KEY }) {
+                throw e
+            }
+            e.errors.map { deltas[it.index] }
+        }
+    }
+
+    private fun increment(delta: TrendRollup, batchId: String): Update {
+        val update = Update()
+            .setOnInsert("day", delta.day)
+            .setOnInsert("contentType", delta.contentType)
+            .setOnInsert("language", delta.language)
+            .set("updatedAt", Instant.now())
+            .inc("totalAnalyzed", delta.totalAnalyzed)
+            .inc("misinformationCount", delta.misinformationCount)
+        if (delta.sentimentCount > 0) {
+            update.inc("sentimentSum", delta.sentimentSum)
+                .inc("sentimentCount", delta.sentimentCount)
+                .inc("positiveCount", delta.positiveCount)
+                .inc("negativeCount", delta.negativeCount)
+                .inc("neutralCount", delta.neutralCount)
+        }
+        mapOf(
+            TrendRollups.FIELD_CATEGORIES to delta.categories,
+            TrendRollups.FIELD_TECHNIQUES to delta.techniques,
+            TrendRollups.FIELD_KEYWORDS to delta.keywords,
+            TrendRollups.FIELD_REGIONS to delta.regions
+        ).forEach { (field, counts) -> counts.forEach { (key, count) -> update.inc("$field.$key", count) } }
+        update.push(FIELD_APPLIED_BATCHES).slice(-appliedBatchHistory).each(batchId)
+        return update
+    }
+
+    companion object {
+        private const val FIELD_APPLIED_BATCHES = "appliedBatches"
+
+        // A second duplicate key after the rollup exists means the batch is already counted
+        private const val UPSERT_ATTEMPTS = 2
+
+        private const val DUPLICATE_KEY = 11000
+    }
+}
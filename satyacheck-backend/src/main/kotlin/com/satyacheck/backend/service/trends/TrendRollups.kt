@@ -0,0 +1,153 @@
+package com.satyacheck.backend.service.trends
+
+import com.satyacheck.backend.model.entity.AnalysisRecord
+import com.satyacheck.backend.model.entity.TrendRollup
+import java.time.LocalDate
+import java.time.ZoneId
+
+/**
+ * Building, merging and compacting [TrendRollup] counts.
+ *
+ * Rollups are mergeable: the trend of any set of days, content types and languages is
+ * the sum of their rollups. The count maps of a compacted day keep only its most frequent
+ * entries, so a value trimmed from a day loses that day's count, which is at most the
+ * smallest count the day kept; values frequent enough to rank in a merged top K are not
+ * affected unless the capacity is close to K.
+ */
+object TrendRollups {
+
+    const val FIELD_CATEGORIES = "categories"
+    const val FIELD_TECHNIQUES = "techniques"
+    const val FIELD_KEYWORDS = "keywords"
+    const val FIELD_REGIONS = "regions"
+
+    /**
+     * ID of the rollup of one day, content type and language
+     */
+    fun rollupId(day: LocalDate, contentType: String, language: String): String = "$day:$contentType:$language"
+
+    /**
+     * The rollup increments for a batch of records, one per day, content type and language
+     */
+    fun deltas(records: Collection<AnalysisRecord>, zone: ZoneId): List<TrendRollup> {
+        return records
+            .groupBy { Triple(LocalDate.ofInstant(it.analyzedAt, zone), it.contentType ?: TrendAggregator.UNKNOWN, it.language) }
+            .map { (key, group) ->
+                val (day, contentType, language) = key
+                val sentiments = group.mapNotNull { it.sentimentScore }
+                TrendRollup(
+                    id = rollupId(day, contentType, language),
+                    day = day,
+                    contentType = contentType,
+                    language = language,
+                    totalAnalyzed = group.size.toLong(),
+                    misinformationCount = group.count { it.isMisinformation }.toLong(),
+                    sentimentSum = sentiments.sum(),
+                    sentimentCount = sentiments.size.toLong(),
+                    positiveCount = sentiments.count { it > 0.0 }.toLong(),
+                    negativeCount = sentiments.count { it < 0.0 }.toLong(),
+                    neutralCount = sentiments.count { it == 0.0 }.toLong(),
+                    categories = occurrences(group.flatMap { it.categories }),
+                    techniques = occurrences(group.flatMap { it.misinformationTechniques }),
+                    keywords = occurrences(group.flatMap { it.keywords }),
+                    regions = occurrences(group.mapNotNull { it.userRegion })
+                )
+            }
+    }
+
+    /**
+     * Summaries per content type and language, followed by the summary of all of them, of
+     * the given rollups; empty if there are none
+     */
+    fun summarize(rollups: Collection<TrendRollup>): List<TrendSummary> {
+        if (rollups.isEmpty()) {
+            return emptyList()
+        }
+        val groups = rollups.groupBy { Pair(it.contentType, it.language) }
+            .map { (key, group) -> merge(key.first, key.second, group) }
+        return groups + merge(TrendAggregator.ALL, TrendAggregator.ALL, rollups)
+    }
+
+    /**
+     * The entries of each count map that fall outside the [capacity] most frequent ones,
+     * by map field name
+     */
+    fun overflow(rollup: TrendRollup, capacity: Int): Map<String, List<String>> {
+        return mapOf(
+            FIELD_CATEGORIES to rollup.categories,
+            FIELD_TECHNIQUES to rollup.techniques,
+            FIELD_KEYWORDS to rollup.keywords,
+            FIELD_REGIONS to rollup.regions
+        ).mapValues { (_, counts) -> ranked(counts).drop(capacity).map { it.key } }
+            .filterValues { it.isNotEmpty() }
+    }
+
+    /**
+     * The rollup of one day, content type and language from its aggregated summary, with
+     * counts keyed as stored
+     */
+    fun fromSummary(day: LocalDate, summary: TrendSummary): TrendRollup {
+        return TrendRollup(
+            id = rollupId(day, summary.contentType, summary.language),
+            day = day,
+            contentType = summary.contentType,
+            language = summary.language,
+            totalAnalyzed = summary.totalAnalyzed.toLong(),
+            misinformationCount = summary.misinformationCount.toLong(),
+            sentimentSum = summary.sentimentSum,
+            sentimentCount = summary.sentimentCount.toLong(),
+            positiveCount = summary.positiveCount.toLong(),
+            negativeCount = summary.negativeCount.toLong(),
+            neutralCount = summary.neutralCount.toLong(),
+            categories = encoded(summary.topCategories),
+            techniques = encoded(summary.topTechniques),
+            keywords = encoded(summary.topKeywords),
+            regions = encoded(summary.topRegions)
+        )
+    }
+
+    /**
+     * Map keys become field names in MongoDB, where "." separates path segments and a
+     * leading "$" marks an operator
+     */
+    fun encodeKey(key: String): String = key.replace("%", "%25").replace(".", "%2E").replace("$", "%24")
+
+    fun decodeKey(key: String): String = key.replace("%24", "$").replace("%2E", ".").replace("%25", "%")
+
+    private fun merge(contentType: String, language: String, rollups: Collection<TrendRollup>): TrendSummary {
+        return TrendSummary(
+            contentType = contentType,
+            language = language,
+            totalAnalyzed = rollups.sumOf { it.totalAnalyzed }.toInt(),
+            misinformationCount = rollups.sumOf { it.misinformationCount }.toInt(),
+            sentimentSum = rollups.sumOf { it.sentimentSum },
+            sentimentCount = rollups.sumOf { it.sentimentCount }.toInt(),
+            positiveCount = rollups.sumOf { it.positiveCount }.toInt(),
+            negativeCount = rollups.sumOf { it.negativeCount }.toInt(),
+            neutralCount = rollups.sumOf { it.neutralCount }.toInt(),
+            topCategories = top(rollups.map { it.categories }, TrendAggregator.TOP_CATEGORIES),
+            topTechniques = top(rollups.map { it.techniques }, TrendAggregator.TOP_TECHNIQUES),
+            topKeywords = top(rollups.map { it.keywords }, TrendAggregator.TOP_KEYWORDS),
+            topRegions = top(rollups.map { it.regions }, TrendAggregator.TOP_REGIONS)
+        )
+    }
+
+    private fun top(counts: List<Map<String, Long>>, limit: Int): Map<String, Int> {
+        val merged = mutableMapOf<String, Long>()
+        counts.forEach { map -> map.forEach { (key, count) -> merged.merge(decodeKey(key), count) { a, b -> a + b } } }
+        return ranked(merged).take(limit).associate { it.key to it.value.toInt() }
+    }
+
+    // Highest count first, ties broken by key so that results are stable
+    private fun ranked(counts: Map<String, Long>): List<Map.Entry<String, Long>> {
+        return counts.entries.sortedWith(compareByDescending<Map.Entry<String, Long>> { it.value }.thenBy { it.key })
+    }
+
+    private fun occurrences(values: List<String>): Map<String, Long> {
+        return values.groupingBy { encodeKey(it) }.eachCount().mapValues { it.value.toLong() }
+    }
+
+    private fun encoded(counts: Map<String, Int>): Map<String, Long> {
+        return counts.entries.associate { encodeKey(it.key) to it.value.toLong() }
+    }
+}
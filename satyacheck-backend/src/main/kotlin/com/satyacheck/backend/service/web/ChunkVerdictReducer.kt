@@ -0,0 +1,51 @@
+package com.satyacheck.backend.service.web
+
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.ChunkEvidence
+import com.satyacheck.backend.model.enum.Verdict
+
+/**
+ * Combines the fact-checks of a page's chunks into one verdict for the page.
+ *
+ * The most severe verdict found in any chunk decides: one section pushing a scam makes the
+ * page a scam alert even if the rest of it is credible. The explanation quotes the chunks
+ * that support the verdict. Chunks that failed or timed out are ignored; if none was
+ * analysed the page gets an ERROR verdict.
+ */
+object ChunkVerdictReducer {
+
+    // Most severe first
+    private val SEVERITY = listOf(
+        Verdict.SCAM_ALERT,
+        Verdict.HIGH_MISINFORMATION_RISK,
+        Verdict.POTENTIALLY_MISLEADING,
+        Verdict.CREDIBLE,
+        Verdict.INSUFFICIENT_INFO
+    )
+
+    private const val MAX_QUOTED_CHUNKS = 3
+
+    /**
+     * Reduce [evidence] for the analysed chunks of a page that was split into [totalChunks] chunks
+     */
+    fun reduce(evidence: List<ChunkEvidence>, totalChunks: Int): AnalysisResult {
+        val analysed = evidence.filter { it.verdict != null && !it.verdict.isFailure() }
+        if (analysed.isEmpty()) {
+            return AnalysisResult(
+                verdict = Verdict.ERROR,
+                explanation = "Failed to analyze any of the $totalChunks sections of the page"
+            )
+        }
+
+        val verdict = SEVERITY.first { severity -> analysed.any { it.verdict == severity } }
+        val supporting = analysed.filter { it.verdict == verdict }
+        val explanation = buildString {
+            append("Analyzed ${analysed.size} of $totalChunks sections of the page; ")
+            append("${supporting.size} rated $verdict.")
+            supporting.take(MAX_QUOTED_CHUNKS).forEach {
+                append("\n\nSection ${it.index + 1}: ${it.explanation.orEmpty()}")
+            }
+        }
+        return AnalysisResult(verdict = verdict, explanation = explanation)
+    }
+}
@@ -0,0 +1,134 @@
+package com.satyacheck.backend.service.web
+
+import com.satyacheck.backend.model.dto.ChunkEvidence
+import com.satyacheck.backend.model.dto.EnhancedAnalysisResult
+import com.satyacheck.backend.service.EnhancedAnalysisService
+import com.satyacheck.backend.service.api.ContentCategorizationService
+import com.satyacheck.backend.service.api.GeminiService
+import io.micrometer.core.instrument.DistributionSummary
+import io.micrometer.core.instrument.MeterRegistry
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.withTimeoutOrNull
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.stereotype.Service
+import java.util.logging.Logger
+
+/**
+ * Analyzes content that is too long for one prompt by map-reduce over chunks.
+ *
+ * Content that fits in one chunk goes through the regular comprehensive analysis. Longer
+ * content is split by [ContentChunker], every chunk is fact-checked concurrently (all
+ * Gemini calls share the gateway's concurrency limit), and [ChunkVerdictReducer] combines
+ * the chunk verdicts. Category and topics come from the first chunk, which for articles
+ * holds the headline and lead. Since the number of chunks is capped and each has its own
+ * deadline, latency stays bounded however long the page is.
+ */
+@Service
+class ChunkedContentAnalyzer(
+    private val enhancedAnalysisService: EnhancedAnalysisService,
+    private val geminiService: GeminiService,
+    private val contentCategorizationService: ContentCategorizationService,
+    private val meterRegistry: MeterRegistry,
+    @Value("\${analysis.chunking.max-chunk-tokens:1500}") maxChunkTokens: Int,
+    @Value("\${analysis.chunking.max-chunks:8}") maxChunks: Int,
+    @Value("\${analysis.chunking.chunk-timeout-ms:20000}") private val chunkTimeoutMs: Long
+) {
+    private val logger = Logger.getLogger(ChunkedContentAnalyzer::class.java.name)
+
+    private val chunker = ContentChunker(maxChunkTokens, maxChunks)
+
+    /**
+     * Analyze [content], in chunks when it is longer than one chunk
+     */
+    suspend fun analyze(content: String, language: String): EnhancedAnalysisResult {
+        val split = chunker.split(content)
+        if (split.totalChunks <= 1) {
+            return enhancedAnalysisService.analyzeComprehensively(content, language)
+        }
+
+        logger.info("Analyzing ${content.length} characters in ${split.chunks.size} of ${split.totalChunks} chunks")
+        chunkSummary().record(split.totalChunks.toDouble())
+
+        return coroutineScope {
+            val lead = split.chunks.first().text
+            val category = async {
+                optional("category") { contentCategorizationService.categorizeContent(lead, language) }
+            }
+            val topics = async {
+                optional("topics") { contentCategorizationService.extractTopics(lead, language) }
+            }
+            val evidence = split.chunks.map { chunk -> async { analyzeChunk(chunk, language) } }.awaitAll()
+
+            val failedChunks = evidence.count { it.verdict == null || it.verdict.isFailure() }
+            val contentCategory = category.await()
+            val extractedTopics = topics.await()
+            val missingComponents = buildList {
+                if (contentCategory == null) add(COMPONENT_CATEGORY)
+                if (extractedTopics == null) add(COMPONENT_TOPICS)
+                if (failedChunks > 0) add(COMPONENT_CHUNKS)
+            }
+
+            EnhancedAnalysisResult(
+                factCheckResult = ChunkVerdictReducer.reduce(evidence, split.totalChunks),
+                contentCategory = contentCategory,
+                extractedTopics = extractedTopics ?: emptyList(),
+                additionalContext = mapOf(
+                    "analysisType" to "CHUNKED",
+                    "chunkCount" to split.totalChunks,
+                    "analyzedChunks" to evidence.size - failedChunks,
+                    "skippedChunks" to split.skippedChunks
+                ),
+                partial = missingComponents.isNotEmpty(),
+                missingComponents = missingComponents,
+                chunkEvidence = evidence
+            )
+        }
+    }
+
+    /**
+     * Fact-check one chunk; a chunk that times out is returned without a verdict
+     */
+    private suspend fun analyzeChunk(chunk: ContentChunker.Chunk, language: String): ChunkEvidence {
+        val result = optional("chunk ${chunk.index}") { geminiService.analyzeContent(chunk.text, language) }
+        return ChunkEvidence(
+            index = chunk.index,
+            start = chunk.start,
+            end = chunk.end,
+            excerpt = chunk.text.take(EXCERPT_LENGTH),
+            verdict = result?.first,
+            explanation = result?.second
+        )
+    }
+
+    private suspend fun <T> optional(name: String, block: suspend () -> T): T? {
+        try {
+            val result = withTimeoutOrNull(chunkTimeoutMs) { block() }
+            if (result == null) {
+                logger.warning("Chunked analysis of $name exceeded its ${chunkTimeoutMs}ms deadline")
+            }
+            return result
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            logger.warning("Chunked analysis of $name failed: ${e.message}")
+            return null
+        }
+    }
+
+    private fun chunkSummary(): DistributionSummary {
+        return DistributionSummary.builder("satyacheck.analysis.chunks")
+            .description("Number of chunks long content was split into")
+            .register(meterRegistry)
+    }
+
+    companion object {
+        private const val EXCERPT_LENGTH = 200
+
+        private const val COMPONENT_CATEGORY = "category"
+        private const val COMPONENT_TOPICS = "topics"
+        private const val COMPONENT_CHUNKS = "chunks"
+    }
+}
@@ -0,0 +1,181 @@
+package com.satyacheck.backend.service.web
+
+/**
+ * Splits long page text into chunks that each fit one Gemini prompt.
+ *
+ * Chunks break at paragraph boundaries where possible, then at sentence boundaries, and
+ * only split inside a sentence (at whitespace) when a single sentence is over budget.
+ * Token counts are estimated, not measured: about four characters per token for ASCII
+ * text and two for other scripts, which tokenize less densely.
+ *
+ * At most [maxChunks] chunks are returned so that analysing a very long page costs a
+ * bounded number of calls. When a page has more, chunks are picked evenly across it,
+ * always including the first, and the rest are reported as skipped.
+ */
+class ContentChunker(
+    private val maxChunkTokens: Int,
+    private val maxChunks: Int
+) {
+    init {
+        require(maxChunkTokens > 0) { "maxChunkTokens must be positive" }
+        require(maxChunks > 0) { "maxChunks must be positive" }
+    }
+
+    /**
+     * A chunk of the original text and where it starts and ends in it
+     */
+    data class Chunk(val index: Int, val text: String, val start: Int, val end: Int)
+
+    /**
+     * The chunks selected for analysis and how many chunks the whole text produced
+     */
+    data class Result(val chunks: List<Chunk>, val totalChunks: Int) {
+        val skippedChunks: Int
+            get() = totalChunks - chunks.size
+    }
+
+    /**
+     * Split [text] into chunks of at most maxChunkTokens estimated tokens
+     */
+    fun split(text: String): Result {
+        if (text.isBlank()) {
+            return Result(emptyList(), 0)
+        }
+        val chunks = mutableListOf<Chunk>()
+        var start = -1
+        var end = -1
+        var tokens = 0
+        for (segment in segments(text)) {
+            // A paragraph that fits a chunk on its own is kept whole: start a new chunk unless all of it fits
+            val needed = segment.paragraphTokens?.takeIf { it <= maxChunkTokens } ?: segment.tokens
+            if (start >= 0 && tokens + needed > maxChunkTokens) {
+                chunks += chunk(text, chunks.size, start, end)
+                start = -1
+                tokens = 0
+            }
+            if (start < 0) {
+                start = segment.range.first
+            }
+            end = segment.range.last + 1
+            tokens += segment.tokens
+        }
+        if (start >= 0) {
+            chunks += chunk(text, chunks.size, start, end)
+        }
+        return Result(select(chunks), chunks.size)
+    }
+
+    /**
+     * A range of the text that is never split further: a sentence, or a slice of an oversized one.
+     * The first segment of each paragraph carries the estimated size of the whole paragraph.
+     */
+    private class Segment(val range: IntRange, val tokens: Int, val paragraphTokens: Int?)
+
+    private fun segments(text: String): List<Segment> {
+        val segments = mutableListOf<Segment>()
+        for (paragraph in ranges(text, PARAGRAPH_BREAK, 0, text.length)) {
+            val paragraphTokens = estimateTokens(text, paragraph.first, paragraph.last + 1)
+            val pieces = ranges(text, SENTENCE_BREAK, paragraph.first, paragraph.last + 1).flatMap { sentence ->
+                if (estimateTokens(text, sentence.first, sentence.last + 1) <= maxChunkTokens) {
+                    listOf(sentence)
+                } else {
+                    slices(text, sentence.first, sentence.last + 1)
+                }
+            }
+            pieces.forEachIndexed { i, piece ->
+                val tokens = estimateTokens(text, piece.first, piece.last + 1)
+                segments += Segment(piece, tokens, if (i == 0) paragraphTokens else null)
+            }
+        }
+        return segments
+    }
+
+    /**
+     * The non-blank ranges of text[from, to) between matches of [separator]
+     */
+    private fun ranges(text: String, separator: Regex, from: Int, to: Int): List<IntRange> {
+        val ranges = mutableListOf<IntRange>()
+        var position = from
+        for (match in separator.findAll(text.subSequence(from, to))) {
+            val breakAt = from + match.range.first
+            addTrimmed(text, position, breakAt, ranges)
+            position = from + match.range.last + 1
+        }
+        addTrimmed(text, position, to, ranges)
+        return ranges
+    }
+
+    private fun addTrimmed(text: String, from: Int, to: Int, ranges: MutableList<IntRange>) {
+        var start = from
+        var end = to
+        while (start < end && text[start].isWhitespace()) start++
+        while (end > start && text[end - 1].isWhitespace()) end--
+        if (start < end) {
+            ranges += start until end
+        }
+    }
+
+    /**
+     * Cut an oversized sentence at whitespace into slices that each fit the budget
+     */
+    private fun slices(text: String, from: Int, to: Int): List<IntRange> {
+        val slices = mutableListOf<IntRange>()
+        var start = from
+        while (start < to) {
+            var end = start
+            var lastSpace = -1
+            var ascii = 0
+            var other = 0
+            while (end < to) {
+                if (text[end].code < 128) ascii++ else other++
+                if (tokens(ascii, other) > maxChunkTokens) break
+                if (text[end].isWhitespace()) lastSpace = end
+                end++
+            }
+            if (end == start) {
+                end = start + 1
+            } else if (end < to && lastSpace > start) {
+                end = lastSpace
+            }
+            addTrimmed(text, start, end, slices)
+            start = end
+            while (start < to && text[start].isWhitespace()) start++
+        }
+        return slices
+    }
+
+    private fun chunk(text: String, index: Int, start: Int, end: Int): Chunk {
+        return Chunk(index, text.substring(start, end), start, end)
+    }
+
+    /**
+     * At most maxChunks chunks spread evenly over the text, in their original order
+     */
+    private fun select(chunks: List<Chunk>): List<Chunk> {
+        if (chunks.size <= maxChunks) {
+            return chunks
+        }
+        return (0 until maxChunks).map { chunks[it * chunks.size / maxChunks] }
+    }
+
+    companion object {
+        private val PARAGRAPH_BREAK = "\\n\\s*\\n".toRegex()
+
+        // Sentence-ending punctuation, including the Devanagari danda and double danda, followed by whitespace
+        private val SENTENCE_BREAK = "(?<=[.!?\\u0964\\u0965])\\s+".toRegex()
+
+        /**
+         * Estimated token count of text[from, to)
+         */
+        fun estimateTokens(text: CharSequence, from: Int = 0, to: Int = text.length): Int {
+            var ascii = 0
+            var other = 0
+            for (i in from until to) {
+                if (text[i].code < 128) ascii++ else other++
+            }
+            return tokens(ascii, other)
+        }
+
+        private fun tokens(ascii: Int, other: Int): Int = (ascii + 3) / 4 + (other + 1) / 2
+    }
+}
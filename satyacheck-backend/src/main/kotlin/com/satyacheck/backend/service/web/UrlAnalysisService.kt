@@ -1,8 +1,11 @@
 package com.satyacheck.backend.service.web
 
+import com.satyacheck.backend.config.CacheConfig
 import com.satyacheck.backend.model.dto.EnhancedAnalysisResult
-import com.satyacheck.backend.service.EnhancedAnalysisService
-import org.springframework.cache.annotation.Cacheable
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
+import com.satyacheck.backend.service.cache.Previewable
+import com.satyacheck.backend.service.cache.StaleMarkable
 import org.springframework.stereotype.Service
 import java.net.URL
 import java.util.logging.Logger
@@ -13,7 +16,8 @@ import java.util.logging.Logger
 @Service
 class UrlAnalysisService(
     private val webContentFetcherService: WebContentFetcherService,
-    private val enhancedAnalysisService: EnhancedAnalysisService
+    private val chunkedContentAnalyzer: ChunkedContentAnalyzer,
+    private val coroutineCacheManager: CoroutineCacheManager
 ) {
     private val logger = Logger.getLogger(UrlAnalysisService::class.java.name)
 
@@ -21,8 +25,20 @@ class UrlAnalysisService(
      * Analyze content from a URL
      * Cached to improve performance for repeated requests
      */
-    @Cacheable(value = ["urlAnalysis"], key = "#url")
     suspend fun analyzeUrl(url: String): UrlAnalysisResult {
+        return coroutineCacheManager.cached(
+            CacheConfig.URL_ANALYSIS,
+            ContentFingerprint.ofUrl(url),
+            cacheIf = { it.error == null && it.analysis?.factCheckResult?.verdict?.isFailure() != true }
+        ) {
+            fetchAndAnalyzeUrl(url)
+        }
+    }
+    
+    /**
+     * Fetch the page behind a URL and run a comprehensive analysis on its content
+     */
+    private suspend fun fetchAndAnalyzeUrl(url: String): UrlAnalysisResult {
         try {
             logger.info("Starting URL analysis for: $url")
             
@@ -44,8 +60,8 @@ class UrlAnalysisService(
                 )
             }
             
-            // Analyze the extracted content
-            val enhancedAnalysis = enhancedAnalysisService.analyzeComprehensively(
+            // Analyze the extracted content, in chunks if the page is long
+            val enhancedAnalysis = chunkedContentAnalyzer.analyze(
                 webContentResult.content, 
                 webContentResult.language
             )
@@ -104,5 +120,11 @@ data class UrlAnalysisResult(
     val language: String,
     val metadata: Map<String, String>,
     val analysis: EnhancedAnalysisResult?,
-    val error: String?
-)
\ No newline at end of file
+    val error: String?,
+    // Set when served from an expired cache entry while the page is re-analysed in the background
+    val stale: Boolean = false
+) : StaleMarkable<UrlAnalysisResult>, Previewable {
+    override fun asStale(): UrlAnalysisResult = copy(stale = true)
+
+    override fun preview(maxLength: Int): String = (title ?: url).take(maxLength)
+}
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.satyacheck.backend.service.web
 
+import com.satyacheck.backend.config.CacheConfig
+import com.satyacheck.backend.service.cache.ContentFingerprint
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
 import org.jsoup.Jsoup
 import org.jsoup.nodes.Document
-import org.springframework.cache.annotation.Cacheable
 import org.springframework.stereotype.Service
 import org.springframework.web.reactive.function.client.WebClient
 import org.springframework.web.reactive.function.client.awaitBody
@@ -12,15 +14,26 @@ import java.util.logging.Logger
  * Service for fetching and extracting content from web URLs
  */
 @Service
-class WebContentFetcherService(private val webClient: WebClient) {
+class WebContentFetcherService(
+    private val webClient: WebClient,
+    private val coroutineCacheManager: CoroutineCacheManager
+) {
     private val logger = Logger.getLogger(WebContentFetcherService::class.java.name)
     
     /**
      * Fetch web content from a URL and extract the main text
      * Cached to improve performance for repeated requests
      */
-    @Cacheable(value = ["webContent"], key = "#url")
     suspend fun fetchAndExtractContent(url: String): WebContentResult {
+        return coroutineCacheManager.cached(CacheConfig.WEB_CONTENT, ContentFingerprint.ofUrl(url)) {
+            fetchAndExtract(url)
+        }
+    }
+    
+    /**
+     * Download the page and extract its title, main text, metadata and language
+     */
+    private suspend fun fetchAndExtract(url: String): WebContentResult {
         try {
             logger.info("Fetching content from URL: $url")
             
@@ -102,6 +115,11 @@ class WebContentFetcherService(private val webClient: WebClient) {
         for (selector in contentSelectors) {
             val element = document.select(selector).first()
             if (element != null && element.text().length > 200) {
+                // Keep paragraph breaks so long articles can be chunked at paragraph boundaries
+                val blocks = element.select("p, h1, h2, h3, h4, h5, h6")
+                if (blocks.text().length > 200) {
+                    return blocks.joinToString("\n\n") { it.text() }
+                }
                 return element.text()
             }
         }
@@ -0,0 +1,119 @@
+package com.satyacheck.backend.service
+
+import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import com.satyacheck.backend.config.CacheConfig
+import com.satyacheck.backend.model.dto.AnalysisRequest
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.ContentCategory
+import com.satyacheck.backend.model.dto.ExtractedTopic
+import com.satyacheck.backend.model.dto.FusedAnalysisResult
+import com.satyacheck.backend.model.enum.AnalysisExecutionMode
+import com.satyacheck.backend.model.enum.Verdict
+import com.satyacheck.backend.service.api.ContentCategorizationService
+import com.satyacheck.backend.service.api.GeminiService
+import com.satyacheck.backend.service.api.NaturalLanguageService
+import com.satyacheck.backend.service.cache.CacheRegistry
+import com.satyacheck.backend.service.cache.CacheSpec
+import com.satyacheck.backend.service.cache.CoroutineCacheManager
+import com.satyacheck.backend.service.cache.SerializedSizeWeigher
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.coEvery
+import io.mockk.coVerify
+import io.mockk.mockk
+import kotlinx.coroutines.awaitCancellation
+import kotlinx.coroutines.runBlocking
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.test.util.ReflectionTestUtils
+import java.time.Duration
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for the fused mode of EnhancedAnalysisServiceImpl
+ */
+class EnhancedAnalysisServiceImplTest {
+
+    private val content = "Free laptops for every student, register today"
+    private val language = "hi"
+
+    private lateinit var analysisService: AnalysisService
+    private lateinit var geminiService: GeminiService
+    private lateinit var categorizationService: ContentCategorizationService
+    private lateinit var cacheManager: CoroutineCacheManager
+    private lateinit var service: EnhancedAnalysisServiceImpl
+
+    @BeforeEach
+    fun setup() {
+        analysisService = mockk()
+        geminiService = mockk()
+        categorizationService = mockk()
+        val meterRegistry = SimpleMeterRegistry()
+        val registry = CacheRegistry(
+            listOf(
+                CacheSpec(
+                    name = CacheConfig.ENHANCED_ANALYSIS,
+                    ttl = Duration.ofMinutes(10),
+                    refreshAfterWrite = null,
+                    maxWeightBytes = 1_000_000
+                )
+            ),
+            SerializedSizeWeigher(jacksonObjectMapper()),
+            meterRegistry
+        )
+        cacheManager = CoroutineCacheManager(registry, null, meterRegistry)
+        service = EnhancedAnalysisServiceImpl(
+            analysisService,
+            geminiService,
+            categorizationService,
+            mockk<NaturalLanguageService>(),
+            cacheManager,
+            meterRegistry
+        )
+        ReflectionTestUtils.setField(service, "fusedHeadStartMs", 100L)
+
+        coEvery { categorizationService.categorizeContent(content, language) } returns CATEGORY
+        coEvery { categorizationService.extractTopics(content, language) } returns TOPICS
+    }
+
+    @AfterEach
+    fun tearDown() {
+        cacheManager.shutdown()
+    }
+
+    @Test
+    fun `a fused verdict is recorded through the analysis service`() = runBlocking {
+        val fusedVerdict = AnalysisResult(Verdict.SCAM_ALERT, "Classic registration scam")
+        coEvery { geminiService.analyzeContentFused(content, language) } returns FusedAnalysisResult(fusedVerdict, CATEGORY, TOPICS)
+        coEvery { analysisService.analyzeText(AnalysisRequest(content = content, language = language), any()) } coAnswers {
+            secondArg<suspend () -> AnalysisResult>().invoke()
+        }
+
+        val result = service.analyzeComprehensively(content, language, AnalysisExecutionMode.FUSED)
+
+        assertEquals(fusedVerdict, result.factCheckResult)
+        assertEquals(true, result.additionalContext["fused"])
+        coVerify(exactly = 0) { analysisService.analyzeText(any()) }
+        coVerify(exactly = 0) { categorizationService.categorizeContent(any(), any()) }
+    }
+
+    @Test
+    fun `a slow fused call is raced by the separate calls`() = runBlocking {
+        val separateVerdict = AnalysisResult(Verdict.CREDIBLE, "Matches the official scheme")
+        coEvery { geminiService.analyzeContentFused(content, language) } coAnswers { awaitCancellation() }
+        coEvery { analysisService.analyzeText(AnalysisRequest(content = content, language = language)) } returns separateVerdict
+
+        val result = service.analyzeComprehensively(content, language, AnalysisExecutionMode.FUSED)
+
+        assertEquals(separateVerdict, result.factCheckResult)
+        assertEquals(false, result.additionalContext["fused"])
+        assertEquals(CATEGORY, result.contentCategory)
+        assertTrue(result.missingComponents.isEmpty())
+    }
+
+    companion object {
+        private val CATEGORY = ContentCategory("Education", emptyList(), 0.9, emptyList())
+        private val TOPICS = listOf(ExtractedTopic("laptop scheme", 0.8))
+    }
+}
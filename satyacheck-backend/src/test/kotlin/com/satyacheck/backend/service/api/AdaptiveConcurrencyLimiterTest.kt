@@ -0,0 +1,84 @@
+package com.satyacheck.backend.service.api
+
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.async
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.yield
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    fun `overload shrinks the limit and successes grow it back`() = runBlocking {
+        val limiter = AdaptiveConcurrencyLimiter(initialLimit = 10, minLimit = 1, maxLimit = 20, maxQueueDepth = 10)
+
+        limiter.acquire()
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.OVERLOADED)
+        assertEquals(7, limiter.getLimit())
+
+        repeat(20) {
+            limiter.acquire()
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS)
+        }
+        assertTrue(limiter.getLimit() in 8..10)
+        assertEquals(0, limiter.getInFlight())
+    }
+
+    @Test
+    fun `limit never drops below the minimum`() = runBlocking {
+        val limiter = AdaptiveConcurrencyLimiter(initialLimit = 2, minLimit = 1, maxLimit = 4, maxQueueDepth = 1)
+
+        repeat(10) {
+            limiter.acquire()
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.OVERLOADED)
+        }
+
+        assertEquals(1, limiter.getLimit())
+    }
+
+    @Test
+    fun `waiting callers get slots in order as they are released`() = runBlocking {
+        val limiter = AdaptiveConcurrencyLimiter(initialLimit = 1, minLimit = 1, maxLimit = 1, maxQueueDepth = 2)
+        limiter.acquire()
+
+        val waiter = async(start = CoroutineStart.UNDISPATCHED) { limiter.acquire(maxWaitMillis = 5_000) }
+        assertEquals(1, limiter.getQueueDepth())
+
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED)
+        waiter.await()
+
+        assertEquals(0, limiter.getQueueDepth())
+        assertEquals(1, limiter.getInFlight())
+    }
+
+    @Test
+    fun `full queue rejects immediately`() = runBlocking {
+        val limiter = AdaptiveConcurrencyLimiter(initialLimit = 1, minLimit = 1, maxLimit = 1, maxQueueDepth = 1)
+        limiter.acquire()
+        val queued = async(start = CoroutineStart.UNDISPATCHED) { limiter.acquire() }
+
+        val rejection = assertThrows<LimiterRejectedException> { runBlocking { limiter.acquire() } }
+
+        assertEquals(LimiterRejectedException.Reason.QUEUE_FULL, rejection.reason)
+        queued.cancel()
+        yield()
+    }
+
+    @Test
+    fun `missed deadline rejects and leaves the queue`() = runBlocking {
+        val limiter = AdaptiveConcurrencyLimiter(initialLimit = 1, minLimit = 1, maxLimit = 1, maxQueueDepth = 1)
+        limiter.acquire()
+
+        val rejection = assertThrows<LimiterRejectedException> { runBlocking { limiter.acquire(maxWaitMillis = 20) } }
+
+        assertEquals(LimiterRejectedException.Reason.DEADLINE, rejection.reason)
+        assertEquals(0, limiter.getQueueDepth())
+        assertEquals(1, limiter.getInFlight())
+    }
+}
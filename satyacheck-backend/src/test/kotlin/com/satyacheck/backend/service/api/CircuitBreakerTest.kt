@@ -0,0 +1,121 @@
+package com.satyacheck.backend.service.api
+
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for CircuitBreaker
+ */
+class CircuitBreakerTest {
+
+    private var now = 0L
+
+    private fun breaker() = CircuitBreaker(
+        windowSize = 10,
+        minCalls = 4,
+        failureRateThreshold = 0.5,
+        openDurationMs = 1000,
+        halfOpenSuccesses = 4,
+        nanoTime = { now }
+    )
+
+    private fun advanceMs(ms: Long) {
+        now += ms * 1_000_000
+    }
+
+    private fun CircuitBreaker.fail() = onFailure(tryAcquire()!!)
+
+    private fun CircuitBreaker.succeed() = onSuccess(tryAcquire()!!)
+
+    @Test
+    fun `opens once the failure rate reaches the threshold`() {
+        val breaker = breaker()
+
+        breaker.succeed()
+        breaker.succeed()
+        breaker.fail()
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState())
+
+        breaker.fail()
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState())
+        assertNull(breaker.tryAcquire())
+        assertFalse(breaker.isCallPermitted())
+    }
+
+    @Test
+    fun `does not open before the minimum number of calls`() {
+        val breaker = breaker()
+
+        repeat(3) { breaker.fail() }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState())
+    }
+
+    @Test
+    fun `old outcomes leave the window`() {
+        val breaker = breaker()
+
+        repeat(3) { breaker.fail() }
+        repeat(30) { breaker.succeed() }
+        repeat(4) { breaker.fail() }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState())
+        breaker.fail()
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState())
+    }
+
+    @Test
+    fun `half-open probes ramp up and close the breaker`() {
+        val breaker = breaker()
+        repeat(4) { breaker.fail() }
+
+        advanceMs(1000)
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState())
+
+        val first = assertNotNull(breaker.tryAcquire())
+        assertNull(breaker.tryAcquire())
+        breaker.onSuccess(first)
+
+        // Two concurrent probes after one success, then four
+        val second = listOf(breaker.tryAcquire(), breaker.tryAcquire())
+        assertNull(breaker.tryAcquire())
+        second.forEach { breaker.onSuccess(it!!) }
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState())
+
+        breaker.onSuccess(breaker.tryAcquire()!!)
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState())
+        assertTrue(breaker.isCallPermitted())
+    }
+
+    @Test
+    fun `a failed probe reopens the breaker`() {
+        val breaker = breaker()
+        repeat(4) { breaker.fail() }
+        advanceMs(1000)
+
+        breaker.fail()
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState())
+        advanceMs(999)
+        assertNull(breaker.tryAcquire())
+    }
+
+    @Test
+    fun `outcomes of calls admitted before a state change are ignored`() {
+        val breaker = breaker()
+        val slow = breaker.tryAcquire()!!
+        repeat(4) { breaker.fail() }
+        advanceMs(1000)
+        val probe = breaker.tryAcquire()!!
+
+        breaker.onFailure(slow)
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState())
+
+        breaker.onIgnored(probe)
+        assertTrue(breaker.isCallPermitted())
+    }
+}
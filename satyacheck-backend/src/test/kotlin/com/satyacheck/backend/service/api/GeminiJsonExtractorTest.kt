@@ -0,0 +1,48 @@
+package com.satyacheck.backend.service.api
+
+import com.fasterxml.jackson.core.type.TypeReference
+import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+/**
+ * Unit tests for GeminiJsonExtractor
+ */
+class GeminiJsonExtractorTest {
+
+    private val extractor = GeminiJsonExtractor(jacksonObjectMapper())
+
+    @Test
+    fun `object inside a code fence is bound directly`() {
+        val text = "```json\n{\"verdict\": \"SCAM_ALERT\", \"explanation\": \"Asks for an OTP {urgently}\"}\n```"
+
+        val output = extractor.extractObject(text, object : TypeReference<FactCheckOutput>() {})
+
+        assertEquals(FactCheckOutput("SCAM_ALERT", "Asks for an OTP {urgently}"), output)
+    }
+
+    @Test
+    fun `braces in leading prose are skipped`() {
+        val text = "Here is the {analysis} you asked for: {\"primaryCategory\": \"HEALTH\", \"confidence\": 0.8}"
+
+        val output = extractor.extractObject(text, object : TypeReference<CategoryOutput>() {})
+
+        assertEquals("HEALTH", output?.primaryCategory)
+        assertEquals(0.8, output?.confidence)
+    }
+
+    @Test
+    fun `arrays are bound and trailing text is ignored`() {
+        val text = "[{\"topic\": \"Elections\", \"relevance\": 0.9}] Let me know if you need more."
+
+        val topics = extractor.extractArray(text, object : TypeReference<List<TopicOutput>>() {})
+
+        assertEquals(listOf("Elections"), topics?.map { it.topic })
+    }
+
+    @Test
+    fun `text without json yields null`() {
+        assertNull(extractor.extractObject("verdict: CREDIBLE", object : TypeReference<FactCheckOutput>() {}))
+    }
+}
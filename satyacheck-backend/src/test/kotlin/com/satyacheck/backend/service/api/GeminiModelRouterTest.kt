@@ -0,0 +1,125 @@
+package com.satyacheck.backend.service.api
+
+import com.satyacheck.backend.model.enum.Verdict
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.runBlocking
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.http.HttpHeaders
+import org.springframework.mock.env.MockEnvironment
+import org.springframework.web.reactive.function.client.WebClientResponseException
+import kotlin.test.assertEquals
+import kotlin.test.assertFails
+import kotlin.test.assertSame
+
+/**
+ * Unit tests for GeminiModelRouter
+ */
+class GeminiModelRouterTest {
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+    private lateinit var router: GeminiModelRouter
+
+    @BeforeEach
+    fun setup() {
+        meterRegistry = SimpleMeterRegistry()
+        val environment = MockEnvironment().withProperty("gemini.routing.threshold.analyzeContent", "0.8")
+        router = GeminiModelRouter(
+            environment,
+            meterRegistry,
+            enabled = true,
+            operations = setOf("analyzeContent", "analyzeContentFused"),
+            triageModel = "small",
+            escalationModel = "large",
+            defaultThreshold = 0.6
+        )
+    }
+
+    private fun route(operation: String, answers: Map<String?, Pair<Verdict?, Double?>>): List<String?> = runBlocking {
+        val models = mutableListOf<String?>()
+        router.route(
+            operation,
+            call = { model -> models += model; answers.getValue(model) },
+            verdictOf = { it.first },
+            confidenceOf = { it.second }
+        )
+        models
+    }
+
+    @Test
+    fun `confident triage answers are kept`() {
+        val models = route("analyzeContent", mapOf("small" to Pair(Verdict.CREDIBLE, 0.9)))
+
+        assertEquals(listOf<String?>("small"), models)
+        assertEquals(1.0, meterRegistry.counter("satyacheck.gemini.routing", "operation", "analyzeContent", "escalated", "false", "reason", "none").count())
+    }
+
+    @Test
+    fun `thresholds are per operation`() {
+        val answers: Map<String?, Pair<Verdict?, Double?>> =
+            mapOf("small" to Pair(Verdict.CREDIBLE, 0.7), "large" to Pair(Verdict.CREDIBLE, 0.95))
+
+        assertEquals(listOf<String?>("small", "large"), route("analyzeContent", answers))
+        assertEquals(listOf<String?>("small"), route("analyzeContentFused", answers))
+    }
+
+    @Test
+    fun `high-stakes verdicts and failures are escalated`() {
+        assertEquals(GeminiModelRouter.REASON_VERDICT, router.escalationReason("analyzeContent", Verdict.SCAM_ALERT, 0.99))
+        assertEquals(GeminiModelRouter.REASON_VERDICT, router.escalationReason("analyzeContent", Verdict.HIGH_MISINFORMATION_RISK, 0.99))
+        assertEquals(GeminiModelRouter.REASON_FAILURE, router.escalationReason("analyzeContent", null, 0.99))
+        assertEquals(GeminiModelRouter.REASON_FAILURE, router.escalationReason("analyzeContent", Verdict.ERROR, 0.99))
+        assertEquals(GeminiModelRouter.REASON_CONFIDENCE, router.escalationReason("analyzeContent", Verdict.CREDIBLE, null))
+    }
+
+    @Test
+    fun `a failed triage call is escalated`() = runBlocking {
+        val models = mutableListOf<String?>()
+
+        val verdict = router.route(
+            "analyzeContent",
+            call = { model ->
+                models += model
+                if (model == "small") throw IllegalStateException("model unavailable")
+                Verdict.CREDIBLE
+            },
+            verdictOf = { it },
+            confidenceOf = { 0.9 }
+        )
+
+        assertEquals(Verdict.CREDIBLE, verdict)
+        assertEquals(listOf<String?>("small", "large"), models)
+    }
+
+    @Test
+    fun `overload and cancellation are not escalated`() = runBlocking {
+        val failures = listOf(
+            LimiterRejectedException(LimiterRejectedException.Reason.QUEUE_FULL),
+            GeminiUnavailableException(),
+            WebClientResponseException.create(429, "Too Many Requests", HttpHeaders.EMPTY, ByteArray(0), null),
+            CancellationException("caller gone")
+        )
+
+        failures.forEach { failure ->
+            val models = mutableListOf<String?>()
+            val thrown = assertFails {
+                router.route(
+                    "analyzeContent",
+                    call = { model -> models += model; throw failure },
+                    verdictOf = { _: Verdict -> Verdict.CREDIBLE },
+                    confidenceOf = { 0.9 }
+                )
+            }
+            assertSame(failure, thrown)
+            assertEquals(listOf<String?>("small"), models)
+        }
+    }
+
+    @Test
+    fun `operations that are not routed use the default model`() {
+        val models = route("extractTopics", mapOf(null to Pair(Verdict.CREDIBLE, 0.1)))
+
+        assertEquals(listOf<String?>(null), models)
+    }
+}
@@ -0,0 +1,99 @@
+package com.satyacheck.backend.service.api
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import kotlinx.coroutines.CoroutineName
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for GeminiRequestCoalescer
+ */
+class GeminiRequestCoalescerTest {
+    
+    private lateinit var meterRegistry: SimpleMeterRegistry
+    private lateinit var coalescer: GeminiRequestCoalescer
+    
+    @BeforeEach
+    fun setup() {
+        meterRegistry = SimpleMeterRegistry()
+        coalescer = GeminiRequestCoalescer(meterRegistry)
+    }
+    
+    @AfterEach
+    fun tearDown() {
+        coalescer.shutdown()
+    }
+    
+    @Test
+    fun `concurrent identical calls share a single invocation`() = runBlocking {
+        val invocations = AtomicInteger(0)
+        
+        val results = (1..20).map {
+            async {
+                coalescer.coalesce("analyzeContent", "Forwarded as received: free gold!", "en") {
+                    invocations.incrementAndGet()
+                    delay(200)
+                    "SCAM_ALERT"
+                }
+            }
+        }.awaitAll()
+        
+        assertEquals(1, invocations.get())
+        assertTrue(results.all { it == "SCAM_ALERT" })
+        assertEquals(1.0, meterRegistry.counter("satyacheck.gemini.coalescing.calls",
+            "operation", "analyzeContent", "outcome", "originated").count())
+        assertEquals(19.0, meterRegistry.counter("satyacheck.gemini.coalescing.calls",
+            "operation", "analyzeContent", "outcome", "coalesced").count())
+        assertEquals(0, coalescer.inFlightCount())
+    }
+    
+    @Test
+    fun `different language or operation does not coalesce`() = runBlocking {
+        val invocations = AtomicInteger(0)
+        val block: suspend () -> String = {
+            invocations.incrementAndGet()
+            delay(100)
+            "ok"
+        }
+        
+        listOf(
+            async { coalescer.coalesce("analyzeContent", "same text", "en", block) },
+            async { coalescer.coalesce("analyzeContent", "same text", "hi", block) },
+            async { coalescer.coalesce("extractTopics", "same text", "en", block) }
+        ).awaitAll()
+        
+        assertEquals(3, invocations.get())
+    }
+    
+    @Test
+    fun `sequential calls are not served from a completed flight`() = runBlocking {
+        val invocations = AtomicInteger(0)
+        
+        repeat(3) {
+            coalescer.coalesce("analyzeContent", "text", "en") { invocations.incrementAndGet() }
+        }
+        
+        assertEquals(3, invocations.get())
+    }
+    
+    @Test
+    fun `the shared call runs in the originating caller's context`() = runBlocking {
+        val name = withContext(CoroutineName("request-42")) {
+            coalescer.coalesce("analyzeContent", "text", "en") {
+                currentCoroutineContext()[CoroutineName]?.name
+            }
+        }
+        
+        assertEquals("request-42", name)
+    }
+}
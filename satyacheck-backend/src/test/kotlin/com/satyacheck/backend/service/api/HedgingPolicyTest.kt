@@ -0,0 +1,81 @@
+package com.satyacheck.backend.service.api
+
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for HedgingPolicy
+ */
+class HedgingPolicyTest {
+
+    private fun policy(budgetPercent: Double = 5.0, windowSize: Int = 512) = HedgingPolicy(
+        percentile = 0.9,
+        budgetPercent = budgetPercent,
+        minSamples = 10,
+        minDelayMs = 100,
+        maxDelayMs = 5000,
+        windowSize = windowSize
+    )
+
+    @Test
+    fun `no hedge delay until enough latencies are recorded`() {
+        val policy = policy()
+
+        repeat(9) { policy.recordLatency(1000) }
+        assertNull(policy.hedgeDelayMs())
+
+        policy.recordLatency(1000)
+        assertEquals(1000, policy.hedgeDelayMs())
+    }
+
+    @Test
+    fun `hedge delay is the percentile of recent latencies`() {
+        val policy = policy()
+
+        (1..100).forEach { policy.recordLatency(it * 10L) }
+
+        assertEquals(900, policy.hedgeDelayMs())
+    }
+
+    @Test
+    fun `hedge delay is clamped and follows the rolling window`() {
+        val policy = policy(windowSize = 20)
+
+        repeat(20) { policy.recordLatency(20_000) }
+        assertEquals(5000, policy.hedgeDelayMs())
+
+        repeat(20) { policy.recordLatency(10) }
+        assertEquals(100, policy.hedgeDelayMs())
+    }
+
+    @Test
+    fun `hedges are limited to the budget share of requests`() {
+        val policy = policy(budgetPercent = 25.0)
+
+        var hedges = 0
+        repeat(1000) {
+            policy.recordRequest()
+            if (policy.tryAcquireHedge()) hedges++
+        }
+
+        assertEquals(250, hedges)
+    }
+
+    @Test
+    fun `unused budget only accumulates up to the burst limit`() {
+        val policy = policy(budgetPercent = 50.0)
+
+        repeat(1000) { policy.recordRequest() }
+
+        var hedges = 0
+        while (policy.tryAcquireHedge()) hedges++
+        assertEquals(10, hedges)
+        assertFalse(policy.tryAcquireHedge())
+        policy.recordRequest()
+        policy.recordRequest()
+        assertTrue(policy.tryAcquireHedge())
+    }
+}
@@ -0,0 +1,76 @@
+package com.satyacheck.backend.service.api
+
+import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for ResponseSchema and the schemas in GeminiOutputSchemas
+ */
+class ResponseSchemaTest {
+
+    private val objectMapper = jacksonObjectMapper()
+
+    @Test
+    @Suppress("UNCHECKED_CAST")
+    fun `fact-check schema is derived from AnalysisResult`() {
+        val definition = GeminiOutputSchemas.FACT_CHECK.definition
+        val properties = definition["properties"] as Map<String, Map<String, Any>>
+
+        assertEquals("OBJECT", definition["type"])
+        assertEquals(listOf("verdict", "explanation", "verdictConfidence"), definition["propertyOrdering"])
+        assertEquals(listOf("verdict", "explanation", "verdictConfidence"), definition["required"])
+        assertEquals(GeminiOutputSchemas.VERDICTS, properties.getValue("verdict")["enum"])
+        assertTrue("ERROR" !in GeminiOutputSchemas.VERDICTS)
+    }
+
+    @Test
+    @Suppress("UNCHECKED_CAST")
+    fun `nullable and defaulted parameters are optional`() {
+        val misinformation = GeminiOutputSchemas.MISINFORMATION.definition
+        val topics = GeminiOutputSchemas.TOPICS.definition
+
+        assertEquals(listOf("isLikelyMisinformation", "confidenceScore"), misinformation["required"])
+        val riskLevel = (misinformation["properties"] as Map<String, Map<String, Any>>).getValue("riskLevel")
+        assertEquals(true, riskLevel["nullable"])
+        assertEquals("ARRAY", topics["type"])
+        assertEquals(listOf("topic", "relevance"), (topics["items"] as Map<String, Any>)["required"])
+    }
+
+    @Test
+    fun `valid output has no problems`() {
+        val node = objectMapper.readTree("""{"verdict": "SCAM_ALERT", "explanation": "Asks for an OTP", "verdictConfidence": 0.9}""")
+
+        assertEquals(emptyList(), GeminiOutputSchemas.FACT_CHECK.validate(node))
+    }
+
+    @Test
+    fun `missing fields, wrong types and unknown enum values are reported`() {
+        val node = objectMapper.readTree("""{"verdict": "FALSE", "confidence": "high"}""")
+
+        val problems = (GeminiOutputSchemas.FACT_CHECK + GeminiOutputSchemas.CATEGORY).validate(node)
+
+        assertTrue("$.explanation is missing" in problems)
+        assertTrue("$.primaryCategory is missing" in problems)
+        assertTrue("$.confidence is not a number" in problems)
+        assertTrue(problems.any { it.startsWith("$.verdict is 'FALSE'") })
+    }
+
+    @Test
+    fun `array items are validated with their index`() {
+        val node = objectMapper.readTree("""[{"topic": "Elections", "relevance": 0.9}, {"topic": "Voting"}]""")
+
+        assertEquals(listOf("$[1].relevance is missing"), GeminiOutputSchemas.TOPICS.validate(node))
+    }
+
+    @Test
+    fun `fused schema requires the verdict, category and topics`() {
+        val node = objectMapper.readTree("""{"verdict": "CREDIBLE", "explanation": "ok"}""")
+
+        val problems = GeminiOutputSchemas.FUSED.validate(node)
+
+        assertTrue("$.topics is missing" in problems)
+        assertTrue("$.tags is missing" in problems)
+    }
+}
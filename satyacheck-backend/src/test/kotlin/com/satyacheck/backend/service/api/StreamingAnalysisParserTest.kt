@@ -0,0 +1,64 @@
+package com.satyacheck.backend.service.api
+
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for StreamingAnalysisParser
+ */
+class StreamingAnalysisParserTest {
+
+    @Test
+    fun `verdict is reported as soon as its string closes`() {
+        val parser = StreamingAnalysisParser()
+
+        assertNull(parser.feed("```json\n{\"verdict\": \"SCAM_AL").verdict)
+        val update = parser.feed("ERT\", \"explanation\": \"The link")
+
+        assertEquals("SCAM_ALERT", update.verdict)
+        assertEquals("The link", update.explanation)
+        assertNull(parser.feed(" asks for").verdict)
+    }
+
+    @Test
+    fun `explanation is decoded across fragment boundaries`() {
+        val parser = StreamingAnalysisParser()
+        val fragments = listOf(
+            "{\"verdict\":\"CREDIBLE\",\"explanation\":\"Line one\\",
+            "nLine \\\"two\\\" \\u00",
+            "e9t\\u00E9\"}",
+            "\n```"
+        )
+
+        val streamed = fragments.joinToString("") { parser.feed(it).explanation }
+
+        assertEquals("Line one\nLine \"two\" \u00e9t\u00e9", streamed)
+        assertEquals(streamed, parser.explanation)
+        assertTrue(parser.isComplete)
+    }
+
+    @Test
+    fun `other fields are skipped whatever their type`() {
+        val parser = StreamingAnalysisParser()
+
+        parser.feed("{\"confidence\": 0.9, \"sources\": [{\"url\": \"a}\\\"b\"}], ")
+        parser.feed("\"verdict\": \"POTENTIALLY_MISLEADING\", \"explanation\": \"Missing context\"}")
+
+        assertEquals("POTENTIALLY_MISLEADING", parser.verdict)
+        assertEquals("Missing context", parser.explanation)
+    }
+
+    @Test
+    fun `text without an object yields nothing`() {
+        val parser = StreamingAnalysisParser()
+
+        val update = parser.feed("I cannot analyze this content.")
+
+        assertNull(update.verdict)
+        assertEquals("", parser.explanation)
+        assertFalse(parser.isComplete)
+    }
+}
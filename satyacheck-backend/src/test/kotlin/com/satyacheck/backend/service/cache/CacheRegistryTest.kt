@@ -0,0 +1,67 @@
+package com.satyacheck.backend.service.cache
+
+import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.junit.jupiter.api.Test
+import org.springframework.mock.env.MockEnvironment
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for CacheSpec and CacheRegistry
+ */
+class CacheRegistryTest {
+
+    @Test
+    fun `spec reads per-cache properties and falls back to defaults`() {
+        val environment = MockEnvironment()
+            .withProperty("cache.default.ttl", "300")
+            .withProperty("cache.default.max-bytes", "1000")
+            .withProperty("cache.ttl.translations", "604800")
+            .withProperty("cache.refresh.translations", "86400")
+            .withProperty("cache.max-bytes.translations", "5000")
+
+        val translations = CacheSpec.fromEnvironment("translations", environment)
+        val other = CacheSpec.fromEnvironment("webContent", environment)
+
+        assertEquals(Duration.ofDays(7), translations.ttl)
+        assertEquals(Duration.ofDays(1), translations.refreshAfterWrite)
+        assertEquals(5000L, translations.maxWeightBytes)
+        assertEquals(Duration.ofMinutes(5), other.ttl)
+        assertNull(other.refreshAfterWrite)
+        assertEquals(1000L, other.maxWeightBytes)
+    }
+
+    @Test
+    fun `refresh at or beyond the ttl is ignored`() {
+        val environment = MockEnvironment()
+            .withProperty("cache.ttl.translations", "60")
+            .withProperty("cache.refresh.translations", "60")
+
+        assertNull(CacheSpec.fromEnvironment("translations", environment).refreshAfterWrite)
+    }
+
+    @Test
+    fun `entries are weighed by serialized size and exported`() {
+        val meterRegistry = SimpleMeterRegistry()
+        val registry = CacheRegistry(
+            listOf(CacheSpec("webContent", Duration.ofMinutes(10), null, 1_000_000)),
+            SerializedSizeWeigher(jacksonObjectMapper()),
+            meterRegistry
+        )
+        val cache = assertNotNull(registry.getCache("webContent"))
+
+        cache.put("small", CompletableFuture.completedFuture("x"))
+        cache.put("large", CompletableFuture.completedFuture("x".repeat(50_000)))
+        cache.synchronous().cleanUp()
+
+        val weight = registry.weightedSize("webContent")
+        assertTrue(weight > 50_000, "Expected the large page to dominate the weight but was $weight")
+        assertEquals(weight.toDouble(), meterRegistry.get("satyacheck.cache.weight").tag("cache", "webContent").gauge().value())
+        assertEquals(2.0, meterRegistry.get("cache.size").tag("cache", "webContent").gauge().value())
+    }
+}
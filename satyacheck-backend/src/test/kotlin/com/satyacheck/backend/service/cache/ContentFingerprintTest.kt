@@ -0,0 +1,75 @@
+package com.satyacheck.backend.service.cache
+
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotEquals
+
+/**
+ * Unit tests for ContentNormalizer and ContentFingerprint
+ */
+class ContentFingerprintTest {
+
+    @Test
+    fun `normalization collapses whitespace, zero-width characters and Latin case`() {
+        val normalized = ContentNormalizer.normalize("  Free\u200B  LAPTOPS\n\nfor   Students ")
+
+        assertEquals("free laptops for students", normalized)
+    }
+
+    @Test
+    fun `composed and decomposed forms normalize to the same text`() {
+        assertEquals(
+            ContentNormalizer.normalize("Caf\u00E9 ouvert"),
+            ContentNormalizer.normalize("Cafe\u0301 ouvert")
+        )
+    }
+
+    @Test
+    fun `non-Latin scripts keep their case`() {
+        assertEquals("Ελλάδα хорошо", ContentNormalizer.normalize("Ελλάδα хорошо"))
+        assertEquals("सरकार मुफ्त लैपटॉप", ContentNormalizer.normalize("सरकार  मुफ्त लैपटॉप"))
+    }
+
+    @Test
+    fun `tracking parameters are removed from URLs in text`() {
+        val normalized = ContentNormalizer.normalize(
+            "Read https://news.example.com/story?id=42&utm_source=whatsapp&fbclid=abc now"
+        )
+
+        assertEquals("read https://news.example.com/story?id=42 now", normalized)
+    }
+
+    @Test
+    fun `URLs in text keep the case of their path and query`() {
+        val upper = ContentNormalizer.normalize("CHECK Bit.ly/AbC and HTTPS://Example.COM/Page?Id=X")
+        val lower = ContentNormalizer.normalize("check bit.ly/abc and https://example.com/page?id=x")
+
+        assertEquals("check bit.ly/AbC and https://example.com/Page?Id=X", upper)
+        assertNotEquals(upper, lower)
+    }
+
+    @Test
+    fun `URL keys only fold the scheme and host`() {
+        assertEquals(
+            "https://example.com/Path/Page?ref=Home",
+            ContentNormalizer.normalizeUrl("HTTPS://Example.COM/Path/Page?ref=Home&utm_medium=social")
+        )
+    }
+
+    @Test
+    fun `fingerprint is stable across variants and distinguishes qualifiers`() {
+        val base = ContentFingerprint.of("Free laptops for students", "en")
+
+        assertEquals(base, ContentFingerprint.of("  free\u200B laptops  for STUDENTS", "en"))
+        assertNotEquals(base, ContentFingerprint.of("Free laptops for students", "hi"))
+        assertNotEquals(base, ContentFingerprint.of("Free laptops for students", "en", "misinformation"))
+    }
+
+    @Test
+    fun `hex form round trips`() {
+        val fingerprint = ContentFingerprint.of("Free laptops for students", "en")
+
+        assertEquals(32, fingerprint.toHex().length)
+        assertEquals(fingerprint, ContentFingerprint.fromHex(fingerprint.toHex()))
+    }
+}
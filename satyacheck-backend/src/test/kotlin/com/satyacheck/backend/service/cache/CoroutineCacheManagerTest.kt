@@ -0,0 +1,136 @@
+package com.satyacheck.backend.service.cache
+
+import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import com.github.benmanes.caffeine.cache.Ticker
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.enum.Verdict
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for CoroutineCacheManager
+ */
+class CoroutineCacheManagerTest {
+
+    private val now = AtomicLong(0)
+    private val ticker = Ticker { now.get() }
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+    private lateinit var cacheManager: CoroutineCacheManager
+
+    @BeforeEach
+    fun setup() {
+        meterRegistry = SimpleMeterRegistry()
+        val registry = CacheRegistry(
+            listOf(
+                CacheSpec(
+                    name = "analysisResults",
+                    ttl = Duration.ofMinutes(10),
+                    refreshAfterWrite = null,
+                    maxWeightBytes = 1_000_000,
+                    staleGrace = Duration.ofMinutes(5)
+                )
+            ),
+            SerializedSizeWeigher(jacksonObjectMapper()),
+            meterRegistry,
+            ticker
+        )
+        cacheManager = CoroutineCacheManager(registry, null, meterRegistry, hotKeySampleRate = 1.0)
+    }
+
+    @AfterEach
+    fun tearDown() {
+        cacheManager.shutdown()
+    }
+
+    @Test
+    fun `fresh hits do not reload`() = runBlocking {
+        val loads = AtomicInteger(0)
+        val loader: suspend () -> AnalysisResult = {
+            loads.incrementAndGet()
+            AnalysisResult(Verdict.CREDIBLE, "ok")
+        }
+
+        cacheManager.cached("analysisResults", "key", loader = loader)
+        val second = cacheManager.cached("analysisResults", "key", loader = loader)
+
+        assertEquals(1, loads.get())
+        assertFalse(second.stale)
+        assertEquals(0.5, cacheManager.hitRatio("analysisResults", CoroutineCacheManager.TIER_L1))
+    }
+
+    @Test
+    fun `expired entry within grace is served stale while one refresh runs`() = runBlocking {
+        cacheManager.cached("analysisResults", "key") { AnalysisResult(Verdict.SCAM_ALERT, "old") }
+        now.addAndGet(Duration.ofMinutes(12).toNanos())
+
+        val refreshes = AtomicInteger(0)
+        val release = CompletableDeferred<Unit>()
+        val loader: suspend () -> AnalysisResult = {
+            refreshes.incrementAndGet()
+            release.await()
+            AnalysisResult(Verdict.CREDIBLE, "new")
+        }
+
+        val first = cacheManager.cached("analysisResults", "key", loader = loader)
+        val second = cacheManager.cached("analysisResults", "key", loader = loader)
+
+        assertTrue(first.stale)
+        assertEquals("old", first.explanation)
+        assertTrue(second.stale)
+        // The refresh is launched in the background and may not have started yet
+        withTimeout(5_000) {
+            while (refreshes.get() == 0) {
+                delay(10)
+            }
+        }
+        assertEquals(1, refreshes.get())
+
+        release.complete(Unit)
+        withTimeout(5_000) {
+            while (cacheManager.cached("analysisResults", "key", loader = loader).explanation != "new") {
+                delay(10)
+            }
+        }
+        assertFalse(cacheManager.cached("analysisResults", "key", loader = loader).stale)
+        assertEquals(1, refreshes.get())
+    }
+
+    @Test
+    fun `values rejected by cacheIf are returned but not kept`() = runBlocking {
+        val loads = AtomicInteger(0)
+        val loader: suspend () -> AnalysisResult = {
+            loads.incrementAndGet()
+            AnalysisResult(Verdict.UNKNOWN, "Gemini unavailable")
+        }
+
+        val first = cacheManager.cached("analysisResults", "key", cacheIf = { !it.verdict.isFailure() }, loader = loader)
+        cacheManager.cached("analysisResults", "key", cacheIf = { !it.verdict.isFailure() }, loader = loader)
+
+        assertEquals(Verdict.UNKNOWN, first.verdict)
+        assertEquals(2, loads.get())
+    }
+
+    @Test
+    fun `entries past the grace window are loaded again`() = runBlocking {
+        cacheManager.cached("analysisResults", "key") { AnalysisResult(Verdict.SCAM_ALERT, "old") }
+        now.addAndGet(Duration.ofMinutes(16).toNanos())
+
+        val result = cacheManager.cached("analysisResults", "key") { AnalysisResult(Verdict.CREDIBLE, "new") }
+
+        assertEquals("new", result.explanation)
+        assertFalse(result.stale)
+    }
+}
@@ -0,0 +1,36 @@
+package com.satyacheck.backend.service.cache
+
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for HotKeySampler
+ */
+class HotKeySamplerTest {
+
+    @Test
+    fun `hottest keys come first with their previews`() {
+        val sampler = HotKeySampler(sampleRate = 1.0, capacity = 100)
+
+        repeat(5) { sampler.sample("viral") { "Free laptops for students" } }
+        repeat(2) { sampler.sample("warm") { "Bank KYC expiry" } }
+        sampler.sample("cold") { "Weather update" }
+
+        val top = sampler.top(2)
+
+        assertEquals(listOf("viral", "warm"), top.map { it.key })
+        assertEquals(5L, top[0].sampledLookups)
+        assertEquals(5L, top[0].estimatedLookups)
+        assertEquals("Free laptops for students", top[0].preview)
+    }
+
+    @Test
+    fun `disabled sampling records nothing`() {
+        val sampler = HotKeySampler(sampleRate = 0.0, capacity = 100)
+
+        repeat(10) { sampler.sample("viral") { "Free laptops for students" } }
+
+        assertTrue(sampler.top(10).isEmpty())
+    }
+}
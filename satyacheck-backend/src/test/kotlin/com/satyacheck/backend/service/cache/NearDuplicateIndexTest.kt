@@ -0,0 +1,105 @@
+package com.satyacheck.backend.service.cache
+
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.enum.Verdict
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for SimHash and NearDuplicateIndex
+ */
+class NearDuplicateIndexTest {
+
+    private val original = """
+        Government is giving free laptops to all students this month. Register now with your
+        Aadhaar number by calling 9876543210 before the offer ends on Friday.
+    """.trimIndent()
+
+    private val forwardedVariant = """
+        Forwarded as received 📢📢
+
+        Government is giving FREE laptops to all students this month!!! 🎓
+        Register now with your Aadhaar number by calling 9123456789 before the offer ends on Friday.
+    """.trimIndent()
+
+    private val unrelated = """
+        The city council approved the new budget for road repairs and public parks after a
+        long debate on Tuesday evening, officials said in a statement.
+    """.trimIndent()
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+    private lateinit var index: NearDuplicateIndex
+
+    @BeforeEach
+    fun setup() {
+        meterRegistry = SimpleMeterRegistry()
+        index = NearDuplicateIndex(
+            enabled = true,
+            maxDistance = 3,
+            minTokens = 8,
+            maxEntries = 1000,
+            ttlSeconds = 3600,
+            meterRegistry = meterRegistry
+        )
+    }
+
+    @Test
+    fun `forwarding noise does not change the fingerprint much`() {
+        val distance = SimHash.hammingDistance(SimHash.fingerprint(original), SimHash.fingerprint(forwardedVariant))
+        val unrelatedDistance = SimHash.hammingDistance(SimHash.fingerprint(original), SimHash.fingerprint(unrelated))
+
+        assertTrue(distance <= 3, "Expected a near-identical fingerprint but distance was $distance")
+        assertTrue(unrelatedDistance > 10, "Expected distinct fingerprints but distance was $unrelatedDistance")
+    }
+
+    @Test
+    fun `near duplicate returns the stored analysis`() {
+        val result = AnalysisResult(Verdict.SCAM_ALERT, "Fake government scheme")
+        index.add("analysis-1", original, "en", result)
+
+        val match = index.findNearDuplicate(forwardedVariant, "en")
+
+        assertNotNull(match)
+        assertEquals("analysis-1", match.id)
+        assertEquals(Verdict.SCAM_ALERT, match.result.verdict)
+        assertEquals(1.0, meterRegistry.counter("satyacheck.cache.near_duplicate.lookups", "result", "hit").count())
+    }
+
+    @Test
+    fun `unrelated text, other language and short text miss`() {
+        index.add("analysis-1", original, "en", AnalysisResult(Verdict.SCAM_ALERT, "Fake government scheme"))
+
+        assertNull(index.findNearDuplicate(unrelated, "en"))
+        assertNull(index.findNearDuplicate(forwardedVariant, "hi"))
+        assertNull(index.findNearDuplicate("Free laptops!", "en"))
+    }
+
+    @Test
+    fun `phone numbers are masked but other numbers are kept`() {
+        val tokens = SimHash.tokens("Call +91 98765-43210 now, 95% effective in 2 weeks")
+
+        assertEquals(listOf("call", "0", "now", "95", "effective", "in", "2", "weeks"), tokens)
+    }
+
+    @Test
+    fun `texts differing only in a small number are not near duplicates`() {
+        val claim = "Doctors confirm the new vaccine is %s%% effective against the virus, say health officials in Delhi today"
+        index.add("analysis-1", claim.format(95), "en", AnalysisResult(Verdict.CREDIBLE, "Matches the trial results"))
+
+        assertNull(index.findNearDuplicate(claim.format(5), "en"))
+        assertNotNull(index.findNearDuplicate(claim.format(95), "en"))
+    }
+
+    @Test
+    fun `error verdicts are not indexed`() {
+        index.add("analysis-1", original, "en", AnalysisResult(Verdict.ERROR, "Gemini unavailable"))
+
+        assertNull(index.findNearDuplicate(forwardedVariant, "en"))
+        assertEquals(0, index.size())
+    }
+}
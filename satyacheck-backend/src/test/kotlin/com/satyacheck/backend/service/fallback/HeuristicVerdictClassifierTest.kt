@@ -0,0 +1,64 @@
+package com.satyacheck.backend.service.fallback
+
+import com.satyacheck.backend.model.enum.Verdict
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for HeuristicVerdictClassifier
+ */
+class HeuristicVerdictClassifierTest {
+
+    private val classifier = HeuristicVerdictClassifier()
+
+    @Test
+    fun `OTP requests are scam alerts`() {
+        val result = classifier.classify("Congratulations! You have won a lucky draw. Share the OTP sent to your phone to claim it.")
+
+        assertEquals(Verdict.SCAM_ALERT, result.verdict)
+        assertTrue("asks for an OTP, PIN or password" in result.scamMarkers)
+    }
+
+    @Test
+    fun `Hindi scam markers are recognised`() {
+        // "Lottery prize, send your OTP"
+        val result = classifier.classify("\u0932\u0949\u091f\u0930\u0940 \u0907\u0928\u093e\u092e, \u0905\u092a\u0928\u093e \u0913\u091f\u0940\u092a\u0940 \u092d\u0947\u091c\u0947\u0902")
+
+        assertEquals(Verdict.SCAM_ALERT, result.verdict)
+    }
+
+    @Test
+    fun `forwarded miracle cures are high risk`() {
+        val result = classifier.classify(
+            "Doctors don't want you to know this miracle cure. Forward to all your groups before it is deleted!!!"
+        )
+
+        assertEquals(Verdict.HIGH_MISINFORMATION_RISK, result.verdict)
+        assertTrue(result.misinformationMarkers.size >= 3)
+    }
+
+    @Test
+    fun `a single weak misinformation marker is not enough`() {
+        val result = classifier.classify("BREAKING: the city council approved the new metro line today.")
+
+        assertEquals(Verdict.INSUFFICIENT_INFO, result.verdict)
+        assertEquals(listOf("unverified breaking news"), result.misinformationMarkers)
+    }
+
+    @Test
+    fun `any scam marker makes content potentially misleading`() {
+        val result = classifier.classify("Details of the new scheme at bit.ly/abc123")
+
+        assertEquals(Verdict.POTENTIALLY_MISLEADING, result.verdict)
+        assertEquals(listOf("link shortener"), result.scamMarkers)
+    }
+
+    @Test
+    fun `content without markers is never called credible`() {
+        val result = classifier.classify("The Reserve Bank kept the repo rate unchanged at its meeting on Friday.")
+
+        assertEquals(Verdict.INSUFFICIENT_INFO, result.verdict)
+        assertTrue(result.scamMarkers.isEmpty() && result.misinformationMarkers.isEmpty())
+    }
+}
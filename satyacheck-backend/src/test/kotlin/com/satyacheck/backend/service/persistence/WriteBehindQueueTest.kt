@@ -0,0 +1,137 @@
+package com.satyacheck.backend.service.persistence
+
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import kotlinx.coroutines.withTimeoutOrNull
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for WriteBehindQueue
+ */
+class WriteBehindQueueTest {
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.Default)
+    private val batches = Channel<List<Int>>(Channel.UNLIMITED)
+
+    @AfterEach
+    fun tearDown() {
+        scope.cancel()
+    }
+
+    private fun queue(
+        capacity: Int = 100,
+        batchSize: Int = 3,
+        flushIntervalMs: Long = 60_000,
+        overflow: WriteBehindQueue.OverflowPolicy = WriteBehindQueue.OverflowPolicy.DROP,
+        sink: suspend (List<Int>) -> Unit = { batches.send(it) }
+    ) = WriteBehindQueue(capacity, batchSize, flushIntervalMs, overflow, scope, sink)
+
+    @Test
+    fun `a full batch is flushed without waiting for the interval`() = runBlocking {
+        val queue = queue()
+
+        (1..3).forEach { queue.submit(it) }
+
+        assertEquals(listOf(1, 2, 3), withTimeout(2000) { batches.receive() })
+        assertEquals(0, queue.depth())
+    }
+
+    @Test
+    fun `a partial batch is flushed once the interval has passed`() = runBlocking {
+        val queue = queue(batchSize = 10, flushIntervalMs = 50)
+
+        queue.submit(1)
+        queue.submit(2)
+
+        assertEquals(listOf(1, 2), withTimeout(2000) { batches.receive() })
+    }
+
+    @Test
+    fun `batches never exceed the batch size`() = runBlocking {
+        val gate = CompletableDeferred<Unit>()
+        val queue = queue(batchSize = 2, flushIntervalMs = 50, sink = { gate.await(); batches.send(it) })
+
+        (1..5).forEach { queue.submit(it) }
+        gate.complete(Unit)
+
+        val received = mutableListOf<List<Int>>()
+        withTimeout(2000) {
+            while (received.sumOf { it.size } < 5) {
+                received += batches.receive()
+            }
+        }
+        assertTrue(received.all { it.size <= 2 })
+        assertEquals((1..5).toList(), received.flatten())
+    }
+
+    @Test
+    fun `drop policy rejects items while the queue is full`() = runBlocking {
+        val gate = CompletableDeferred<Unit>()
+        val started = CompletableDeferred<Unit>()
+        val queue = queue(capacity = 2, batchSize = 1, sink = { started.complete(Unit); gate.await() })
+
+        assertTrue(queue.submit(1))
+        withTimeout(2000) { started.await() }
+        assertTrue(queue.submit(2))
+        assertTrue(queue.submit(3))
+
+        assertFalse(queue.submit(4))
+        assertEquals(2, queue.depth())
+        gate.complete(Unit)
+    }
+
+    @Test
+    fun `block policy makes the caller wait for room`() = runBlocking {
+        val gate = CompletableDeferred<Unit>()
+        val started = CompletableDeferred<Unit>()
+        val queue = queue(
+            capacity = 1,
+            batchSize = 1,
+            overflow = WriteBehindQueue.OverflowPolicy.BLOCK,
+            sink = { started.complete(Unit); gate.await() }
+        )
+        queue.submit(1)
+        withTimeout(2000) { started.await() }
+        queue.submit(2)
+
+        assertNull(withTimeoutOrNull(100) { queue.submit(3) })
+
+        gate.complete(Unit)
+        assertEquals(true, withTimeout(2000) { queue.submit(4) })
+    }
+
+    @Test
+    fun `close flushes queued items and rejects new ones`() = runBlocking {
+        val queue = queue(batchSize = 10)
+        queue.submit(1)
+        queue.submit(2)
+
+        assertTrue(queue.close(2000))
+
+        assertEquals(listOf(1, 2), batches.tryReceive().getOrNull())
+        assertFalse(queue.submit(3))
+    }
+
+    @Test
+    fun `a failing sink does not stop the worker`() = runBlocking {
+        val queue = queue(batchSize = 1, sink = { if (it == listOf(1)) throw IllegalStateException("down") else batches.send(it) })
+
+        queue.submit(1)
+        delay(50)
+        queue.submit(2)
+
+        assertEquals(listOf(2), withTimeout(2000) { batches.receive() })
+    }
+}
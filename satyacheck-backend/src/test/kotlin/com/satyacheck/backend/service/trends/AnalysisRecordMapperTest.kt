@@ -0,0 +1,131 @@
+package com.satyacheck.backend.service.trends
+
+import com.satyacheck.backend.model.dto.AnalysisResult
+import com.satyacheck.backend.model.dto.ContentCategory
+import com.satyacheck.backend.model.dto.EnhancedAnalysisResult
+import com.satyacheck.backend.model.dto.ExtractedTopic
+import com.satyacheck.backend.model.enum.Verdict
+import com.satyacheck.backend.service.web.UrlAnalysisResult
+import org.junit.jupiter.api.Test
+import java.time.Instant
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for AnalysisRecordMapper
+ */
+class AnalysisRecordMapperTest {
+
+    private val analyzedAt = Instant.parse("2024-05-01T10:15:30Z")
+
+    @Test
+    fun `failed analyses are not recorded`() {
+        assertNull(AnalysisRecordMapper.fromBasic(AnalysisResult(Verdict.ERROR, "failed"), "text", "en"))
+        assertNull(AnalysisRecordMapper.fromBasic(AnalysisResult(Verdict.UNKNOWN, "failed"), "text", "en"))
+    }
+
+    @Test
+    fun `basic record carries verdict derived fields`() {
+        val content = "Share the OTP sent to your phone to claim your prize. ".repeat(10)
+
+        val record = AnalysisRecordMapper.fromBasic(
+            AnalysisResult(Verdict.SCAM_ALERT, "Asks for an OTP"), content, "en", "APP", "TEXT", analyzedAt
+        )
+
+        assertNotNull(record)
+        assertTrue(record.isMisinformation)
+        assertEquals("CRITICAL", record.riskLevel)
+        assertEquals(1.0, record.confidenceScore)
+        assertEquals(AnalysisRecordMapper.SAMPLE_LENGTH, record.contentSample.length)
+        assertEquals(content.length, record.contentLength)
+        assertEquals("TEXT", record.contentType)
+        assertEquals(analyzedAt, record.analyzedAt)
+    }
+
+    @Test
+    fun `degraded and undecided verdicts are less confident`() {
+        val degraded = AnalysisRecordMapper.fromBasic(AnalysisResult(Verdict.CREDIBLE, "ok", degraded = true), "text", "en")
+        val undecided = AnalysisRecordMapper.fromBasic(AnalysisResult(Verdict.INSUFFICIENT_INFO, "?"), "text", "en")
+
+        assertEquals(0.5, degraded?.confidenceScore)
+        assertFalse(degraded!!.isMisinformation)
+        assertEquals(0.0, undecided?.confidenceScore)
+        assertNull(undecided!!.riskLevel)
+    }
+
+    @Test
+    fun `forwarded copies share a content hash per language`() {
+        val hash = AnalysisRecordMapper.contentHash("Forward this to everyone!", "en")
+
+        assertEquals(hash, AnalysisRecordMapper.contentHash("  forward this to   everyone! ", "en"))
+        assertNotEquals(hash, AnalysisRecordMapper.contentHash("Forward this to everyone!", "hi"))
+    }
+
+    @Test
+    fun `enhanced record collects categories, topics and keywords`() {
+        val result = EnhancedAnalysisResult(
+            factCheckResult = AnalysisResult(Verdict.POTENTIALLY_MISLEADING, "Unverified claim"),
+            misinformationTechniques = listOf("FALSE_URGENCY"),
+            contentCategory = ContentCategory("HEALTH", listOf("REMEDIES"), 0.9, listOf("Cure", "covid")),
+            extractedTopics = listOf(ExtractedTopic("Home remedies", 0.8, keywords = listOf("cure", " Ginger "))),
+            sentimentScore = -0.4,
+            additionalContext = mapOf("misinformationRisk" to "HIGH")
+        )
+
+        val record = AnalysisRecordMapper.fromEnhanced(
+            result, "Ginger cures covid", "en", userRegion = "IN-MH", deviceType = "ANDROID", analyzedAt = analyzedAt
+        )
+
+        assertNotNull(record)
+        assertEquals("HIGH", record.riskLevel)
+        assertEquals(listOf("HEALTH", "REMEDIES"), record.categories)
+        assertEquals(listOf("FALSE_URGENCY"), record.misinformationTechniques)
+        assertEquals(listOf("cure", "covid", "ginger"), record.keywords)
+        assertEquals(listOf("Home remedies"), record.topics)
+        assertEquals(-0.4, record.sentimentScore)
+        assertEquals("IN-MH", record.userRegion)
+    }
+
+    @Test
+    fun `unknown misinformation risk falls back to the verdict`() {
+        val result = EnhancedAnalysisResult(
+            factCheckResult = AnalysisResult(Verdict.CREDIBLE, "Matches official sources"),
+            additionalContext = mapOf("misinformationRisk" to "UNKNOWN")
+        )
+
+        assertEquals("LOW", AnalysisRecordMapper.fromEnhanced(result, "text", "en")?.riskLevel)
+    }
+
+    @Test
+    fun `url records are keyed by url and sampled from the title`() {
+        val page = UrlAnalysisResult(
+            url = "https://example.com/news/1",
+            title = "Miracle cure found",
+            language = "en",
+            metadata = mapOf("keywords" to "Health, cure"),
+            analysis = EnhancedAnalysisResult(AnalysisResult(Verdict.HIGH_MISINFORMATION_RISK, "No evidence")),
+            error = null
+        )
+
+        val record = AnalysisRecordMapper.fromUrl(page, analyzedAt)
+        val other = AnalysisRecordMapper.fromUrl(page.copy(title = "Another title"), analyzedAt)
+
+        assertNotNull(record)
+        assertEquals(other?.contentHash, record.contentHash)
+        assertEquals("Miracle cure found", record.contentSample)
+        assertEquals(AnalysisRecordMapper.CONTENT_TYPE_WEB_PAGE, record.contentType)
+        assertEquals("https://example.com/news/1", record.contentSource)
+        assertEquals(listOf("health", "cure"), record.keywords)
+    }
+
+    @Test
+    fun `failed url analyses are not recorded`() {
+        val page = UrlAnalysisResult("https://example.com", null, "en", emptyMap(), null, "Fetch failed")
+
+        assertNull(AnalysisRecordMapper.fromUrl(page))
+    }
+}
@@ -0,0 +1,116 @@
+package com.satyacheck.backend.service.trends
+
+import org.bson.Document
+import org.junit.jupiter.api.Test
+import java.time.Instant
+import java.util.Date
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for TrendAggregator
+ */
+class TrendAggregatorTest {
+
+    private val start = Instant.parse("2024-05-01T00:00:00Z")
+    private val end = Instant.parse("2024-05-02T00:00:00Z")
+
+    @Test
+    fun `pipeline matches the range then facets in a single pass`() {
+        val pipeline = TrendAggregator.pipeline(start, end)
+
+        assertEquals(listOf("\$match", "\$project", "\$facet"), pipeline.map { it.keys.single() })
+        val range = pipeline[0].get("\$match", Document::class.java).get("analyzedAt", Document::class.java)
+        assertEquals(Date.from(start), range["\$gte"])
+        assertEquals(Date.from(end), range["\$lt"])
+
+        val facets = pipeline[2].get("\$facet", Document::class.java)
+        assertEquals(
+            setOf(
+                "groups", "all",
+                "categories", "categoriesAll",
+                "techniques", "techniquesAll",
+                "keywords", "keywordsAll",
+                "regions", "regionsAll"
+            ),
+            facets.keys
+        )
+    }
+
+    @Test
+    fun `overall rankings are sorted and limited in the database`() {
+        val facets = TrendAggregator.pipeline(start, end)[2].get("\$facet", Document::class.java)
+
+        val keywords = facets.getList("keywordsAll", Document::class.java)
+
+        assertEquals(listOf("\$unwind", "\$group", "\$sort", "\$limit"), keywords.map { it.keys.single() })
+        assertEquals(TrendAggregator.TOP_KEYWORDS, keywords.last()["\$limit"])
+    }
+
+    @Test
+    fun `parse builds a summary per group followed by the overall one`() {
+        val result = Document("groups", listOf(totals(group("TEXT", "en"), total = 8, misinformation = 3)))
+            .append("all", listOf(totals(null, total = 8, misinformation = 3)))
+            .append(
+                "categories",
+                listOf(Document("_id", group("TEXT", "en")).append("top", listOf(ranked("HEALTH", 5), ranked("POLITICS", 2))))
+            )
+            .append("categoriesAll", listOf(Document("_id", "HEALTH").append("count", 5), Document("_id", "POLITICS").append("count", 2)))
+            .append("keywordsAll", listOf(Document("_id", "cure").append("count", 4)))
+
+        val summaries = TrendAggregator.parse(result)
+
+        assertEquals(2, summaries.size)
+        val text = summaries[0]
+        assertEquals("TEXT", text.contentType)
+        assertEquals("en", text.language)
+        assertEquals(8, text.totalAnalyzed)
+        assertEquals(3, text.misinformationCount)
+        assertEquals(listOf("HEALTH" to 5, "POLITICS" to 2), text.topCategories.toList())
+        assertTrue(text.topKeywords.isEmpty())
+
+        val all = summaries[1]
+        assertEquals(TrendAggregator.ALL, all.contentType)
+        assertEquals(TrendAggregator.ALL, all.language)
+        assertEquals(listOf("HEALTH" to 5, "POLITICS" to 2), all.topCategories.toList())
+        assertEquals(mapOf("cure" to 4), all.topKeywords)
+    }
+
+    @Test
+    fun `records without a sentiment are left out of the sentiment split`() {
+        val totals = totals(null, total = 10, misinformation = 0)
+            .append("sentimentSum", 0.5)
+            .append("sentimentCount", 4)
+            .append("positive", 2)
+            .append("neutral", 1)
+
+        val all = TrendAggregator.parse(Document("groups", emptyList<Document>()).append("all", listOf(totals))).single()
+
+        assertEquals(4, all.sentimentCount)
+        assertEquals(2, all.positiveCount)
+        assertEquals(1, all.negativeCount)
+        assertEquals(1, all.neutralCount)
+        assertEquals(0.5, all.sentimentSum)
+    }
+
+    @Test
+    fun `no matching records give no summaries`() {
+        val empty = Document("groups", emptyList<Document>()).append("all", emptyList<Document>())
+
+        assertTrue(TrendAggregator.parse(empty).isEmpty())
+    }
+
+    private fun group(contentType: String, language: String) = Document("contentType", contentType).append("language", language)
+
+    private fun ranked(value: String, count: Int) = Document("value", value).append("count", count)
+
+    private fun totals(id: Document?, total: Int, misinformation: Int): Document {
+        return Document("_id", id)
+            .append("total", total)
+            .append("misinformation", misinformation)
+            .append("sentimentSum", 0)
+            .append("sentimentCount", 0)
+            .append("positive", 0)
+            .append("neutral", 0)
+    }
+}
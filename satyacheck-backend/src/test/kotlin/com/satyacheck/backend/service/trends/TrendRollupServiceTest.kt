@@ -0,0 +1,92 @@
+package com.satyacheck.backend.service.trends
+
+import com.mongodb.bulk.BulkWriteError
+import com.mongodb.bulk.BulkWriteResult
+import com.satyacheck.backend.model.entity.AnalysisRecord
+import com.satyacheck.backend.model.entity.TrendRollup
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.bson.BsonDocument
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.data.mongodb.BulkOperationException
+import org.springframework.data.mongodb.core.BulkOperations
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.data.mongodb.core.query.Query
+import org.springframework.data.mongodb.core.query.Update
+import java.time.Instant
+import kotlin.test.assertFailsWith
+
+/**
+ * Unit tests for TrendRollupService
+ */
+class TrendRollupServiceTest {
+
+    private lateinit var mongoTemplate: MongoTemplate
+    private lateinit var bulk: BulkOperations
+    private lateinit var service: TrendRollupService
+
+    @BeforeEach
+    fun setup() {
+        mongoTemplate = mockk()
+        bulk = mockk()
+        every { mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrendRollup::class.java) } returns bulk
+        every { bulk.upsert(any<Query>(), any<Update>()) } returns bulk
+        service = TrendRollupService(mongoTemplate, mockk(), mockk(), capacity = 200, appliedBatchHistory = 100)
+    }
+
+    @Test
+    fun `upserts rejected as duplicates are tried once more`() {
+        every { bulk.execute() } throws rejected(DUPLICATE_KEY) andThen mockk<BulkWriteResult>()
+
+        service.apply(listOf(record()), "batch-1")
+
+        verify(exactly = 2) { bulk.execute() }
+        verify(exactly = 2) { bulk.upsert(any<Query>(), any<Update>()) }
+    }
+
+    @Test
+    fun `a batch rejected twice is already counted`() {
+        every { bulk.execute() } throws rejected(DUPLICATE_KEY)
+
+        service.apply(listOf(record()), "batch-1")
+
+        verify(exactly = 2) { bulk.execute() }
+    }
+
+    @Test
+    fun `other write errors are rethrown`() {
+        every { bulk.execute() } throws rejected(2)
+
+        assertFailsWith<BulkOperationException> { service.apply(listOf(record()), "batch-1") }
+        verify(exactly = 1) { bulk.execute() }
+    }
+
+    @Test
+    fun `empty batches are not written`() {
+        service.apply(emptyList(), "batch-1")
+
+        verify(exactly = 0) { mongoTemplate.bulkOps(any<BulkOperations.BulkMode>(), any<Class<*>>()) }
+    }
+
+    private fun rejected(code: Int): BulkOperationException {
+        val exception = mockk<BulkOperationException>()
+        every { exception.errors } returns listOf(BulkWriteError(code, "rejected", BsonDocument(), 0))
+        return exception
+    }
+
+    private fun record() = AnalysisRecord(
+        contentHash = "hash",
+        contentSample = "sample",
+        contentLength = 6,
+        language = "en",
+        isMisinformation = false,
+        confidenceScore = 1.0,
+        analyzedAt = Instant.parse("2024-05-01T08:00:00Z")
+    )
+
+    companion object {
+        private const val DUPLICATE_KEY = 11000
+    }
+}
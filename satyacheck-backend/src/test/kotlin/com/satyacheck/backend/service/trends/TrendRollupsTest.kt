@@ -0,0 +1,136 @@
+package com.satyacheck.backend.service.trends
+
+import com.satyacheck.backend.model.entity.AnalysisRecord
+import com.satyacheck.backend.model.entity.TrendRollup
+import org.junit.jupiter.api.Test
+import java.time.Instant
+import java.time.LocalDate
+import java.time.ZoneOffset
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for TrendRollups
+ */
+class TrendRollupsTest {
+
+    private val day = LocalDate.parse("2024-05-01")
+
+    @Test
+    fun `records are rolled up per day, content type and language`() {
+        val records = listOf(
+            record("2024-05-01T08:00:00Z", "TEXT", "en", misinformation = true, sentiment = -0.5),
+            record("2024-05-01T22:00:00Z", "TEXT", "en", sentiment = 0.5),
+            record("2024-05-01T09:00:00Z", null, "hi"),
+            record("2024-05-02T01:00:00Z", "TEXT", "en")
+        )
+
+        val deltas = TrendRollups.deltas(records, ZoneOffset.UTC).associateBy { it.id }
+
+        assertEquals(setOf("2024-05-01:TEXT:en", "2024-05-01:UNKNOWN:hi", "2024-05-02:TEXT:en"), deltas.keys)
+        val text = deltas.getValue("2024-05-01:TEXT:en")
+        assertEquals(2L, text.totalAnalyzed)
+        assertEquals(1L, text.misinformationCount)
+        assertEquals(2L, text.sentimentCount)
+        assertEquals(1L, text.positiveCount)
+        assertEquals(1L, text.negativeCount)
+        assertEquals(0.0, text.sentimentSum)
+    }
+
+    @Test
+    fun `the zone decides which day a record belongs to`() {
+        val late = record("2024-05-01T20:00:00Z", "TEXT", "en")
+
+        assertEquals(LocalDate.parse("2024-05-02"), TrendRollups.deltas(listOf(late), ZoneOffset.ofHoursMinutes(5, 30)).single().day)
+    }
+
+    @Test
+    fun `keys with dots and dollars are encoded as field names`() {
+        val records = listOf(record("2024-05-01T08:00:00Z", "TEXT", "en", keywords = listOf("covid-19.vaccine", "\$100 prize", "100%")))
+
+        val keywords = TrendRollups.deltas(records, ZoneOffset.UTC).single().keywords
+
+        assertTrue(keywords.keys.none { it.contains('.') || it.startsWith("\$") })
+        assertEquals(setOf("covid-19.vaccine", "\$100 prize", "100%"), keywords.keys.map(TrendRollups::decodeKey).toSet())
+    }
+
+    @Test
+    fun `days merge into one summary per group and an overall one`() {
+        val rollups = listOf(
+            rollup(day, "TEXT", "en", total = 10, misinformation = 4, keywords = mapOf("cure" to 5L, "otp" to 2L)),
+            rollup(day.plusDays(1), "TEXT", "en", total = 5, misinformation = 1, keywords = mapOf("otp" to 4L)),
+            rollup(day, "NEWS", "hi", total = 3, misinformation = 3, keywords = mapOf("otp" to 1L, "lottery" to 1L))
+        )
+
+        val summaries = TrendRollups.summarize(rollups).associateBy { it.contentType to it.language }
+
+        val text = summaries.getValue("TEXT" to "en")
+        assertEquals(15, text.totalAnalyzed)
+        assertEquals(5, text.misinformationCount)
+        assertEquals(listOf("otp" to 6, "cure" to 5), text.topKeywords.toList())
+
+        val all = summaries.getValue(TrendAggregator.ALL to TrendAggregator.ALL)
+        assertEquals(18, all.totalAnalyzed)
+        assertEquals(listOf("otp" to 7, "cure" to 5, "lottery" to 1), all.topKeywords.toList())
+    }
+
+    @Test
+    fun `merged rankings keep the top entries only`() {
+        val keywords = (1..30).associate { "k$it" to it.toLong() }
+
+        val all = TrendRollups.summarize(listOf(rollup(day, "TEXT", "en", total = 1, misinformation = 0, keywords = keywords))).last()
+
+        assertEquals(TrendAggregator.TOP_KEYWORDS, all.topKeywords.size)
+        assertEquals("k30", all.topKeywords.keys.first())
+    }
+
+    @Test
+    fun `overflow lists the entries beyond the capacity`() {
+        val rollup = rollup(day, "TEXT", "en", total = 1, misinformation = 0, keywords = mapOf("a" to 3L, "b" to 1L, "c" to 2L))
+
+        assertEquals(mapOf(TrendRollups.FIELD_KEYWORDS to listOf("b")), TrendRollups.overflow(rollup, 2))
+        assertTrue(TrendRollups.overflow(rollup, 3).isEmpty())
+    }
+
+    @Test
+    fun `no rollups give no summaries`() {
+        assertTrue(TrendRollups.summarize(emptyList()).isEmpty())
+    }
+
+    private fun record(
+        analyzedAt: String,
+        contentType: String?,
+        language: String,
+        misinformation: Boolean = false,
+        sentiment: Double? = null,
+        keywords: List<String> = emptyList()
+    ) = AnalysisRecord(
+        contentHash = "hash",
+        contentSample = "sample",
+        contentLength = 6,
+        contentType = contentType,
+        language = language,
+        isMisinformation = misinformation,
+        confidenceScore = 1.0,
+        keywords = keywords,
+        sentimentScore = sentiment,
+        analyzedAt = Instant.parse(analyzedAt)
+    )
+
+    private fun rollup(
+        day: LocalDate,
+        contentType: String,
+        language: String,
+        total: Long,
+        misinformation: Long,
+        keywords: Map<String, Long>
+    ) = TrendRollup(
+        id = TrendRollups.rollupId(day, contentType, language),
+        day = day,
+        contentType = contentType,
+        language = language,
+        totalAnalyzed = total,
+        misinformationCount = misinformation,
+        keywords = keywords
+    )
+}
@@ -0,0 +1,66 @@
+package com.satyacheck.backend.service.web
+
+import com.satyacheck.backend.model.dto.ChunkEvidence
+import com.satyacheck.backend.model.enum.Verdict
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for ChunkVerdictReducer
+ */
+class ChunkVerdictReducerTest {
+
+    private fun evidence(index: Int, verdict: Verdict?, explanation: String? = "Explanation $index") =
+        ChunkEvidence(index, index * 100, index * 100 + 100, "excerpt", verdict, explanation)
+
+    @Test
+    fun `most severe chunk verdict decides`() {
+        val result = ChunkVerdictReducer.reduce(
+            listOf(
+                evidence(0, Verdict.CREDIBLE),
+                evidence(1, Verdict.SCAM_ALERT, "Asks for bank details"),
+                evidence(2, Verdict.POTENTIALLY_MISLEADING)
+            ),
+            totalChunks = 3
+        )
+
+        assertEquals(Verdict.SCAM_ALERT, result.verdict)
+        assertTrue(result.explanation.startsWith("Analyzed 3 of 3 sections of the page; 1 rated SCAM_ALERT."))
+        assertTrue("Section 2: Asks for bank details" in result.explanation)
+    }
+
+    @Test
+    fun `insufficient info only wins when nothing else was found`() {
+        val mixed = ChunkVerdictReducer.reduce(
+            listOf(evidence(0, Verdict.INSUFFICIENT_INFO), evidence(1, Verdict.CREDIBLE)),
+            totalChunks = 2
+        )
+        val unclear = ChunkVerdictReducer.reduce(listOf(evidence(0, Verdict.INSUFFICIENT_INFO)), totalChunks = 1)
+
+        assertEquals(Verdict.CREDIBLE, mixed.verdict)
+        assertEquals(Verdict.INSUFFICIENT_INFO, unclear.verdict)
+    }
+
+    @Test
+    fun `failed and timed out chunks are ignored`() {
+        val result = ChunkVerdictReducer.reduce(
+            listOf(
+                evidence(0, null, null),
+                evidence(1, Verdict.ERROR),
+                evidence(2, Verdict.HIGH_MISINFORMATION_RISK)
+            ),
+            totalChunks = 10
+        )
+
+        assertEquals(Verdict.HIGH_MISINFORMATION_RISK, result.verdict)
+        assertTrue(result.explanation.startsWith("Analyzed 1 of 10 sections"))
+    }
+
+    @Test
+    fun `no analysed chunk is an error`() {
+        val result = ChunkVerdictReducer.reduce(listOf(evidence(0, null, null), evidence(1, Verdict.UNKNOWN)), totalChunks = 2)
+
+        assertEquals(Verdict.ERROR, result.verdict)
+    }
+}
@@ -0,0 +1,89 @@
+package com.satyacheck.backend.service.web
+
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Unit tests for ContentChunker
+ */
+class ContentChunkerTest {
+
+    @Test
+    fun `short text is a single chunk`() {
+        val result = ContentChunker(maxChunkTokens = 100, maxChunks = 8).split("  One sentence. Another one.  ")
+
+        assertEquals(1, result.totalChunks)
+        assertEquals("One sentence. Another one.", result.chunks.single().text)
+    }
+
+    @Test
+    fun `paragraphs that fit are not split across chunks`() {
+        // Each paragraph is about 10 tokens, so two fit in a 25 token chunk but not three
+        val paragraph = "Sentence one is here. Sentence two is there."
+        val text = listOf(paragraph, paragraph, paragraph).joinToString("\n\n")
+
+        val result = ContentChunker(maxChunkTokens = 25, maxChunks = 8).split(text)
+
+        assertEquals(2, result.totalChunks)
+        assertEquals("$paragraph\n\n$paragraph", result.chunks[0].text)
+        assertEquals(paragraph, result.chunks[1].text)
+    }
+
+    @Test
+    fun `long paragraphs are split at sentence boundaries`() {
+        val text = (1..10).joinToString(" ") { "This is sentence number $it." }
+
+        val result = ContentChunker(maxChunkTokens = 20, maxChunks = 20).split(text)
+
+        assertTrue(result.totalChunks > 1)
+        result.chunks.forEach {
+            assertTrue(it.text.endsWith("."), "chunk should end at a sentence: ${it.text}")
+            assertTrue(ContentChunker.estimateTokens(it.text) <= 20)
+        }
+        assertEquals(text, result.chunks.joinToString(" ") { it.text })
+    }
+
+    @Test
+    fun `sentences over budget are cut at whitespace`() {
+        val text = (1..200).joinToString(" ") { "word$it" }
+
+        val result = ContentChunker(maxChunkTokens = 30, maxChunks = 100).split(text)
+
+        result.chunks.forEach {
+            assertTrue(ContentChunker.estimateTokens(it.text) <= 30)
+            assertTrue(it.text.startsWith("word") && !it.text.endsWith(" "))
+        }
+        assertEquals(text, result.chunks.joinToString(" ") { it.text })
+    }
+
+    @Test
+    fun `offsets point into the original text`() {
+        val text = "First paragraph here.\n\nSecond paragraph here."
+
+        val result = ContentChunker(maxChunkTokens = 6, maxChunks = 8).split(text)
+
+        result.chunks.forEach { assertEquals(it.text, text.substring(it.start, it.end)) }
+    }
+
+    @Test
+    fun `danda ends a sentence`() {
+        val sentence = "\u092f\u0939 \u090f\u0915 \u0935\u093e\u0915\u094d\u092f \u0939\u0948\u0964"
+        val text = "$sentence $sentence $sentence"
+
+        val result = ContentChunker(maxChunkTokens = 10, maxChunks = 8).split(text)
+
+        assertEquals(List(3) { sentence }, result.chunks.map { it.text })
+    }
+
+    @Test
+    fun `chunk count is capped with the first chunk always kept`() {
+        val text = (1..50).joinToString("\n\n") { "Paragraph $it." }
+
+        val result = ContentChunker(maxChunkTokens = 5, maxChunks = 4).split(text)
+
+        assertEquals(50, result.totalChunks)
+        assertEquals(46, result.skippedChunks)
+        assertEquals(listOf(0, 12, 25, 37), result.chunks.map { it.index })
+    }
+}